@@ -19,7 +19,6 @@ package org.jclouds.abiquo.compute.strategy;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.concat;
-import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
 import static com.google.common.collect.Iterables.get;
@@ -28,6 +27,7 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
@@ -68,6 +68,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
 import com.google.inject.Inject;
 
@@ -244,13 +245,16 @@ public class AbiquoComputeServiceAdapter
 
    @Override
    public Iterable<VirtualMachine> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<VirtualMachine>() {
+      // Virtual machines can only be retrieved through their virtual
+      // appliance, so all of them have to be listed anyway
+      final Set<String> idSet = ImmutableSet.copyOf(ids);
+      return ImmutableList.copyOf(filter(listNodes(), new Predicate<VirtualMachine>() {
 
          @Override
          public boolean apply(VirtualMachine machine) {
-            return contains(ids, Integer.toString(machine.getId()));
+            return idSet.contains(Integer.toString(machine.getId()));
          }
-      });
+      }));
    }
 
    /**
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute;
+
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import org.jclouds.Fallback;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+
+/**
+ * fallbacks common to the Service Management API
+ */
+public final class AzureComputeFallbacks {
+   private AzureComputeFallbacks() {
+   }
+
+   /**
+    * Return null when a conditional request finds the resource unchanged (304). Other errors, including not found,
+    * are propagated so that the caller does not mistake them for an unchanged resource.
+    */
+   public static final class NullOnNotModified implements Fallback<Object> {
+      @Override
+      public Object createOrPropagate(Throwable from) throws Exception {
+         HttpResponseException exception = getFirstThrowableOfType(from, HttpResponseException.class);
+         HttpResponse response = exception != null ? exception.getResponse() : null;
+         if (response != null && response.getStatusCode() == 304) {
+            return null;
+         }
+         throw propagate(from);
+      }
+   }
+}
@@ -25,6 +25,11 @@ import org.jclouds.azurecompute.compute.config.AzureComputeServiceContextModule;
 import org.jclouds.azurecompute.config.AzureComputeHttpApiModule;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 
+import static org.jclouds.azurecompute.config.AzureComputeProperties.IMAGE_CATALOG_REFRESH_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_POLL_INITIAL_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_POLL_MAX_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_TIMEOUT;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OS_DISK_CONTAINER;
 import static org.jclouds.azurecompute.config.AzureComputeProperties.SUBSCRIPTION_ID;
 
 /**
@@ -47,6 +52,11 @@ public class AzureManagementApiMetadata extends BaseHttpApiMetadata<AzureCompute
 
    public static Properties defaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
+      properties.setProperty(OPERATION_POLL_INITIAL_PERIOD, "1000");
+      properties.setProperty(OPERATION_POLL_MAX_PERIOD, "15000");
+      properties.setProperty(OPERATION_TIMEOUT, "1200000");
+      properties.setProperty(OS_DISK_CONTAINER, "");
+      properties.setProperty(IMAGE_CATALOG_REFRESH_PERIOD, "1800000");
       return properties;
    }
 
@@ -16,88 +16,380 @@
  */
 package org.jclouds.azurecompute.compute;
 
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_UNDERSCORE;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterables.filter;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OS_DISK_CONTAINER;
+import static org.jclouds.compute.reference.ComputeServiceConstants.COMPUTE_LOGGER;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+
+import org.jclouds.Constants;
 import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.CloudService;
 import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.DeploymentParams;
 import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.Image.OSType;
+import org.jclouds.azurecompute.domain.Location;
+import org.jclouds.azurecompute.domain.Operation;
 import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.azurecompute.util.ImageCatalog;
+import org.jclouds.azurecompute.util.OperationTracker;
 import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.domain.OsFamily;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureFallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * defines the connection between the {@link AzureComputeApi} implementation and the
  * jclouds {@link org.jclouds.compute.ComputeService}
+ *
+ * <p/>Each node is a virtual machine in a deployment of its own cloud service, and the cloud service, the deployment
+ * and the virtual machine are all named after the node. The asynchronous operations are chained on the futures of
+ * the {@link OperationTracker}, so the {@code *Async} methods don't block a thread while Azure works, and the
+ * synchronous methods only block the calling thread.
  */
 @Singleton
-public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Deployment, RoleSize, Image, String> {
+public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Deployment, RoleSize, Image, Location> {
+
+   private static final String DEFAULT_LOGIN_USER = "jclouds";
+   private static final SecureRandom RANDOM = new SecureRandom();
+
+   @Resource
+   @Named(COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final AzureComputeApi api;
+   private final OperationTracker operations;
+   private final ImageCatalog images;
+   private final ListeningExecutorService userExecutor;
+   private final String osDiskContainer;
+
+   @Inject
+   AzureComputeServiceAdapter(AzureComputeApi api, OperationTracker operations, ImageCatalog images,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(OS_DISK_CONTAINER) String osDiskContainer) {
+      this.api = checkNotNull(api, "api");
+      this.operations = checkNotNull(operations, "operations");
+      this.images = checkNotNull(images, "images");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.osDiskContainer = checkNotNull(osDiskContainer, "osDiskContainer");
+   }
 
    @Override
    public NodeAndInitialCredentials<Deployment> createNodeWithGroupEncodedIntoName(
          String group, String name, Template template) {
-      // TODO Auto-generated method stub
-      return null;
+      return getUnchecked(createNodeAsync(name, template));
+   }
+
+   /**
+    * Creates the cloud service, then the deployment of the node.
+    */
+   public ListenableFuture<NodeAndInitialCredentials<Deployment>> createNodeAsync(final String name,
+         Template template) {
+      checkState(!osDiskContainer.isEmpty(), "%s must be set to create nodes", OS_DISK_CONTAINER);
+      final String location = template.getLocation().getId();
+      final String username = template.getOptions().getLoginUser() != null ? template.getOptions().getLoginUser()
+            : DEFAULT_LOGIN_USER;
+      final String password = generatePassword();
+      boolean windows = template.getImage().getOperatingSystem().getFamily() == OsFamily.WINDOWS;
+
+      DeploymentParams.Builder params = DeploymentParams.builder()
+            .name(name)
+            .size(roleSize(template.getHardware().getProviderId()))
+            .username(username)
+            .password(password)
+            .sourceImageName(template.getImage().getProviderId())
+            .mediaLink(URI.create(osDiskContainer.replaceAll("/+$", "") + "/" + name + ".vhd"))
+            .os(windows ? OSType.WINDOWS : OSType.LINUX)
+            .externalEndpoint(windows ? DeploymentParams.ExternalEndpoint.inboundTcpToLocalPort(3389, 3389)
+                  : DeploymentParams.ExternalEndpoint.inboundTcpToLocalPort(22, 22));
+      for (int port : template.getOptions().getInboundPorts()) {
+         if (port != 22 && port != 3389) {
+            params.externalEndpoint(DeploymentParams.ExternalEndpoint.inboundTcpToLocalPort(port, port));
+         }
+      }
+      final DeploymentParams deploymentParams = params.build();
+
+      ListenableFuture<Operation> serviceCreated = call(new Callable<String>() {
+
+         @Override
+         public String call() {
+            logger.debug(">> creating cloud service(%s) location(%s)", name, location);
+            return api.getCloudServiceApi().createWithLabelInLocation(name, name, location);
+         }
+      });
+      ListenableFuture<Operation> deploymentCreated = Futures.transform(serviceCreated,
+            new AsyncFunction<Operation, Operation>() {
+
+               @Override
+               public ListenableFuture<Operation> apply(Operation input) {
+                  ListenableFuture<Operation> created = call(new Callable<String>() {
+
+                     @Override
+                     public String call() {
+                        logger.debug(">> creating deployment(%s)", name);
+                        return api.getDeploymentApiForService(name).create(deploymentParams);
+                     }
+                  });
+                  return Futures.withFallback(created, new FutureFallback<Operation>() {
+
+                     @Override
+                     public ListenableFuture<Operation> create(Throwable t) {
+                        return deleteCloudServiceThenFail(name, t);
+                     }
+                  }, userExecutor);
+               }
+            }, userExecutor);
+      return Futures.transform(deploymentCreated,
+            new Function<Operation, NodeAndInitialCredentials<Deployment>>() {
+
+               @Override
+               public NodeAndInitialCredentials<Deployment> apply(Operation input) {
+                  Deployment deployment = getNode(name);
+                  checkState(deployment != null, "deployment(%s) not found once created", name);
+                  logger.debug("<< created node(%s)", name);
+                  return new NodeAndInitialCredentials<Deployment>(deployment, name,
+                        LoginCredentials.builder().user(username).password(password).build());
+               }
+            }, userExecutor);
+   }
+
+   /**
+    * Deletes the cloud service of a node whose deployment could not be created, so its name can be used again, and
+    * fails with the error of the deployment.
+    */
+   private ListenableFuture<Operation> deleteCloudServiceThenFail(final String name, final Throwable cause) {
+      logger.warn(cause, "<< deployment(%s) failed, deleting its cloud service", name);
+      ListenableFuture<Operation> serviceDeleted = call(new Callable<String>() {
+
+         @Override
+         public String call() {
+            return api.getCloudServiceApi().delete(name);
+         }
+      });
+      ListenableFuture<Operation> cleanedUp = Futures.withFallback(serviceDeleted, new FutureFallback<Operation>() {
+
+         @Override
+         public ListenableFuture<Operation> create(Throwable t) {
+            logger.error(t, "<< could not delete cloud service(%s)", name);
+            return Futures.immediateFuture(null);
+         }
+      });
+      return Futures.transform(cleanedUp, new AsyncFunction<Operation, Operation>() {
+
+         @Override
+         public ListenableFuture<Operation> apply(Operation input) {
+            return Futures.immediateFailedFuture(cause);
+         }
+      });
    }
 
    @Override
    public Iterable<RoleSize> listHardwareProfiles() {
-      // TODO Auto-generated method stub
-      return null;
+      return filter(ImmutableList.copyOf(RoleSize.values()), Predicates.not(Predicates.equalTo(RoleSize.UNRECOGNIZED)));
    }
 
    @Override
    public Iterable<Image> listImages() {
-      // TODO Auto-generated method stub
-      return null;
+      return images.get();
    }
 
    @Override
    public Image getImage(String id) {
-      // TODO Auto-generated method stub
+      for (Image image : images.get()) {
+         if (image.name().equals(id)) {
+            return image;
+         }
+      }
       return null;
    }
 
    @Override
-   public Iterable<String> listLocations() {
-      // TODO Auto-generated method stub
-      return null;
+   public Iterable<Location> listLocations() {
+      return api.getLocationApi().list();
    }
 
    @Override
    public Deployment getNode(String id) {
-      // TODO Auto-generated method stub
-      return null;
+      return api.getDeploymentApiForService(id).get(id);
    }
 
    @Override
    public void destroyNode(String id) {
-      // TODO Auto-generated method stub
+      getUnchecked(destroyNodeAsync(id));
+   }
+
+   /**
+    * Deletes the deployment of the node, then its cloud service.
+    */
+   public ListenableFuture<Void> destroyNodeAsync(final String id) {
+      ListenableFuture<Operation> deploymentDeleted = call(new Callable<String>() {
+
+         @Override
+         public String call() {
+            logger.debug(">> deleting deployment(%s)", id);
+            return api.getDeploymentApiForService(id).delete(id);
+         }
+      });
+      ListenableFuture<Operation> serviceDeleted = Futures.transform(deploymentDeleted,
+            new AsyncFunction<Operation, Operation>() {
 
+               @Override
+               public ListenableFuture<Operation> apply(Operation input) {
+                  logger.debug(">> deleting cloud service(%s)", id);
+                  return trackSuccessOrNull(api.getCloudServiceApi().delete(id));
+               }
+            }, userExecutor);
+      return Futures.transform(serviceDeleted, new Function<Operation, Void>() {
+
+         @Override
+         public Void apply(Operation input) {
+            logger.debug("<< destroyed node(%s)", id);
+            return null;
+         }
+      });
    }
 
    @Override
    public void rebootNode(String id) {
-      // TODO Auto-generated method stub
+      getUnchecked(rebootNodeAsync(id));
+   }
+
+   public ListenableFuture<Operation> rebootNodeAsync(final String id) {
+      return call(new Callable<String>() {
+
+         @Override
+         public String call() {
+            return api.getVirtualMachineApiForDeploymentInService(id, id).restart(id);
+         }
+      });
    }
 
    @Override
    public void resumeNode(String id) {
-      // TODO Auto-generated method stub
+      getUnchecked(resumeNodeAsync(id));
+   }
+
+   public ListenableFuture<Operation> resumeNodeAsync(final String id) {
+      return call(new Callable<String>() {
+
+         @Override
+         public String call() {
+            return api.getVirtualMachineApiForDeploymentInService(id, id).start(id);
+         }
+      });
    }
 
    @Override
    public void suspendNode(String id) {
-      // TODO Auto-generated method stub
+      getUnchecked(suspendNodeAsync(id));
+   }
+
+   public ListenableFuture<Operation> suspendNodeAsync(final String id) {
+      return call(new Callable<String>() {
 
+         @Override
+         public String call() {
+            return api.getVirtualMachineApiForDeploymentInService(id, id).shutdown(id);
+         }
+      });
    }
 
    @Override
    public Iterable<Deployment> listNodes() {
-      // TODO Auto-generated method stub
-      return null;
+      List<String> names = Lists.newArrayList();
+      for (CloudService service : api.getCloudServiceApi().list()) {
+         names.add(service.name());
+      }
+      return listNodesByIds(names);
    }
 
-   @Override public Iterable<Deployment> listNodesByIds(Iterable<String> ids) {
-      // TODO Auto-generated method stub
-      return null;
+   @Override
+   public Iterable<Deployment> listNodesByIds(Iterable<String> ids) {
+      List<ListenableFuture<Deployment>> deployments = Lists.newArrayList();
+      for (final String id : ids) {
+         deployments.add(userExecutor.submit(new Callable<Deployment>() {
+
+            @Override
+            public Deployment call() {
+               return getNode(id);
+            }
+         }));
+      }
+      return ImmutableList.copyOf(filter(getUnchecked(Futures.allAsList(deployments)), Predicates.notNull()));
+   }
+
+   /**
+    * Sends the request on the user executor and tracks the operation it starts until it succeeds.
+    */
+   private ListenableFuture<Operation> call(Callable<String> request) {
+      return Futures.transform(userExecutor.submit(request), new AsyncFunction<String, Operation>() {
+
+         @Override
+         public ListenableFuture<Operation> apply(String requestId) {
+            return trackSuccessOrNull(requestId);
+         }
+      });
+   }
+
+   /**
+    * Delete requests return no request id when there was nothing to delete.
+    */
+   private ListenableFuture<Operation> trackSuccessOrNull(String requestId) {
+      return requestId == null ? Futures.<Operation> immediateFuture(null) : operations.trackSuccess(requestId);
+   }
+
+   private static RoleSize roleSize(String providerId) {
+      String name = checkNotNull(providerId, "hardware providerId");
+      if (!name.equals(name.toUpperCase())) {
+         name = UPPER_CAMEL.to(UPPER_UNDERSCORE, name);
+      }
+      return RoleSize.valueOf(name);
+   }
+
+   /**
+    * Azure requires passwords with lower case and upper case letters, digits and special characters.
+    */
+   private static String generatePassword() {
+      byte[] random = new byte[12];
+      RANDOM.nextBytes(random);
+      return "Jc1!" + BaseEncoding.base32().omitPadding().encode(random).toLowerCase();
+   }
+
+   private static <T> T getUnchecked(ListenableFuture<T> future) {
+      try {
+         return future.get();
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
    }
 }
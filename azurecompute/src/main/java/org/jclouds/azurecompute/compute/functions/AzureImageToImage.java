@@ -16,14 +16,65 @@
  */
 package org.jclouds.azurecompute.compute.functions;
 
-import com.google.common.base.Function;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Singleton;
+
 import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.compute.domain.Image.Status;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
 
+/**
+ * Transforms an {@link Image} to the jclouds portable model.
+ */
+@Singleton
 public class AzureImageToImage implements Function<Image, org.jclouds.compute.domain.Image> {
 
+   /**
+    * Linux images only say which distribution they are in their label, such as {@code Ubuntu Server 14.04 LTS}.
+    */
+   private static final ImmutableMap<String, OsFamily> DISTRIBUTIONS = ImmutableMap.<String, OsFamily> builder()
+         .put("ubuntu", OsFamily.UBUNTU)
+         .put("centos", OsFamily.CENTOS)
+         .put("suse", OsFamily.SUSE)
+         .put("debian", OsFamily.DEBIAN)
+         .put("oracle", OsFamily.OEL)
+         .build();
+
    @Override
    public org.jclouds.compute.domain.Image apply(Image input) {
-      return null;
+      ImageBuilder builder = new ImageBuilder();
+      builder.ids(input.name());
+      builder.name(input.label());
+      builder.description(input.description() != null ? input.description() : input.label());
+      builder.status(Status.AVAILABLE);
+      builder.operatingSystem(OperatingSystem.builder()
+            .family(osFamily(input))
+            .description(input.label())
+            .is64Bit(true)
+            .build());
+      if (input.category() != null) {
+         builder.userMetadata(ImmutableMap.of("category", input.category()));
+      }
+      return builder.build();
    }
 
+   private static OsFamily osFamily(Image input) {
+      if (input.os() == Image.OSType.WINDOWS) {
+         return OsFamily.WINDOWS;
+      }
+      String label = input.label().toLowerCase(Locale.ENGLISH);
+      for (Map.Entry<String, OsFamily> distribution : DISTRIBUTIONS.entrySet()) {
+         if (label.contains(distribution.getKey())) {
+            return distribution.getValue();
+         }
+      }
+      return OsFamily.LINUX;
+   }
 }
@@ -16,15 +16,113 @@
  */
 package org.jclouds.azurecompute.compute.functions;
 
-import com.google.common.base.Function;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
 import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.collect.Memoized;
+import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
 
+/**
+ * Transforms a {@link Deployment} to the jclouds portable model. Each node is the only virtual machine of a
+ * deployment named after the node.
+ */
+@Singleton
 public class DeploymentToNodeMetadata implements Function<Deployment, NodeMetadata> {
 
-	@Override
-	public NodeMetadata apply(Deployment input) {
-		return null;
-	}
+   private final Supplier<Set<? extends Hardware>> hardwares;
+   private final GroupNamingConvention nodeNamingConvention;
+   private final Map<String, Credentials> credentialStore;
+
+   @Inject
+   DeploymentToNodeMetadata(@Memoized Supplier<Set<? extends Hardware>> hardwares,
+         GroupNamingConvention.Factory namingConvention, Map<String, Credentials> credentialStore) {
+      this.hardwares = checkNotNull(hardwares, "hardwares");
+      this.nodeNamingConvention = checkNotNull(namingConvention, "namingConvention").createWithoutPrefix();
+      this.credentialStore = checkNotNull(credentialStore, "credentialStore");
+   }
+
+   @Override
+   public NodeMetadata apply(Deployment input) {
+      NodeMetadataBuilder builder = new NodeMetadataBuilder();
+      builder.ids(input.name());
+      builder.name(input.name());
+      builder.hostname(input.virtualMachineName());
+      builder.group(nodeNamingConvention.groupInUniqueNameOrNull(input.name()));
+      builder.hardware(findHardware(input.instanceSize()));
+      builder.status(status(input));
+      builder.backendStatus(input.instanceStatus().name());
+      if (!input.publicIpAddress().isEmpty()) {
+         builder.publicAddresses(ImmutableSet.of(input.publicIpAddress()));
+      }
+      if (!input.privateIpAddress().isEmpty()) {
+         builder.privateAddresses(ImmutableSet.of(input.privateIpAddress()));
+      }
+      // Azure never returns the password, so the credentials are the ones stored when the node was created
+      Credentials credentials = credentialStore.get("node#" + input.name());
+      if (credentials instanceof LoginCredentials) {
+         builder.credentials(LoginCredentials.class.cast(credentials));
+      }
+      return builder.build();
+   }
+
+   private Hardware findHardware(RoleSize roleSize) {
+      if (roleSize == RoleSize.UNRECOGNIZED) {
+         return null;
+      }
+      String providerId = RoleSizeToHardware.providerId(roleSize);
+      for (Hardware hardware : hardwares.get()) {
+         if (providerId.equals(hardware.getProviderId())) {
+            return hardware;
+         }
+      }
+      return null;
+   }
 
+   private static Status status(Deployment input) {
+      if (input.status() == Deployment.Status.DELETING) {
+         return Status.PENDING;
+      }
+      switch (input.instanceStatus()) {
+         case READY_ROLE:
+            return Status.RUNNING;
+         case STOPPED_VM:
+         case STOPPED_DEALLOCATED:
+            return Status.SUSPENDED;
+         case CREATING_VM:
+         case STARTING_VM:
+         case CREATING_ROLE:
+         case STARTING_ROLE:
+         case BUSY_ROLE:
+         case STOPPING_ROLE:
+         case STOPPING_VM:
+         case DELETING_VM:
+         case RESTARTING_ROLE:
+         case CYCLING_ROLE:
+         case PREPARING:
+            return Status.PENDING;
+         case FAILED_STARTING_ROLE:
+         case FAILED_STARTING_VM:
+         case UNRESPONSIVE_ROLE:
+            return Status.ERROR;
+         default:
+            return Status.UNRECOGNIZED;
+      }
+   }
 }
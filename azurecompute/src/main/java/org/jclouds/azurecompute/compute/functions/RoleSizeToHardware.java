@@ -16,15 +16,69 @@
  */
 package org.jclouds.azurecompute.compute.functions;
 
-import com.google.common.base.Function;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_UNDERSCORE;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import javax.inject.Singleton;
+
 import org.jclouds.azurecompute.domain.RoleSize;
 import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Volume;
+import org.jclouds.compute.domain.VolumeBuilder;
+
+import com.google.common.base.Function;
 
+/**
+ * Transforms a {@link RoleSize} to the jclouds portable model.
+ */
+@Singleton
 public class RoleSizeToHardware implements Function<RoleSize, Hardware> {
 
-	@Override
-	public Hardware apply(RoleSize input) {
-		return null;
-	}
+   /**
+    * Size of the OS disk of the images published by Azure.
+    */
+   private static final float OS_DISK_GB = 127;
+
+   @Override
+   public Hardware apply(RoleSize input) {
+      checkArgument(input != RoleSize.UNRECOGNIZED, "unrecognized role size");
+      HardwareBuilder builder = new HardwareBuilder();
+      builder.ids(providerId(input));
+      builder.name(providerId(input));
+      builder.volume(new VolumeBuilder()
+            .type(Volume.Type.SAN)
+            .size(OS_DISK_GB)
+            .bootDevice(true)
+            .durable(true)
+            .build());
+      switch (input) {
+         case EXTRA_SMALL:
+            // A shared core
+            return builder.processor(new Processor(1, 1.0)).ram(768).volume(temporaryDisk(20)).build();
+         case SMALL:
+            return builder.processor(new Processor(1, 1.6)).ram(1792).volume(temporaryDisk(70)).build();
+         case MEDIUM:
+            return builder.processor(new Processor(2, 1.6)).ram(3584).volume(temporaryDisk(135)).build();
+         case LARGE:
+            return builder.processor(new Processor(4, 1.6)).ram(7168).volume(temporaryDisk(285)).build();
+         case EXTRA_LARGE:
+            return builder.processor(new Processor(8, 1.6)).ram(14336).volume(temporaryDisk(605)).build();
+         default:
+            throw new IllegalArgumentException("unsupported role size " + input);
+      }
+   }
+
+   /**
+    * Returns the name Azure uses for the role size, such as {@code ExtraSmall}.
+    */
+   static String providerId(RoleSize roleSize) {
+      return UPPER_UNDERSCORE.to(UPPER_CAMEL, roleSize.name());
+   }
 
+   private static Volume temporaryDisk(float sizeInGB) {
+      return new VolumeBuilder().type(Volume.Type.LOCAL).size(sizeInGB).bootDevice(false).durable(false).build();
+   }
 }
@@ -33,4 +33,35 @@ public class AzureComputeProperties {
 	 * @see <a href="http://msdn.microsoft.com/en-us/library/ee460786">docs</a>
 	 */
 	public static final String SUBSCRIPTION_ID = "jclouds.azurecompute.subscription-id";
+
+	/**
+	 * Delay, in milliseconds, before an asynchronous operation is polled for the
+	 * first time. The delay doubles after each poll, up to
+	 * {@link #OPERATION_POLL_MAX_PERIOD}.
+	 */
+	public static final String OPERATION_POLL_INITIAL_PERIOD = "jclouds.azurecompute.operation-poll-initial-period";
+
+	/**
+	 * Maximum delay, in milliseconds, between two polls of an asynchronous
+	 * operation.
+	 */
+	public static final String OPERATION_POLL_MAX_PERIOD = "jclouds.azurecompute.operation-poll-max-period";
+
+	/**
+	 * Time, in milliseconds, an asynchronous operation is tracked for before it
+	 * is considered to have timed out, if it is still in progress.
+	 */
+	public static final String OPERATION_TIMEOUT = "jclouds.azurecompute.operation-timeout";
+
+	/**
+	 * URI of the blob container the OS disks of new nodes are stored in, for
+	 * example {@code https://account.blob.core.windows.net/vhds}.
+	 */
+	public static final String OS_DISK_CONTAINER = "jclouds.azurecompute.os-disk-container";
+
+	/**
+	 * Period, in milliseconds, after which the cached OS image catalog is
+	 * checked for changes.
+	 */
+	public static final String IMAGE_CATALOG_REFRESH_PERIOD = "jclouds.azurecompute.image-catalog-refresh-period";
 }
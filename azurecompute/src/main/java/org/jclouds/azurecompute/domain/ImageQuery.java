@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.domain;
+
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Locale;
+
+import org.jclouds.azurecompute.domain.Image.OSType;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.base.Splitter;
+
+/**
+ * Selects OS images by their {@link Image#os() os}, {@link Image#category() category}, {@link Image#location()
+ * location} and {@link Image#label() label}.
+ *
+ * <p/>The individual {@code accepts} methods let a parser rule an image out as soon as one of these fields is read,
+ * before the rest of the image is built; {@link #apply(Image)} checks a complete image, including the optional
+ * {@link Builder#matching(Predicate) extra predicate}.
+ */
+public final class ImageQuery implements Predicate<Image> {
+
+   private static final ImageQuery ALL = builder().build();
+
+   /** A query that accepts every image. */
+   public static ImageQuery all() {
+      return ALL;
+   }
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public static final class Builder {
+      private OSType os;
+      private String category;
+      private String location;
+      private String labelContains;
+      private Predicate<Image> predicate = Predicates.alwaysTrue();
+
+      /** @see ImageQuery#os() */
+      public Builder os(OSType os) {
+         this.os = os;
+         return this;
+      }
+
+      /** @see ImageQuery#category() */
+      public Builder category(String category) {
+         this.category = category;
+         return this;
+      }
+
+      /** @see ImageQuery#location() */
+      public Builder location(String location) {
+         this.location = location;
+         return this;
+      }
+
+      /** @see ImageQuery#labelContains() */
+      public Builder labelContains(String labelContains) {
+         this.labelContains = labelContains;
+         return this;
+      }
+
+      /** Additional condition checked once an image matching the other fields is built. */
+      public Builder matching(Predicate<Image> predicate) {
+         this.predicate = checkNotNull(predicate, "predicate");
+         return this;
+      }
+
+      public ImageQuery build() {
+         return new ImageQuery(os, category, location, labelContains, predicate);
+      }
+   }
+
+   /** The OS of the images, or null for any. */
+   @Nullable public OSType os() {
+      return os;
+   }
+
+   /** The category of the images, compared ignoring case, or null for any. */
+   @Nullable public String category() {
+      return category;
+   }
+
+   /** A location the images must be available in, compared ignoring case, or null for any. */
+   @Nullable public String location() {
+      return location;
+   }
+
+   /** Text the label of the images must contain, compared ignoring case, or null for any. */
+   @Nullable public String labelContains() {
+      return labelContains;
+   }
+
+   public boolean acceptsOs(@Nullable OSType os) {
+      return this.os == null || this.os == os;
+   }
+
+   public boolean acceptsCategory(@Nullable String category) {
+      return this.category == null || this.category.equalsIgnoreCase(category);
+   }
+
+   /**
+    * Platform images list all the locations they are available in, separated by semicolons.
+    */
+   public boolean acceptsLocation(@Nullable String location) {
+      if (this.location == null) {
+         return true;
+      }
+      if (location == null) {
+         return false;
+      }
+      for (String candidate : LOCATION_SPLITTER.split(location)) {
+         if (this.location.equalsIgnoreCase(candidate)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   public boolean acceptsLabel(@Nullable String label) {
+      return labelContainsLowerCase == null
+            || (label != null && label.toLowerCase(Locale.ENGLISH).contains(labelContainsLowerCase));
+   }
+
+   @Override public boolean apply(Image input) {
+      return acceptsOs(input.os()) && acceptsCategory(input.category()) && acceptsLocation(input.location())
+            && acceptsLabel(input.label()) && predicate.apply(input);
+   }
+
+   private static final Splitter LOCATION_SPLITTER = Splitter.on(';').trimResults().omitEmptyStrings();
+
+   private ImageQuery(OSType os, String category, String location, String labelContains,
+         Predicate<Image> predicate) {
+      this.os = os;
+      this.category = category;
+      this.location = location;
+      this.labelContains = labelContains;
+      this.labelContainsLowerCase = labelContains == null ? null : labelContains.toLowerCase(Locale.ENGLISH);
+      this.predicate = predicate;
+   }
+
+   private final OSType os;
+   private final String category;
+   private final String location;
+   private final String labelContains;
+   private final String labelContainsLowerCase;
+   private final Predicate<Image> predicate;
+
+   @Override public String toString() {
+      return toStringHelper(this).omitNullValues()
+            .add("os", os)
+            .add("category", category)
+            .add("location", location)
+            .add("labelContains", labelContains).toString();
+   }
+}
@@ -26,18 +26,22 @@ import javax.inject.Named;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 
+import org.jclouds.azurecompute.AzureComputeFallbacks.NullOnNotModified;
 import org.jclouds.azurecompute.binders.ImageParamsToXML;
 import org.jclouds.azurecompute.domain.Image;
 import org.jclouds.azurecompute.domain.ImageParams;
+import org.jclouds.azurecompute.domain.ImageQuery;
 import org.jclouds.azurecompute.functions.ImageParamsName;
 import org.jclouds.azurecompute.functions.ParseRequestIdHeader;
 import org.jclouds.azurecompute.xml.ListImagesHandler;
+import org.jclouds.http.HttpResponse;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.Headers;
@@ -45,6 +49,8 @@ import org.jclouds.rest.annotations.ParamParser;
 import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.annotations.XMLResponseParser;
 
+import com.google.common.net.HttpHeaders;
+
 /**
  * The Service Management API includes operations for managing the OS images in your subscription.
  *
@@ -65,6 +71,29 @@ public interface ImageApi {
    @Fallback(EmptyListOnNotFoundOr404.class)
    List<Image> list();
 
+   /**
+    * Same as {@link #list()}, but returns the unparsed response so that the images can be streamed through a
+    * {@link ListImagesHandler} built with an {@link ImageQuery}. The caller must close the payload of the response.
+    *
+    * @return the response, or null if not found
+    */
+   @Named("ListImages")
+   @GET
+   @Fallback(NullOnNotFoundOr404.class)
+   HttpResponse listResponse();
+
+   /**
+    * Conditional version of {@link #listResponse()}.
+    *
+    * @param eTag
+    *           the {@code ETag} header of the catalog the caller already has
+    * @return the response, or null if the catalog did not change since
+    */
+   @Named("ListImages")
+   @GET
+   @Fallback(NullOnNotModified.class)
+   HttpResponse listResponseIfNoneMatch(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String eTag);
+
    /**
     * The Add OS Image operation adds an OS image that is currently stored in a storage account in your subscription to
     * the image repository.
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+/**
+ * Counts the TLS handshakes of the connections to the Service Management API, telling the full handshakes apart from
+ * the abbreviated ones that resumed a cached session.
+ *
+ * <p/>Only the sockets created by the {@link SSLContext#getSocketFactory() socket factory} of a context returned by
+ * {@link #countHandshakes(SSLContext)} are counted.
+ */
+@Singleton
+public class HandshakeCounter {
+   private final AtomicLong fullHandshakes = new AtomicLong();
+   private final AtomicLong resumedHandshakes = new AtomicLong();
+
+   // JSSE hands out the cached session object again when a session is resumed
+   private final Set<SSLSession> sessions = Collections.synchronizedSet(Collections
+         .newSetFromMap(new WeakHashMap<SSLSession, Boolean>()));
+
+   private final HandshakeCompletedListener listener = new HandshakeCompletedListener() {
+      @Override
+      public void handshakeCompleted(HandshakeCompletedEvent event) {
+         if (sessions.add(event.getSession())) {
+            fullHandshakes.incrementAndGet();
+         } else {
+            resumedHandshakes.incrementAndGet();
+         }
+      }
+   };
+
+   /** Handshakes that negotiated a new session. */
+   public long getFullHandshakes() {
+      return fullHandshakes.get();
+   }
+
+   /** Handshakes that resumed a session negotiated before. */
+   public long getResumedHandshakes() {
+      return resumedHandshakes.get();
+   }
+
+   /**
+    * Returns a view of the initialized context whose sockets report their handshakes to this counter. The view shares
+    * the session cache of the context, and always returns the same socket factory so that connections keyed on it can
+    * be kept alive.
+    */
+   public SSLContext countHandshakes(SSLContext context) {
+      checkNotNull(context, "context");
+      return new SSLContext(new CountingSSLContextSpi(context), context.getProvider(), context.getProtocol()) {
+      };
+   }
+
+   private final class CountingSSLContextSpi extends SSLContextSpi {
+      private final SSLContext delegate;
+      private volatile SSLSocketFactory socketFactory;
+
+      private CountingSSLContextSpi(SSLContext delegate) {
+         this.delegate = delegate;
+         this.socketFactory = new CountingSSLSocketFactory(delegate.getSocketFactory());
+      }
+
+      @Override
+      protected void engineInit(KeyManager[] keyManagers, TrustManager[] trustManagers, SecureRandom random)
+            throws KeyManagementException {
+         delegate.init(keyManagers, trustManagers, random);
+         socketFactory = new CountingSSLSocketFactory(delegate.getSocketFactory());
+      }
+
+      @Override
+      protected SSLSocketFactory engineGetSocketFactory() {
+         return socketFactory;
+      }
+
+      @Override
+      protected SSLServerSocketFactory engineGetServerSocketFactory() {
+         return delegate.getServerSocketFactory();
+      }
+
+      @Override
+      protected SSLEngine engineCreateSSLEngine() {
+         return delegate.createSSLEngine();
+      }
+
+      @Override
+      protected SSLEngine engineCreateSSLEngine(String host, int port) {
+         return delegate.createSSLEngine(host, port);
+      }
+
+      @Override
+      protected SSLSessionContext engineGetServerSessionContext() {
+         return delegate.getServerSessionContext();
+      }
+
+      @Override
+      protected SSLSessionContext engineGetClientSessionContext() {
+         return delegate.getClientSessionContext();
+      }
+
+      @Override
+      protected SSLParameters engineGetDefaultSSLParameters() {
+         return delegate.getDefaultSSLParameters();
+      }
+
+      @Override
+      protected SSLParameters engineGetSupportedSSLParameters() {
+         return delegate.getSupportedSSLParameters();
+      }
+   }
+
+   private final class CountingSSLSocketFactory extends SSLSocketFactory {
+      private final SSLSocketFactory delegate;
+
+      private CountingSSLSocketFactory(SSLSocketFactory delegate) {
+         this.delegate = checkNotNull(delegate, "delegate");
+      }
+
+      private Socket count(Socket socket) {
+         if (socket instanceof SSLSocket) {
+            ((SSLSocket) socket).addHandshakeCompletedListener(listener);
+         }
+         return socket;
+      }
+
+      @Override
+      public String[] getDefaultCipherSuites() {
+         return delegate.getDefaultCipherSuites();
+      }
+
+      @Override
+      public String[] getSupportedCipherSuites() {
+         return delegate.getSupportedCipherSuites();
+      }
+
+      @Override
+      public Socket createSocket() throws IOException {
+         return count(delegate.createSocket());
+      }
+
+      @Override
+      public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+         return count(delegate.createSocket(socket, host, port, autoClose));
+      }
+
+      @Override
+      public Socket createSocket(String host, int port) throws IOException {
+         return count(delegate.createSocket(host, port));
+      }
+
+      @Override
+      public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+         return count(delegate.createSocket(host, port, localHost, localPort));
+      }
+
+      @Override
+      public Socket createSocket(InetAddress host, int port) throws IOException {
+         return count(delegate.createSocket(host, port));
+      }
+
+      @Override
+      public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+            throws IOException {
+         return count(delegate.createSocket(address, port, localAddress, localPort));
+      }
+   }
+}
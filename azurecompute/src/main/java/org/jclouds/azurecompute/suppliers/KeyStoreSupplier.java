@@ -18,6 +18,9 @@ package org.jclouds.azurecompute.suppliers;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -45,6 +48,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
 
 /**
+ * The key store is only built again when the credentials change: they are compared through a fingerprint of the
+ * certificate and the key store password.
+ *
  * TODO this code needs to be completely refactored. It needs to stop using KeyStore of at all possible and definitely
  * the local filesystem. Please look at oauth for examples on how to do this via PEMs.
  */
@@ -54,6 +60,10 @@ public class KeyStoreSupplier implements Supplier<KeyStore> {
    private final Crypto crypto;
    private final Supplier<Credentials> creds;
 
+   // the key store built for the credentials with the fingerprint, guarded by this
+   private HashCode fingerprint;
+   private KeyStore keyStore;
+
    @Inject
    KeyStoreSupplier(Crypto crypto, @Provider Supplier<Credentials> creds) {
       this.crypto = crypto;
@@ -61,11 +71,34 @@ public class KeyStoreSupplier implements Supplier<KeyStore> {
    }
 
    @Override
-   public KeyStore get() {
+   public synchronized KeyStore get() {
       Credentials currentCreds = checkNotNull(creds.get(), "credential supplier returned null");
       String cert = checkNotNull(currentCreds.identity, "credential supplier returned null identity (should be cert)");
       String keyStorePassword = checkNotNull(currentCreds.credential,
             "credential supplier returned null credential (should be keyStorePassword)");
+      HashCode currentFingerprint = fingerprint(cert, keyStorePassword);
+      if (!currentFingerprint.equals(fingerprint)) {
+         keyStore = load(cert, keyStorePassword);
+         fingerprint = currentFingerprint;
+      }
+      return keyStore;
+   }
+
+   /**
+    * A PKCS12 file is identified by its path, size and modification time, so that replacing the file is noticed
+    * without reading it on every call.
+    */
+   private static HashCode fingerprint(String cert, String keyStorePassword) {
+      Hasher hasher = Hashing.sha256().newHasher().putString(cert, Charsets.UTF_8).putByte((byte) 0)
+            .putString(keyStorePassword, Charsets.UTF_8);
+      File certFile = new File(cert);
+      if (certFile.isFile()) {
+         hasher.putLong(certFile.length()).putLong(certFile.lastModified());
+      }
+      return hasher.hash();
+   }
+
+   private KeyStore load(String cert, String keyStorePassword) {
       try {
          KeyStore keyStore = KeyStore.getInstance("PKCS12");
 
@@ -16,7 +16,11 @@
  */
 package org.jclouds.azurecompute.suppliers;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -37,6 +41,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
 
 /**
+ * The context is built once per key store and password, and then shared by all the connections: reusing it keeps the
+ * TLS sessions in its cache, so new connections resume them instead of running a full handshake with the client
+ * certificate. Handshakes are reported to the {@link HandshakeCounter}.
+ *
  * TODO this code needs to be completely refactored. It needs to stop using KeyStore of at all possible and definitely
  * the local filesystem. Please look at oauth for examples on how to do this via PEMs.
  */
@@ -46,24 +54,50 @@ public class SSLContextWithKeysSupplier implements Supplier<SSLContext> {
    private final Supplier<KeyStore> keyStore;
    private final TrustManager[] trustManager;
    private final Supplier<Credentials> creds;
+   private final HandshakeCounter handshakes;
+
+   // the context built for the key store and the password with the fingerprint, guarded by this
+   private KeyStore contextKeyStore;
+   private HashCode passwordFingerprint;
+   private SSLContext context;
 
    @Inject
    SSLContextWithKeysSupplier(Supplier<KeyStore> keyStore, @Provider Supplier<Credentials> creds, HttpUtils utils,
-         TrustAllCerts trustAllCerts) {
+         TrustAllCerts trustAllCerts, HandshakeCounter handshakes) {
+      this(keyStore, creds, utils.trustAllCerts() ? new TrustManager[] { trustAllCerts } : null, handshakes);
+   }
+
+   @VisibleForTesting
+   SSLContextWithKeysSupplier(Supplier<KeyStore> keyStore, Supplier<Credentials> creds, TrustManager[] trustManager,
+         HandshakeCounter handshakes) {
       this.keyStore = keyStore;
-      this.trustManager = utils.trustAllCerts() ? new TrustManager[] { trustAllCerts } : null;
+      this.trustManager = trustManager;
       this.creds = creds;
+      this.handshakes = checkNotNull(handshakes, "handshakes");
    }
 
    @Override
-   public SSLContext get() {
+   public synchronized SSLContext get() {
       Credentials currentCreds = checkNotNull(creds.get(), "credential supplier returned null");
       String keyStorePassword = checkNotNull(currentCreds.credential,
             "credential supplier returned null credential (should be keyStorePassword)");
+      // the key store supplier returns the same instance until the credentials change
+      KeyStore currentKeyStore = keyStore.get();
+      HashCode currentPasswordFingerprint = Hashing.sha256().hashString(keyStorePassword, Charsets.UTF_8);
+      if (context == null || currentKeyStore != contextKeyStore
+            || !currentPasswordFingerprint.equals(passwordFingerprint)) {
+         context = handshakes.countHandshakes(build(currentKeyStore, keyStorePassword));
+         contextKeyStore = currentKeyStore;
+         passwordFingerprint = currentPasswordFingerprint;
+      }
+      return context;
+   }
+
+   private SSLContext build(KeyStore keyStore, String keyStorePassword) {
       KeyManagerFactory kmf;
       try {
          kmf = KeyManagerFactory.getInstance("SunX509");
-         kmf.init(keyStore.get(), keyStorePassword.toCharArray());
+         kmf.init(keyStore, keyStorePassword.toCharArray());
          SSLContext sc = SSLContext.getInstance("TLS");
          sc.init(kmf.getKeyManagers(), trustManager, new SecureRandom());
          return sc;
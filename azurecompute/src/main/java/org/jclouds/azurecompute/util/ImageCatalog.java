@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.IMAGE_CATALOG_REFRESH_PERIOD;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.ImageQuery;
+import org.jclouds.azurecompute.features.ImageApi;
+import org.jclouds.azurecompute.xml.ListImagesHandler;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * The OS image catalog of the subscription.
+ *
+ * <p/>{@link #get()} keeps the whole catalog in memory and refreshes it once it is older than
+ * {@link org.jclouds.azurecompute.config.AzureComputeProperties#IMAGE_CATALOG_REFRESH_PERIOD}. The refresh is a
+ * conditional request when the previous response had an {@code ETag}, so an unchanged catalog is neither downloaded
+ * nor parsed again. {@link #query(ImageQuery)} bypasses the cache and only builds the images matching the query.
+ */
+@Singleton
+public class ImageCatalog implements Supplier<List<Image>> {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final ImageApi imageApi;
+   private final ParseSax.Factory parsers;
+   private final long refreshPeriodNanos;
+   private final Ticker ticker;
+
+   private volatile Snapshot snapshot;
+
+   @Inject
+   ImageCatalog(AzureComputeApi api, ParseSax.Factory parsers,
+         @Named(IMAGE_CATALOG_REFRESH_PERIOD) long refreshPeriodMillis) {
+      this(checkNotNull(api, "api").getImageApi(), parsers, refreshPeriodMillis, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   ImageCatalog(ImageApi imageApi, ParseSax.Factory parsers, long refreshPeriodMillis, Ticker ticker) {
+      checkArgument(refreshPeriodMillis >= 0, "refreshPeriodMillis must not be negative");
+      this.imageApi = checkNotNull(imageApi, "imageApi");
+      this.parsers = checkNotNull(parsers, "parsers");
+      this.refreshPeriodNanos = TimeUnit.MILLISECONDS.toNanos(refreshPeriodMillis);
+      this.ticker = checkNotNull(ticker, "ticker");
+   }
+
+   /**
+    * Returns the cached catalog, refreshing it first if it is stale.
+    */
+   @Override
+   public List<Image> get() {
+      Snapshot current = snapshot;
+      if (current != null && !current.isStale(ticker.read())) {
+         return current.images;
+      }
+      return refresh();
+   }
+
+   /**
+    * Returns the images of the cached catalog matching the query.
+    */
+   public List<Image> get(ImageQuery query) {
+      return ImmutableList.copyOf(Iterables.filter(get(), checkNotNull(query, "query")));
+   }
+
+   /**
+    * Lists the images matching the query straight from the API, without building the other images nor caching the
+    * result.
+    */
+   public List<Image> query(ImageQuery query) {
+      checkNotNull(query, "query");
+      return parse(imageApi.listResponse(), query);
+   }
+
+   /**
+    * Marks the cached catalog as stale, for example after an image was added or deleted.
+    */
+   public synchronized void invalidate() {
+      if (snapshot != null) {
+         snapshot = new Snapshot(snapshot.images, snapshot.eTag, ticker.read());
+      }
+   }
+
+   private synchronized List<Image> refresh() {
+      long now = ticker.read();
+      Snapshot current = snapshot;
+      if (current != null && !current.isStale(now)) {
+         return current.images; // refreshed by another thread
+      }
+      if (current != null && current.eTag != null) {
+         HttpResponse response;
+         try {
+            response = imageApi.listResponseIfNoneMatch(current.eTag);
+         } catch (RuntimeException e) {
+            if (!isNotFound(e)) {
+               throw e;
+            }
+            // the catalog is gone: drop the cached images rather than keep serving them
+            logger.debug(">> image catalog not found, clearing the cached %s images", current.images.size());
+            return update(null, now);
+         }
+         if (response == null) {
+            logger.debug(">> image catalog not modified since %s", current.eTag);
+            snapshot = new Snapshot(current.images, current.eTag, now + refreshPeriodNanos);
+            return current.images;
+         }
+         return update(response, now);
+      }
+      return update(imageApi.listResponse(), now);
+   }
+
+   private List<Image> update(HttpResponse response, long now) {
+      String eTag = response != null ? response.getFirstHeaderOrNull(HttpHeaders.ETAG) : null;
+      List<Image> images = parse(response, ImageQuery.all());
+      logger.debug(">> image catalog loaded with %s images", images.size());
+      snapshot = new Snapshot(images, eTag, now + refreshPeriodNanos);
+      return images;
+   }
+
+   private static boolean isNotFound(RuntimeException e) {
+      HttpResponseException exception = getFirstThrowableOfType(e, HttpResponseException.class);
+      return exception != null && exception.getResponse() != null && exception.getResponse().getStatusCode() == 404;
+   }
+
+   private List<Image> parse(HttpResponse response, ImageQuery query) {
+      if (response == null) {
+         return ImmutableList.of();
+      }
+      // parsing closes the payload
+      return parsers.create(new ListImagesHandler(query)).apply(response);
+   }
+
+   private static final class Snapshot {
+      private final List<Image> images;
+      private final String eTag;
+      private final long expiresAtNanos;
+
+      private Snapshot(List<Image> images, String eTag, long expiresAtNanos) {
+         this.images = images;
+         this.eTag = eTag;
+         this.expiresAtNanos = expiresAtNanos;
+      }
+
+      private boolean isStale(long nowNanos) {
+         return nowNanos - expiresAtNanos >= 0;
+      }
+   }
+}
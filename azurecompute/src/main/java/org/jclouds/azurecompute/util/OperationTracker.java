@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_POLL_INITIAL_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_POLL_MAX_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_TIMEOUT;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.Operation;
+import org.jclouds.azurecompute.features.OperationApi;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Tracks the asynchronous operations started by the Service Management API.
+ *
+ * <p/>All the outstanding operations are polled from a single scheduled task: each operation is polled with its own
+ * exponential backoff, and only the polls themselves take a thread, so tracking many operations does not block one
+ * thread per operation. An operation still in progress after
+ * {@link org.jclouds.azurecompute.config.AzureComputeProperties#OPERATION_TIMEOUT} is no longer polled, and its future
+ * fails with a {@link TimeoutException}.
+ *
+ * @see <a href="http://msdn.microsoft.com/en-us/library/ee460791">docs</a>
+ */
+@Singleton
+public class OperationTracker {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final OperationApi operationApi;
+   private final ScheduledExecutorService scheduler;
+   private final ListeningExecutorService userExecutor;
+   private final long initialPeriodMillis;
+   private final long maxPeriodMillis;
+   private final long timeoutMillis;
+
+   private final ConcurrentMap<String, PendingOperation> pending = Maps.newConcurrentMap();
+
+   // the next run of the poll task, guarded by this
+   private ScheduledFuture<?> nextPoll;
+   private long nextPollMillis;
+
+   @Inject
+   OperationTracker(AzureComputeApi api,
+         @Named(Constants.PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(OPERATION_POLL_INITIAL_PERIOD) long initialPeriodMillis,
+         @Named(OPERATION_POLL_MAX_PERIOD) long maxPeriodMillis,
+         @Named(OPERATION_TIMEOUT) long timeoutMillis) {
+      this(checkNotNull(api, "api").getOperationApi(), scheduler, userExecutor, initialPeriodMillis, maxPeriodMillis,
+            timeoutMillis);
+   }
+
+   @VisibleForTesting
+   OperationTracker(OperationApi operationApi, ScheduledExecutorService scheduler,
+         ListeningExecutorService userExecutor, long initialPeriodMillis, long maxPeriodMillis, long timeoutMillis) {
+      checkArgument(initialPeriodMillis > 0, "initialPeriodMillis must be positive");
+      checkArgument(maxPeriodMillis >= initialPeriodMillis,
+            "maxPeriodMillis must not be lower than initialPeriodMillis");
+      checkArgument(timeoutMillis > 0, "timeoutMillis must be positive");
+      this.operationApi = checkNotNull(operationApi, "operationApi");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.initialPeriodMillis = initialPeriodMillis;
+      this.maxPeriodMillis = maxPeriodMillis;
+      this.timeoutMillis = timeoutMillis;
+   }
+
+   /**
+    * Returns a future completed with the operation once it is no longer in progress, whether it succeeded or failed.
+    * The future fails if the operation can't be found or polled, and with a {@link TimeoutException} if it is still in
+    * progress when the timeout expires. Cancelling the future stops polling the operation.
+    *
+    * @param requestId
+    *           the {@code x-ms-request-id} returned by the asynchronous request
+    */
+   public ListenableFuture<Operation> track(String requestId) {
+      checkNotNull(requestId, "requestId");
+      long now = System.currentTimeMillis();
+      PendingOperation operation = new PendingOperation(requestId, now + timeoutMillis,
+            now + Math.min(initialPeriodMillis, timeoutMillis));
+      PendingOperation existing = pending.putIfAbsent(requestId, operation);
+      if (existing != null) {
+         return existing.result;
+      }
+      operation.result.addListener(new RemoveOperation(operation), MoreExecutors.directExecutor());
+      logger.debug(">> tracking operation(%s)", requestId);
+      schedule();
+      return operation.result;
+   }
+
+   /**
+    * Like {@link #track(String)}, except that the future fails with an {@link IllegalStateException} unless the
+    * operation succeeded.
+    */
+   public ListenableFuture<Operation> trackSuccess(final String requestId) {
+      return Futures.transform(track(requestId), new Function<Operation, Operation>() {
+
+         @Override
+         public Operation apply(Operation operation) {
+            if (operation.status() != Operation.Status.SUCCEEDED) {
+               throw new IllegalStateException(String.format("operation(%s) %s: %s", requestId, operation.status(),
+                     operation.error()));
+            }
+            return operation;
+         }
+      });
+   }
+
+   /**
+    * Returns the number of operations still in progress.
+    */
+   public int getPendingCount() {
+      return pending.size();
+   }
+
+   /**
+    * Schedules the poll task at the time the next operation is due, unless it is already scheduled before that.
+    */
+   private synchronized void schedule() {
+      long dueMillis = Long.MAX_VALUE;
+      for (PendingOperation operation : pending.values()) {
+         if (!operation.polling.get()) {
+            dueMillis = Math.min(dueMillis, operation.dueMillis);
+         }
+      }
+      if (dueMillis == Long.MAX_VALUE) {
+         return;
+      }
+      if (nextPoll != null && !nextPoll.isDone()) {
+         if (nextPollMillis <= dueMillis) {
+            return;
+         }
+         nextPoll.cancel(false);
+      }
+      nextPollMillis = dueMillis;
+      nextPoll = scheduler.schedule(new Runnable() {
+
+         @Override
+         public void run() {
+            pollDueOperations();
+         }
+      }, Math.max(0, dueMillis - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+   }
+
+   private void pollDueOperations() {
+      long now = System.currentTimeMillis();
+      for (final PendingOperation operation : pending.values()) {
+         if (operation.dueMillis <= now && operation.polling.compareAndSet(false, true)) {
+            userExecutor.execute(new Runnable() {
+
+               @Override
+               public void run() {
+                  poll(operation);
+               }
+            });
+         }
+      }
+      synchronized (this) {
+         nextPoll = null;
+      }
+      schedule();
+   }
+
+   private void poll(PendingOperation operation) {
+      try {
+         Operation current = operationApi.get(operation.requestId);
+         if (current == null) {
+            operation.result.setException(new IllegalStateException(String.format("operation(%s) not found",
+                  operation.requestId)));
+         } else if (current.status() == Operation.Status.SUCCEEDED || current.status() == Operation.Status.FAILED) {
+            logger.debug("<< operation(%s) %s", operation.requestId, current.status());
+            operation.result.set(current);
+         } else if (System.currentTimeMillis() >= operation.deadlineMillis) {
+            // unrecognized statuses are polled again like operations in progress, until the timeout expires
+            operation.result.setException(new TimeoutException(String.format("operation(%s) still %s after %sms",
+                  operation.requestId, current.status(), timeoutMillis)));
+         } else {
+            operation.periodMillis = Math.min(operation.periodMillis * 2, maxPeriodMillis);
+            operation.dueMillis = Math.min(System.currentTimeMillis() + operation.periodMillis,
+                  operation.deadlineMillis);
+         }
+      } catch (RuntimeException e) {
+         operation.result.setException(e);
+      } finally {
+         operation.polling.set(false);
+      }
+      if (!operation.result.isDone()) {
+         schedule();
+      }
+   }
+
+   private final class PendingOperation {
+      private final String requestId;
+      private final long deadlineMillis;
+      private final SettableFuture<Operation> result = SettableFuture.create();
+      private final AtomicBoolean polling = new AtomicBoolean();
+      private volatile long dueMillis;
+      private volatile long periodMillis = initialPeriodMillis;
+
+      private PendingOperation(String requestId, long deadlineMillis, long dueMillis) {
+         this.requestId = requestId;
+         this.deadlineMillis = deadlineMillis;
+         this.dueMillis = dueMillis;
+      }
+   }
+
+   private final class RemoveOperation implements Runnable {
+      private final PendingOperation operation;
+
+      private RemoveOperation(PendingOperation operation) {
+         this.operation = operation;
+      }
+
+      @Override
+      public void run() {
+         pending.remove(operation.requestId, operation);
+      }
+   }
+}
@@ -16,6 +16,7 @@
  */
 package org.jclouds.azurecompute.xml;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.emptyToNull;
 import static org.jclouds.util.SaxUtils.currentOrNull;
 
@@ -24,6 +25,7 @@ import java.util.List;
 
 import org.jclouds.azurecompute.domain.Image;
 import org.jclouds.azurecompute.domain.Image.OSType;
+import org.jclouds.azurecompute.domain.ImageQuery;
 import org.jclouds.http.functions.ParseSax;
 
 import com.google.common.base.Splitter;
@@ -31,9 +33,15 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 /**
+ * Checks the fields of the image against an {@link ImageQuery} as they are read, and stops collecting the image as
+ * soon as one of them does not match.
+ *
  * @see <a href="http://msdn.microsoft.com/en-us/library/jj157191" >api</a>
  */
 final class ImageHandler extends ParseSax.HandlerForGeneratedRequestWithResult<Image> {
+   private final ImageQuery query;
+   private boolean rejected;
+
    private String name;
    private String location;
    private String affinityGroup;
@@ -47,6 +55,21 @@ final class ImageHandler extends ParseSax.HandlerForGeneratedRequestWithResult<I
 
    private final StringBuilder currentText = new StringBuilder();
 
+   ImageHandler(ImageQuery query) {
+      this.query = checkNotNull(query, "query");
+   }
+
+   /** Whether the fields read so far rule the current image out of the query. */
+   boolean isRejected() {
+      return rejected;
+   }
+
+   /** Discards the current image without building it. */
+   void skip() {
+      currentText.setLength(0);
+      resetState();
+   }
+
    @Override public Image getResult() {
       Image result = Image.create(name, location, affinityGroup, label, description, category, os, mediaLink,
             logicalSizeInGB, ImmutableList.copyOf(eula));
@@ -60,14 +83,20 @@ final class ImageHandler extends ParseSax.HandlerForGeneratedRequestWithResult<I
       mediaLink = null;
       logicalSizeInGB = null;
       eula.clear();
+      rejected = false;
    }
 
    @Override public void endElement(String ignoredUri, String ignoredName, String qName) {
+      if (rejected) {
+         currentText.setLength(0);
+         return;
+      }
       if (qName.equals("OS")) {
          String osText = currentOrNull(currentText);
          if (osText != null) {
             os = OSType.valueOf(currentOrNull(currentText).toUpperCase());
          }
+         rejected = !query.acceptsOs(os);
       } else if (qName.equals("Name")) {
          name = currentOrNull(currentText);
       } else if (qName.equals("LogicalSizeInGB")) {
@@ -79,8 +108,10 @@ final class ImageHandler extends ParseSax.HandlerForGeneratedRequestWithResult<I
          description = currentOrNull(currentText);
       } else if (qName.equals("Category")) {
          category = currentOrNull(currentText);
+         rejected = !query.acceptsCategory(category);
       } else if (qName.equals("Location")) {
          location = currentOrNull(currentText);
+         rejected = !query.acceptsLocation(location);
       } else if (qName.equals("AffinityGroup")) {
          affinityGroup = currentOrNull(currentText);
       } else if (qName.equals("MediaLink")) {
@@ -99,11 +130,14 @@ final class ImageHandler extends ParseSax.HandlerForGeneratedRequestWithResult<I
          }
       } else if (qName.equals("Label")) {
          label = currentOrNull(currentText);
+         rejected = !query.acceptsLabel(label);
       }
       currentText.setLength(0);
    }
 
    @Override public void characters(char ch[], int start, int length) {
-      currentText.append(ch, start, length);
+      if (!rejected) {
+         currentText.append(ch, start, length);
+      }
    }
 }
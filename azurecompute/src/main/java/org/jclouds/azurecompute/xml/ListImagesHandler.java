@@ -16,20 +16,37 @@
  */
 package org.jclouds.azurecompute.xml;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.util.List;
 
 import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.ImageQuery;
 import org.jclouds.http.functions.ParseSax;
 import org.xml.sax.Attributes;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 
+/**
+ * Lists the images of the catalog matching an {@link ImageQuery}. Images are filtered while the document is streamed:
+ * the ones ruled out by their os, category, location or label are never built.
+ */
 public final class ListImagesHandler extends ParseSax.HandlerForGeneratedRequestWithResult<List<Image>> {
    private boolean inOSImage;
-   private final ImageHandler imageHandler = new ImageHandler();
+   private final ImageQuery query;
+   private final ImageHandler imageHandler;
    private final Builder<Image> images = ImmutableList.builder();
 
+   public ListImagesHandler() {
+      this(ImageQuery.all());
+   }
+
+   public ListImagesHandler(ImageQuery query) {
+      this.query = checkNotNull(query, "query");
+      this.imageHandler = new ImageHandler(query);
+   }
+
    @Override
    public List<Image> getResult() {
       return images.build();
@@ -46,7 +63,14 @@ public final class ListImagesHandler extends ParseSax.HandlerForGeneratedRequest
    public void endElement(String uri, String name, String qName) {
       if (qName.equals("OSImage")) {
          inOSImage = false;
-         images.add(imageHandler.getResult());
+         if (imageHandler.isRejected()) {
+            imageHandler.skip();
+         } else {
+            Image image = imageHandler.getResult();
+            if (query.apply(image)) {
+               images.add(image);
+            }
+         }
       } else if (inOSImage) {
          imageHandler.endElement(uri, name, qName);
       }
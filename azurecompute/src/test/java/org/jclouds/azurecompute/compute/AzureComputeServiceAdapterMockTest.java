@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute;
+
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_POLL_INITIAL_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_POLL_MAX_PERIOD;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OPERATION_TIMEOUT;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.OS_DISK_CONTAINER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URL;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.azurecompute.compute.functions.AzureImageToImage;
+import org.jclouds.azurecompute.compute.functions.RoleSizeToHardware;
+import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.Location;
+import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.azurecompute.internal.BaseAzureComputeApiMockTest;
+import org.jclouds.azurecompute.xml.ListImagesHandlerTest;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.domain.internal.TemplateImpl;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+@Test(groups = "unit", testName = "AzureComputeServiceAdapterMockTest")
+public class AzureComputeServiceAdapterMockTest extends BaseAzureComputeApiMockTest {
+
+   public void createNodeCreatesTheCloudServiceThenTheDeployment() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(requestIdResponse("request-1"));
+      server.enqueue(succeeded("request-1"));
+      server.enqueue(requestIdResponse("request-2"));
+      server.enqueue(succeeded("request-2"));
+      server.enqueue(xmlResponse("/deployment.xml"));
+
+      try {
+         NodeAndInitialCredentials<Deployment> node = adapter(server.getUrl("/"))
+               .createNodeAsync("node-1", template()).get(10, TimeUnit.SECONDS);
+
+         assertEquals(node.getNodeId(), "node-1");
+         assertEquals(node.getNode().instanceSize(), RoleSize.MEDIUM);
+         assertEquals(node.getCredentials().getUser(), "jclouds");
+         assertNotNull(node.getCredentials().getOptionalPassword().orNull());
+
+         assertSent(server, "POST", "/services/hostedservices");
+         assertSent(server, "GET", "/operations/request-1");
+         assertSent(server, "POST", "/services/hostedservices/node-1/deployments");
+         assertSent(server, "GET", "/operations/request-2");
+         assertSent(server, "GET", "/services/hostedservices/node-1/deployments/node-1");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void cloudServiceIsDeletedWhenTheDeploymentFails() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(requestIdResponse("request-1"));
+      server.enqueue(succeeded("request-1"));
+      server.enqueue(xmlResponse("/error.xml").setResponseCode(400));
+      server.enqueue(requestIdResponse("request-3"));
+      server.enqueue(succeeded("request-3"));
+
+      try {
+         try {
+            adapter(server.getUrl("/")).createNodeAsync("node-1", template()).get(10, TimeUnit.SECONDS);
+            fail("the node should not be created when its deployment fails");
+         } catch (ExecutionException expected) {
+         }
+
+         assertSent(server, "POST", "/services/hostedservices");
+         assertSent(server, "GET", "/operations/request-1");
+         assertSent(server, "POST", "/services/hostedservices/node-1/deployments");
+         assertSent(server, "DELETE", "/services/hostedservices/node-1");
+         assertSent(server, "GET", "/operations/request-3");
+         assertEquals(server.getRequestCount(), 5);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void cloudServiceIsNotDeletedWhenItCannotBeCreated() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/error.xml").setResponseCode(400));
+
+      try {
+         try {
+            adapter(server.getUrl("/")).createNodeAsync("node-1", template()).get(10, TimeUnit.SECONDS);
+            fail("the node should not be created when its cloud service cannot be created");
+         } catch (ExecutionException expected) {
+         }
+
+         assertSent(server, "POST", "/services/hostedservices");
+         assertEquals(server.getRequestCount(), 1);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void destroyNodeDeletesTheDeploymentThenTheCloudService() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(requestIdResponse("request-1"));
+      server.enqueue(succeeded("request-1"));
+      server.enqueue(requestIdResponse("request-2"));
+      server.enqueue(succeeded("request-2"));
+
+      try {
+         adapter(server.getUrl("/")).destroyNode("node-1");
+
+         assertSent(server, "DELETE", "/services/hostedservices/node-1/deployments/node-1");
+         assertSent(server, "GET", "/operations/request-1");
+         assertSent(server, "DELETE", "/services/hostedservices/node-1");
+         assertSent(server, "GET", "/operations/request-2");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void destroyNodeWithoutDeploymentDeletesTheCloudService() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(new MockResponse().setResponseCode(404));
+      server.enqueue(requestIdResponse("request-2"));
+      server.enqueue(succeeded("request-2"));
+
+      try {
+         adapter(server.getUrl("/")).destroyNode("node-1");
+
+         assertSent(server, "DELETE", "/services/hostedservices/node-1/deployments/node-1");
+         assertSent(server, "DELETE", "/services/hostedservices/node-1");
+         assertSent(server, "GET", "/operations/request-2");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void destroyNodeFailsWhenTheOperationTimesOut() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(requestIdResponse("request-1"));
+      for (int i = 0; i < 100; i++) {
+         server.enqueue(inProgress("request-1"));
+      }
+
+      try {
+         adapter(server.getUrl("/"), 100).destroyNode("node-1");
+         fail("the deployment is never deleted");
+      } catch (RuntimeException e) {
+         assertTrue(Throwables.getRootCause(e) instanceof TimeoutException, e.toString());
+      } finally {
+         server.shutdown();
+      }
+      assertSent(server, "DELETE", "/services/hostedservices/node-1/deployments/node-1");
+      assertSent(server, "GET", "/operations/request-1");
+   }
+
+   public void listNodesGetsTheDeploymentOfEachCloudService() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/hostedservices.xml"));
+      server.enqueue(xmlResponse("/deployment.xml"));
+      server.enqueue(new MockResponse().setResponseCode(404));
+
+      try {
+         Iterable<Deployment> nodes = adapter(server.getUrl("/")).listNodes();
+
+         assertEquals(Iterables.size(nodes), 1);
+         assertEquals(server.getRequestCount(), 3);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void listLocations() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/locations.xml"));
+
+      try {
+         Location location = Iterables.getFirst(adapter(server.getUrl("/")).listLocations(), null);
+
+         assertEquals(location.name(), "West US");
+         assertSent(server, "GET", "/locations");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private AzureComputeServiceAdapter adapter(URL url) {
+      return adapter(url, 60000);
+   }
+
+   private AzureComputeServiceAdapter adapter(URL url, long operationTimeoutMillis) {
+      Properties overrides = new Properties();
+      overrides.setProperty(OS_DISK_CONTAINER, "https://account.blob.core.windows.net/vhds");
+      overrides.setProperty(OPERATION_POLL_INITIAL_PERIOD, "1");
+      overrides.setProperty(OPERATION_POLL_MAX_PERIOD, "10");
+      overrides.setProperty(OPERATION_TIMEOUT, String.valueOf(operationTimeoutMillis));
+      return injector(url, overrides).getInstance(AzureComputeServiceAdapter.class);
+   }
+
+   private static Template template() {
+      org.jclouds.domain.Location location = new LocationBuilder().id("West US").description("West US")
+            .scope(LocationScope.REGION).build();
+      return new TemplateImpl(new AzureImageToImage().apply(ListImagesHandlerTest.expected().get(5)),
+            new RoleSizeToHardware().apply(RoleSize.MEDIUM), location, new TemplateOptions());
+   }
+
+   private static MockResponse succeeded(String requestId) {
+      return new MockResponse().addHeader("Content-Type", "application/xml").setBody(
+            "<Operation xmlns=\"http://schemas.microsoft.com/windowsazure\"><ID>" + requestId
+                  + "</ID><Status>Succeeded</Status><HttpStatusCode>200</HttpStatusCode></Operation>");
+   }
+
+   private static MockResponse inProgress(String requestId) {
+      return new MockResponse().addHeader("Content-Type", "application/xml").setBody(
+            "<Operation xmlns=\"http://schemas.microsoft.com/windowsazure\"><ID>" + requestId
+                  + "</ID><Status>InProgress</Status></Operation>");
+   }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "DeploymentToNodeMetadataTest")
+public class DeploymentToNodeMetadataTest {
+
+   private final Hardware medium = new RoleSizeToHardware().apply(RoleSize.MEDIUM);
+   private final LoginCredentials credentials = LoginCredentials.builder().user("jclouds").password("secret").build();
+   private final DeploymentToNodeMetadata function = new DeploymentToNodeMetadata(
+         Suppliers.<Set<? extends Hardware>> ofInstance(ImmutableSet.of(medium)),
+         Guice.createInjector().getInstance(GroupNamingConvention.Factory.class),
+         ImmutableMap.<String, Credentials> of("node#web-1a2", credentials));
+
+   public void testRunningNode() {
+      NodeMetadata node = function.apply(deployment(Deployment.Status.RUNNING, Deployment.InstanceStatus.READY_ROLE,
+            RoleSize.MEDIUM));
+
+      assertEquals(node.getId(), "web-1a2");
+      assertEquals(node.getProviderId(), "web-1a2");
+      assertEquals(node.getGroup(), "web");
+      assertEquals(node.getHostname(), "web-1a2-vm");
+      assertEquals(node.getStatus(), Status.RUNNING);
+      assertEquals(node.getBackendStatus(), "READY_ROLE");
+      assertEquals(node.getHardware(), medium);
+      assertEquals(node.getPublicAddresses(), ImmutableSet.of("168.63.27.148"));
+      assertEquals(node.getPrivateAddresses(), ImmutableSet.of("10.59.244.162"));
+      assertEquals(node.getCredentials(), credentials);
+   }
+
+   public void testStatus() {
+      Map<Deployment.InstanceStatus, Status> expected = ImmutableMap.of(
+            Deployment.InstanceStatus.STOPPED_DEALLOCATED, Status.SUSPENDED,
+            Deployment.InstanceStatus.PREPARING, Status.PENDING,
+            Deployment.InstanceStatus.FAILED_STARTING_VM, Status.ERROR,
+            Deployment.InstanceStatus.UNKNOWN, Status.UNRECOGNIZED);
+      for (Map.Entry<Deployment.InstanceStatus, Status> entry : expected.entrySet()) {
+         NodeMetadata node = function.apply(deployment(Deployment.Status.RUNNING, entry.getKey(), RoleSize.MEDIUM));
+         assertEquals(node.getStatus(), entry.getValue(), entry.getKey().name());
+      }
+      assertEquals(function.apply(deployment(Deployment.Status.DELETING, Deployment.InstanceStatus.READY_ROLE,
+            RoleSize.MEDIUM)).getStatus(), Status.PENDING);
+   }
+
+   public void testUnknownSizeHasNoHardware() {
+      assertNull(function.apply(deployment(Deployment.Status.RUNNING, Deployment.InstanceStatus.READY_ROLE,
+            RoleSize.LARGE)).getHardware());
+   }
+
+   private static Deployment deployment(Deployment.Status status, Deployment.InstanceStatus instanceStatus,
+         RoleSize size) {
+      return Deployment.create("web-1a2", Deployment.Slot.PRODUCTION, status, "web-1a2", "web-1a2-vm", "web-1a2-vm",
+            instanceStatus, null, null, size, "10.59.244.162", "168.63.27.148");
+   }
+}
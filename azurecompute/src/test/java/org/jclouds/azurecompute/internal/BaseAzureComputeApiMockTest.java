@@ -18,12 +18,14 @@ package org.jclouds.azurecompute.internal;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
 import com.google.inject.Module;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Properties;
 import java.util.Set;
 import org.jclouds.ContextBuilder;
 import org.jclouds.azurecompute.AzureComputeApi;
@@ -55,6 +57,11 @@ public class BaseAzureComputeApiMockTest {
             .modules(modules).buildApi(AzureComputeApi.class);
    }
 
+   public Injector injector(URL url, Properties overrides) {
+      return ContextBuilder.newBuilder(provider).credentials(identity, credential).endpoint(url.toString())
+            .overrides(overrides).modules(modules).buildInjector();
+   }
+
    protected static MockWebServer mockAzureManagementServer() throws IOException {
       MockWebServer server = new MockWebServer();
       server.play();
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.File;
+import java.security.KeyStore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.encryption.internal.JCECrypto;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "SSLContextWithKeysSupplierTest")
+public class SSLContextWithKeysSupplierTest {
+
+   public void testContextIsBuiltOncePerCredentials() throws Exception {
+      File p12 = new File(getClass().getResource("/azure-test.p12").getFile());
+      final AtomicReference<Credentials> creds = new AtomicReference<Credentials>(
+            new Credentials(p12.getAbsolutePath(), "azurepass"));
+      Supplier<Credentials> credsSupplier = new Supplier<Credentials>() {
+         @Override
+         public Credentials get() {
+            return creds.get();
+         }
+      };
+      KeyStoreSupplier keyStores = new KeyStoreSupplier(new JCECrypto(), credsSupplier);
+      HandshakeCounter handshakes = new HandshakeCounter();
+      SSLContextWithKeysSupplier contexts = new SSLContextWithKeysSupplier(keyStores, credsSupplier, null,
+            handshakes);
+
+      KeyStore keyStore = keyStores.get();
+      SSLContext context = contexts.get();
+      assertSame(keyStores.get(), keyStore);
+      assertSame(contexts.get(), context);
+      // connections are kept alive per socket factory
+      assertSame(context.getSocketFactory(), context.getSocketFactory());
+
+      // equal credentials do not rebuild anything
+      creds.set(new Credentials(p12.getAbsolutePath(), "azurepass"));
+      assertSame(keyStores.get(), keyStore);
+      assertSame(contexts.get(), context);
+
+      File copy = File.createTempFile("azure-test", ".p12");
+      try {
+         Files.copy(p12, copy);
+         creds.set(new Credentials(copy.getAbsolutePath(), "azurepass"));
+         assertNotSame(keyStores.get(), keyStore);
+         assertNotSame(contexts.get(), context);
+      } finally {
+         copy.delete();
+      }
+
+      assertEquals(handshakes.getFullHandshakes(), 0);
+      assertEquals(handshakes.getResumedHandshakes(), 0);
+   }
+}
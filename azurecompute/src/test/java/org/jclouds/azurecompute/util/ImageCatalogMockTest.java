@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.azurecompute.domain.Image.OSType;
+import org.jclouds.azurecompute.domain.ImageQuery;
+import org.jclouds.azurecompute.internal.BaseAzureComputeApiMockTest;
+import org.jclouds.azurecompute.xml.ListImagesHandlerTest;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.config.SaxParserModule;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.inject.Guice;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "ImageCatalogMockTest")
+public class ImageCatalogMockTest extends BaseAzureComputeApiMockTest {
+
+   private final ParseSax.Factory parsers = Guice.createInjector(new SaxParserModule())
+         .getInstance(ParseSax.Factory.class);
+
+   public void catalogIsCachedUntilStale() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/images.xml"));
+      server.enqueue(xmlResponse("/images.xml"));
+
+      try {
+         FakeTicker ticker = new FakeTicker();
+         ImageCatalog catalog = new ImageCatalog(api(server.getUrl("/")).getImageApi(), parsers, 1000, ticker);
+
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         assertThat(server.getRequestCount()).isEqualTo(1);
+
+         ticker.advance(1000);
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         assertThat(server.getRequestCount()).isEqualTo(2);
+
+         // without an ETag, the catalog is listed again in full
+         assertSent(server, "GET", "/services/images");
+         RecordedRequest refresh = assertSent(server, "GET", "/services/images");
+         assertThat(refresh.getHeader("If-None-Match")).isNull();
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void staleCatalogIsRefreshedConditionally() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/images.xml").addHeader("ETag", "\"v1\""));
+      server.enqueue(new MockResponse().setResponseCode(304));
+
+      try {
+         FakeTicker ticker = new FakeTicker();
+         ImageCatalog catalog = new ImageCatalog(api(server.getUrl("/")).getImageApi(), parsers, 1000, ticker);
+
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         catalog.invalidate();
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         // the 304 extended the cached catalog
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         assertThat(server.getRequestCount()).isEqualTo(2);
+
+         assertSent(server, "GET", "/services/images");
+         RecordedRequest refresh = assertSent(server, "GET", "/services/images");
+         assertThat(refresh.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void staleCatalogIsDroppedWhenNotFound() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/images.xml").addHeader("ETag", "\"v1\""));
+      server.enqueue(new MockResponse().setResponseCode(404));
+
+      try {
+         ImageCatalog catalog = new ImageCatalog(api(server.getUrl("/")).getImageApi(), parsers, 1000,
+               new FakeTicker());
+
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         catalog.invalidate();
+         assertThat(catalog.get()).isEmpty();
+         // the empty catalog is cached until stale
+         assertThat(catalog.get()).isEmpty();
+         assertThat(server.getRequestCount()).isEqualTo(2);
+
+         assertSent(server, "GET", "/services/images");
+         RecordedRequest refresh = assertSent(server, "GET", "/services/images");
+         assertThat(refresh.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void staleCatalogIsKeptWhenRefreshFails() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/images.xml").addHeader("ETag", "\"v1\""));
+      server.enqueue(new MockResponse().setResponseCode(403));
+
+      try {
+         ImageCatalog catalog = new ImageCatalog(api(server.getUrl("/")).getImageApi(), parsers, 1000,
+               new FakeTicker());
+
+         assertEquals(catalog.get(), ListImagesHandlerTest.expected());
+         catalog.invalidate();
+         try {
+            catalog.get();
+            fail("the failed refresh should have been propagated");
+         } catch (HttpResponseException expected) {
+            assertThat(expected.getResponse().getStatusCode()).isEqualTo(403);
+         }
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void queryOnlyReturnsMatchingImages() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(xmlResponse("/images.xml"));
+
+      try {
+         ImageCatalog catalog = new ImageCatalog(api(server.getUrl("/")).getImageApi(), parsers, 1000,
+               new FakeTicker());
+
+         assertEquals(catalog.query(ImageQuery.builder().os(OSType.WINDOWS).category("Microsoft").build()),
+               ListImagesHandlerTest.expected().subList(1, 5));
+
+         assertSent(server, "GET", "/services/images");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void queryWhenNotFound() throws Exception {
+      MockWebServer server = mockAzureManagementServer();
+      server.enqueue(new MockResponse().setResponseCode(404));
+
+      try {
+         ImageCatalog catalog = new ImageCatalog(api(server.getUrl("/")).getImageApi(), parsers, 1000,
+               new FakeTicker());
+
+         assertThat(catalog.query(ImageQuery.all())).isEmpty();
+
+         assertSent(server, "GET", "/services/images");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static final class FakeTicker extends Ticker {
+      private long nanos;
+
+      @Override public long read() {
+         return nanos;
+      }
+
+      void advance(long millis) {
+         nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+      }
+   }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.util;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.azurecompute.domain.Error;
+import org.jclouds.azurecompute.domain.Operation;
+import org.jclouds.azurecompute.features.OperationApi;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "OperationTrackerTest", singleThreaded = true)
+public class OperationTrackerTest {
+
+   private ScheduledExecutorService scheduler;
+
+   @BeforeMethod
+   public void createScheduler() {
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void shutdownScheduler() {
+      scheduler.shutdownNow();
+   }
+
+   public void testCompletesWithTheFinalOperation() throws Exception {
+      FakeOperationApi api = new FakeOperationApi();
+      api.finish("succeeds", 2, Operation.Status.SUCCEEDED);
+      api.finish("fails", 0, Operation.Status.FAILED);
+      OperationTracker tracker = new OperationTracker(api, scheduler, newDirectExecutorService(), 5, 20, 60000);
+
+      ListenableFuture<Operation> succeeds = tracker.track("succeeds");
+      ListenableFuture<Operation> fails = tracker.track("fails");
+
+      assertEquals(succeeds.get(5, TimeUnit.SECONDS).status(), Operation.Status.SUCCEEDED);
+      assertEquals(fails.get(5, TimeUnit.SECONDS).status(), Operation.Status.FAILED);
+      assertEquals(fails.get().error().getCode(), Error.Code.INTERNAL_ERROR);
+      assertEquals(api.polls("succeeds"), 3);
+      assertEquals(api.polls("fails"), 1);
+      assertEquals(tracker.getPendingCount(), 0);
+   }
+
+   public void testTrackingTheSameRequestTwiceReturnsTheSameFuture() {
+      FakeOperationApi api = new FakeOperationApi();
+      api.finish("request", 100, Operation.Status.SUCCEEDED);
+      OperationTracker tracker = new OperationTracker(api, scheduler, newDirectExecutorService(), 1000, 1000, 60000);
+
+      ListenableFuture<Operation> operation = tracker.track("request");
+
+      assertSame(tracker.track("request"), operation);
+      assertEquals(tracker.getPendingCount(), 1);
+      operation.cancel(false);
+      assertEquals(tracker.getPendingCount(), 0);
+   }
+
+   public void testTrackSuccessFailsUnlessTheOperationSucceeded() throws Exception {
+      FakeOperationApi api = new FakeOperationApi();
+      api.finish("fails", 1, Operation.Status.FAILED);
+      OperationTracker tracker = new OperationTracker(api, scheduler, newDirectExecutorService(), 5, 20, 60000);
+
+      try {
+         tracker.trackSuccess("fails").get(5, TimeUnit.SECONDS);
+         fail("the operation failed");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+   }
+
+   public void testFailsWhenTheOperationIsNotFound() throws Exception {
+      OperationTracker tracker = new OperationTracker(new FakeOperationApi(), scheduler, newDirectExecutorService(),
+            5, 20, 60000);
+
+      try {
+         tracker.track("unknown").get(5, TimeUnit.SECONDS);
+         fail("the operation doesn't exist");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+   }
+
+   public void testManyOperationsArePolledFromOneThread() throws Exception {
+      FakeOperationApi api = new FakeOperationApi();
+      List<ListenableFuture<Operation>> operations = Lists.newArrayList();
+      OperationTracker tracker = new OperationTracker(api, scheduler, newDirectExecutorService(), 5, 20, 60000);
+      for (int i = 0; i < 200; i++) {
+         api.finish("request-" + i, i % 5, Operation.Status.SUCCEEDED);
+         operations.add(tracker.track("request-" + i));
+      }
+
+      for (Operation operation : Futures.allAsList(operations).get(10, TimeUnit.SECONDS)) {
+         assertEquals(operation.status(), Operation.Status.SUCCEEDED);
+      }
+      for (int i = 0; i < 200; i++) {
+         assertEquals(api.polls("request-" + i), i % 5 + 1);
+      }
+      assertEquals(tracker.getPendingCount(), 0);
+   }
+
+   public void testFailsWhenTheOperationIsStillInProgressAfterTheTimeout() throws Exception {
+      FakeOperationApi api = new FakeOperationApi();
+      api.finish("stuck", Integer.MAX_VALUE, Operation.Status.SUCCEEDED);
+      OperationTracker tracker = new OperationTracker(api, scheduler, newDirectExecutorService(), 5, 20, 100);
+
+      try {
+         tracker.track("stuck").get(5, TimeUnit.SECONDS);
+         fail("the operation never completes");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+      assertTrue(api.polls("stuck") > 1, "the operation was polled " + api.polls("stuck") + " times");
+      assertEquals(tracker.getPendingCount(), 0);
+   }
+
+   public void testUnrecognizedStatusesCountAgainstTheTimeout() throws Exception {
+      FakeOperationApi api = new FakeOperationApi();
+      api.finish("unrecognized", 0, Operation.Status.UNRECOGNIZED);
+      OperationTracker tracker = new OperationTracker(api, scheduler, newDirectExecutorService(), 5, 20, 100);
+
+      try {
+         tracker.track("unrecognized").get(5, TimeUnit.SECONDS);
+         fail("the operation never completes");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+      assertEquals(tracker.getPendingCount(), 0);
+   }
+
+   private static final class FakeOperationApi implements OperationApi {
+      private final Map<String, Operation.Status> finalStatus = Maps.newConcurrentMap();
+      private final Map<String, Integer> pollsInProgress = Maps.newConcurrentMap();
+      private final ConcurrentMap<String, AtomicInteger> polls = Maps.newConcurrentMap();
+
+      void finish(String requestId, int pollsInProgress, Operation.Status status) {
+         this.finalStatus.put(requestId, status);
+         this.pollsInProgress.put(requestId, pollsInProgress);
+         this.polls.put(requestId, new AtomicInteger());
+      }
+
+      int polls(String requestId) {
+         return polls.get(requestId).get();
+      }
+
+      @Override
+      public Operation get(String requestId) {
+         if (!finalStatus.containsKey(requestId)) {
+            return null;
+         }
+         int poll = polls.get(requestId).incrementAndGet();
+         if (poll <= pollsInProgress.get(requestId)) {
+            return Operation.create(requestId, Operation.Status.IN_PROGRESS, 202, null);
+         }
+         Operation.Status status = finalStatus.get(requestId);
+         return Operation.create(requestId, status, status == Operation.Status.SUCCEEDED ? 200 : 500,
+               status == Operation.Status.FAILED ? Error.create(Error.Code.INTERNAL_ERROR, "failed") : null);
+      }
+   }
+}
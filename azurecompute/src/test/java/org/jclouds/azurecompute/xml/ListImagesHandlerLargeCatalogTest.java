@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.xml;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.Image.OSType;
+import org.jclouds.azurecompute.domain.ImageQuery;
+import org.jclouds.http.functions.BaseHandlerTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * Checks that parsing a large image catalog through a selective {@link ImageQuery} returns the same images as parsing
+ * it in full and filtering the result.
+ */
+@Test(groups = "unit", testName = "ListImagesHandlerLargeCatalogTest")
+public class ListImagesHandlerLargeCatalogTest extends BaseHandlerTest {
+
+   private static final int IMAGES = 5000;
+
+   private final ImageQuery query = ImageQuery.builder().os(OSType.LINUX).category("Canonical")
+         .location("West US").build();
+
+   private byte[] catalog;
+
+   @BeforeClass
+   public void createCatalog() {
+      StringBuilder xml = new StringBuilder("<Images xmlns=\"http://schemas.microsoft.com/windowsazure\">");
+      for (int i = 0; i < IMAGES; i++) {
+         boolean linux = i % 2 == 0;
+         xml.append("<OSImage>")
+               .append("<Category>").append(i % 10 == 0 ? "Canonical" : "Microsoft").append("</Category>")
+               .append("<Label>Image ").append(i).append("</Label>")
+               .append("<Location>").append(i % 4 == 0 ? "East US;West US" : "North Europe").append("</Location>")
+               .append("<LogicalSizeInGB>30</LogicalSizeInGB>")
+               .append("<Name>image-").append(i).append(".vhd</Name>")
+               .append("<OS>").append(linux ? "Linux" : "Windows").append("</OS>")
+               .append("<Eula>http://example.com/eula/").append(i).append(";http://example.com/terms</Eula>")
+               .append("<Description>");
+         for (int j = 0; j < 20; j++) {
+            xml.append("A long description of image ").append(i).append(". ");
+         }
+         xml.append("</Description></OSImage>");
+      }
+      catalog = xml.append("</Images>").toString().getBytes(UTF_8);
+   }
+
+   public void testQueryBuildsTheSameImagesAsFilteringTheFullCatalog() {
+      List<Image> all = parse(ImageQuery.all());
+      List<Image> matching = parse(query);
+
+      assertEquals(all.size(), IMAGES);
+      assertEquals(matching, ImmutableList.copyOf(Iterables.filter(all, query)));
+      assertTrue(matching.size() < all.size() / 10, "the query should be selective");
+   }
+
+   private List<Image> parse(ImageQuery query) {
+      return factory.create(new ListImagesHandler(query)).parse(new ByteArrayInputStream(catalog));
+   }
+}
@@ -26,10 +26,13 @@ import java.util.List;
 
 import org.jclouds.azurecompute.domain.Image;
 import org.jclouds.azurecompute.domain.Image.OSType;
+import org.jclouds.azurecompute.domain.ImageQuery;
 import org.jclouds.http.functions.BaseHandlerTest;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 @Test(groups = "unit", testName = "ListImagesHandlerTest")
 public class ListImagesHandlerTest extends BaseHandlerTest {
@@ -41,6 +44,44 @@ public class ListImagesHandlerTest extends BaseHandlerTest {
       assertEquals(result, expected());
    }
 
+   public void testQueryByOs() {
+      ImageQuery query = ImageQuery.builder().os(OSType.WINDOWS).build();
+      InputStream is = getClass().getResourceAsStream("/images.xml");
+      List<Image> result = factory.create(new ListImagesHandler(query)).parse(is);
+
+      assertEquals(result.size(), 4);
+      assertEquals(result, ImmutableList.copyOf(Iterables.filter(expected(), query)));
+   }
+
+   public void testQueryByCategoryAndLabel() {
+      ImageQuery query = ImageQuery.builder().category("suse").labelContains("ENTERPRISE").build();
+      InputStream is = getClass().getResourceAsStream("/images.xml");
+      List<Image> result = factory.create(new ListImagesHandler(query)).parse(is);
+
+      assertEquals(result, ImmutableList.of(expected().get(7)));
+   }
+
+   public void testQueryWithPredicate() {
+      ImageQuery query = ImageQuery.builder().os(OSType.LINUX).matching(new Predicate<Image>() {
+         @Override public boolean apply(Image input) {
+            return input.logicalSizeInGB() == 10;
+         }
+      }).build();
+      InputStream is = getClass().getResourceAsStream("/images.xml");
+      List<Image> result = factory.create(new ListImagesHandler(query)).parse(is);
+
+      assertEquals(result, ImmutableList.of(expected().get(8)));
+   }
+
+   public void testQueryByLocationMatchesAnyListedLocation() {
+      ImageQuery query = ImageQuery.builder().location("west us").build();
+
+      assertEquals(query.acceptsLocation("East US;West US;North Europe"), true);
+      assertEquals(query.acceptsLocation("East US"), false);
+      assertEquals(query.acceptsLocation(null), false);
+      assertEquals(ImageQuery.all().acceptsLocation(null), true);
+   }
+
    public static List<Image> expected() {
       return ImmutableList.of( //
             Image.create( //
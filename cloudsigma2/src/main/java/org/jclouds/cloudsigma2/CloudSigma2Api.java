@@ -1075,6 +1075,34 @@ public interface CloudSigma2Api extends Closeable {
    @ResponseParser(ParseTransactions.class)
    PaginatedCollection<Transaction> listTransactions(PaginationOptions options);
 
+   /**
+    * Get the transactions for the account that happened at or after the given time.
+    *
+    * @param time ISO 8601 date and time of the oldest transaction to return.
+    * @return PaginatedCollection of account's transactions.
+    */
+   @Named("ledger:listTransactions")
+   @GET
+   @Path("/ledger/")
+   @ResponseParser(ParseTransactions.class)
+   PaginatedCollection<Transaction> listTransactionsSince(@QueryParam("time__gte") String time,
+                                                          PaginationOptions options);
+
+   /**
+    * Get the transactions for the account that happened at or after a time and before another one.
+    *
+    * @param from ISO 8601 date and time of the oldest transaction to return.
+    * @param to ISO 8601 date and time after the newest transaction to return.
+    * @return PaginatedCollection of account's transactions.
+    */
+   @Named("ledger:listTransactions")
+   @GET
+   @Path("/ledger/")
+   @ResponseParser(ParseTransactions.class)
+   PaginatedCollection<Transaction> listTransactionsBetween(@QueryParam("time__gte") String from,
+                                                            @QueryParam("time__lt") String to,
+                                                            PaginationOptions options);
+
    /**
     * Get the licenses available on the cloud. The type of the license can be one of:
     * install - These licenses are billed per installation, regardless of whether it is attached to a running guests or not.
@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.CreateSubscriptionRequest;
 import org.jclouds.cloudsigma2.functions.CreateSubscriptionRequestToJson;
 import org.jclouds.http.HttpRequest;
@@ -43,9 +42,7 @@ public class BindCreateSubscriptionRequest implements Binder {
       checkArgument(input instanceof CreateSubscriptionRequest,
             "this binder is only valid for CreateSubscriptionRequest!");
       CreateSubscriptionRequest create = CreateSubscriptionRequest.class.cast(input);
-      JsonObject subscriptionObject = subscriptionRequestJsonObjectFunction.apply(create);
-
-      request.setPayload(subscriptionObject.toString());
+      request.setPayload(subscriptionRequestJsonObjectFunction.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.CreateSubscriptionRequest;
 import org.jclouds.cloudsigma2.functions.CreateSubscriptionRequestToJson;
 import org.jclouds.http.HttpRequest;
@@ -48,18 +46,8 @@ public class BindCreateSubscriptionRequestList implements Binder {
          checkArgument(o instanceof CreateSubscriptionRequest,
                "this binder is only valid for List<CreateSubscriptionRequest>!");
       }
-      List<CreateSubscriptionRequest> createSubscriptionRequests = (List<CreateSubscriptionRequest>) input;
-      JsonArray subscriptionsJsonArray = new JsonArray();
-
-      for (CreateSubscriptionRequest createSubscriptionRequest : createSubscriptionRequests) {
-         JsonObject sunbscriptionRequestObject = subscriptionRequestJsonObjectFunction.apply(createSubscriptionRequest);
-         subscriptionsJsonArray.add(sunbscriptionRequestObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", subscriptionsJsonArray);
-
-      request.setPayload(json.toString());
+      Iterable<CreateSubscriptionRequest> createSubscriptionRequests = (Iterable<CreateSubscriptionRequest>) input;
+      request.setPayload(subscriptionRequestJsonObjectFunction.toJsonObjects(createSubscriptionRequests));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
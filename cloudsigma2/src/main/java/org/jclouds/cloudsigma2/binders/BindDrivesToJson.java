@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.DriveInfo;
 import org.jclouds.cloudsigma2.functions.DriveToJson;
 import org.jclouds.http.HttpRequest;
@@ -46,18 +44,8 @@ public class BindDrivesToJson implements Binder {
       for (Object o : list) {
          checkArgument(o instanceof DriveInfo, "this binder is only valid for List<DriveInfo>!");
       }
-      List<DriveInfo> drivesList = (List<DriveInfo>) payload;
-      JsonArray drivesJsonArray = new JsonArray();
-
-      for (DriveInfo drive : drivesList) {
-         JsonObject driveObject = createDriveRequestJson.apply(drive);
-         drivesJsonArray.add(driveObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", drivesJsonArray);
-
-      request.setPayload(json.toString());
+      Iterable<DriveInfo> drivesList = (Iterable<DriveInfo>) payload;
+      request.setPayload(createDriveRequestJson.toJsonObjects(drivesList));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.FirewallPolicy;
 import org.jclouds.cloudsigma2.functions.FirewallPolicyToJson;
 import org.jclouds.http.HttpRequest;
@@ -45,18 +43,8 @@ public class BindFirewallPoliciesListToJsonRequest implements Binder {
       for (Object o : list) {
          checkArgument(o instanceof FirewallPolicy, "this binder is only valid for List<FirewallPolicy>!");
       }
-      List<FirewallPolicy> firewallPolicies = (List<FirewallPolicy>) input;
-      JsonArray firewalsJsonArray = new JsonArray();
-
-      for (FirewallPolicy firewallPolicy : firewallPolicies) {
-         JsonObject firewallObject = policyJsonObjectFunction.apply(firewallPolicy);
-         firewalsJsonArray.add(firewallObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", firewalsJsonArray);
-
-      request.setPayload(json.toString());
+      Iterable<FirewallPolicy> firewallPolicies = (Iterable<FirewallPolicy>) input;
+      request.setPayload(policyJsonObjectFunction.toJsonObjects(firewallPolicies));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.FirewallPolicy;
 import org.jclouds.cloudsigma2.functions.FirewallPolicyToJson;
 import org.jclouds.http.HttpRequest;
@@ -42,9 +41,7 @@ public class BindFirewallPolicyToJsonRequest implements Binder {
    public <R extends HttpRequest> R bindToRequest(R request, Object input) {
       checkArgument(input instanceof FirewallPolicy, "this binder is only valid for FirewallPolicy!");
       FirewallPolicy create = FirewallPolicy.class.cast(input);
-      JsonObject firewallJsonObject = policyJsonObjectFunction.apply(create);
-
-      request.setPayload(firewallJsonObject.toString());
+      request.setPayload(policyJsonObjectFunction.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.IPInfo;
 import org.jclouds.cloudsigma2.functions.IPInfoToJson;
 import org.jclouds.http.HttpRequest;
@@ -42,9 +41,7 @@ public class BindIPInfoToJsonRequest implements Binder {
    public <R extends HttpRequest> R bindToRequest(R request, Object input) {
       checkArgument(input instanceof IPInfo, "this binder is only valid for IPInfo!");
       IPInfo create = IPInfo.class.cast(input);
-      JsonObject ipJsonObject = ipInfoJsonObjectFunction.apply(create);
-
-      request.setPayload(ipJsonObject.toString());
+      request.setPayload(ipInfoJsonObjectFunction.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
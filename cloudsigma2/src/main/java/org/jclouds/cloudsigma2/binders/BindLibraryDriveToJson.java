@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import com.google.inject.Singleton;
 import org.jclouds.cloudsigma2.domain.LibraryDrive;
 import org.jclouds.cloudsigma2.functions.LibraryDriveToJson;
@@ -42,8 +41,7 @@ public class BindLibraryDriveToJson implements Binder {
    public <R extends HttpRequest> R bindToRequest(R request, Object input) {
       checkArgument(input instanceof LibraryDrive, "this binder is only valid for LibraryDrive!");
       LibraryDrive create = LibraryDrive.class.cast(input);
-      JsonObject profileInfoJsonObject = createDriveJsonObjectFunction.apply(create);
-      request.setPayload(profileInfoJsonObject.toString());
+      request.setPayload(createDriveJsonObjectFunction.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.ProfileInfo;
 import org.jclouds.cloudsigma2.functions.ProfileInfoToJson;
 import org.jclouds.http.HttpRequest;
@@ -42,8 +41,7 @@ public class BindProfileInfoToJsonRequest implements Binder {
    public <R extends HttpRequest> R bindToRequest(R request, Object input) {
       checkArgument(input instanceof ProfileInfo, "this binder is only valid for ProfileInfo!");
       ProfileInfo create = ProfileInfo.class.cast(input);
-      JsonObject profileInfoJsonObject = createProfileRequestToJson.apply(create);
-      request.setPayload(profileInfoJsonObject.toString());
+      request.setPayload(createProfileRequestToJson.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
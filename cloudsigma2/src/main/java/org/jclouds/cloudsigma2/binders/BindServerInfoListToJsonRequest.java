@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.ServerInfo;
 import org.jclouds.cloudsigma2.functions.ServerInfoToJson;
 import org.jclouds.http.HttpRequest;
@@ -47,17 +45,7 @@ public class BindServerInfoListToJsonRequest implements Binder {
          checkArgument(o instanceof ServerInfo, "this binder is only valid for List<ServerInfo>!");
       }
       Iterable<ServerInfo> serverInfoList = (Iterable<ServerInfo>) payload;
-      JsonArray serversJsonArray = new JsonArray();
-
-      for (ServerInfo serverInfo : serverInfoList) {
-         JsonObject driveObject = createServerInfoRequestToJson.apply(serverInfo);
-         serversJsonArray.add(driveObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", serversJsonArray);
-
-      request.setPayload(json.toString());
+      request.setPayload(createServerInfoRequestToJson.toJsonObjects(serverInfoList));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
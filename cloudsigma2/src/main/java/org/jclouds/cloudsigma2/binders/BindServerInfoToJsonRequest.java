@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.ServerInfo;
 import org.jclouds.cloudsigma2.functions.ServerInfoToJson;
 import org.jclouds.http.HttpRequest;
@@ -42,8 +41,7 @@ public class BindServerInfoToJsonRequest implements Binder {
       checkArgument(input instanceof ServerInfo, "this binder is only valid for ServerInfo!");
       ServerInfo create = ServerInfo.class.cast(input);
 
-      JsonObject serverInfoJson = createServerInfoRequestToJson.apply(create);
-      request.setPayload(serverInfoJson.toString());
+      request.setPayload(createServerInfoRequestToJson.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.Tag;
 import org.jclouds.cloudsigma2.functions.TagToJson;
 import org.jclouds.http.HttpRequest;
@@ -47,17 +45,7 @@ public class BindTagListToJsonRequest implements Binder {
          checkArgument(o instanceof Tag, "this binder is only valid for List<Tag>!");
       }
       Iterable<Tag> tags = (Iterable<Tag>) payload;
-      JsonArray tagJsonArray = new JsonArray();
-
-      for (Tag tag : tags) {
-         JsonObject driveObject = tagJsonObjectFunction.apply(tag);
-         tagJsonArray.add(driveObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", tagJsonArray);
-
-      request.setPayload(json.toString());
+      request.setPayload(tagJsonObjectFunction.toJsonObjects(tags));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
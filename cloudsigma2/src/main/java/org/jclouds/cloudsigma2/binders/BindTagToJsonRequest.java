@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.Tag;
 import org.jclouds.cloudsigma2.functions.TagToJson;
 import org.jclouds.http.HttpRequest;
@@ -42,8 +41,7 @@ public class BindTagToJsonRequest implements Binder {
       checkArgument(input instanceof Tag, "this binder is only valid for Tag!");
       Tag create = Tag.class.cast(input);
 
-      JsonObject serverInfoJson = createTagRequestToJson.apply(create);
-      request.setPayload(serverInfoJson.toString());
+      request.setPayload(createTagRequestToJson.toJson(create));
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
    }
@@ -16,14 +16,15 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.common.base.Throwables;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.rest.Binder;
 
 import javax.inject.Singleton;
 import javax.ws.rs.core.MediaType;
-import java.util.List;
+import java.io.IOException;
+import java.io.StringWriter;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -31,22 +32,27 @@ import static com.google.common.base.Preconditions.checkArgument;
 public class BindUuidStringsToJsonArray implements Binder {
    @Override
    public <R extends HttpRequest> R bindToRequest(R request, Object payload) {
-      checkArgument(payload instanceof List, "this binder is only valid for List<String>!");
-      List<?> list = List.class.cast(payload);
-      for (Object o : list) {
-         checkArgument(o instanceof String, "this binder is only valid for List<String>!");
+      checkArgument(payload instanceof Iterable, "this binder is only valid for Iterable<String>!");
+      Iterable<?> iterable = Iterable.class.cast(payload);
+      for (Object o : iterable) {
+         checkArgument(o instanceof String, "this binder is only valid for Iterable<String>!");
       }
+      @SuppressWarnings("unchecked")
       Iterable<String> uuids = (Iterable<String>) payload;
-      JsonArray uuidJsonArray = new JsonArray();
-      JsonObject json = new JsonObject();
+      StringWriter json = new StringWriter();
 
-      for (String uuid : uuids) {
-         JsonObject uuidObject = new JsonObject();
-         uuidObject.addProperty("uuid", uuid);
-         uuidJsonArray.add(uuidObject);
+      try {
+         JsonWriter writer = new JsonWriter(json);
+         writer.beginObject().name("objects").beginArray();
+         for (String uuid : uuids) {
+            writer.beginObject().name("uuid").value(uuid).endObject();
+         }
+         writer.endArray().endObject();
+         writer.close();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
       }
 
-      json.add("objects", uuidJsonArray);
       request.setPayload(json.toString());
       request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
       return request;
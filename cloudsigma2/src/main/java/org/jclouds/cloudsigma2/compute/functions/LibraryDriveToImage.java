@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.LoginCredentials;
+
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Transforms a {@link LibraryDrive} to the jclouds portable model.
+ */
+@Singleton
+public class LibraryDriveToImage implements Function<LibraryDrive, Image> {
+
+   /**
+    * User configured in the preinstalled library images; its password is the VNC password of the server.
+    */
+   public static final String DEFAULT_LOGIN_USER = "cloudsigma";
+
+   private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+(\\.\\d+)*)");
+
+   private static final ImmutableMap<DriveStatus, Image.Status> driveStatusToImageStatus = ImmutableMap
+         .<DriveStatus, Image.Status> builder()
+         .put(DriveStatus.MOUNTED, Image.Status.AVAILABLE)
+         .put(DriveStatus.UNMOUNTED, Image.Status.AVAILABLE)
+         .put(DriveStatus.COPYING, Image.Status.PENDING)
+         .put(DriveStatus.UNAVAILABLE, Image.Status.ERROR)
+         .build();
+
+   @Override
+   public Image apply(LibraryDrive input) {
+      String name = Strings.nullToEmpty(input.getName());
+      String description = MoreObjects.firstNonNull(input.getDescription(), name);
+      Image.Status status = driveStatusToImageStatus.get(input.getStatus());
+
+      OperatingSystem os = OperatingSystem.builder()
+            .name(name)
+            .description(description)
+            .family(parseOsFamily(name))
+            .version(parseVersion(name))
+            .arch(input.getArch())
+            .is64Bit("64".equals(input.getArch()))
+            .build();
+
+      return new ImageBuilder()
+            .ids(input.getUuid())
+            .name(name)
+            .description(description)
+            .operatingSystem(os)
+            .status(status != null ? status : Image.Status.UNRECOGNIZED)
+            .defaultCredentials(LoginCredentials.builder().user(DEFAULT_LOGIN_USER).authenticateSudo(true).build())
+            .build();
+   }
+
+   private static OsFamily parseOsFamily(String name) {
+      String lowerCaseName = name.toLowerCase();
+      for (OsFamily family : OsFamily.values()) {
+         if (family != OsFamily.UNRECOGNIZED && lowerCaseName.contains(family.value())) {
+            return family;
+         }
+      }
+      return OsFamily.UNRECOGNIZED;
+   }
+
+   private static String parseVersion(String name) {
+      Matcher matcher = VERSION_PATTERN.matcher(name);
+      return matcher.find() ? matcher.group(1) : null;
+   }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.equalTo;
+import static com.google.common.base.Predicates.not;
+import static org.jclouds.cloudsigma2.compute.strategy.CloudSigma2ComputeServiceAdapter.IMAGE_ID_METADATA_KEY;
+import static org.jclouds.cloudsigma2.compute.strategy.CloudSigma2ComputeServiceAdapter.toHardware;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.domain.IP;
+import org.jclouds.cloudsigma2.domain.NIC;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LoginCredentials;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Transforms a {@link ServerInfo} to the jclouds portable model.
+ */
+@Singleton
+public class ServerInfoToNodeMetadata implements Function<ServerInfo, NodeMetadata> {
+
+   private static final BigInteger ONE_MEGABYTE = BigInteger.valueOf(1024 * 1024);
+
+   public static final ImmutableMap<ServerStatus, Status> serverStatusToNodeStatus = ImmutableMap
+         .<ServerStatus, Status> builder()
+         .put(ServerStatus.RUNNING, Status.RUNNING)
+         .put(ServerStatus.STARTING, Status.PENDING)
+         .put(ServerStatus.STOPPING, Status.PENDING)
+         .put(ServerStatus.STOPPED, Status.SUSPENDED)
+         .put(ServerStatus.PAUSED, Status.SUSPENDED)
+         .put(ServerStatus.UNAVAILABLE, Status.ERROR)
+         .put(ServerStatus.UNRECOGNIZED, Status.UNRECOGNIZED)
+         .build();
+
+   private final Supplier<Map<String, ? extends Image>> images;
+   private final Supplier<Location> defaultLocation;
+   private final GroupNamingConvention nodeNamingConvention;
+   private final Map<String, Credentials> credentialStore;
+
+   @Inject
+   ServerInfoToNodeMetadata(Supplier<Map<String, ? extends Image>> images, Supplier<Location> defaultLocation,
+         GroupNamingConvention.Factory namingConvention, Map<String, Credentials> credentialStore) {
+      this.images = checkNotNull(images, "images cannot be null");
+      this.defaultLocation = checkNotNull(defaultLocation, "defaultLocation cannot be null");
+      this.nodeNamingConvention = checkNotNull(namingConvention, "namingConvention cannot be null")
+            .createWithoutPrefix();
+      this.credentialStore = checkNotNull(credentialStore, "credentialStore cannot be null");
+   }
+
+   @Override
+   public NodeMetadata apply(ServerInfo input) {
+      NodeMetadataBuilder builder = new NodeMetadataBuilder();
+      builder.ids(input.getUuid());
+      builder.name(input.getName());
+      builder.hostname(input.getName());
+      builder.group(nodeNamingConvention.extractGroup(input.getName()));
+      builder.location(defaultLocation.get());
+
+      if (input.getMemory() != null) {
+         builder.hardware(toHardware(input.getCpu(), input.getMemory().divide(ONE_MEGABYTE).intValue()));
+      }
+
+      Map<String, String> meta = input.getMeta() == null ? ImmutableMap.<String, String> of() : input.getMeta();
+      String imageId = meta.get(IMAGE_ID_METADATA_KEY);
+      if (imageId != null) {
+         builder.imageId(imageId);
+         Image image = images.get().get(imageId);
+         if (image != null) {
+            builder.operatingSystem(image.getOperatingSystem());
+         }
+      }
+      builder.userMetadata(Maps.filterKeys(meta, not(equalTo(IMAGE_ID_METADATA_KEY))));
+
+      Status status = serverStatusToNodeStatus.get(input.getStatus());
+      builder.status(status != null ? status : Status.UNRECOGNIZED);
+      builder.backendStatus(input.getStatus() != null ? input.getStatus().value() : null);
+
+      builder.publicAddresses(publicAddresses(input));
+      builder.privateAddresses(ImmutableSet.<String> of());
+
+      // CloudSigma does not return the credentials of a server. Try to return them from the credential store
+      Credentials credentials = credentialStore.get("node#" + input.getUuid());
+      if (credentials instanceof LoginCredentials) {
+         builder.credentials(LoginCredentials.class.cast(credentials));
+      }
+
+      return builder.build();
+   }
+
+   private static ImmutableSet<String> publicAddresses(ServerInfo input) {
+      ImmutableSet.Builder<String> addresses = ImmutableSet.builder();
+      if (input.getNics() != null) {
+         for (NIC nic : input.getNics()) {
+            // Static addresses are in the NIC configuration; DHCP ones are only known at runtime
+            if (nic.getIpV4Configuration() != null && nic.getIpV4Configuration().getIp() != null) {
+               addresses.add(nic.getIpV4Configuration().getIp().getUuid());
+            } else if (nic.getRuntime() != null && nic.getRuntime().getIpV4() != null) {
+               IP ip = nic.getRuntime().getIpV4();
+               addresses.add(ip.getUuid());
+            }
+         }
+      }
+      return addresses.build();
+   }
+}
@@ -0,0 +1,536 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.notNull;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS;
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_VNC_PASSWORD;
+import static org.jclouds.util.Predicates2.retry;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.compute.functions.LibraryDriveToImage;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
+import org.jclouds.cloudsigma2.domain.DeviceEmulationType;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.IP;
+import org.jclouds.cloudsigma2.domain.Item;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.cloudsigma2.domain.MediaType;
+import org.jclouds.cloudsigma2.domain.Model;
+import org.jclouds.cloudsigma2.domain.ServerDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Defines the connection between the {@link CloudSigma2Api} implementation and the jclouds
+ * {@link org.jclouds.compute.ComputeService}.
+ * <p>
+ * Besides the single node operations required by the {@link ComputeServiceAdapter} contract, this adapter exposes
+ * group operations built on the bulk endpoints of the API: a group of servers is created with a single request, and
+ * destroyed with one request for the servers and one for their drives.
+ */
+@Singleton
+public class CloudSigma2ComputeServiceAdapter implements
+      ComputeServiceAdapter<ServerInfo, Hardware, LibraryDrive, Location> {
+
+   /**
+    * Server metadata key used to remember the library drive a server was created from.
+    */
+   public static final String IMAGE_ID_METADATA_KEY = "jclouds_image_id";
+
+   private static final String HARDWARE_ID_FORMAT = "cpu=%d,ram=%d";
+   private static final int[] CPU_SPEEDS = { 1000, 2000, 4000, 8000 };
+   private static final int[] RAM_SIZES = { 512, 1024, 2048, 4096, 8192, 16384 };
+   private static final BigInteger ONE_MEGABYTE = BigInteger.valueOf(1024 * 1024);
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final ListeningExecutorService userExecutor;
+   private final Timeouts timeouts;
+   private final PollPeriod pollPeriod;
+   private final String vncPassword;
+   private final int maxConcurrentServerActions;
+
+   @Inject
+   CloudSigma2ComputeServiceAdapter(CloudSigma2Api api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, Timeouts timeouts,
+         PollPeriod pollPeriod, @Named(PROPERTY_VNC_PASSWORD) String vncPassword,
+         @Named(PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS) int maxConcurrentServerActions) {
+      this.api = checkNotNull(api, "api cannot be null");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor cannot be null");
+      this.timeouts = checkNotNull(timeouts, "timeouts cannot be null");
+      this.pollPeriod = checkNotNull(pollPeriod, "pollPeriod cannot be null");
+      this.vncPassword = checkNotNull(vncPassword, "vncPassword cannot be null");
+      this.maxConcurrentServerActions = maxConcurrentServerActions;
+   }
+
+   public static Hardware toHardware(int cpu, int ram) {
+      String id = String.format(HARDWARE_ID_FORMAT, cpu, ram);
+      return new HardwareBuilder().ids(id).name(id).processor(new Processor(1, cpu)).ram(ram).hypervisor("kvm")
+            .build();
+   }
+
+   @Override
+   public NodeAndInitialCredentials<ServerInfo> createNodeWithGroupEncodedIntoName(String group, String name,
+         Template template) {
+      NodeAndInitialCredentials<ServerInfo> node = getOnlyElement(createNodesWithGroupEncodedIntoName(group,
+            ImmutableSet.of(name), template));
+      Futures.getUnchecked(startServers(ImmutableSet.of(node.getNodeId())).get(node.getNodeId()));
+      return node;
+   }
+
+   /**
+    * Creates a stopped server for each of the given names.
+    * <p>
+    * The library drive of the template is cloned once per server with all the clones running concurrently, and the
+    * servers are then created with a single request. If any of the steps fails, the drives cloned so far are deleted
+    * and the failure is propagated.
+    *
+    * @return the created servers, in the iteration order of the given names
+    */
+   public List<NodeAndInitialCredentials<ServerInfo>> createNodesWithGroupEncodedIntoName(String group,
+         Set<String> names, Template template) {
+      checkNotNull(template, "template cannot be null");
+      String imageId = checkNotNull(template.getImage().getId(), "template image id cannot be null");
+      List<String> orderedNames = ImmutableList.copyOf(names);
+
+      logger.debug(">> cloning library drive(%s) for %d servers in group(%s)", imageId, orderedNames.size(), group);
+      List<LibraryDrive> clones = cloneLibraryDrive(imageId, orderedNames);
+      Set<String> cloneIds = uuids(clones);
+
+      List<ServerInfo> servers;
+      try {
+         awaitDrivesNotInStatus(cloneIds, DriveStatus.COPYING);
+
+         ImmutableList.Builder<ServerInfo> requests = ImmutableList.builder();
+         for (int i = 0; i < orderedNames.size(); i++) {
+            requests.add(serverRequest(orderedNames.get(i), clones.get(i), template));
+         }
+
+         logger.debug(">> creating %d servers in group(%s)", orderedNames.size(), group);
+         servers = api.createServers(requests.build());
+         logger.trace("<< servers(%s)", uuids(servers));
+      } catch (RuntimeException e) {
+         deleteDrivesQuietly(cloneIds);
+         throw e;
+      }
+
+      String loginUser = template.getImage().getDefaultCredentials() != null ? template.getImage()
+            .getDefaultCredentials().getUser() : LibraryDriveToImage.DEFAULT_LOGIN_USER;
+      LoginCredentials credentials = LoginCredentials.builder().user(loginUser).password(vncPassword)
+            .authenticateSudo(true).build();
+
+      ImmutableList.Builder<NodeAndInitialCredentials<ServerInfo>> nodes = ImmutableList.builder();
+      for (ServerInfo server : servers) {
+         nodes.add(new NodeAndInitialCredentials<ServerInfo>(server, server.getUuid(), credentials));
+      }
+      return nodes.build();
+   }
+
+   /**
+    * Starts the given servers, with at most {@link CloudSigma2Properties#PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS}
+    * start requests in flight.
+    *
+    * @return a future for each server, completed once its start request has been accepted
+    */
+   public Map<String, ListenableFuture<Void>> startServers(Iterable<String> uuids) {
+      return submitBounded(uuids, new Function<String, Void>() {
+         @Override
+         public Void apply(String uuid) {
+            api.startServer(uuid);
+            return null;
+         }
+      });
+   }
+
+   /**
+    * Stops the given servers, with at most {@link CloudSigma2Properties#PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS}
+    * stop requests in flight.
+    *
+    * @return a future for each server, completed once its stop request has been accepted
+    */
+   public Map<String, ListenableFuture<Void>> stopServers(Iterable<String> uuids) {
+      return submitBounded(uuids, new Function<String, Void>() {
+         @Override
+         public Void apply(String uuid) {
+            api.stopServer(uuid);
+            return null;
+         }
+      });
+   }
+
+   /**
+    * Destroys the given servers and the drives they own.
+    * <p>
+    * Running servers are stopped first. Servers are then deleted with a single request, and their drives with
+    * another one.
+    */
+   public void destroyNodes(Iterable<String> uuids) {
+      Set<String> ids = ImmutableSet.copyOf(uuids);
+      if (ids.isEmpty()) {
+         return;
+      }
+
+      Map<String, ServerInfo> servers = Maps.newLinkedHashMap();
+      for (ServerInfo server : api.listServersInfo().concat()) {
+         if (ids.contains(server.getUuid())) {
+            servers.put(server.getUuid(), server);
+         }
+      }
+      if (servers.isEmpty()) {
+         return;
+      }
+
+      Set<String> running = uuids(filter(servers.values(), new Predicate<ServerInfo>() {
+         @Override
+         public boolean apply(ServerInfo input) {
+            return input.getStatus() != ServerStatus.STOPPED;
+         }
+      }));
+      if (!running.isEmpty()) {
+         logger.debug(">> stopping servers(%s)", running);
+         Futures.getUnchecked(Futures.successfulAsList(stopServers(running).values()));
+         awaitServersInStatus(running, ServerStatus.STOPPED);
+      }
+
+      Set<String> drives = ownedDrives(servers.values());
+
+      logger.debug(">> deleting servers(%s)", servers.keySet());
+      api.deleteServers(servers.keySet());
+
+      if (!drives.isEmpty()) {
+         awaitDrivesNotInStatus(drives, DriveStatus.MOUNTED);
+         logger.debug(">> deleting drives(%s)", drives);
+         api.deleteDrives(drives);
+      }
+   }
+
+   @Override
+   public Iterable<Hardware> listHardwareProfiles() {
+      ImmutableSet.Builder<Hardware> hardware = ImmutableSet.builder();
+      for (int cpu : CPU_SPEEDS) {
+         for (int ram : RAM_SIZES) {
+            hardware.add(toHardware(cpu, ram));
+         }
+      }
+      return hardware.build();
+   }
+
+   @Override
+   public Iterable<LibraryDrive> listImages() {
+      return ImmutableList.copyOf(filter(api.listLibraryDrives().concat(), new Predicate<LibraryDrive>() {
+         @Override
+         public boolean apply(LibraryDrive input) {
+            return input.getMedia() == MediaType.DISK;
+         }
+      }));
+   }
+
+   @Override
+   public LibraryDrive getImage(String id) {
+      return api.getLibraryDrive(id);
+   }
+
+   @Override
+   public Iterable<Location> listLocations() {
+      // Each CloudSigma endpoint is a single location
+      return ImmutableSet.of();
+   }
+
+   @Override
+   public ServerInfo getNode(String id) {
+      return api.getServerInfo(id);
+   }
+
+   @Override
+   public Iterable<ServerInfo> listNodes() {
+      return api.listServersInfo().concat();
+   }
+
+   @Override
+   public Iterable<ServerInfo> listNodesByIds(Iterable<String> ids) {
+      final Set<String> idSet = ImmutableSet.copyOf(ids);
+      return ImmutableList.copyOf(filter(listNodes(), new Predicate<ServerInfo>() {
+         @Override
+         public boolean apply(ServerInfo input) {
+            return idSet.contains(input.getUuid());
+         }
+      }));
+   }
+
+   @Override
+   public void destroyNode(String id) {
+      destroyNodes(ImmutableSet.of(id));
+   }
+
+   @Override
+   public void rebootNode(String id) {
+      api.stopServer(id);
+      awaitServersInStatus(ImmutableSet.of(id), ServerStatus.STOPPED);
+      api.startServer(id);
+   }
+
+   @Override
+   public void resumeNode(String id) {
+      api.startServer(id);
+   }
+
+   @Override
+   public void suspendNode(String id) {
+      api.stopServer(id);
+   }
+
+   private List<LibraryDrive> cloneLibraryDrive(final String imageId, List<String> names) {
+      List<ListenableFuture<LibraryDrive>> futures = Lists.newArrayListWithCapacity(names.size());
+      for (final String name : names) {
+         futures.add(userExecutor.submit(new Callable<LibraryDrive>() {
+            @Override
+            public LibraryDrive call() {
+               LibraryDrive clone = api.cloneLibraryDrive(imageId, new LibraryDrive.Builder().name(name)
+                     .media(MediaType.DISK).build());
+               if (clone == null) {
+                  throw new IllegalStateException("library drive " + imageId + " was not found");
+               }
+               return clone;
+            }
+         }));
+      }
+
+      List<LibraryDrive> clones = Futures.getUnchecked(Futures.successfulAsList(futures));
+      if (clones.contains(null)) {
+         deleteDrivesQuietly(uuids(filter(clones, notNull())));
+         for (ListenableFuture<LibraryDrive> future : futures) {
+            // Surface the first failure
+            Futures.getUnchecked(future);
+         }
+      }
+      return clones;
+   }
+
+   private ServerInfo serverRequest(String name, LibraryDrive drive, Template template) {
+      Hardware hardware = template.getHardware();
+      double cpu = 0;
+      for (Processor processor : hardware.getProcessors()) {
+         cpu += processor.getCores() * processor.getSpeed();
+      }
+
+      Map<String, String> meta = Maps.newLinkedHashMap(template.getOptions().getUserMetadata());
+      meta.put(IMAGE_ID_METADATA_KEY, template.getImage().getId());
+
+      return new ServerInfo.Builder()
+            .name(name)
+            .cpu((int) cpu)
+            .memory(BigInteger.valueOf(hardware.getRam()).multiply(ONE_MEGABYTE))
+            .vncPassword(vncPassword)
+            .meta(meta)
+            .drives(ImmutableList.of(drive.toServerDrive(1, "0:0", DeviceEmulationType.VIRTIO)))
+            .nics(ImmutableList.of(IP.createDHCPIPv4ConfNIC(Model.VIRTIO)))
+            .build();
+   }
+
+   /**
+    * Returns the drives attached to the given servers that belong to the account. Library drives mounted as CD-ROMs
+    * are shared and must not be deleted with the servers.
+    */
+   private Set<String> ownedDrives(Iterable<ServerInfo> servers) {
+      Set<String> attached = Sets.newHashSet();
+      for (ServerInfo server : servers) {
+         if (server.getDrives() != null) {
+            for (ServerDrive drive : server.getDrives()) {
+               if (drive.getDriveUuid() != null) {
+                  attached.add(drive.getDriveUuid());
+               } else if (drive.getDrive() != null) {
+                  attached.add(drive.getDrive().getUuid());
+               }
+            }
+         }
+      }
+      if (attached.isEmpty()) {
+         return ImmutableSet.of();
+      }
+
+      ImmutableSet.Builder<String> owned = ImmutableSet.builder();
+      for (DriveInfo drive : api.listDrivesInfo().concat()) {
+         if (attached.contains(drive.getUuid())) {
+            owned.add(drive.getUuid());
+         }
+      }
+      return owned.build();
+   }
+
+   private void deleteDrivesQuietly(Set<String> uuids) {
+      if (uuids.isEmpty()) {
+         return;
+      }
+      try {
+         logger.debug(">> deleting drives(%s)", uuids);
+         api.deleteDrives(uuids);
+      } catch (RuntimeException e) {
+         logger.warn(e, ">> could not delete drives(%s)", uuids);
+      }
+   }
+
+   /**
+    * Runs the given action for each uuid on the user executor, using no more than
+    * {@link CloudSigma2Properties#PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS} threads at a time.
+    */
+   @VisibleForTesting
+   Map<String, ListenableFuture<Void>> submitBounded(Iterable<String> uuids, final Function<String, Void> action) {
+      final Queue<Map.Entry<String, SettableFuture<Void>>> pending =
+            new ConcurrentLinkedQueue<Map.Entry<String, SettableFuture<Void>>>();
+      ImmutableMap.Builder<String, ListenableFuture<Void>> futures = ImmutableMap.builder();
+      for (String uuid : ImmutableSet.copyOf(uuids)) {
+         SettableFuture<Void> future = SettableFuture.create();
+         pending.add(Maps.immutableEntry(uuid, future));
+         futures.put(uuid, future);
+      }
+
+      int workers = Math.min(Math.max(maxConcurrentServerActions, 1), pending.size());
+      for (int i = 0; i < workers; i++) {
+         userExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               Map.Entry<String, SettableFuture<Void>> next;
+               while ((next = pending.poll()) != null) {
+                  try {
+                     next.getValue().set(action.apply(next.getKey()));
+                  } catch (RuntimeException e) {
+                     next.getValue().setException(e);
+                  }
+               }
+            }
+         });
+      }
+      return futures.build();
+   }
+
+   /**
+    * Waits until all the given servers are in the given status. On each poll only the servers that have not reached
+    * the status yet are fetched, with at most {@link CloudSigma2Properties#PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS}
+    * requests in flight. Servers that no longer exist are not waited for.
+    */
+   private void awaitServersInStatus(Set<String> uuids, final ServerStatus status) {
+      Predicate<Set<String>> inStatus = new Predicate<Set<String>>() {
+         @Override
+         public boolean apply(final Set<String> pending) {
+            awaitAll(submitBounded(pending, new Function<String, Void>() {
+               @Override
+               public Void apply(String uuid) {
+                  ServerInfo server = api.getServerInfo(uuid);
+                  if (server == null || server.getStatus() == status) {
+                     pending.remove(uuid);
+                  }
+                  return null;
+               }
+            }));
+            return pending.isEmpty();
+         }
+      };
+      if (!retry(inStatus, timeouts.nodeSuspended, pollPeriod.pollInitialPeriod, pollPeriod.pollMaxPeriod).apply(
+            Sets.newConcurrentHashSet(uuids))) {
+         throw new IllegalStateException(String.format("servers %s did not reach status %s within %sms", uuids,
+               status, timeouts.nodeSuspended));
+      }
+   }
+
+   /**
+    * Waits until none of the given drives is in the given status. On each poll only the drives that were still in
+    * the status are fetched, with at most {@link CloudSigma2Properties#PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS}
+    * requests in flight. Drives that no longer exist are not waited for.
+    */
+   private void awaitDrivesNotInStatus(Set<String> uuids, final DriveStatus status) {
+      Predicate<Set<String>> leftStatus = new Predicate<Set<String>>() {
+         @Override
+         public boolean apply(final Set<String> pending) {
+            awaitAll(submitBounded(pending, new Function<String, Void>() {
+               @Override
+               public Void apply(String uuid) {
+                  DriveInfo drive = api.getDriveInfo(uuid);
+                  if (drive == null || drive.getStatus() != status) {
+                     pending.remove(uuid);
+                  }
+                  return null;
+               }
+            }));
+            return pending.isEmpty();
+         }
+      };
+      if (!retry(leftStatus, timeouts.nodeRunning, pollPeriod.pollInitialPeriod, pollPeriod.pollMaxPeriod).apply(
+            Sets.newConcurrentHashSet(uuids))) {
+         throw new IllegalStateException(String.format("drives %s were still %s after %sms", uuids, status,
+               timeouts.nodeRunning));
+      }
+   }
+
+   private static void awaitAll(Map<String, ListenableFuture<Void>> futures) {
+      Futures.getUnchecked(Futures.allAsList(futures.values()));
+   }
+
+   private static Set<String> uuids(Iterable<? extends Item> items) {
+      ImmutableSet.Builder<String> uuids = ImmutableSet.builder();
+      for (Item item : items) {
+         uuids.add(item.getUuid());
+      }
+      return uuids.build();
+   }
+}
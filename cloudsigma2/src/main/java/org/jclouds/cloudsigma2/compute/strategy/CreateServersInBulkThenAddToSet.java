@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.compute.config.CustomizationResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+import org.jclouds.domain.Credentials;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Creates a group of nodes using the bulk endpoints of the CloudSigma API.
+ * <p>
+ * Instead of creating each node independently, the library drives for the whole group are cloned concurrently, all
+ * the servers are created with a single request and they are then started with bounded parallelism. Each node is
+ * customized as soon as its start request has been accepted.
+ */
+@Singleton
+public class CreateServersInBulkThenAddToSet extends CreateNodesWithGroupEncodedIntoNameThenAddToSet {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2ComputeServiceAdapter adapter;
+   private final Function<ServerInfo, NodeMetadata> serverToNodeMetadata;
+   private final Map<String, Credentials> credentialStore;
+
+   @Inject
+   protected CreateServersInBulkThenAddToSet(
+         CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
+         ListNodesStrategy listNodesStrategy,
+         GroupNamingConvention.Factory namingConvention,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
+         CloudSigma2ComputeServiceAdapter adapter, Function<ServerInfo, NodeMetadata> serverToNodeMetadata,
+         Map<String, Credentials> credentialStore) {
+      super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, userExecutor,
+            customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
+      this.adapter = checkNotNull(adapter, "adapter cannot be null");
+      this.serverToNodeMetadata = checkNotNull(serverToNodeMetadata, "serverToNodeMetadata cannot be null");
+      this.credentialStore = checkNotNull(credentialStore, "credentialStore cannot be null");
+   }
+
+   @Override
+   public Map<?, ListenableFuture<Void>> execute(String group, int count, Template template,
+         Set<NodeMetadata> goodNodes, final Map<NodeMetadata, Exception> badNodes,
+         Multimap<NodeMetadata, CustomizationResponse> customizationResponses) {
+
+      Set<String> names = getNextNames(group, template, count);
+      List<NodeAndInitialCredentials<ServerInfo>> servers = adapter.createNodesWithGroupEncodedIntoName(group, names,
+            template);
+
+      Map<String, NodeMetadata> nodes = Maps.newLinkedHashMap();
+      for (NodeAndInitialCredentials<ServerInfo> server : servers) {
+         credentialStore.put("node#" + server.getNodeId(), server.getCredentials());
+         NodeMetadata node = NodeMetadataBuilder.fromNodeMetadata(serverToNodeMetadata.apply(server.getNode()))
+               .credentials(server.getCredentials()).build();
+         nodes.put(server.getNodeId(), node);
+      }
+
+      final Function<AtomicReference<NodeMetadata>, Void> customizeNode =
+            customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
+                  badNodes, customizationResponses);
+      Map<String, ListenableFuture<Void>> starts = adapter.startServers(nodes.keySet());
+
+      Map<String, ListenableFuture<Void>> responses = Maps.newLinkedHashMap();
+      for (Map.Entry<String, NodeMetadata> entry : nodes.entrySet()) {
+         final NodeMetadata node = entry.getValue();
+         final SettableFuture<Void> response = SettableFuture.create();
+
+         Futures.addCallback(starts.get(entry.getKey()), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+               try {
+                  response.set(customizeNode.apply(new AtomicReference<NodeMetadata>(node)));
+               } catch (RuntimeException e) {
+                  response.setException(e);
+               }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+               logger.warn(t, "<< could not start node(%s)", node.getId());
+               synchronized (badNodes) {
+                  badNodes.put(node, t instanceof Exception ? (Exception) t : new ExecutionException(t));
+               }
+               response.set(null);
+            }
+         }, userExecutor);
+
+         responses.put(node.getName(), response);
+      }
+      return responses;
+   }
+}
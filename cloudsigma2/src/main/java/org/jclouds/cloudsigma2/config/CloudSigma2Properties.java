@@ -23,4 +23,25 @@ public class CloudSigma2Properties {
     */
    public static final String PROPERTY_VNC_PASSWORD = "jclouds.cloudsigma.vnc-password";
 
+   /**
+    * maximum number of start or stop requests issued concurrently when acting on a group of servers
+    */
+   public static final String PROPERTY_MAX_CONCURRENT_SERVER_ACTIONS = "jclouds.cloudsigma.max-concurrent-server-actions";
+
+   /**
+    * size of the pages requested after the first one when listing resources; zero chooses it based on the total
+    * number of resources
+    */
+   public static final String PROPERTY_PAGE_SIZE = "jclouds.cloudsigma.page-size";
+
+   /**
+    * maximum number of page requests issued concurrently when listing resources
+    */
+   public static final String PROPERTY_MAX_CONCURRENT_PAGE_REQUESTS = "jclouds.cloudsigma.max-concurrent-page-requests";
+
+   /**
+    * number of samples kept for each server NIC by the runtime telemetry sampler
+    */
+   public static final String PROPERTY_TELEMETRY_SAMPLES = "jclouds.cloudsigma.telemetry-samples";
+
 }
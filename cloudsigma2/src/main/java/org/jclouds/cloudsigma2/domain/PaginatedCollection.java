@@ -32,6 +32,10 @@ public class PaginatedCollection<T> extends IterableWithMarker<T> {
       this.paginationOptions = paginationOptions;
    }
 
+   public PaginationOptions getPaginationOptions() {
+      return paginationOptions;
+   }
+
    @Override
    public Optional<Object> nextMarker() {
       if (paginationOptions.getLimit() == 0) {
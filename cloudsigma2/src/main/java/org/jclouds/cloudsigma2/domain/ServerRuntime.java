@@ -55,6 +55,20 @@ public class ServerRuntime {
       this.nicStats = nicStats;
    }
 
+   /**
+    * @return Time since the server is running
+    */
+   public Date getActiveSince() {
+      return activeSince;
+   }
+
+   /**
+    * @return Runtime statistics of the server NICs
+    */
+   public Iterable<NICStats> getNicStats() {
+      return nicStats;
+   }
+
    @Override
    public int hashCode() {
       final int prime = 31;
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Base class for the functions that serialize domain objects into CloudSigma request bodies.
+ * <p>
+ * Subclasses write their properties straight to a {@link JsonWriter}, so binders can stream a
+ * whole request body, including bulk <code>{"objects": [...]}</code> bodies, in a single pass
+ * without building an intermediate Gson tree. {@link #apply(Object)} is kept for callers that
+ * still need a {@link JsonObject}.
+ */
+public abstract class BaseToJson<T> implements Function<T, JsonObject> {
+
+   /**
+    * Writes the properties of the given input to the current (already opened) JSON object.
+    */
+   protected abstract void writeProperties(JsonWriter writer, T input) throws IOException;
+
+   /**
+    * Writes the given input as a JSON object, or as a JSON <code>null</code> if it is null.
+    */
+   public void write(JsonWriter writer, @Nullable T input) throws IOException {
+      if (input == null) {
+         writer.nullValue();
+         return;
+      }
+      writer.beginObject();
+      writeProperties(writer, input);
+      writer.endObject();
+   }
+
+   /**
+    * Serializes the given input into a JSON string.
+    */
+   public String toJson(@Nullable T input) {
+      StringWriter out = new StringWriter();
+      try {
+         JsonWriter writer = new JsonWriter(out);
+         write(writer, input);
+         writer.close();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      return out.toString();
+   }
+
+   /**
+    * Serializes the given inputs into the <code>{"objects": [...]}</code> body used by the bulk
+    * operations of the API.
+    */
+   public String toJsonObjects(Iterable<? extends T> inputs) {
+      StringWriter out = new StringWriter();
+      try {
+         JsonWriter writer = new JsonWriter(out);
+         writer.beginObject();
+         writer.name("objects");
+         writer.beginArray();
+         for (T input : inputs) {
+            write(writer, input);
+         }
+         writer.endArray();
+         writer.endObject();
+         writer.close();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      return out.toString();
+   }
+
+   @Override
+   public JsonObject apply(@Nullable T input) {
+      if (input == null) {
+         return null;
+      }
+      return new JsonParser().parse(toJson(input)).getAsJsonObject();
+   }
+
+   /**
+    * Writes a string map as a nested object. Null values are skipped, as Gson does by default.
+    */
+   protected static void writeStringMap(JsonWriter writer, String name, Map<String, String> map)
+         throws IOException {
+      writer.name(name);
+      writer.beginObject();
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+         if (entry.getValue() != null) {
+            writer.name(entry.getKey()).value(entry.getValue());
+         }
+      }
+      writer.endObject();
+   }
+
+   /**
+    * Writes a list of strings as a nested array.
+    */
+   protected static void writeStringList(JsonWriter writer, String name, List<String> list) throws IOException {
+      writer.name(name);
+      writer.beginArray();
+      for (String value : list) {
+         writer.value(value);
+      }
+      writer.endArray();
+   }
+}
@@ -16,45 +16,40 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.DriveInfo;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class DriveToJson implements Function<DriveInfo, JsonObject> {
+public class DriveToJson extends BaseToJson<DriveInfo> {
    @Override
-   public JsonObject apply(DriveInfo input) {
-      JsonObject driveObject = new JsonObject();
-
+   protected void writeProperties(JsonWriter writer, DriveInfo input) throws IOException {
       if (input.getName() != null) {
-         driveObject.addProperty("name", input.getName());
+         writer.name("name").value(input.getName());
       }
 
       if (input.getSize() != null) {
-         driveObject.addProperty("size", "" + input.getSize().toString());
+         writer.name("size").value(input.getSize().toString());
       }
 
       if (input.getMedia() != null) {
-         driveObject.addProperty("media", input.getMedia().toString());
+         writer.name("media").value(input.getMedia().toString());
       }
 
       if (input.getAffinities() != null) {
-         driveObject.add("affinities", new JsonParser().parse(new Gson().toJson(input.getAffinities())));
+         writeStringList(writer, "affinities", input.getAffinities());
       }
 
       if (input.getMeta() != null) {
-         driveObject.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeStringMap(writer, "meta", input.getMeta());
       }
 
       if (input.getTags() != null) {
-         driveObject.add("tags", new JsonParser().parse(new Gson().toJson(input.getTags())));
+         writeStringList(writer, "tags", input.getTags());
       }
 
-      driveObject.addProperty("allow_multimount", input.isAllowMultimount());
-      return driveObject;
+      writer.name("allow_multimount").value(input.isAllowMultimount());
    }
 }
@@ -16,74 +16,67 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.FirewallPolicy;
 import org.jclouds.cloudsigma2.domain.FirewallRule;
-import org.jclouds.javax.annotation.Nullable;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class FirewallPolicyToJson implements Function<FirewallPolicy, JsonObject> {
+public class FirewallPolicyToJson extends BaseToJson<FirewallPolicy> {
    @Override
-   public JsonObject apply(@Nullable FirewallPolicy input) {
-      JsonObject firewallObject = new JsonObject();
-
+   protected void writeProperties(JsonWriter writer, FirewallPolicy input) throws IOException {
       if (input.getName() != null) {
-         firewallObject.addProperty("name", input.getName());
+         writer.name("name").value(input.getName());
       }
 
       if (input.getMeta() != null) {
-         firewallObject.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeStringMap(writer, "meta", input.getMeta());
       }
 
       if (input.getRules() != null) {
-         JsonArray rulesArray = new JsonArray();
+         writer.name("rules").beginArray();
 
          for (FirewallRule rule : input.getRules()) {
-            JsonObject ruleObject = new JsonObject();
+            writer.beginObject();
 
             if (rule.getAction() != null) {
-               ruleObject.addProperty("action", rule.getAction().value());
+               writer.name("action").value(rule.getAction().value());
             }
 
             if (rule.getComment() != null) {
-               ruleObject.addProperty("comment", rule.getComment());
+               writer.name("comment").value(rule.getComment());
             }
 
             if (rule.getDirection() != null) {
-               ruleObject.addProperty("direction", rule.getDirection().value());
+               writer.name("direction").value(rule.getDirection().value());
             }
 
             if (rule.getDestinationIp() != null) {
-               ruleObject.addProperty("dst_ip", rule.getDestinationIp());
+               writer.name("dst_ip").value(rule.getDestinationIp());
             }
 
             if (rule.getDestinationPort() != null) {
-               ruleObject.addProperty("dst_port", rule.getDestinationPort());
+               writer.name("dst_port").value(rule.getDestinationPort());
             }
 
             if (rule.getIpProtocol() != null) {
-               ruleObject.addProperty("ip_proto", rule.getIpProtocol().toString());
+               writer.name("ip_proto").value(rule.getIpProtocol().toString());
             }
 
             if (rule.getSourceIp() != null) {
-               ruleObject.addProperty("src_ip", rule.getSourceIp());
+               writer.name("src_ip").value(rule.getSourceIp());
             }
 
             if (rule.getSourcePort() != null) {
-               ruleObject.addProperty("src_port", rule.getSourcePort());
+               writer.name("src_port").value(rule.getSourcePort());
             }
 
-            rulesArray.add(ruleObject);
+            writer.endObject();
          }
 
-         firewallObject.add("rules", rulesArray);
+         writer.endArray();
       }
-      return firewallObject;
    }
 }
@@ -16,29 +16,18 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.IPInfo;
-import org.jclouds.javax.annotation.Nullable;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class IPInfoToJson implements Function<IPInfo, JsonObject> {
+public class IPInfoToJson extends BaseToJson<IPInfo> {
    @Override
-   public JsonObject apply(@Nullable IPInfo input) {
-      if (input == null) {
-         return null;
-      }
-
-      JsonObject ipObject = new JsonObject();
-
+   protected void writeProperties(JsonWriter writer, IPInfo input) throws IOException {
       if (input.getMeta() != null) {
-         ipObject.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeStringMap(writer, "meta", input.getMeta());
       }
-
-      return ipObject;
    }
 }
@@ -16,16 +16,15 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.LibraryDrive;
-import org.jclouds.javax.annotation.Nullable;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class LibraryDriveToJson implements Function<LibraryDrive, JsonObject> {
+public class LibraryDriveToJson extends BaseToJson<LibraryDrive> {
 
    private final DriveToJson infoJsonObjectFunction;
 
@@ -35,18 +34,13 @@ public class LibraryDriveToJson implements Function<LibraryDrive, JsonObject> {
    }
 
    @Override
-   public JsonObject apply(@Nullable LibraryDrive input) {
-      JsonObject libraryDriveObject = infoJsonObjectFunction.apply(input);
+   protected void writeProperties(JsonWriter writer, LibraryDrive input) throws IOException {
+      infoJsonObjectFunction.writeProperties(writer, input);
 
-      if (libraryDriveObject == null) {
-         libraryDriveObject = new JsonObject();
-      }
-
-      libraryDriveObject.addProperty("favourite", input.isFavorite());
+      writer.name("favourite").value(input.isFavorite());
 
       if (input.getDescription() != null) {
-         libraryDriveObject.addProperty("description", input.getDescription());
+         writer.name("description").value(input.getDescription());
       }
-      return libraryDriveObject;
    }
 }
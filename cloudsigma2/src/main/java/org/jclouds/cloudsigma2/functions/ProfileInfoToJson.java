@@ -16,81 +16,70 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.ProfileInfo;
-import org.jclouds.javax.annotation.Nullable;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class ProfileInfoToJson implements Function<ProfileInfo, JsonObject> {
+public class ProfileInfoToJson extends BaseToJson<ProfileInfo> {
    @Override
-   public JsonObject apply(@Nullable ProfileInfo input) {
-      if (input == null) {
-         return null;
-      }
-
-      JsonObject profileJson = new JsonObject();
-
+   protected void writeProperties(JsonWriter writer, ProfileInfo input) throws IOException {
       if (input.getAddress() != null) {
-         profileJson.addProperty("address", input.getAddress());
+         writer.name("address").value(input.getAddress());
       }
 
       if (input.getBankReference() != null) {
-         profileJson.addProperty("bank_reference", input.getBankReference());
+         writer.name("bank_reference").value(input.getBankReference());
       }
 
       if (input.getCompany() != null) {
-         profileJson.addProperty("company", input.getCompany());
+         writer.name("company").value(input.getCompany());
       }
 
       if (input.getCountry() != null) {
-         profileJson.addProperty("country", input.getCountry());
+         writer.name("country").value(input.getCountry());
       }
 
       if (input.getEmail() != null) {
-         profileJson.addProperty("email", input.getEmail());
+         writer.name("email").value(input.getEmail());
       }
 
       if (input.getFirstName() != null) {
-         profileJson.addProperty("first_name", input.getFirstName());
+         writer.name("first_name").value(input.getFirstName());
       }
 
       if (input.getLastName() != null) {
-         profileJson.addProperty("last_name", input.getLastName());
+         writer.name("last_name").value(input.getLastName());
       }
 
       if (input.getMeta() != null) {
-         profileJson.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeStringMap(writer, "meta", input.getMeta());
       }
 
       if (input.getMyNotes() != null) {
-         profileJson.addProperty("my_notes", input.getMyNotes());
+         writer.name("my_notes").value(input.getMyNotes());
       }
 
       if (input.getNickname() != null) {
-         profileJson.addProperty("nickname", input.getNickname());
+         writer.name("nickname").value(input.getNickname());
       }
 
       if (input.getPhone() != null) {
-         profileJson.addProperty("phone", input.getPhone());
+         writer.name("phone").value(input.getPhone());
       }
 
       if (input.getPostcode() != null) {
-         profileJson.addProperty("postcode", input.getPostcode());
+         writer.name("postcode").value(input.getPostcode());
       }
 
       if (input.getTitle() != null) {
-         profileJson.addProperty("title", input.getTitle());
+         writer.name("title").value(input.getTitle());
       }
 
       if (input.getTown() != null) {
-         profileJson.addProperty("town", input.getTown());
+         writer.name("town").value(input.getTown());
       }
-
-      return profileJson;
    }
 }
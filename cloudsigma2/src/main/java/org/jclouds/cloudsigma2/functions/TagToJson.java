@@ -16,42 +16,33 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.Tag;
 import org.jclouds.cloudsigma2.domain.TagResource;
-import org.jclouds.javax.annotation.Nullable;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class TagToJson implements Function<Tag, JsonObject> {
+public class TagToJson extends BaseToJson<Tag> {
    @Override
-   public JsonObject apply(@Nullable Tag input) {
-      JsonObject jsonTag = new JsonObject();
-
+   protected void writeProperties(JsonWriter writer, Tag input) throws IOException {
       if (input.getName() != null) {
-         jsonTag.addProperty("name", input.getName());
+         writer.name("name").value(input.getName());
       }
 
       if (input.getMeta() != null) {
-         jsonTag.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeStringMap(writer, "meta", input.getMeta());
       }
 
       if (input.getResources() != null && input.getResources().size() != 0) {
-         JsonArray uuidsArray = new JsonArray();
+         writer.name("resources").beginArray();
 
          for (TagResource tagResource : input.getResources()) {
-            uuidsArray.add(new JsonPrimitive(tagResource.getUuid()));
+            writer.value(tagResource.getUuid());
          }
 
-         jsonTag.add("resources", uuidsArray);
+         writer.endArray();
       }
-
-      return jsonTag;
    }
 }
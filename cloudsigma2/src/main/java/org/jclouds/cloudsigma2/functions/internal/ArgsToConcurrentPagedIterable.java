@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.collect.internal.ArgsToPagedIterable;
+
+import com.google.common.base.Function;
+
+/**
+ * Base class for the CloudSigma {@link PagedIterable} transformers. Once the first page has been parsed, the
+ * remaining pages are fetched concurrently with a {@link ConcurrentPagedIterable}.
+ */
+public abstract class ArgsToConcurrentPagedIterable<T, I extends ArgsToPagedIterable<T, I>> extends
+      ArgsToPagedIterable<T, I> {
+
+   private final ConcurrentPagingSettings settings;
+
+   protected ArgsToConcurrentPagedIterable(ConcurrentPagingSettings settings) {
+      this.settings = checkNotNull(settings, "settings cannot be null");
+   }
+
+   /**
+    * Fetches the page identified by the given options.
+    */
+   protected abstract PaginatedCollection<T> fetchPage(PaginationOptions options);
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public PagedIterable<T> apply(IterableWithMarker<T> input) {
+      if (!(input instanceof PaginatedCollection) || !input.nextMarker().isPresent()) {
+         return PagedIterables.onlyPage(input);
+      }
+      return new ConcurrentPagedIterable<T>((PaginatedCollection<T>) input, fetchPageFunction(),
+            settings.getExecutor(), settings.getPageSize(), settings.getMaxConcurrentRequests());
+   }
+
+   @Override
+   protected Function<Object, IterableWithMarker<T>> markerToNextForArgs(List<Object> args) {
+      return new Function<Object, IterableWithMarker<T>>() {
+         @Override
+         public IterableWithMarker<T> apply(Object input) {
+            return fetchPage(PaginationOptions.class.cast(input));
+         }
+      };
+   }
+
+   private Function<PaginationOptions, PaginatedCollection<T>> fetchPageFunction() {
+      return new Function<PaginationOptions, PaginatedCollection<T>>() {
+         @Override
+         public PaginatedCollection<T> apply(PaginationOptions input) {
+            return fetchPage(input);
+         }
+      };
+   }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * A {@link PagedIterable} that fetches the pages following the first one concurrently.
+ * <p>
+ * The first page of a CloudSigma listing carries the total number of elements, so all the remaining offsets are
+ * known upfront. They are requested with a bounded number of requests in flight, and pages are returned in offset
+ * order as they are consumed. Each call to {@link #iterator()} fetches the remaining pages again.
+ */
+public class ConcurrentPagedIterable<T> extends PagedIterable<T> {
+
+   /**
+    * Upper bound for the automatically chosen page size.
+    */
+   public static final int MAX_AUTO_PAGE_SIZE = 500;
+
+   private final PaginatedCollection<T> firstPage;
+   private final Function<PaginationOptions, ? extends IterableWithMarker<T>> fetchPage;
+   private final ListeningExecutorService executor;
+   private final int pageSize;
+   private final int maxConcurrentRequests;
+
+   /**
+    * @param firstPage             the page returned by the initial list request
+    * @param fetchPage             function used to fetch the remaining pages
+    * @param executor              executor where the remaining pages are fetched
+    * @param pageSize              the size of the remaining pages, or zero to choose one based on the total count
+    * @param maxConcurrentRequests the maximum number of page requests in flight
+    */
+   public ConcurrentPagedIterable(PaginatedCollection<T> firstPage,
+         Function<PaginationOptions, ? extends IterableWithMarker<T>> fetchPage, ListeningExecutorService executor,
+         int pageSize, int maxConcurrentRequests) {
+      checkArgument(pageSize >= 0, "pageSize must be positive or zero");
+      checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+      this.firstPage = checkNotNull(firstPage, "firstPage cannot be null");
+      this.fetchPage = checkNotNull(fetchPage, "fetchPage cannot be null");
+      this.executor = checkNotNull(executor, "executor cannot be null");
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      PaginationOptions first = firstPage.getPaginationOptions();
+      this.pageSize = pageSize > 0 ? pageSize : adaptivePageSize(first.getLimit(),
+            first.getTotalCount() - first.getOffset() - first.getLimit(), maxConcurrentRequests);
+   }
+
+   /**
+    * Chooses a page size so the remaining elements are fetched in a single round of concurrent requests, never
+    * going below the size of the first page nor above {@link #MAX_AUTO_PAGE_SIZE}.
+    */
+   @VisibleForTesting
+   static int adaptivePageSize(int firstPageSize, int remaining, int maxConcurrentRequests) {
+      int perRequest = (remaining + maxConcurrentRequests - 1) / maxConcurrentRequests;
+      return Math.max(firstPageSize, Math.min(perRequest, MAX_AUTO_PAGE_SIZE));
+   }
+
+   @VisibleForTesting
+   int getPageSize() {
+      return pageSize;
+   }
+
+   @Override
+   public Iterator<IterableWithMarker<T>> iterator() {
+      return new PageIterator();
+   }
+
+   private class PageIterator extends AbstractIterator<IterableWithMarker<T>> {
+      private final Deque<ListenableFuture<? extends IterableWithMarker<T>>> inFlight =
+            new ArrayDeque<ListenableFuture<? extends IterableWithMarker<T>>>();
+      private final int totalCount;
+      private int nextOffset;
+      private boolean firstReturned;
+
+      PageIterator() {
+         PaginationOptions first = firstPage.getPaginationOptions();
+         this.totalCount = first.getTotalCount();
+         this.nextOffset = first.getOffset() + first.getLimit();
+         // Start fetching before the first page is consumed
+         fill();
+      }
+
+      @Override
+      protected IterableWithMarker<T> computeNext() {
+         if (!firstReturned) {
+            firstReturned = true;
+            return firstPage;
+         }
+         ListenableFuture<? extends IterableWithMarker<T>> next = inFlight.poll();
+         if (next == null) {
+            return endOfData();
+         }
+         try {
+            IterableWithMarker<T> page = next.get();
+            fill();
+            return page;
+         } catch (InterruptedException e) {
+            cancelInFlight();
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            cancelInFlight();
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+
+      private void fill() {
+         while (inFlight.size() < maxConcurrentRequests && nextOffset < totalCount) {
+            final PaginationOptions options = new PaginationOptions.Builder().limit(pageSize).offset(nextOffset)
+                  .build();
+            inFlight.add(executor.submit(new Callable<IterableWithMarker<T>>() {
+               @Override
+               public IterableWithMarker<T> call() {
+                  return fetchPage.apply(options);
+               }
+            }));
+            nextOffset += pageSize;
+         }
+      }
+
+      private void cancelInFlight() {
+         for (ListenableFuture<?> future : inFlight) {
+            future.cancel(true);
+         }
+         inFlight.clear();
+      }
+   }
+}
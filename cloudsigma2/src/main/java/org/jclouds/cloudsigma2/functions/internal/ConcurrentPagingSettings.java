@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_MAX_CONCURRENT_PAGE_REQUESTS;
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_PAGE_SIZE;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Settings shared by all the {@link ArgsToConcurrentPagedIterable} transformers.
+ */
+@Singleton
+public class ConcurrentPagingSettings {
+
+   private final ListeningExecutorService executor;
+   private final int pageSize;
+   private final int maxConcurrentRequests;
+
+   @Inject
+   public ConcurrentPagingSettings(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService executor,
+         @Named(PROPERTY_PAGE_SIZE) int pageSize,
+         @Named(PROPERTY_MAX_CONCURRENT_PAGE_REQUESTS) int maxConcurrentRequests) {
+      checkArgument(pageSize >= 0, "pageSize must be zero or positive");
+      checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be greater than zero");
+      this.executor = checkNotNull(executor, "executor cannot be null");
+      this.pageSize = pageSize;
+      this.maxConcurrentRequests = maxConcurrentRequests;
+   }
+
+   /**
+    * The executor used to fetch the pages.
+    */
+   public ListeningExecutorService getExecutor() {
+      return executor;
+   }
+
+   /**
+    * The size of the pages following the first one, or zero to choose it from the total number of elements.
+    */
+   public int getPageSize() {
+      return pageSize;
+   }
+
+   /**
+    * The maximum number of page requests in flight.
+    */
+   public int getMaxConcurrentRequests() {
+      return maxConcurrentRequests;
+   }
+}
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.Discount;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseDiscounts extends ParseJson<ParseDiscounts.Discounts> {
@@ -47,24 +43,19 @@ public class ParseDiscounts extends ParseJson<ParseDiscounts.Discounts> {
       super(json, TypeLiteral.get(Discounts.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<Discount, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<Discount, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<Discount>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<Discount>>() {
-            @Override
-            public IterableWithMarker<Discount> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listDiscounts(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<Discount> fetchPage(PaginationOptions options) {
+         return api.listDiscounts(options);
       }
    }
 }
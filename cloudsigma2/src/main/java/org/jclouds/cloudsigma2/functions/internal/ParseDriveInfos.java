@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.DriveInfo;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseDriveInfos extends ParseJson<ParseDriveInfos.DriveInfos> {
@@ -48,24 +44,19 @@ public class ParseDriveInfos extends ParseJson<ParseDriveInfos.DriveInfos> {
       super(json, TypeLiteral.get(DriveInfos.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<DriveInfo, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<DriveInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<DriveInfo>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<DriveInfo>>() {
-            @Override
-            public IterableWithMarker<DriveInfo> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listDrivesInfo(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<DriveInfo> fetchPage(PaginationOptions options) {
+         return api.listDrivesInfo(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.Drive;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseDrives extends ParseJson<ParseDrives.Drives> {
@@ -47,24 +43,19 @@ public class ParseDrives extends ParseJson<ParseDrives.Drives> {
       super(json, TypeLiteral.get(Drives.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<Drive, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<Drive, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<Drive>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<Drive>>() {
-            @Override
-            public IterableWithMarker<Drive> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listDrives(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<Drive> fetchPage(PaginationOptions options) {
+         return api.listDrives(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.FirewallPolicy;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseFirewallPolicies extends ParseJson<ParseFirewallPolicies.FirewallPolicies> {
@@ -47,45 +43,35 @@ public class ParseFirewallPolicies extends ParseJson<ParseFirewallPolicies.Firew
       super(json, TypeLiteral.get(FirewallPolicies.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<FirewallPolicy, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<FirewallPolicy, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<FirewallPolicy>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<FirewallPolicy>>() {
-            @Override
-            public IterableWithMarker<FirewallPolicy> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listFirewallPolicies(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<FirewallPolicy> fetchPage(PaginationOptions options) {
+         return api.listFirewallPolicies(options);
       }
    }
 
-   public static class ToPagedIterableInfo extends ArgsToPagedIterable<FirewallPolicy, ToPagedIterable> {
+   public static class ToPagedIterableInfo extends ArgsToConcurrentPagedIterable<FirewallPolicy, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterableInfo(CloudSigma2Api api) {
+      public ToPagedIterableInfo(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<FirewallPolicy>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<FirewallPolicy>>() {
-            @Override
-            public IterableWithMarker<FirewallPolicy> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listFirewallPoliciesInfo(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<FirewallPolicy> fetchPage(PaginationOptions options) {
+         return api.listFirewallPoliciesInfo(options);
       }
    }
 }
@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
@@ -24,13 +23,10 @@ import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.IPInfo;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseIPInfos extends ParseJson<ParseIPInfos.IPInfos> {
@@ -47,24 +43,19 @@ public class ParseIPInfos extends ParseJson<ParseIPInfos.IPInfos> {
       super(json, TypeLiteral.get(IPInfos.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<IPInfo, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<IPInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<IPInfo>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<IPInfo>>() {
-            @Override
-            public IterableWithMarker<IPInfo> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listIPInfo(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<IPInfo> fetchPage(PaginationOptions options) {
+         return api.listIPInfo(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.IP;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseIPs extends ParseJson<ParseIPs.IPs> {
@@ -47,24 +43,19 @@ public class ParseIPs extends ParseJson<ParseIPs.IPs> {
       super(json, TypeLiteral.get(IPs.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<IP, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<IP, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<IP>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<IP>>() {
-            @Override
-            public IterableWithMarker<IP> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listIPs(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<IP> fetchPage(PaginationOptions options) {
+         return api.listIPs(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.LibraryDrive;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseLibraryDrives extends ParseJson<ParseLibraryDrives.LibraryDrives> {
@@ -47,24 +43,19 @@ public class ParseLibraryDrives extends ParseJson<ParseLibraryDrives.LibraryDriv
       super(json, TypeLiteral.get(LibraryDrives.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<LibraryDrive, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<LibraryDrive, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<LibraryDrive>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<LibraryDrive>>() {
-            @Override
-            public IterableWithMarker<LibraryDrive> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listLibraryDrives(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<LibraryDrive> fetchPage(PaginationOptions options) {
+         return api.listLibraryDrives(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.License;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseLicenses extends ParseJson<ParseLicenses.Licenses> {
@@ -47,24 +43,19 @@ public class ParseLicenses extends ParseJson<ParseLicenses.Licenses> {
       super(json, TypeLiteral.get(Licenses.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<License, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<License, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<License>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<License>>() {
-            @Override
-            public IterableWithMarker<License> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listLicenses(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<License> fetchPage(PaginationOptions options) {
+         return api.listLicenses(options);
       }
    }
 }
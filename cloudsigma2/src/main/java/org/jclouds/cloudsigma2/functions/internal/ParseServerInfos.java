@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.domain.ServerInfo;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseServerInfos extends ParseJson<ParseServerInfos.ServerInfos> {
@@ -48,24 +44,19 @@ public class ParseServerInfos extends ParseJson<ParseServerInfos.ServerInfos> {
       super(json, TypeLiteral.get(ServerInfos.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<ServerInfo, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<ServerInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<ServerInfo>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<ServerInfo>>() {
-            @Override
-            public IterableWithMarker<ServerInfo> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listServersInfo(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<ServerInfo> fetchPage(PaginationOptions options) {
+         return api.listServersInfo(options);
       }
    }
 }
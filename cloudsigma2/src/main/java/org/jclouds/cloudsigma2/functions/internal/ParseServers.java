@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.domain.Server;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseServers extends ParseJson<ParseServers.Servers> {
@@ -48,24 +44,19 @@ public class ParseServers extends ParseJson<ParseServers.Servers> {
       super(json, TypeLiteral.get(Servers.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<Server, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<Server, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<Server>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<Server>>() {
-            @Override
-            public IterableWithMarker<Server> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listServers(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<Server> fetchPage(PaginationOptions options) {
+         return api.listServers(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.domain.Tag;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseTags extends ParseJson<ParseTags.Tags> {
@@ -47,45 +43,35 @@ public class ParseTags extends ParseJson<ParseTags.Tags> {
       super(json, TypeLiteral.get(Tags.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<Tag, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<Tag, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<Tag>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<Tag>>() {
-            @Override
-            public IterableWithMarker<Tag> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listTags(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<Tag> fetchPage(PaginationOptions options) {
+         return api.listTags(options);
       }
    }
 
-   public static class ToPagedIterableInfo extends ArgsToPagedIterable<Tag, ToPagedIterable> {
+   public static class ToPagedIterableInfo extends ArgsToConcurrentPagedIterable<Tag, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterableInfo(CloudSigma2Api api) {
+      public ToPagedIterableInfo(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<Tag>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<Tag>>() {
-            @Override
-            public IterableWithMarker<Tag> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listTagsInfo(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<Tag> fetchPage(PaginationOptions options) {
+         return api.listTagsInfo(options);
       }
    }
 }
@@ -16,21 +16,17 @@
  */
 package org.jclouds.cloudsigma2.functions.internal;
 
-import com.google.common.base.Function;
 import com.google.inject.TypeLiteral;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.domain.VLANInfo;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
-import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
-import java.util.List;
 
 @Singleton
 public class ParseVLANs extends ParseJson<ParseVLANs.VLANs> {
@@ -47,45 +43,35 @@ public class ParseVLANs extends ParseJson<ParseVLANs.VLANs> {
       super(json, TypeLiteral.get(VLANs.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<VLANInfo, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToConcurrentPagedIterable<VLANInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<VLANInfo>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<VLANInfo>>() {
-            @Override
-            public IterableWithMarker<VLANInfo> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listVLANs(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<VLANInfo> fetchPage(PaginationOptions options) {
+         return api.listVLANs(options);
       }
    }
 
-   public static class ToPagedIterableInfo extends ArgsToPagedIterable<VLANInfo, ToPagedIterable> {
+   public static class ToPagedIterableInfo extends ArgsToConcurrentPagedIterable<VLANInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterableInfo(CloudSigma2Api api) {
+      public ToPagedIterableInfo(CloudSigma2Api api, ConcurrentPagingSettings settings) {
+         super(settings);
          this.api = api;
       }
 
       @Override
-      protected Function<Object, IterableWithMarker<VLANInfo>> markerToNextForArgs(List<Object> args) {
-         return new Function<Object, IterableWithMarker<VLANInfo>>() {
-            @Override
-            public IterableWithMarker<VLANInfo> apply(Object input) {
-               PaginationOptions paginationOptions = PaginationOptions.class.cast(input);
-               return api.listVLANInfo(paginationOptions);
-            }
-         };
+      protected PaginatedCollection<VLANInfo> fetchPage(PaginationOptions options) {
+         return api.listVLANInfo(options);
       }
    }
 }
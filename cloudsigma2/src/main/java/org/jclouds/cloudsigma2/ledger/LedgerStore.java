@@ -0,0 +1,485 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.ledger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * Local, append only, columnar copy of the transactions of a CloudSigma account.
+ * <p>
+ * Only the time, amount, billing cycle and reason category of each transaction are kept, each one in its own column
+ * file of primitive values. Reasons are dictionary encoded by category, which is the part of the reason before the
+ * first colon (such as <code>Burst</code>). Columns are loaded into primitive arrays when the store is opened, and
+ * aggregates are computed by scanning them, so no {@link Transaction} objects are created to answer queries.
+ * <p>
+ * Transactions must be appended in time order. Each {@link #append(List)} writes the columns first and then
+ * atomically replaces the header, which holds the number of committed transactions and the watermark used by
+ * {@link LedgerSync} to fetch only newer transactions. Data written after the last committed header is discarded when
+ * the store is opened again.
+ */
+public class LedgerStore implements Closeable {
+
+   private static final String HEADER = "ledger.properties";
+   private static final String TIME_COLUMN = "time.col";
+   private static final String AMOUNT_COLUMN = "amount.col";
+   private static final String BILLING_CYCLE_COLUMN = "billing_cycle.col";
+   private static final String REASON_COLUMN = "reason.col";
+   private static final String REASONS = "reasons.txt";
+
+   private final File directory;
+   private final FileChannel times;
+   private final FileChannel amounts;
+   private final FileChannel billingCycles;
+   private final FileChannel reasons;
+
+   private long[] timeValues;
+   private double[] amountValues;
+   private long[] billingCycleValues;
+   private int[] reasonValues;
+   private int size;
+
+   private final List<String> reasonNames = Lists.newArrayList();
+   private final Map<String, Integer> reasonIndex = Maps.newHashMap();
+
+   private long watermark = Long.MIN_VALUE;
+   private Set<String> watermarkIds = ImmutableSet.of();
+   private boolean closed;
+
+   /**
+    * Opens the store in the given directory, creating it if needed.
+    */
+   public static LedgerStore open(File directory) throws IOException {
+      checkNotNull(directory, "directory cannot be null");
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+         throw new IOException("Could not create ledger directory " + directory);
+      }
+      return new LedgerStore(directory);
+   }
+
+   private LedgerStore(File directory) throws IOException {
+      this.directory = directory;
+      Properties header = readHeader();
+      int count = Integer.parseInt(header.getProperty("count", "0"));
+      int reasonCount = Integer.parseInt(header.getProperty("reasons", "0"));
+      watermark = Long.parseLong(header.getProperty("watermark", String.valueOf(Long.MIN_VALUE)));
+      watermarkIds = ImmutableSet.copyOf(Splitter.on(',').omitEmptyStrings().split(header.getProperty("ids", "")));
+
+      List<FileChannel> opened = Lists.newArrayListWithCapacity(4);
+      boolean loaded = false;
+      try {
+         times = openColumn(TIME_COLUMN, count, 8, opened);
+         amounts = openColumn(AMOUNT_COLUMN, count, 8, opened);
+         billingCycles = openColumn(BILLING_CYCLE_COLUMN, count, 8, opened);
+         reasons = openColumn(REASON_COLUMN, count, 4, opened);
+         load(count, reasonCount);
+         loaded = true;
+      } finally {
+         if (!loaded) {
+            for (FileChannel channel : opened) {
+               Closeables.close(channel, true);
+            }
+         }
+      }
+   }
+
+   private void load(int count, int reasonCount) throws IOException {
+      size = count;
+      int capacity = Math.max(16, count);
+      timeValues = new long[capacity];
+      amountValues = new double[capacity];
+      billingCycleValues = new long[capacity];
+      reasonValues = new int[capacity];
+      if (count > 0) {
+         times.map(FileChannel.MapMode.READ_ONLY, 0, count * 8L).asLongBuffer().get(timeValues, 0, count);
+         amounts.map(FileChannel.MapMode.READ_ONLY, 0, count * 8L).asDoubleBuffer().get(amountValues, 0, count);
+         billingCycles.map(FileChannel.MapMode.READ_ONLY, 0, count * 8L).asLongBuffer()
+               .get(billingCycleValues, 0, count);
+         reasons.map(FileChannel.MapMode.READ_ONLY, 0, count * 4L).asIntBuffer().get(reasonValues, 0, count);
+      }
+
+      File dictionary = new File(directory, REASONS);
+      if (dictionary.exists()) {
+         // Reasons after the committed ones were written by an append that did not complete
+         for (String reason : Files.readLines(dictionary, Charsets.UTF_8)) {
+            if (reasonNames.size() == reasonCount) {
+               break;
+            }
+            reasonIndex.put(reason, reasonNames.size());
+            reasonNames.add(reason);
+         }
+      }
+   }
+
+   /**
+    * Opens a column truncated to the committed number of transactions. The channel is added to the given list as soon
+    * as it is open, so the caller can close it if opening the store fails.
+    */
+   private FileChannel openColumn(String name, int count, int width, List<FileChannel> opened) throws IOException {
+      @SuppressWarnings("resource")
+      FileChannel channel = new RandomAccessFile(new File(directory, name), "rw").getChannel();
+      opened.add(channel);
+      long committed = count * (long) width;
+      if (channel.size() < committed) {
+         throw new IOException("Column " + name + " is shorter than the committed number of transactions");
+      }
+      channel.truncate(committed);
+      channel.position(committed);
+      return channel;
+   }
+
+   private Properties readHeader() throws IOException {
+      Properties header = new Properties();
+      File file = new File(directory, HEADER);
+      if (file.exists()) {
+         InputStream in = new FileInputStream(file);
+         try {
+            header.load(in);
+         } finally {
+            Closeables.close(in, true);
+         }
+      }
+      return header;
+   }
+
+   /**
+    * Appends the given transactions, which must be sorted by time and not be older than the watermark, and commits
+    * them.
+    */
+   public synchronized void append(List<Transaction> transactions) throws IOException {
+      checkState(!closed, "the ledger store is closed");
+      checkNotNull(transactions, "transactions cannot be null");
+      if (transactions.isEmpty()) {
+         return;
+      }
+
+      long previous = watermark;
+      for (Transaction transaction : transactions) {
+         checkNotNull(transaction.getTime(), "transaction time cannot be null");
+         checkArgument(transaction.getTime().getTime() >= previous, "transactions must be appended in time order");
+         previous = transaction.getTime().getTime();
+      }
+
+      int reasonsBefore = reasonNames.size();
+      boolean committed = false;
+      try {
+         doAppend(transactions);
+         committed = true;
+      } finally {
+         if (!committed) {
+            rollback(reasonsBefore);
+         }
+      }
+   }
+
+   private void doAppend(List<Transaction> transactions) throws IOException {
+      int count = transactions.size();
+      ensureCapacity(size + count);
+      ByteBuffer timeBuffer = ByteBuffer.allocate(count * 8);
+      ByteBuffer amountBuffer = ByteBuffer.allocate(count * 8);
+      ByteBuffer billingCycleBuffer = ByteBuffer.allocate(count * 8);
+      ByteBuffer reasonBuffer = ByteBuffer.allocate(count * 4);
+      boolean newReasons = false;
+
+      long newWatermark = watermark;
+      Set<String> newWatermarkIds = Sets.newHashSet(watermarkIds);
+      int position = size;
+      for (Transaction transaction : transactions) {
+         long time = transaction.getTime().getTime();
+         if (time > newWatermark) {
+            newWatermark = time;
+            newWatermarkIds.clear();
+         }
+         if (transaction.getId() != null) {
+            newWatermarkIds.add(transaction.getId());
+         }
+
+         String category = reasonCategory(transaction.getReason());
+         Integer reason = reasonIndex.get(category);
+         if (reason == null) {
+            reason = reasonNames.size();
+            reasonIndex.put(category, reason);
+            reasonNames.add(category);
+            newReasons = true;
+         }
+
+         timeValues[position] = time;
+         amountValues[position] = transaction.getAmount();
+         billingCycleValues[position] = transaction.getBillingCycle();
+         reasonValues[position] = reason;
+         timeBuffer.putLong(time);
+         amountBuffer.putDouble(transaction.getAmount());
+         billingCycleBuffer.putLong(transaction.getBillingCycle());
+         reasonBuffer.putInt(reason);
+         position++;
+      }
+
+      write(times, timeBuffer);
+      write(amounts, amountBuffer);
+      write(billingCycles, billingCycleBuffer);
+      write(reasons, reasonBuffer);
+      if (newReasons) {
+         writeAtomically(REASONS, (Joiner.on('\n').join(reasonNames) + '\n').getBytes(Charsets.UTF_8));
+      }
+
+      writeHeader(position, reasonNames.size(), newWatermark, newWatermarkIds);
+      size = position;
+      watermark = newWatermark;
+      watermarkIds = ImmutableSet.copyOf(newWatermarkIds);
+   }
+
+   /**
+    * Discards the data written by an append that failed, so the next one starts from the committed state.
+    */
+   private void rollback(int reasonsBefore) {
+      while (reasonNames.size() > reasonsBefore) {
+         reasonIndex.remove(reasonNames.remove(reasonNames.size() - 1));
+      }
+      try {
+         times.truncate(size * 8L).position(size * 8L);
+         amounts.truncate(size * 8L).position(size * 8L);
+         billingCycles.truncate(size * 8L).position(size * 8L);
+         reasons.truncate(size * 4L).position(size * 4L);
+      } catch (IOException e) {
+         // The columns are truncated to the committed size again when the store is opened
+         closed = true;
+      }
+   }
+
+   private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+      channel.force(false);
+   }
+
+   private void writeHeader(int count, int reasonCount, long watermark, Set<String> ids) throws IOException {
+      Properties header = new Properties();
+      header.setProperty("count", String.valueOf(count));
+      header.setProperty("reasons", String.valueOf(reasonCount));
+      header.setProperty("watermark", String.valueOf(watermark));
+      header.setProperty("ids", Joiner.on(',').join(ids));
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      header.store(out, "CloudSigma ledger");
+      writeAtomically(HEADER, out.toByteArray());
+   }
+
+   private void writeAtomically(String name, byte[] content) throws IOException {
+      File tmp = new File(directory, name + ".tmp");
+      FileOutputStream out = new FileOutputStream(tmp);
+      try {
+         out.write(content);
+         out.flush();
+         out.getFD().sync();
+      } finally {
+         Closeables.close(out, true);
+      }
+      File file = new File(directory, name);
+      if (!tmp.renameTo(file)) {
+         // Some platforms do not replace existing files when renaming
+         if (!file.delete() || !tmp.renameTo(file)) {
+            throw new IOException("Could not write " + file);
+         }
+      }
+   }
+
+   private void ensureCapacity(int capacity) {
+      if (capacity > timeValues.length) {
+         int newCapacity = Math.max(capacity, timeValues.length * 2);
+         timeValues = Arrays.copyOf(timeValues, newCapacity);
+         amountValues = Arrays.copyOf(amountValues, newCapacity);
+         billingCycleValues = Arrays.copyOf(billingCycleValues, newCapacity);
+         reasonValues = Arrays.copyOf(reasonValues, newCapacity);
+      }
+   }
+
+   /**
+    * Returns the category of a transaction reason: the text before the first colon, or the whole reason if it has
+    * none.
+    */
+   @VisibleForTesting
+   static String reasonCategory(@Nullable String reason) {
+      if (reason == null) {
+         return "";
+      }
+      int colon = reason.indexOf(':');
+      String category = colon > 0 ? reason.substring(0, colon) : reason;
+      return category.replace('\n', ' ').replace('\r', ' ').trim();
+   }
+
+   /**
+    * @return Number of transactions in the store
+    */
+   public synchronized int size() {
+      return size;
+   }
+
+   /**
+    * @return Time of the newest transaction in the store, in milliseconds since the epoch, or
+    *         {@link Long#MIN_VALUE} if the store is empty
+    */
+   public synchronized long getWatermark() {
+      return watermark;
+   }
+
+   /**
+    * @return Ids of the transactions in the store that happened exactly at the watermark
+    */
+   public synchronized Set<String> getWatermarkIds() {
+      return watermarkIds;
+   }
+
+   /**
+    * Returns the sum of the amounts of the transactions that happened in the given time range.
+    *
+    * @param from Start of the range, inclusive, in milliseconds since the epoch.
+    * @param to End of the range, exclusive, in milliseconds since the epoch.
+    */
+   public synchronized double sum(long from, long to) {
+      double sum = 0;
+      for (int i = firstAtOrAfter(from); i < size && timeValues[i] < to; i++) {
+         sum += amountValues[i];
+      }
+      return sum;
+   }
+
+   /**
+    * Returns the sum of the amounts of all the transactions, by billing cycle.
+    */
+   public synchronized SortedMap<Long, Double> sumByBillingCycle() {
+      SortedMap<Long, Double> sums = Maps.newTreeMap();
+      // Billing cycles follow the time order, so sums are accumulated by runs of the same cycle
+      int i = 0;
+      while (i < size) {
+         long cycle = billingCycleValues[i];
+         double sum = 0;
+         for (; i < size && billingCycleValues[i] == cycle; i++) {
+            sum += amountValues[i];
+         }
+         Double previous = sums.get(cycle);
+         sums.put(cycle, previous == null ? sum : previous + sum);
+      }
+      return sums;
+   }
+
+   /**
+    * Returns the sum of the amounts of all the transactions, by reason category.
+    */
+   public synchronized Map<String, Double> sumByReason() {
+      double[] sums = new double[reasonNames.size()];
+      for (int i = 0; i < size; i++) {
+         sums[reasonValues[i]] += amountValues[i];
+      }
+      ImmutableMap.Builder<String, Double> result = ImmutableMap.builder();
+      for (int reason = 0; reason < sums.length; reason++) {
+         result.put(reasonNames.get(reason), sums[reason]);
+      }
+      return result.build();
+   }
+
+   /**
+    * Returns the sum of the amounts of the transactions in the given time range, by fixed size windows.
+    *
+    * @param from Start of the range, inclusive, in milliseconds since the epoch.
+    * @param to End of the range, exclusive, in milliseconds since the epoch.
+    * @param windowMillis Size of each window.
+    * @return The sum of each window, keyed by the start time of the window.
+    */
+   public synchronized SortedMap<Long, Double> sumByWindow(long from, long to, long windowMillis) {
+      checkArgument(windowMillis > 0, "windowMillis must be greater than zero");
+      checkArgument(to > from, "the end of the range must be after its start");
+      long windows = (to - from + windowMillis - 1) / windowMillis;
+      checkArgument(windows <= Integer.MAX_VALUE, "too many windows in the range");
+      double[] sums = new double[(int) windows];
+      for (int i = firstAtOrAfter(from); i < size && timeValues[i] < to; i++) {
+         sums[(int) ((timeValues[i] - from) / windowMillis)] += amountValues[i];
+      }
+      SortedMap<Long, Double> result = Maps.newTreeMap();
+      for (int window = 0; window < sums.length; window++) {
+         result.put(from + window * windowMillis, sums[window]);
+      }
+      return result;
+   }
+
+   /**
+    * @return The reason categories seen so far, in order of appearance
+    */
+   public synchronized List<String> getReasonCategories() {
+      return ImmutableList.copyOf(reasonNames);
+   }
+
+   private int firstAtOrAfter(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+         int middle = (low + high) >>> 1;
+         if (timeValues[middle] < time) {
+            low = middle + 1;
+         } else {
+            high = middle;
+         }
+      }
+      return low;
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      if (!closed) {
+         closed = true;
+         Closeables.close(times, true);
+         Closeables.close(amounts, true);
+         Closeables.close(billingCycles, true);
+         Closeables.close(reasons, true);
+      }
+   }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.ledger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.jclouds.cloudsigma2.functions.internal.ConcurrentPagedIterable.MAX_AUTO_PAGE_SIZE;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.date.DateService;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+
+/**
+ * Keeps a {@link LedgerStore} up to date with the transactions of the account.
+ * <p>
+ * The first synchronization of an empty store walks the ledger from its oldest transaction in windows of time, and
+ * appends each window before fetching the next one, so only one window of transactions is held in memory. Later
+ * synchronizations only request the transactions that happened since the watermark of the store, so a periodic
+ * synchronization is a small delta fetch. The API filters by time with a precision of seconds, and the transactions
+ * already in the store are skipped before appending the rest.
+ */
+@Singleton
+public class LedgerSync {
+
+   /**
+    * Time range of the ledger fetched at once by the first synchronization.
+    */
+   public static final long HISTORY_WINDOW = TimeUnit.DAYS.toMillis(7);
+
+   private static final Ordering<Transaction> BY_TIME = Ordering.<Date> natural().onResultOf(
+         new Function<Transaction, Date>() {
+            @Override
+            public Date apply(Transaction input) {
+               return input.getTime();
+            }
+         });
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final DateService dateService;
+   private final long historyWindowMillis;
+
+   @Inject
+   LedgerSync(CloudSigma2Api api, DateService dateService) {
+      this(api, dateService, HISTORY_WINDOW);
+   }
+
+   @VisibleForTesting
+   LedgerSync(CloudSigma2Api api, DateService dateService, long historyWindowMillis) {
+      this.api = checkNotNull(api, "api cannot be null");
+      this.dateService = checkNotNull(dateService, "dateService cannot be null");
+      checkArgument(historyWindowMillis >= 1000 && historyWindowMillis % 1000 == 0,
+            "historyWindowMillis must be a positive number of seconds");
+      this.historyWindowMillis = historyWindowMillis;
+   }
+
+   /**
+    * Appends the transactions that are not yet in the given store.
+    *
+    * @return The number of transactions appended.
+    */
+   public int sync(LedgerStore store) throws IOException {
+      checkNotNull(store, "store cannot be null");
+      int appended = 0;
+      long since = store.getWatermark();
+      if (store.size() == 0) {
+         PaginatedCollection<Transaction> newest = api.listTransactions(first(0));
+         if (Iterables.isEmpty(newest)) {
+            return 0;
+         }
+         long end = getOnlyElement(newest).getTime().getTime();
+         long oldest = oldest(newest.getPaginationOptions().getTotalCount()).getTime().getTime();
+         // Window boundaries are whole seconds, the precision of the time filter of the API
+         for (since = oldest - oldest % 1000; since + historyWindowMillis <= end; since += historyWindowMillis) {
+            appended += append(store, fetch(since, since + historyWindowMillis));
+         }
+      }
+      return appended + append(store, fetch(since, null));
+   }
+
+   private int append(LedgerStore store, List<Transaction> fetched) throws IOException {
+      List<Transaction> delta = newTransactions(fetched, store.getWatermark(), store.getWatermarkIds());
+      logger.debug(">> appending %d transactions to the ledger store", delta.size());
+      store.append(delta);
+      return delta.size();
+   }
+
+   private static PaginationOptions first(int offset) {
+      return new PaginationOptions.Builder().limit(1).offset(offset).build();
+   }
+
+   /**
+    * Returns the oldest transaction of the ledger, which is listed last.
+    */
+   private Transaction oldest(int totalCount) {
+      while (true) {
+         PaginatedCollection<Transaction> last = api.listTransactions(first(totalCount - 1));
+         int current = last.getPaginationOptions().getTotalCount();
+         if (current == totalCount) {
+            return getOnlyElement(last);
+         }
+         // The ledger changed between both requests, so the last transaction may have moved
+         totalCount = current;
+      }
+   }
+
+   /**
+    * Fetches the transactions that happened at or after the given time, and before the given end if there is one.
+    */
+   private List<Transaction> fetch(long from, @Nullable Long to) {
+      String since = dateService.iso8601SecondsDateFormat(new Date(from));
+      String until = to == null ? null : dateService.iso8601SecondsDateFormat(new Date(to));
+      ImmutableList.Builder<Transaction> transactions = ImmutableList.builder();
+      int offset = 0;
+      PaginatedCollection<Transaction> page;
+      do {
+         PaginationOptions options = new PaginationOptions.Builder().limit(MAX_AUTO_PAGE_SIZE).offset(offset).build();
+         page = until == null ? api.listTransactionsSince(since, options)
+               : api.listTransactionsBetween(since, until, options);
+         transactions.addAll(page);
+         offset += MAX_AUTO_PAGE_SIZE;
+      } while (offset < page.getPaginationOptions().getTotalCount());
+      return transactions.build();
+   }
+
+   /**
+    * Returns the fetched transactions that are not in the store yet, sorted by time.
+    * <p>
+    * The ledger lists the newest transactions first, so the ones that happen while it is paged by offset move to the
+    * next page and are fetched twice. They are only returned once.
+    */
+   @VisibleForTesting
+   static List<Transaction> newTransactions(Iterable<Transaction> fetched, long watermark, Set<String> watermarkIds) {
+      ImmutableList.Builder<Transaction> delta = ImmutableList.builder();
+      Set<String> seen = Sets.newHashSet();
+      for (Transaction transaction : fetched) {
+         if (transaction.getTime() == null) {
+            continue;
+         }
+         if (transaction.getId() != null && !seen.add(transaction.getId())) {
+            continue;
+         }
+         long time = transaction.getTime().getTime();
+         if (time > watermark || (time == watermark && !watermarkIds.contains(transaction.getId()))) {
+            delta.add(transaction);
+         }
+      }
+      return BY_TIME.sortedCopy(delta.build());
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.regions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * A resource returned by a multi-region listing, tagged with the region it comes from.
+ */
+public class InRegion<T> {
+
+   private final String region;
+   private final T value;
+
+   public InRegion(String region, T value) {
+      this.region = checkNotNull(region, "region cannot be null");
+      this.value = checkNotNull(value, "value cannot be null");
+   }
+
+   /**
+    * @return Id of the provider of the region the resource belongs to, such as <code>cloudsigma2-zrh</code>
+    */
+   public String getRegion() {
+      return region;
+   }
+
+   /**
+    * @return The resource
+    */
+   public T get() {
+      return value;
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj)
+         return true;
+      if (obj == null || getClass() != obj.getClass())
+         return false;
+      InRegion<?> other = (InRegion<?>) obj;
+      return region.equals(other.region) && value.equals(other.value);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(region, value);
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("region", region).add("value", value).toString();
+   }
+}
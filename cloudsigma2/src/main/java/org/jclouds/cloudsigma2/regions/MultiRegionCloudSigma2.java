@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.regions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.IPInfo;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.Subscription;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Module;
+
+/**
+ * Lists the resources of an account in several CloudSigma regions at once.
+ * <p>
+ * Each CloudSigma region is a separate provider, with its own context. This class holds one {@link CloudSigma2Api} per
+ * configured region and fans the listings out to all of them concurrently. The resources are merged and tagged with
+ * the region they come from, so listing the inventory of all the regions takes as long as the slowest region instead
+ * of the sum of all of them.
+ * <p>
+ * A region that fails or does not answer within the configured timeout does not affect the others; see
+ * {@link MultiRegionResult}.
+ */
+public class MultiRegionCloudSigma2 implements Closeable {
+
+   /**
+    * Ids of the providers of all the CloudSigma regions.
+    */
+   public static final List<String> REGIONS = ImmutableList.of("cloudsigma2-lvs", "cloudsigma2-wdc",
+         "cloudsigma2-zrh");
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public static class Builder {
+      private List<String> regions = REGIONS;
+      private String identity;
+      private String credential;
+      private Properties overrides = new Properties();
+      private Iterable<? extends Module> modules = ImmutableSet.of();
+      private long timeoutMillis = TimeUnit.MINUTES.toMillis(2);
+
+      /**
+       * Sets the ids of the providers of the regions to use. Defaults to all the regions. The provider of each
+       * region must be in the classpath.
+       */
+      public Builder regions(Iterable<String> regions) {
+         this.regions = ImmutableList.copyOf(checkNotNull(regions, "regions cannot be null"));
+         return this;
+      }
+
+      /**
+       * @see #regions(Iterable)
+       */
+      public Builder regions(String... regions) {
+         return regions(ImmutableList.copyOf(regions));
+      }
+
+      public Builder credentials(String identity, String credential) {
+         this.identity = checkNotNull(identity, "identity cannot be null");
+         this.credential = checkNotNull(credential, "credential cannot be null");
+         return this;
+      }
+
+      /**
+       * Sets the properties used to build the context of each region.
+       */
+      public Builder overrides(Properties overrides) {
+         this.overrides = checkNotNull(overrides, "overrides cannot be null");
+         return this;
+      }
+
+      /**
+       * Sets the modules used to build the context of each region.
+       */
+      public Builder modules(Iterable<? extends Module> modules) {
+         this.modules = checkNotNull(modules, "modules cannot be null");
+         return this;
+      }
+
+      /**
+       * Sets the maximum time to wait for the regions to answer a listing. Defaults to two minutes.
+       */
+      public Builder timeout(long timeout, TimeUnit unit) {
+         checkArgument(timeout > 0, "timeout must be greater than zero");
+         this.timeoutMillis = unit.toMillis(timeout);
+         return this;
+      }
+
+      public MultiRegionCloudSigma2 build() {
+         checkArgument(!regions.isEmpty(), "at least one region must be configured");
+         checkNotNull(identity, "credentials must be configured");
+         Map<String, CloudSigma2Api> apis = Maps.newLinkedHashMap();
+         try {
+            for (String region : regions) {
+               apis.put(region, ContextBuilder.newBuilder(region)
+                     .credentials(identity, credential)
+                     .overrides(overrides)
+                     .modules(modules)
+                     .buildApi(CloudSigma2Api.class));
+            }
+         } catch (RuntimeException e) {
+            closeQuietly(apis.values());
+            throw e;
+         }
+         ListeningExecutorService executor = listeningDecorator(Executors.newCachedThreadPool(
+               new ThreadFactoryBuilder().setNameFormat("cloudsigma2-regions-%d").setDaemon(true).build()));
+         return new MultiRegionCloudSigma2(apis, executor, timeoutMillis, TimeUnit.MILLISECONDS, true);
+      }
+   }
+
+   private final Map<String, CloudSigma2Api> apis;
+   private final ListeningExecutorService executor;
+   private final long timeoutNanos;
+   private final boolean ownsExecutor;
+
+   /**
+    * Creates a multi-region client over existing apis. Closing it closes the apis, but leaves the executor running.
+    *
+    * @param apis The api of each region, keyed by the id of the provider of the region.
+    * @param executor The executor used to list the resources of the regions.
+    * @param timeout The maximum time to wait for the regions to answer a listing.
+    */
+   public MultiRegionCloudSigma2(Map<String, CloudSigma2Api> apis, ListeningExecutorService executor, long timeout,
+         TimeUnit unit) {
+      this(apis, executor, timeout, unit, false);
+   }
+
+   private MultiRegionCloudSigma2(Map<String, CloudSigma2Api> apis, ListeningExecutorService executor, long timeout,
+         TimeUnit unit, boolean ownsExecutor) {
+      this.apis = ImmutableMap.copyOf(checkNotNull(apis, "apis cannot be null"));
+      this.executor = checkNotNull(executor, "executor cannot be null");
+      checkArgument(!this.apis.isEmpty(), "at least one region must be configured");
+      checkArgument(timeout > 0, "timeout must be greater than zero");
+      this.timeoutNanos = unit.toNanos(timeout);
+      this.ownsExecutor = ownsExecutor;
+   }
+
+   /**
+    * @return The api of each region, keyed by the id of the provider of the region
+    */
+   public Map<String, CloudSigma2Api> getApis() {
+      return apis;
+   }
+
+   /**
+    * Lists the servers with details in all the regions.
+    */
+   public MultiRegionResult<ServerInfo> listServersInfo() {
+      return listInAllRegions(new Function<CloudSigma2Api, Iterable<ServerInfo>>() {
+         @Override
+         public Iterable<ServerInfo> apply(CloudSigma2Api api) {
+            return api.listServersInfo().concat();
+         }
+      });
+   }
+
+   /**
+    * Lists the drives with details in all the regions.
+    */
+   public MultiRegionResult<DriveInfo> listDrivesInfo() {
+      return listInAllRegions(new Function<CloudSigma2Api, Iterable<DriveInfo>>() {
+         @Override
+         public Iterable<DriveInfo> apply(CloudSigma2Api api) {
+            return api.listDrivesInfo().concat();
+         }
+      });
+   }
+
+   /**
+    * Lists the IPs with details in all the regions.
+    */
+   public MultiRegionResult<IPInfo> listIPInfo() {
+      return listInAllRegions(new Function<CloudSigma2Api, Iterable<IPInfo>>() {
+         @Override
+         public Iterable<IPInfo> apply(CloudSigma2Api api) {
+            return api.listIPInfo().concat();
+         }
+      });
+   }
+
+   /**
+    * Lists the subscriptions in all the regions.
+    */
+   public MultiRegionResult<Subscription> listSubscriptions() {
+      return listInAllRegions(new Function<CloudSigma2Api, Iterable<Subscription>>() {
+         @Override
+         public Iterable<Subscription> apply(CloudSigma2Api api) {
+            return api.listSubscriptions().concat();
+         }
+      });
+   }
+
+   /**
+    * Runs the given listing in all the regions concurrently and merges the results.
+    * <p>
+    * The listing is fully consumed in the executor, so the time needed to fetch all the pages counts towards the
+    * timeout. Listings still running when the timeout expires are cancelled.
+    */
+   public <T> MultiRegionResult<T> listInAllRegions(final Function<CloudSigma2Api, ? extends Iterable<T>> listing) {
+      checkNotNull(listing, "listing cannot be null");
+      long deadline = System.nanoTime() + timeoutNanos;
+
+      Map<String, ListenableFuture<List<T>>> futures = Maps.newLinkedHashMap();
+      for (final Map.Entry<String, CloudSigma2Api> region : apis.entrySet()) {
+         futures.put(region.getKey(), executor.submit(new Callable<List<T>>() {
+            @Override
+            public List<T> call() {
+               return ImmutableList.copyOf(listing.apply(region.getValue()));
+            }
+         }));
+      }
+
+      ImmutableList.Builder<InRegion<T>> results = ImmutableList.builder();
+      Map<String, Throwable> failures = Maps.newLinkedHashMap();
+      try {
+         for (Map.Entry<String, ListenableFuture<List<T>>> future : futures.entrySet()) {
+            String region = future.getKey();
+            try {
+               for (T value : future.getValue().get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS)) {
+                  results.add(new InRegion<T>(region, value));
+               }
+            } catch (ExecutionException e) {
+               failures.put(region, e.getCause());
+            } catch (TimeoutException e) {
+               future.getValue().cancel(true);
+               failures.put(region, new TimeoutException("Timeout listing resources in region " + region));
+            }
+         }
+      } catch (InterruptedException e) {
+         for (ListenableFuture<List<T>> future : futures.values()) {
+            future.cancel(true);
+         }
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+
+      return new MultiRegionResult<T>(results.build(), failures);
+   }
+
+   /**
+    * Closes the apis of all the regions.
+    */
+   @Override
+   public void close() throws IOException {
+      closeQuietly(apis.values());
+      if (ownsExecutor) {
+         executor.shutdownNow();
+      }
+   }
+
+   private static void closeQuietly(Iterable<CloudSigma2Api> apis) {
+      for (CloudSigma2Api api : apis) {
+         try {
+            Closeables.close(api, true);
+         } catch (IOException e) {
+            // Cannot happen, exceptions are swallowed
+         }
+      }
+   }
+}
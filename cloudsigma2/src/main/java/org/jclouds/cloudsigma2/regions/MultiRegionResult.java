@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.regions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The merged result of a listing fanned out to several regions.
+ * <p>
+ * A failure or a timeout in one region does not affect the others: the resources of the regions that answered in time
+ * are returned, and the cause of the failure is recorded for each of the remaining ones.
+ */
+public class MultiRegionResult<T> {
+
+   private final List<InRegion<T>> results;
+   private final Map<String, Throwable> failures;
+
+   public MultiRegionResult(List<InRegion<T>> results, Map<String, Throwable> failures) {
+      this.results = ImmutableList.copyOf(checkNotNull(results, "results cannot be null"));
+      this.failures = ImmutableMap.copyOf(checkNotNull(failures, "failures cannot be null"));
+   }
+
+   /**
+    * @return The resources of all the regions that answered in time, grouped by region in the configured order
+    */
+   public List<InRegion<T>> getResults() {
+      return results;
+   }
+
+   /**
+    * @return The cause of the failure of each region that failed or timed out, keyed by region
+    */
+   public Map<String, Throwable> getFailures() {
+      return failures;
+   }
+
+   /**
+    * @return Whether all the regions answered in time
+    */
+   public boolean isComplete() {
+      return failures.isEmpty();
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("results", results.size()).add("failures", failures).toString();
+   }
+}
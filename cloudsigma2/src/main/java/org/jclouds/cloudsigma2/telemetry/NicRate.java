@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.telemetry;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Traffic rates of a server NIC, computed from two consecutive runtime samples.
+ * <p>
+ * Rates are {@link Double#NaN} when the API did not report the corresponding counter in one of the samples.
+ */
+public class NicRate {
+
+   private final String serverUuid;
+   private final String mac;
+   private final long timestamp;
+   private final long intervalMillis;
+   private final double bytesReceivedPerSecond;
+   private final double bytesSentPerSecond;
+   private final double packetsReceivedPerSecond;
+   private final double packetsSentPerSecond;
+
+   public NicRate(String serverUuid, String mac, long timestamp, long intervalMillis, double bytesReceivedPerSecond,
+         double bytesSentPerSecond, double packetsReceivedPerSecond, double packetsSentPerSecond) {
+      this.serverUuid = checkNotNull(serverUuid, "serverUuid cannot be null");
+      this.mac = checkNotNull(mac, "mac cannot be null");
+      this.timestamp = timestamp;
+      this.intervalMillis = intervalMillis;
+      this.bytesReceivedPerSecond = bytesReceivedPerSecond;
+      this.bytesSentPerSecond = bytesSentPerSecond;
+      this.packetsReceivedPerSecond = packetsReceivedPerSecond;
+      this.packetsSentPerSecond = packetsSentPerSecond;
+   }
+
+   /**
+    * @return UUID of the server the NIC belongs to
+    */
+   public String getServerUuid() {
+      return serverUuid;
+   }
+
+   /**
+    * @return MAC address of the NIC
+    */
+   public String getMac() {
+      return mac;
+   }
+
+   /**
+    * @return Time of the most recent of the two samples, in milliseconds since the epoch
+    */
+   public long getTimestamp() {
+      return timestamp;
+   }
+
+   /**
+    * @return Time elapsed between the two samples, in milliseconds
+    */
+   public long getIntervalMillis() {
+      return intervalMillis;
+   }
+
+   /**
+    * @return Bytes received per second
+    */
+   public double getBytesReceivedPerSecond() {
+      return bytesReceivedPerSecond;
+   }
+
+   /**
+    * @return Bytes sent per second
+    */
+   public double getBytesSentPerSecond() {
+      return bytesSentPerSecond;
+   }
+
+   /**
+    * @return Packets received per second
+    */
+   public double getPacketsReceivedPerSecond() {
+      return packetsReceivedPerSecond;
+   }
+
+   /**
+    * @return Packets sent per second
+    */
+   public double getPacketsSentPerSecond() {
+      return packetsSentPerSecond;
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("serverUuid", serverUuid).add("mac", mac)
+            .add("timestamp", timestamp).add("intervalMillis", intervalMillis)
+            .add("bytesReceivedPerSecond", bytesReceivedPerSecond).add("bytesSentPerSecond", bytesSentPerSecond)
+            .add("packetsReceivedPerSecond", packetsReceivedPerSecond)
+            .add("packetsSentPerSecond", packetsSentPerSecond).toString();
+   }
+}
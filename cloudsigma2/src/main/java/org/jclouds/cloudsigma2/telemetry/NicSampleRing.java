@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.telemetry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Fixed size ring of runtime samples of a server NIC.
+ * <p>
+ * Samples are kept in primitive arrays, so the memory used by a NIC does not grow with the number of samples taken.
+ * Unknown counters are stored as negative values.
+ */
+final class NicSampleRing {
+
+   static final int BYTES_RECEIVED = 0;
+   static final int BYTES_SENT = 1;
+   static final int PACKETS_RECEIVED = 2;
+   static final int PACKETS_SENT = 3;
+   private static final int COUNTERS = 4;
+
+   private final String serverUuid;
+   private final String mac;
+   private final long[] timestamps;
+   private final long[] counters;
+   private int next;
+   private int size;
+
+   NicSampleRing(String serverUuid, String mac, int capacity) {
+      checkArgument(capacity >= 2, "at least two samples are needed to compute rates");
+      this.serverUuid = serverUuid;
+      this.mac = mac;
+      this.timestamps = new long[capacity];
+      this.counters = new long[capacity * COUNTERS];
+   }
+
+   /**
+    * Adds a sample, overwriting the oldest one if the ring is full. Samples that are not newer than the last one are
+    * ignored.
+    */
+   synchronized void add(long timestamp, long bytesReceived, long bytesSent, long packetsReceived, long packetsSent) {
+      if (size > 0 && timestamp <= timestamps[index(size - 1)]) {
+         return;
+      }
+      timestamps[next] = timestamp;
+      int offset = next * COUNTERS;
+      counters[offset + BYTES_RECEIVED] = bytesReceived;
+      counters[offset + BYTES_SENT] = bytesSent;
+      counters[offset + PACKETS_RECEIVED] = packetsReceived;
+      counters[offset + PACKETS_SENT] = packetsSent;
+      next = (next + 1) % timestamps.length;
+      if (size < timestamps.length) {
+         size++;
+      }
+   }
+
+   synchronized int size() {
+      return size;
+   }
+
+   /**
+    * Returns the rates between the two most recent samples, or null if there are not enough samples yet.
+    */
+   synchronized NicRate latest() {
+      return size < 2 ? null : rate(size - 1);
+   }
+
+   /**
+    * Returns the rates between each pair of consecutive samples, oldest first.
+    */
+   synchronized List<NicRate> history() {
+      ImmutableList.Builder<NicRate> rates = ImmutableList.builder();
+      for (int i = 1; i < size; i++) {
+         rates.add(rate(i));
+      }
+      return rates.build();
+   }
+
+   /** Maps the position of a sample, oldest first, to its index in the arrays. */
+   private int index(int position) {
+      return (next - size + position + timestamps.length) % timestamps.length;
+   }
+
+   private NicRate rate(int position) {
+      int current = index(position);
+      int previous = index(position - 1);
+      long intervalMillis = timestamps[current] - timestamps[previous];
+      double seconds = intervalMillis / 1000.0;
+      return new NicRate(serverUuid, mac, timestamps[current], intervalMillis,
+            perSecond(previous, current, BYTES_RECEIVED, seconds),
+            perSecond(previous, current, BYTES_SENT, seconds),
+            perSecond(previous, current, PACKETS_RECEIVED, seconds),
+            perSecond(previous, current, PACKETS_SENT, seconds));
+   }
+
+   private double perSecond(int previous, int current, int counter, double seconds) {
+      long before = counters[previous * COUNTERS + counter];
+      long after = counters[current * COUNTERS + counter];
+      if (before < 0 || after < 0) {
+         return Double.NaN;
+      }
+      // Counters start again from zero when the server is restarted
+      long delta = after >= before ? after - before : after;
+      return delta / seconds;
+   }
+}
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.telemetry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_TELEMETRY_SAMPLES;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.IOStats;
+import org.jclouds.cloudsigma2.domain.NICStats;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Longs;
+
+/**
+ * Samples the runtime NIC statistics of all the servers in the account and computes their traffic rates.
+ * <p>
+ * Each sample is a single paged listing of the servers, no matter how many servers are monitored. The counters are
+ * converted to primitive longs and kept in a fixed size ring for each NIC, and rates are computed from consecutive
+ * samples. Servers and NICs that are no longer listed are forgotten.
+ * <p>
+ * Rates can be pulled with {@link #getRates()} and friends, and the fleet wide totals are available through JMX once
+ * the sampler has been registered with {@link #registerMBean(MBeanServer, String)}.
+ */
+@Singleton
+public class ServerTelemetrySampler implements ServerTelemetrySamplerMBean {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final ScheduledExecutorService scheduler;
+   private final int samples;
+
+   private final ConcurrentMap<String, ConcurrentMap<String, NicSampleRing>> servers = Maps.newConcurrentMap();
+   private final Object sampleLock = new Object();
+   private final AtomicLong sampleCount = new AtomicLong();
+   private final AtomicLong failedSampleCount = new AtomicLong();
+   private volatile long lastSampleTime;
+   private volatile long lastSampleDurationMillis;
+   private ScheduledFuture<?> task;
+
+   @Inject
+   ServerTelemetrySampler(CloudSigma2Api api, @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(PROPERTY_TELEMETRY_SAMPLES) int samples) {
+      this.api = checkNotNull(api, "api cannot be null");
+      this.scheduler = checkNotNull(scheduler, "scheduler cannot be null");
+      checkArgument(samples >= 2, "at least two samples per NIC are needed to compute rates");
+      this.samples = samples;
+   }
+
+   /**
+    * Starts taking samples periodically. The first sample is taken right away.
+    */
+   public synchronized void start(long period, TimeUnit unit) {
+      checkState(task == null, "the sampler is already running");
+      checkArgument(period > 0, "period must be greater than zero");
+      task = scheduler.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               sample();
+            } catch (RuntimeException e) {
+               // Keep the task scheduled, the next sample may succeed
+               logger.warn(e, ">> error sampling server runtime statistics");
+            }
+         }
+      }, 0, period, unit);
+   }
+
+   /**
+    * Stops taking samples periodically. The samples already taken are kept.
+    */
+   public synchronized void stop() {
+      if (task != null) {
+         task.cancel(false);
+         task = null;
+      }
+   }
+
+   @Override
+   public synchronized boolean isRunning() {
+      return task != null;
+   }
+
+   @Override
+   public void sample() {
+      synchronized (sampleLock) {
+         Stopwatch watch = Stopwatch.createStarted();
+         List<ServerInfo> listed;
+         try {
+            listed = ImmutableList.copyOf(api.listServersInfo().concat());
+         } catch (RuntimeException e) {
+            failedSampleCount.incrementAndGet();
+            throw e;
+         }
+         lastSampleDurationMillis = watch.elapsed(TimeUnit.MILLISECONDS);
+         record(listed, System.currentTimeMillis());
+      }
+   }
+
+   @VisibleForTesting
+   void record(Iterable<ServerInfo> listed, long timestamp) {
+      Set<String> seen = Sets.newHashSet();
+      for (ServerInfo server : listed) {
+         if (server.getUuid() == null || server.getRuntime() == null || server.getRuntime().getNicStats() == null) {
+            continue;
+         }
+         ConcurrentMap<String, NicSampleRing> nics = servers.get(server.getUuid());
+         if (nics == null) {
+            nics = Maps.newConcurrentMap();
+            servers.put(server.getUuid(), nics);
+         }
+         Set<String> seenNics = Sets.newHashSet();
+         for (NICStats nic : server.getRuntime().getNicStats()) {
+            IOStats io = nic.getIoStats();
+            if (nic.getMac() == null || io == null) {
+               continue;
+            }
+            NicSampleRing ring = nics.get(nic.getMac());
+            if (ring == null) {
+               ring = new NicSampleRing(server.getUuid(), nic.getMac(), samples);
+               nics.put(nic.getMac(), ring);
+            }
+            ring.add(timestamp, parseCounter(io.getBytesReceived()), parseCounter(io.getBytesSent()),
+                  parseCounter(io.getPacketsReceived()), parseCounter(io.getPacketsSent()));
+            seenNics.add(nic.getMac());
+         }
+         nics.keySet().retainAll(seenNics);
+         seen.add(server.getUuid());
+      }
+      servers.keySet().retainAll(seen);
+      lastSampleTime = timestamp;
+      sampleCount.incrementAndGet();
+   }
+
+   /**
+    * Converts a counter reported by the API to a long, or to a negative value if it is missing or not a number.
+    */
+   @VisibleForTesting
+   static long parseCounter(@Nullable String value) {
+      if (value == null) {
+         return -1;
+      }
+      Long counter = Longs.tryParse(value.trim());
+      return counter == null ? -1 : counter;
+   }
+
+   /**
+    * Returns the latest rates of all the monitored NICs that have been sampled at least twice.
+    */
+   public List<NicRate> getRates() {
+      ImmutableList.Builder<NicRate> rates = ImmutableList.builder();
+      for (Map<String, NicSampleRing> nics : servers.values()) {
+         addLatestRates(rates, nics);
+      }
+      return rates.build();
+   }
+
+   /**
+    * Returns the latest rates of the NICs of the given server.
+    */
+   public List<NicRate> getRates(String serverUuid) {
+      checkNotNull(serverUuid, "serverUuid cannot be null");
+      ImmutableList.Builder<NicRate> rates = ImmutableList.builder();
+      Map<String, NicSampleRing> nics = servers.get(serverUuid);
+      if (nics != null) {
+         addLatestRates(rates, nics);
+      }
+      return rates.build();
+   }
+
+   /**
+    * Returns the rates between each pair of consecutive samples kept for the given NIC, oldest first.
+    */
+   public List<NicRate> getHistory(String serverUuid, String mac) {
+      checkNotNull(serverUuid, "serverUuid cannot be null");
+      checkNotNull(mac, "mac cannot be null");
+      Map<String, NicSampleRing> nics = servers.get(serverUuid);
+      NicSampleRing ring = nics == null ? null : nics.get(mac);
+      return ring == null ? ImmutableList.<NicRate> of() : ring.history();
+   }
+
+   private static void addLatestRates(ImmutableList.Builder<NicRate> rates, Map<String, NicSampleRing> nics) {
+      for (NicSampleRing ring : nics.values()) {
+         NicRate rate = ring.latest();
+         if (rate != null) {
+            rates.add(rate);
+         }
+      }
+   }
+
+   /**
+    * Registers the sampler in the given MBean server, under the
+    * <code>org.jclouds.cloudsigma2:type=ServerTelemetrySampler,name=&lt;name&gt;</code> object name.
+    */
+   public ObjectName registerMBean(MBeanServer mbeanServer, String name) throws JMException {
+      checkNotNull(mbeanServer, "mbeanServer cannot be null");
+      checkNotNull(name, "name cannot be null");
+      ObjectName objectName = new ObjectName("org.jclouds.cloudsigma2:type=ServerTelemetrySampler,name="
+            + ObjectName.quote(name));
+      mbeanServer.registerMBean(this, objectName);
+      return objectName;
+   }
+
+   @Override
+   public int getMonitoredServers() {
+      return servers.size();
+   }
+
+   @Override
+   public int getMonitoredNics() {
+      int count = 0;
+      for (Map<String, NicSampleRing> nics : servers.values()) {
+         count += nics.size();
+      }
+      return count;
+   }
+
+   @Override
+   public double getTotalBytesReceivedPerSecond() {
+      double total = 0;
+      for (NicRate rate : getRates()) {
+         total += knownOrZero(rate.getBytesReceivedPerSecond());
+      }
+      return total;
+   }
+
+   @Override
+   public double getTotalBytesSentPerSecond() {
+      double total = 0;
+      for (NicRate rate : getRates()) {
+         total += knownOrZero(rate.getBytesSentPerSecond());
+      }
+      return total;
+   }
+
+   @Override
+   public double getTotalPacketsReceivedPerSecond() {
+      double total = 0;
+      for (NicRate rate : getRates()) {
+         total += knownOrZero(rate.getPacketsReceivedPerSecond());
+      }
+      return total;
+   }
+
+   @Override
+   public double getTotalPacketsSentPerSecond() {
+      double total = 0;
+      for (NicRate rate : getRates()) {
+         total += knownOrZero(rate.getPacketsSentPerSecond());
+      }
+      return total;
+   }
+
+   private static double knownOrZero(double rate) {
+      return Double.isNaN(rate) ? 0 : rate;
+   }
+
+   @Override
+   public long getLastSampleTime() {
+      return lastSampleTime;
+   }
+
+   @Override
+   public long getLastSampleDurationMillis() {
+      return lastSampleDurationMillis;
+   }
+
+   @Override
+   public long getSampleCount() {
+      return sampleCount.get();
+   }
+
+   @Override
+   public long getFailedSampleCount() {
+      return failedSampleCount.get();
+   }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.telemetry;
+
+/**
+ * JMX view of the {@link ServerTelemetrySampler}.
+ */
+public interface ServerTelemetrySamplerMBean {
+
+   /**
+    * @return Whether the sampler is taking samples periodically
+    */
+   boolean isRunning();
+
+   /**
+    * @return Number of servers with runtime statistics in the last sample
+    */
+   int getMonitoredServers();
+
+   /**
+    * @return Number of NICs with runtime statistics in the last sample
+    */
+   int getMonitoredNics();
+
+   /**
+    * @return Bytes received per second by all the monitored NICs
+    */
+   double getTotalBytesReceivedPerSecond();
+
+   /**
+    * @return Bytes sent per second by all the monitored NICs
+    */
+   double getTotalBytesSentPerSecond();
+
+   /**
+    * @return Packets received per second by all the monitored NICs
+    */
+   double getTotalPacketsReceivedPerSecond();
+
+   /**
+    * @return Packets sent per second by all the monitored NICs
+    */
+   double getTotalPacketsSentPerSecond();
+
+   /**
+    * @return Time of the last successful sample, in milliseconds since the epoch
+    */
+   long getLastSampleTime();
+
+   /**
+    * @return Time needed to list the servers in the last successful sample, in milliseconds
+    */
+   long getLastSampleDurationMillis();
+
+   /**
+    * @return Number of successful samples
+    */
+   long getSampleCount();
+
+   /**
+    * @return Number of samples that failed
+    */
+   long getFailedSampleCount();
+
+   /**
+    * Takes a sample right away.
+    */
+   void sample();
+}
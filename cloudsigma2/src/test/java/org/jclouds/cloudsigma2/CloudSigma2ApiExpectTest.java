@@ -17,6 +17,8 @@
 package org.jclouds.cloudsigma2;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import org.jclouds.cloudsigma2.domain.AccountBalance;
 import org.jclouds.cloudsigma2.domain.CalcSubscription;
@@ -34,6 +36,7 @@ import org.jclouds.cloudsigma2.domain.IP;
 import org.jclouds.cloudsigma2.domain.IPInfo;
 import org.jclouds.cloudsigma2.domain.LibraryDrive;
 import org.jclouds.cloudsigma2.domain.License;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.domain.Pricing;
 import org.jclouds.cloudsigma2.domain.ProfileInfo;
 import org.jclouds.cloudsigma2.domain.Server;
@@ -57,6 +60,7 @@ import java.math.BigInteger;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -299,6 +303,25 @@ public class CloudSigma2ApiExpectTest extends BaseRestApiExpectTest<CloudSigma2A
       api.deleteDrives(deleteList);
    }
 
+   @Test
+   public void testDeleteDrivesFromSet() throws Exception {
+      Set<String> deleteSet = ImmutableSet.of(
+            "b137e217-42b6-4ecf-8575-d72efc2d3dbd"
+            , "e035a488-8587-4a15-ab25-9b7343236bc9"
+            , "feded33c-106f-49fa-a1c4-be5c718ad1b5");
+
+      CloudSigma2Api api = requestSendsResponse(
+            deleteBuilder()
+                  .endpoint(endpoint + "drives/")
+                  .payload(payloadFromResourceWithContentType("/drives-delete-multiple.json",
+                        MediaType.APPLICATION_JSON))
+                  .build(),
+            responseBuilder()
+                  .build());
+
+      api.deleteDrives(deleteSet);
+   }
+
    @Test
    public void testEditDrive() throws Exception {
       String uuid = "e96f3c63-6f50-47eb-9401-a56c5ccf6b32";
@@ -618,6 +641,25 @@ public class CloudSigma2ApiExpectTest extends BaseRestApiExpectTest<CloudSigma2A
       api.deleteServers(deleteUuids);
    }
 
+   @Test
+   public void testDeleteServersFromSet() throws Exception {
+      Set<String> deleteUuids = ImmutableSet.of(
+            "33e71c37-0d0a-4a3a-a1ea-dc7265c9a154",
+            "61d61337-884b-4c87-b4de-f7f48f9cfc84",
+            "a19a425f-9e92-42f6-89fb-6361203071bb"
+      );
+      CloudSigma2Api api = requestSendsResponse(
+            deleteBuilder()
+                  .endpoint(endpoint + "servers/")
+                  .payload(payloadFromResourceWithContentType("/servers-delete-multiple-request.json",
+                        MediaType.APPLICATION_JSON))
+                  .build(),
+            responseBuilder()
+                  .build());
+
+      api.deleteServers(deleteUuids);
+   }
+
    @Test
    public void testCloneServer() throws Exception {
 
@@ -1804,6 +1846,47 @@ public class CloudSigma2ApiExpectTest extends BaseRestApiExpectTest<CloudSigma2A
       }
    }
 
+   @Test
+   public void testListTransactionsSince() throws Exception {
+      CloudSigma2Api api = requestSendsResponse(
+            getBuilder()
+                  .endpoint(endpoint + "ledger/")
+                  .addQueryParam("time__gte", "2013-07-09T07:49:54Z")
+                  .addQueryParam("limit", "500")
+                  .addQueryParam("offset", "0")
+                  .build(),
+            responseBuilder()
+                  .payload(payloadFromResourceWithContentType("/ledger.json", MediaType.APPLICATION_JSON))
+                  .build());
+
+      PaginatedCollection<Transaction> transactions = api.listTransactionsSince("2013-07-09T07:49:54Z",
+            new PaginationOptions.Builder().limit(500).offset(0).build());
+
+      assertEquals(Iterables.size(transactions), 2);
+      assertEquals(Iterables.get(transactions, 0).getId(), "11042920");
+   }
+
+   @Test
+   public void testListTransactionsBetween() throws Exception {
+      CloudSigma2Api api = requestSendsResponse(
+            getBuilder()
+                  .endpoint(endpoint + "ledger/")
+                  .addQueryParam("time__gte", "2013-07-09T07:49:54Z")
+                  .addQueryParam("time__lt", "2013-08-08T07:49:54Z")
+                  .addQueryParam("limit", "500")
+                  .addQueryParam("offset", "0")
+                  .build(),
+            responseBuilder()
+                  .payload(payloadFromResourceWithContentType("/ledger.json", MediaType.APPLICATION_JSON))
+                  .build());
+
+      PaginatedCollection<Transaction> transactions = api.listTransactionsBetween("2013-07-09T07:49:54Z",
+            "2013-08-08T07:49:54Z", new PaginationOptions.Builder().limit(500).offset(0).build());
+
+      assertEquals(Iterables.size(transactions), 2);
+      assertEquals(Iterables.get(transactions, 0).getId(), "11042920");
+   }
+
    @Test
    public void testListLicenses() throws Exception {
       CloudSigma2Api api = requestsSendResponses(
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2;
+
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_MAX_CONCURRENT_PAGE_REQUESTS;
+import static org.jclouds.cloudsigma2.config.CloudSigma2Properties.PROPERTY_PAGE_SIZE;
+import static org.jclouds.http.utils.Queries.queryParser;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the concurrent listing of the paginated collections.
+ * <p>
+ * The server pages with the default CloudSigma page size when no limit is given, and keeps each request open for a
+ * short time so concurrent requests overlap.
+ */
+@Test(groups = "unit", testName = "CloudSigma2PagingMockTest", singleThreaded = true)
+public class CloudSigma2PagingMockTest {
+
+   private static final int LATENCY_MILLIS = 50;
+   private static final int SERVER_DEFAULT_LIMIT = 20;
+
+   public void testSequentialListingHasOneRequestInFlight() throws Exception {
+      // A page size equal to the server default and a single request in flight behave as the sequential listing
+      DrivesDispatcher dispatcher = new DrivesDispatcher(100);
+      List<DriveInfo> drives = listDrivesInfo(dispatcher, SERVER_DEFAULT_LIMIT, 1);
+
+      assertDrives(drives, 100);
+      assertEquals(dispatcher.requests.get(), 5);
+      assertEquals(dispatcher.maxInFlight.get(), 1);
+   }
+
+   public void testConcurrentListingFetchesTheRemainingPagesInOneRound() throws Exception {
+      DrivesDispatcher dispatcher = new DrivesDispatcher(200);
+      List<DriveInfo> drives = listDrivesInfo(dispatcher, 0, 4);
+
+      // The first page has the server default size; the remaining 180 drives are split in 4 pages of 45
+      assertDrives(drives, 200);
+      assertEquals(dispatcher.requests.get(), 5);
+      assertEquals(dispatcher.limits.count(SERVER_DEFAULT_LIMIT), 1);
+      assertEquals(dispatcher.limits.count(45), 4);
+      assertTrue(dispatcher.maxInFlight.get() > 1, "page requests did not overlap");
+      assertTrue(dispatcher.maxInFlight.get() <= 4, "more than 4 page requests were in flight: "
+            + dispatcher.maxInFlight.get());
+   }
+
+   public void testConcurrentListingHonorsTheConfiguredPageSize() throws Exception {
+      DrivesDispatcher dispatcher = new DrivesDispatcher(100);
+      List<DriveInfo> drives = listDrivesInfo(dispatcher, 10, 2);
+
+      assertDrives(drives, 100);
+      // One request for the first page of 20 drives and 8 for the remaining 80
+      assertEquals(dispatcher.requests.get(), 9);
+      assertTrue(dispatcher.maxInFlight.get() <= 2, "more than 2 page requests were in flight: "
+            + dispatcher.maxInFlight.get());
+   }
+
+   public void testSinglePageListingDoesNotRequestMorePages() throws Exception {
+      DrivesDispatcher dispatcher = new DrivesDispatcher(15);
+      List<DriveInfo> drives = listDrivesInfo(dispatcher, 0, 4);
+
+      assertDrives(drives, 15);
+      assertEquals(dispatcher.requests.get(), 1);
+   }
+
+   private static void assertDrives(List<DriveInfo> drives, int driveCount) {
+      assertEquals(drives.size(), driveCount);
+      for (int i = 0; i < driveCount; i++) {
+         assertEquals(drives.get(i).getUuid(), "drive-" + i);
+      }
+   }
+
+   private static List<DriveInfo> listDrivesInfo(Dispatcher dispatcher, int pageSize, int maxConcurrentRequests)
+         throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.setDispatcher(dispatcher);
+      server.play();
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_PAGE_SIZE, String.valueOf(pageSize));
+      overrides.setProperty(PROPERTY_MAX_CONCURRENT_PAGE_REQUESTS, String.valueOf(maxConcurrentRequests));
+      CloudSigma2Api api = ContextBuilder.newBuilder("cloudsigma2")
+            .credentials("user", "password")
+            .endpoint(server.getUrl("/api/2.0").toString())
+            .overrides(overrides)
+            .buildApi(CloudSigma2Api.class);
+      try {
+         return api.listDrivesInfo().concat().toList();
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   private static class DrivesDispatcher extends Dispatcher {
+      private final int driveCount;
+      private final AtomicInteger requests = new AtomicInteger();
+      private final AtomicInteger inFlight = new AtomicInteger();
+      private final AtomicInteger maxInFlight = new AtomicInteger();
+      private final Multiset<Integer> limits = ConcurrentHashMultiset.create();
+
+      DrivesDispatcher(int driveCount) {
+         this.driveCount = driveCount;
+      }
+
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+         requests.incrementAndGet();
+         int current = inFlight.incrementAndGet();
+         synchronized (maxInFlight) {
+            maxInFlight.set(Math.max(maxInFlight.get(), current));
+         }
+         try {
+            Thread.sleep(LATENCY_MILLIS);
+            return page(request);
+         } finally {
+            inFlight.decrementAndGet();
+         }
+      }
+
+      private MockResponse page(RecordedRequest request) {
+         String path = request.getPath();
+         int query = path.indexOf('?');
+         Multimap<String, String> params = queryParser().apply(query < 0 ? "" : path.substring(query + 1));
+         int limit = params.containsKey("limit") ? Integer.parseInt(Iterables.getOnlyElement(params.get("limit")))
+               : SERVER_DEFAULT_LIMIT;
+         int offset = params.containsKey("offset") ? Integer.parseInt(Iterables.getOnlyElement(params.get("offset")))
+               : 0;
+         limits.add(limit);
+
+         StringBuilder body = new StringBuilder();
+         body.append("{\"meta\": {\"limit\": ").append(limit).append(", \"offset\": ").append(offset)
+               .append(", \"total_count\": ").append(driveCount).append("}, \"objects\": [");
+         for (int i = offset; i < Math.min(offset + limit, driveCount); i++) {
+            if (i > offset) {
+               body.append(',');
+            }
+            body.append("{\"uuid\": \"drive-").append(i).append("\", \"name\": \"drive ").append(i)
+                  .append("\", \"status\": \"unmounted\", \"media\": \"disk\"}");
+         }
+         body.append("]}");
+         return new MockResponse().setHeader("Content-Type", "application/json").setBody(body.toString());
+      }
+   }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.binders;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.jclouds.cloudsigma2.domain.DeviceEmulationType;
+import org.jclouds.cloudsigma2.domain.Drive;
+import org.jclouds.cloudsigma2.domain.IPConfiguration;
+import org.jclouds.cloudsigma2.domain.IPConfigurationType;
+import org.jclouds.cloudsigma2.domain.Model;
+import org.jclouds.cloudsigma2.domain.NIC;
+import org.jclouds.cloudsigma2.domain.ServerDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.functions.ServerInfoToJson;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonParser;
+
+/**
+ * Unit tests for the {@link BindServerInfoListToJsonRequest} class.
+ */
+@Test(groups = "unit", testName = "BindServerInfoListToJsonRequestTest")
+public class BindServerInfoListToJsonRequestTest {
+
+   private final BindServerInfoListToJsonRequest binder = new BindServerInfoListToJsonRequest(new ServerInfoToJson());
+
+   public void testBindServersMatchesTheBulkCreateRequest() throws IOException {
+      ImmutableList.Builder<ServerInfo> servers = ImmutableList.builder();
+      for (int i = 0; i < 3; i++) {
+         servers.add(new ServerInfo.Builder()
+               .name("test_server_" + i)
+               .cpu(100)
+               .memory(new BigInteger("536870912"))
+               .vncPassword("testserver")
+               .build());
+      }
+
+      String expected = Strings2.toStringAndClose(getClass().getResourceAsStream(
+            "/servers-create-multiple-request.json"));
+      assertEquals(new JsonParser().parse(bind(servers.build())), new JsonParser().parse(expected));
+   }
+
+   public void testBindServerWithAllProperties() {
+      ServerInfo server = new ServerInfo.Builder()
+            .name("server-0")
+            .cpu(1000)
+            .memory(new BigInteger("536870912"))
+            .meta(ImmutableMap.of("description", "server \"0\" <bulk>", "group", "web"))
+            .requirements(ImmutableList.<String> of())
+            .tags(ImmutableList.of("tag_uuid_1", "tag_uuid_2"))
+            .vncPassword("tester")
+            .nics(ImmutableList.of(new NIC.Builder()
+                  .ipV4Configuration(new IPConfiguration(IPConfigurationType.DHCP, null))
+                  .model(Model.VIRTIO)
+                  .build()))
+            .drives(ImmutableList.of(new ServerDrive.Builder()
+                  .bootOrder(1)
+                  .deviceChannel("0:0")
+                  .deviceEmulationType(DeviceEmulationType.VIRTIO)
+                  .drive(new Drive.Builder().uuid("drive-0").build())
+                  .build()))
+            .build();
+
+      assertEquals(bind(ImmutableList.of(server)), "{\"objects\":[{"
+            + "\"name\":\"server-0\","
+            + "\"cpu\":1000,"
+            + "\"mem\":\"536870912\","
+            + "\"meta\":{\"description\":\"server \\\"0\\\" <bulk>\",\"group\":\"web\"},"
+            + "\"requirements\":[],"
+            + "\"tags\":[\"tag_uuid_1\",\"tag_uuid_2\"],"
+            + "\"vnc_password\":\"tester\","
+            + "\"nics\":[{\"ip_v4_conf\":{\"conf\":\"dhcp\"},\"model\":\"virtio\"}],"
+            + "\"drives\":[{\"boot_order\":1,\"dev_channel\":\"0:0\",\"device\":\"virtio\",\"drive\":\"drive-0\"}]"
+            + "}]}");
+   }
+
+   public void testBindEmptyList() {
+      assertEquals(bind(ImmutableList.<ServerInfo> of()), "{\"objects\":[]}");
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testBindRejectsOtherPayloads() {
+      bind(ImmutableList.of("server"));
+   }
+
+   private String bind(List<?> servers) {
+      HttpRequest request = HttpRequest.builder().method("POST").endpoint("http://localhost/servers/").build();
+      return binder.bindToRequest(request, servers).getPayload().getRawContent().toString();
+   }
+}
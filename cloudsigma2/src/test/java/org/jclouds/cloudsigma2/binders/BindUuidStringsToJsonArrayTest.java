@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.binders;
+
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.http.HttpRequest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link BindUuidStringsToJsonArray} class.
+ */
+@Test(groups = "unit", testName = "BindUuidStringsToJsonArrayTest")
+public class BindUuidStringsToJsonArrayTest {
+
+   private final BindUuidStringsToJsonArray binder = new BindUuidStringsToJsonArray();
+
+   public void testBindList() {
+      assertEquals(bind(ImmutableList.of("uuid-1", "uuid-2")),
+            "{\"objects\":[{\"uuid\":\"uuid-1\"},{\"uuid\":\"uuid-2\"}]}");
+   }
+
+   public void testBindSet() {
+      assertEquals(bind(ImmutableSet.of("uuid-1", "uuid-2")),
+            "{\"objects\":[{\"uuid\":\"uuid-1\"},{\"uuid\":\"uuid-2\"}]}");
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testBindRejectsOtherPayloads() {
+      bind("uuid-1");
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testBindRejectsOtherElements() {
+      bind(ImmutableSet.of(1));
+   }
+
+   private String bind(Object uuids) {
+      HttpRequest request = HttpRequest.builder().method("DELETE").endpoint("http://localhost/servers/").build();
+      return binder.bindToRequest(request, uuids).getPayload().getRawContent().toString();
+   }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.cloudsigma2.domain.MediaType;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.OsFamily;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link LibraryDriveToImage} class.
+ */
+@Test(groups = "unit", testName = "LibraryDriveToImageTest")
+public class LibraryDriveToImageTest {
+
+   private final LibraryDriveToImage function = new LibraryDriveToImage();
+
+   public void testConvertLibraryDrive() {
+      LibraryDrive drive = new LibraryDrive.Builder().uuid("lib").name("Ubuntu 12.04 Server")
+            .description("Ubuntu with SSH access").media(MediaType.DISK).status(DriveStatus.UNMOUNTED).arch("64")
+            .build();
+
+      Image image = function.apply(drive);
+
+      assertEquals(image.getId(), "lib");
+      assertEquals(image.getName(), "Ubuntu 12.04 Server");
+      assertEquals(image.getDescription(), "Ubuntu with SSH access");
+      assertEquals(image.getStatus(), Image.Status.AVAILABLE);
+      assertEquals(image.getOperatingSystem().getFamily(), OsFamily.UBUNTU);
+      assertEquals(image.getOperatingSystem().getVersion(), "12.04");
+      assertEquals(image.getOperatingSystem().getArch(), "64");
+      assertTrue(image.getOperatingSystem().is64Bit());
+      assertEquals(image.getDefaultCredentials().getUser(), LibraryDriveToImage.DEFAULT_LOGIN_USER);
+      assertTrue(image.getDefaultCredentials().shouldAuthenticateSudo());
+   }
+
+   public void testDescriptionDefaultsToTheName() {
+      LibraryDrive drive = new LibraryDrive.Builder().uuid("lib").name("Debian 7").media(MediaType.DISK)
+            .status(DriveStatus.COPYING).arch("32").build();
+
+      Image image = function.apply(drive);
+
+      assertEquals(image.getDescription(), "Debian 7");
+      assertEquals(image.getStatus(), Image.Status.PENDING);
+      assertEquals(image.getOperatingSystem().getFamily(), OsFamily.DEBIAN);
+      assertEquals(image.getOperatingSystem().getVersion(), "7");
+      assertFalse(image.getOperatingSystem().is64Bit());
+   }
+
+   public void testUnknownOperatingSystemAndStatus() {
+      LibraryDrive drive = new LibraryDrive.Builder().uuid("lib").name("Appliance").media(MediaType.DISK).build();
+
+      Image image = function.apply(drive);
+
+      assertEquals(image.getStatus(), Image.Status.UNRECOGNIZED);
+      assertEquals(image.getOperatingSystem().getFamily(), OsFamily.UNRECOGNIZED);
+      assertNull(image.getOperatingSystem().getVersion());
+   }
+}
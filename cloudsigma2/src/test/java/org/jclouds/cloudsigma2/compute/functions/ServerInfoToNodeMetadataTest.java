@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import org.jclouds.cloudsigma2.CloudSigma2ApiMetadata;
+import org.jclouds.cloudsigma2.compute.strategy.CloudSigma2ComputeServiceAdapter;
+import org.jclouds.cloudsigma2.domain.IP;
+import org.jclouds.cloudsigma2.domain.IPConfiguration;
+import org.jclouds.cloudsigma2.domain.IPConfigurationType;
+import org.jclouds.cloudsigma2.domain.InterfaceType;
+import org.jclouds.cloudsigma2.domain.NIC;
+import org.jclouds.cloudsigma2.domain.NICStats;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+/**
+ * Unit tests for the {@link ServerInfoToNodeMetadata} class.
+ */
+@Test(groups = "unit", testName = "ServerInfoToNodeMetadataTest")
+public class ServerInfoToNodeMetadataTest {
+
+   private static final BigInteger ONE_MEGABYTE = BigInteger.valueOf(1024 * 1024);
+
+   private Image image;
+   private Location location;
+   private LoginCredentials credentials;
+   private ServerInfoToNodeMetadata function;
+
+   @BeforeMethod
+   public void setup() {
+      image = new ImageBuilder().ids("lib").name("Ubuntu 12.04").status(Image.Status.AVAILABLE)
+            .operatingSystem(OperatingSystem.builder().description("Ubuntu 12.04").family(OsFamily.UBUNTU)
+                  .version("12.04").is64Bit(true).build()).build();
+      location = new LocationBuilder().id("zrh").description("Zurich").scope(LocationScope.PROVIDER).build();
+      credentials = LoginCredentials.builder().user("cloudsigma").password("vnc").build();
+
+      GroupNamingConvention.Factory namingConvention = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), new CloudSigma2ApiMetadata().getDefaultProperties());
+         }
+      }).getInstance(GroupNamingConvention.Factory.class);
+
+      Supplier<Map<String, ? extends Image>> images = Suppliers.<Map<String, ? extends Image>> ofInstance(
+            ImmutableMap.of("lib", image));
+      function = new ServerInfoToNodeMetadata(images, Suppliers.ofInstance(location), namingConvention,
+            ImmutableMap.<String, Credentials> of("node#uuid", credentials));
+   }
+
+   public void testConvertServer() {
+      NIC staticNic = new NIC.Builder().ipV4Configuration(
+            new IPConfiguration(IPConfigurationType.STATIC, new IP.Builder().uuid("1.2.3.4").build())).build();
+      NIC dhcpNic = new NIC.Builder().ipV4Configuration(new IPConfiguration(IPConfigurationType.DHCP, null))
+            .runtime(new NICStats(InterfaceType.PUBLIC, null, new IP.Builder().uuid("5.6.7.8").build(), null, "mac"))
+            .build();
+      ServerInfo server = new ServerInfo.Builder().uuid("uuid").name("web-1a2").status(ServerStatus.RUNNING)
+            .cpu(2000).memory(BigInteger.valueOf(1024).multiply(ONE_MEGABYTE))
+            .meta(ImmutableMap.of(CloudSigma2ComputeServiceAdapter.IMAGE_ID_METADATA_KEY, "lib", "role", "web"))
+            .nics(ImmutableList.of(staticNic, dhcpNic)).build();
+
+      NodeMetadata node = function.apply(server);
+
+      assertEquals(node.getId(), "uuid");
+      assertEquals(node.getName(), "web-1a2");
+      assertEquals(node.getHostname(), "web-1a2");
+      assertEquals(node.getGroup(), "web");
+      assertEquals(node.getLocation(), location);
+      assertEquals(node.getHardware(), CloudSigma2ComputeServiceAdapter.toHardware(2000, 1024));
+      assertEquals(node.getImageId(), "lib");
+      assertEquals(node.getOperatingSystem(), image.getOperatingSystem());
+      assertEquals(node.getUserMetadata(), ImmutableMap.of("role", "web"));
+      assertEquals(node.getStatus(), Status.RUNNING);
+      assertEquals(node.getBackendStatus(), ServerStatus.RUNNING.value());
+      assertEquals(node.getPublicAddresses(), ImmutableSet.of("1.2.3.4", "5.6.7.8"));
+      assertEquals(node.getPrivateAddresses(), ImmutableSet.of());
+      assertEquals(node.getCredentials(), credentials);
+   }
+
+   public void testConvertServerWithoutImageOrCredentials() {
+      ServerInfo server = new ServerInfo.Builder().uuid("other").name("db-3f4").status(ServerStatus.STOPPED)
+            .cpu(1000).memory(BigInteger.valueOf(512).multiply(ONE_MEGABYTE))
+            .meta(ImmutableMap.of(CloudSigma2ComputeServiceAdapter.IMAGE_ID_METADATA_KEY, "deleted")).build();
+
+      NodeMetadata node = function.apply(server);
+
+      assertEquals(node.getGroup(), "db");
+      assertEquals(node.getImageId(), "deleted");
+      assertNull(node.getOperatingSystem());
+      assertEquals(node.getStatus(), Status.SUSPENDED);
+      assertEquals(node.getPublicAddresses(), ImmutableSet.of());
+      assertNull(node.getCredentials());
+   }
+
+   public void testUnknownStatusIsUnrecognized() {
+      ServerInfo server = new ServerInfo.Builder().uuid("uuid").name("web-1a2").build();
+
+      NodeMetadata node = function.apply(server);
+
+      assertEquals(node.getStatus(), Status.UNRECOGNIZED);
+      assertNull(node.getBackendStatus());
+      assertNull(node.getHardware());
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonParser;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link CloudSigma2ComputeServiceAdapter} class that send the requests through the real api.
+ */
+@Test(groups = "unit", testName = "CloudSigma2ComputeServiceAdapterMockTest", singleThreaded = true)
+public class CloudSigma2ComputeServiceAdapterMockTest {
+
+   private static final String SERVER = "a19a425f-9e92-42f6-89fb-6361203071bb";
+   private static final String DRIVE = "22826af4-d6c8-4d39-bd41-9cea86df2976";
+
+   public void testDestroyNodesDeletesServersAndDrivesInBulk() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(jsonResponse("/destroy-servers-detail.json"));
+      server.enqueue(jsonResponse("/destroy-drives-detail.json"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(jsonResponse("/destroy-drive-info.json"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.play();
+
+      CloudSigma2Api api = ContextBuilder.newBuilder("cloudsigma2")
+            .credentials("user", "password")
+            .endpoint(server.getUrl("/api/2.0").toString())
+            .buildApi(CloudSigma2Api.class);
+      try {
+         new CloudSigma2ComputeServiceAdapter(api, newDirectExecutorService(), new Timeouts(), new PollPeriod(),
+               "password", 10).destroyNodes(ImmutableList.of(SERVER, "unknown"));
+
+         assertEquals(server.takeRequest().getPath(), "/api/2.0/servers/detail/");
+         assertEquals(server.takeRequest().getPath(), "/api/2.0/drives/detail/");
+         assertDeleted(server.takeRequest(), "/api/2.0/servers/", SERVER);
+         assertEquals(server.takeRequest().getPath(), "/api/2.0/drives/" + DRIVE + "/");
+         assertDeleted(server.takeRequest(), "/api/2.0/drives/", DRIVE);
+         assertEquals(server.getRequestCount(), 5);
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   private static void assertDeleted(RecordedRequest request, String path, String uuid) {
+      assertEquals(request.getMethod(), "DELETE");
+      assertEquals(request.getPath(), path);
+      assertEquals(new JsonParser().parse(new String(request.getBody(), UTF_8)),
+            new JsonParser().parse("{\"objects\":[{\"uuid\":\"" + uuid + "\"}]}"));
+   }
+
+   private static MockResponse jsonResponse(String resource) throws IOException {
+      return new MockResponse().setHeader("Content-Type", "application/json")
+            .setBody(Strings2.toStringAndClose(CloudSigma2ComputeServiceAdapterMockTest.class
+                  .getResourceAsStream(resource)));
+   }
+}
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.compute.functions.LibraryDriveToImage;
+import org.jclouds.cloudsigma2.domain.DeviceEmulationType;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.cloudsigma2.domain.MediaType;
+import org.jclouds.cloudsigma2.domain.ServerDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Unit tests for the {@link CloudSigma2ComputeServiceAdapter} class.
+ */
+@Test(groups = "unit", testName = "CloudSigma2ComputeServiceAdapterTest")
+public class CloudSigma2ComputeServiceAdapterTest {
+
+   public void testCreateNodesClonesEachDriveAndCreatesAllServersInOneRequest() {
+      LibraryDrive image = new LibraryDrive.Builder().uuid("lib").name("Ubuntu 12.04 Automated SSH Access")
+            .media(MediaType.DISK).status(DriveStatus.UNMOUNTED).arch("64").build();
+      Template template = EasyMock.createMock(Template.class);
+      expect(template.getImage()).andReturn(new LibraryDriveToImage().apply(image)).anyTimes();
+      expect(template.getHardware()).andReturn(CloudSigma2ComputeServiceAdapter.toHardware(2000, 1024)).anyTimes();
+      expect(template.getOptions()).andReturn(new TemplateOptions()).anyTimes();
+
+      Capture<Iterable<ServerInfo>> requests = new Capture<Iterable<ServerInfo>>();
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("lib"), anyObject(LibraryDrive.class))).andReturn(clone("d1"))
+            .andReturn(clone("d2")).andReturn(clone("d3"));
+      expect(api.getDriveInfo("d1")).andReturn(drive("d1"));
+      expect(api.getDriveInfo("d2")).andReturn(drive("d2"));
+      expect(api.getDriveInfo("d3")).andReturn(drive("d3"));
+      expect(api.createServers(capture(requests))).andReturn(
+            ImmutableList.of(server("s1", "d1"), server("s2", "d2"), server("s3", "d3")));
+      replay(template, api);
+
+      List<NodeAndInitialCredentials<ServerInfo>> nodes = adapter(api, newDirectExecutorService(), 10)
+            .createNodesWithGroupEncodedIntoName("group", ImmutableSet.of("group-1", "group-2", "group-3"), template);
+
+      assertEquals(nodes.size(), 3);
+      assertEquals(nodes.get(0).getCredentials().getUser(), LibraryDriveToImage.DEFAULT_LOGIN_USER);
+      assertEquals(nodes.get(0).getCredentials().getOptionalPassword().get(), "password");
+
+      List<ServerInfo> created = ImmutableList.copyOf(requests.getValue());
+      assertEquals(created.size(), 3);
+      for (ServerInfo request : created) {
+         assertEquals(request.getCpu(), 2000);
+         assertEquals(request.getMemory().intValue(), 1024 * 1024 * 1024);
+         assertEquals(request.getMeta().get(CloudSigma2ComputeServiceAdapter.IMAGE_ID_METADATA_KEY), "lib");
+      }
+      assertEquals(created.get(1).getName(), "group-2");
+      assertEquals(created.get(1).getDrives().get(0).getDriveUuid(), "d2");
+
+      verify(template, api);
+   }
+
+   public void testDestroyNodesDeletesServersAndOwnedDrivesInBulk() {
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(
+            paged(server("s1", "d1"), server("s2", "d2"), server("s3", "d3")));
+      // The CD-ROM attached to s1 is a library drive and is not listed in the account drives
+      expect(api.listDrivesInfo()).andReturn(paged(drive("d1"), drive("d2"), drive("d3")));
+      api.deleteServers(ImmutableSet.of("s1", "s2"));
+      expect(api.getDriveInfo("d1")).andReturn(drive("d1"));
+      expect(api.getDriveInfo("d2")).andReturn(drive("d2"));
+      api.deleteDrives(ImmutableSet.of("d1", "d2"));
+      replay(api);
+
+      adapter(api, newDirectExecutorService(), 10).destroyNodes(ImmutableList.of("s1", "s2", "unknown"));
+
+      verify(api);
+   }
+
+   public void testCreateNodesOnlyPollsTheDrivesThatAreStillCopying() {
+      LibraryDrive image = new LibraryDrive.Builder().uuid("lib").name("Ubuntu 12.04").media(MediaType.DISK)
+            .status(DriveStatus.UNMOUNTED).build();
+      Template template = template(image);
+
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("lib"), anyObject(LibraryDrive.class))).andReturn(clone("d1"))
+            .andReturn(clone("d2"));
+      // d2 is fetched only once: it is not polled again once it has been copied
+      expect(api.getDriveInfo("d1")).andReturn(drive("d1", DriveStatus.COPYING));
+      expect(api.getDriveInfo("d2")).andReturn(drive("d2"));
+      expect(api.getDriveInfo("d1")).andReturn(drive("d1"));
+      expect(api.createServers(EasyMock.<Iterable<ServerInfo>> anyObject())).andReturn(
+            ImmutableList.of(server("s1", "d1"), server("s2", "d2")));
+      replay(template, api);
+
+      List<NodeAndInitialCredentials<ServerInfo>> nodes = adapter(api, newDirectExecutorService(), 10)
+            .createNodesWithGroupEncodedIntoName("group", ImmutableSet.of("group-1", "group-2"), template);
+
+      assertEquals(nodes.size(), 2);
+      verify(template, api);
+   }
+
+   public void testCreateNodesDeletesTheClonesWhenTheServersCannotBeCreated() {
+      LibraryDrive image = new LibraryDrive.Builder().uuid("lib").name("Ubuntu 12.04").media(MediaType.DISK)
+            .status(DriveStatus.UNMOUNTED).build();
+      Template template = template(image);
+
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("lib"), anyObject(LibraryDrive.class))).andReturn(clone("d1"))
+            .andReturn(clone("d2"));
+      expect(api.getDriveInfo("d1")).andReturn(drive("d1"));
+      expect(api.getDriveInfo("d2")).andReturn(drive("d2"));
+      expect(api.createServers(EasyMock.<Iterable<ServerInfo>> anyObject())).andThrow(
+            new IllegalStateException("quota exceeded"));
+      api.deleteDrives(ImmutableSet.of("d1", "d2"));
+      replay(template, api);
+
+      try {
+         adapter(api, newDirectExecutorService(), 10).createNodesWithGroupEncodedIntoName("group",
+               ImmutableSet.of("group-1", "group-2"), template);
+         fail("The servers should not have been created");
+      } catch (IllegalStateException expected) {
+         assertEquals(expected.getMessage(), "quota exceeded");
+      }
+
+      verify(template, api);
+   }
+
+   public void testDestroyNodesStopsRunningServersAndOnlyPollsThem() {
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(
+            paged(server("s1", "d1", ServerStatus.RUNNING), server("s2", "d2")));
+      api.stopServer("s1");
+      expect(api.getServerInfo("s1")).andReturn(server("s1", "d1"));
+      expect(api.listDrivesInfo()).andReturn(paged(drive("d1"), drive("d2")));
+      api.deleteServers(ImmutableSet.of("s1", "s2"));
+      expect(api.getDriveInfo("d1")).andReturn(drive("d1"));
+      expect(api.getDriveInfo("d2")).andReturn(drive("d2"));
+      api.deleteDrives(ImmutableSet.of("d1", "d2"));
+      replay(api);
+
+      adapter(api, newDirectExecutorService(), 10).destroyNodes(ImmutableList.of("s1", "s2"));
+
+      verify(api);
+   }
+
+   public void testDestroyNodesWithoutExistingServersDoesNothing() {
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(paged(server("s1", "d1")));
+      replay(api);
+
+      adapter(api, newDirectExecutorService(), 10).destroyNodes(ImmutableList.of("unknown"));
+
+      verify(api);
+   }
+
+   public void testListImagesOnlyReturnsDisksAndListsOnce() {
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      expect(api.listLibraryDrives()).andReturn(paged(
+            new LibraryDrive.Builder().uuid("disk").name("Ubuntu 12.04").media(MediaType.DISK).build(),
+            new LibraryDrive.Builder().uuid("cdrom").name("Ubuntu 12.04 ISO").media(MediaType.CDROM).build()));
+      replay(api);
+
+      Iterable<LibraryDrive> images = adapter(api, newDirectExecutorService(), 10).listImages();
+      assertEquals(Iterables.getOnlyElement(images).getUuid(), "disk");
+      // Iterating again must not list the library drives again
+      assertEquals(Iterables.size(images), 1);
+
+      verify(api);
+   }
+
+   public void testStartServersReportsEachFailureSeparately() {
+      CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+      api.startServer("s1");
+      api.startServer("s2");
+      expectLastCall().andThrow(new IllegalStateException("not enough resources"));
+      replay(api);
+
+      Map<String, ListenableFuture<Void>> futures = adapter(api, newDirectExecutorService(), 10).startServers(
+            ImmutableList.of("s1", "s2"));
+
+      assertNull(Futures.getUnchecked(futures.get("s1")));
+      try {
+         Futures.getUnchecked(futures.get("s2"));
+         fail("The start of s2 should have failed");
+      } catch (UncheckedExecutionException expected) {
+         assertEquals(expected.getCause().getMessage(), "not enough resources");
+      }
+
+      verify(api);
+   }
+
+   public void testSubmitBoundedLimitsConcurrency() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         CloudSigma2Api api = EasyMock.createMock(CloudSigma2Api.class);
+         CloudSigma2ComputeServiceAdapter adapter = adapter(api, listeningDecorator(executor), 2);
+
+         final AtomicInteger running = new AtomicInteger();
+         final AtomicInteger maxRunning = new AtomicInteger();
+         final AtomicInteger done = new AtomicInteger();
+         Map<String, ListenableFuture<Void>> futures = adapter.submitBounded(
+               ImmutableList.of("s1", "s2", "s3", "s4", "s5", "s6"), new Function<String, Void>() {
+                  @Override
+                  public Void apply(String input) {
+                     int current = running.incrementAndGet();
+                     synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), current));
+                     }
+                     try {
+                        Thread.sleep(20);
+                     } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                     }
+                     running.decrementAndGet();
+                     done.incrementAndGet();
+                     return null;
+                  }
+               });
+
+         Futures.allAsList(futures.values()).get();
+         assertEquals(done.get(), 6);
+         assertTrue(maxRunning.get() <= 2, "at most 2 concurrent actions expected but got " + maxRunning.get());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static CloudSigma2ComputeServiceAdapter adapter(CloudSigma2Api api, ListeningExecutorService executor,
+         int maxConcurrentServerActions) {
+      return new CloudSigma2ComputeServiceAdapter(api, executor, new Timeouts(), new PollPeriod(), "password",
+            maxConcurrentServerActions);
+   }
+
+   private static LibraryDrive clone(String uuid) {
+      return new LibraryDrive.Builder().uuid(uuid).name(uuid).media(MediaType.DISK).status(DriveStatus.COPYING)
+            .build();
+   }
+
+   private static Template template(LibraryDrive image) {
+      Template template = EasyMock.createMock(Template.class);
+      expect(template.getImage()).andReturn(new LibraryDriveToImage().apply(image)).anyTimes();
+      expect(template.getHardware()).andReturn(CloudSigma2ComputeServiceAdapter.toHardware(1000, 512)).anyTimes();
+      expect(template.getOptions()).andReturn(new TemplateOptions()).anyTimes();
+      return template;
+   }
+
+   private static DriveInfo drive(String uuid) {
+      return drive(uuid, DriveStatus.UNMOUNTED);
+   }
+
+   private static DriveInfo drive(String uuid, DriveStatus status) {
+      return new DriveInfo.Builder().uuid(uuid).name(uuid).status(status).build();
+   }
+
+   private static ServerInfo server(String uuid, String driveUuid) {
+      return server(uuid, driveUuid, ServerStatus.STOPPED);
+   }
+
+   private static ServerInfo server(String uuid, String driveUuid, ServerStatus status) {
+      return new ServerInfo.Builder().uuid(uuid).name(uuid).status(status)
+            .drives(ImmutableList.of(new ServerDrive(1, "0:0", DeviceEmulationType.VIRTIO, driveUuid),
+                  new ServerDrive(2, "0:1", DeviceEmulationType.IDE, "library-cdrom")))
+            .build();
+   }
+
+   @SafeVarargs
+   private static <T> PagedIterable<T> paged(T... items) {
+      return PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.copyOf(items)));
+   }
+}
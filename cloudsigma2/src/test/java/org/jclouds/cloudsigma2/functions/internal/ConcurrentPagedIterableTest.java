@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarker;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+
+/**
+ * Unit tests for the {@link ConcurrentPagedIterable} class.
+ */
+@Test(groups = "unit", testName = "ConcurrentPagedIterableTest")
+public class ConcurrentPagedIterableTest {
+
+   public void testAdaptivePageSize() {
+      // Never below the size of the first page
+      assertEquals(ConcurrentPagedIterable.adaptivePageSize(20, 10, 4), 20);
+      // Remaining elements split across the concurrent requests
+      assertEquals(ConcurrentPagedIterable.adaptivePageSize(20, 980, 4), 245);
+      // Never above the maximum
+      assertEquals(ConcurrentPagedIterable.adaptivePageSize(20, 2980, 4), ConcurrentPagedIterable.MAX_AUTO_PAGE_SIZE);
+   }
+
+   public void testConfiguredPageSizeIsHonoured() {
+      RecordingPages pages = new RecordingPages(100, 0);
+      ConcurrentPagedIterable<Integer> iterable = new ConcurrentPagedIterable<Integer>(pages.page(20, 0),
+            pages, newDirectExecutorService(), 30, 4);
+
+      assertEquals(iterable.getPageSize(), 30);
+      assertEquals(iterable.concat().toList(), range(0, 100));
+      // 80 remaining elements in pages of 30
+      assertEquals(pages.requests.get(), 3);
+   }
+
+   public void testPagesAreReturnedInOrderWhenFetchedConcurrently() {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         // Later pages are faster, so they complete before the earlier ones
+         RecordingPages pages = new RecordingPages(1000, 10);
+         ConcurrentPagedIterable<Integer> iterable = new ConcurrentPagedIterable<Integer>(pages.page(20, 0),
+               pages, listeningDecorator(executor), 0, 4);
+
+         assertEquals(iterable.concat().toList(), range(0, 1000));
+         assertEquals(iterable.getPageSize(), 245);
+         assertEquals(pages.requests.get(), 4);
+         assertTrue(pages.maxInFlight.get() > 1, "pages should have been fetched concurrently");
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testEachIterationFetchesTheRemainingPages() {
+      RecordingPages pages = new RecordingPages(60, 0);
+      ConcurrentPagedIterable<Integer> iterable = new ConcurrentPagedIterable<Integer>(pages.page(20, 0),
+            pages, newDirectExecutorService(), 20, 2);
+
+      assertEquals(iterable.concat().toList(), range(0, 60));
+      assertEquals(iterable.concat().toList(), range(0, 60));
+      assertEquals(pages.requests.get(), 4);
+   }
+
+   public void testFailuresArePropagated() {
+      final PaginatedCollection<Integer> first = new RecordingPages(40, 0).page(20, 0);
+      ConcurrentPagedIterable<Integer> iterable = new ConcurrentPagedIterable<Integer>(first,
+            new Function<PaginationOptions, IterableWithMarker<Integer>>() {
+               @Override
+               public IterableWithMarker<Integer> apply(PaginationOptions input) {
+                  throw new IllegalStateException("boom");
+               }
+            }, newDirectExecutorService(), 0, 4);
+
+      try {
+         iterable.concat().toList();
+         fail("expected an IllegalStateException");
+      } catch (IllegalStateException expected) {
+         assertEquals(expected.getMessage(), "boom");
+      }
+   }
+
+   private static List<Integer> range(int from, int to) {
+      return ImmutableList.copyOf(ContiguousSet.create(Range.closedOpen(from, to), DiscreteDomain.integers()));
+   }
+
+   private static class RecordingPages implements Function<PaginationOptions, IterableWithMarker<Integer>> {
+      private final int totalCount;
+      private final int maxLatency;
+      private final AtomicInteger requests = new AtomicInteger();
+      private final AtomicInteger inFlight = new AtomicInteger();
+      private final AtomicInteger maxInFlight = new AtomicInteger();
+
+      RecordingPages(int totalCount, int maxLatency) {
+         this.totalCount = totalCount;
+         this.maxLatency = maxLatency;
+      }
+
+      PaginatedCollection<Integer> page(int limit, int offset) {
+         int to = Math.min(offset + limit, totalCount);
+         return new PaginatedCollection<Integer>(range(offset, to), new PaginationOptions(limit, offset, totalCount));
+      }
+
+      @Override
+      public IterableWithMarker<Integer> apply(PaginationOptions input) {
+         requests.incrementAndGet();
+         int current = inFlight.incrementAndGet();
+         synchronized (maxInFlight) {
+            maxInFlight.set(Math.max(maxInFlight.get(), current));
+         }
+         try {
+            Thread.sleep(Math.max(0, maxLatency - input.getOffset() / 100));
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } finally {
+            inFlight.decrementAndGet();
+         }
+         return page(input.getLimit(), input.getOffset());
+      }
+   }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.ledger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Date;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "LedgerStoreTest", singleThreaded = true)
+public class LedgerStoreTest {
+
+   private static final double DELTA = 0.000001;
+
+   private File directory;
+
+   @BeforeMethod
+   public void setUp() {
+      directory = Files.createTempDir();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      for (File file : directory.listFiles()) {
+         file.delete();
+      }
+      directory.delete();
+   }
+
+   public void testReasonCategory() {
+      assertEquals(LedgerStore.reasonCategory("Burst: 57783091200 of dssd for 299 seconds"), "Burst");
+      assertEquals(LedgerStore.reasonCategory("Subscription"), "Subscription");
+      assertEquals(LedgerStore.reasonCategory(null), "");
+   }
+
+   public void testAggregates() throws IOException {
+      LedgerStore store = LedgerStore.open(directory);
+      try {
+         store.append(ImmutableList.of(
+               transaction("1", 1000, 1.5, 10, "Burst: cpu"),
+               transaction("2", 2000, 2.5, 10, "Burst: mem"),
+               transaction("3", 3000, 4.0, 11, "Subscription: dssd"),
+               transaction("4", 4000, -1.0, 12, "Payment")));
+
+         assertEquals(store.size(), 4);
+         assertEquals(store.getWatermark(), 4000);
+         assertEquals(store.getWatermarkIds(), ImmutableSet.of("4"));
+         assertEquals(store.sum(2000, 4000), 6.5, DELTA);
+         assertEquals(store.sum(0, Long.MAX_VALUE), 7.0, DELTA);
+
+         SortedMap<Long, Double> byCycle = store.sumByBillingCycle();
+         assertEquals(byCycle.size(), 3);
+         assertEquals(byCycle.get(10L), 4.0, DELTA);
+         assertEquals(byCycle.get(11L), 4.0, DELTA);
+         assertEquals(byCycle.get(12L), -1.0, DELTA);
+
+         Map<String, Double> byReason = store.sumByReason();
+         assertEquals(byReason.get("Burst"), 4.0, DELTA);
+         assertEquals(byReason.get("Subscription"), 4.0, DELTA);
+         assertEquals(byReason.get("Payment"), -1.0, DELTA);
+
+         SortedMap<Long, Double> byWindow = store.sumByWindow(0, 5000, 2000);
+         assertEquals(byWindow.size(), 3);
+         assertEquals(byWindow.get(0L), 1.5, DELTA);
+         assertEquals(byWindow.get(2000L), 6.5, DELTA);
+         assertEquals(byWindow.get(4000L), -1.0, DELTA);
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testReopen() throws IOException {
+      LedgerStore store = LedgerStore.open(directory);
+      store.append(ImmutableList.of(transaction("1", 1000, 1.0, 10, "Burst: cpu")));
+      store.append(ImmutableList.of(transaction("2", 2000, 2.0, 11, "Subscription: dssd"),
+            transaction("3", 2000, 3.0, 11, "Burst: mem")));
+      store.close();
+
+      store = LedgerStore.open(directory);
+      try {
+         assertEquals(store.size(), 3);
+         assertEquals(store.getWatermark(), 2000);
+         assertEquals(store.getWatermarkIds(), ImmutableSet.of("2", "3"));
+         assertEquals(store.getReasonCategories(), ImmutableList.of("Burst", "Subscription"));
+         assertEquals(store.sumByReason().get("Burst"), 4.0, DELTA);
+
+         store.append(ImmutableList.of(transaction("4", 3000, 4.0, 12, "Burst: cpu")));
+         assertEquals(store.sum(0, Long.MAX_VALUE), 10.0, DELTA);
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testUncommittedDataIsDiscarded() throws IOException {
+      LedgerStore store = LedgerStore.open(directory);
+      store.append(ImmutableList.of(transaction("1", 1000, 1.0, 10, "Burst: cpu")));
+      store.close();
+
+      // Simulate an append interrupted before committing the header
+      RandomAccessFile column = new RandomAccessFile(new File(directory, "amount.col"), "rw");
+      try {
+         column.seek(column.length());
+         column.writeDouble(99.0);
+      } finally {
+         column.close();
+      }
+
+      store = LedgerStore.open(directory);
+      try {
+         assertEquals(store.size(), 1);
+         store.append(ImmutableList.of(transaction("2", 2000, 2.0, 10, "Burst: cpu")));
+         assertEquals(store.sum(0, Long.MAX_VALUE), 3.0, DELTA);
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testOpenedColumnsAreClosedWhenOpeningFails() throws IOException {
+      File descriptors = new File("/proc/self/fd");
+      if (!descriptors.isDirectory()) {
+         throw new SkipException("open file descriptors cannot be listed on this platform");
+      }
+      LedgerStore store = LedgerStore.open(directory);
+      store.append(ImmutableList.of(transaction("1", 1000, 1.0, 10, "Burst: cpu")));
+      store.close();
+      // The reason column is opened last, after the other columns
+      RandomAccessFile column = new RandomAccessFile(new File(directory, "reason.col"), "rw");
+      try {
+         column.setLength(0);
+      } finally {
+         column.close();
+      }
+
+      int before = descriptors.list().length;
+      for (int i = 0; i < 20; i++) {
+         try {
+            LedgerStore.open(directory);
+            fail("a column shorter than the committed transactions should not be opened");
+         } catch (IOException expected) {
+         }
+      }
+      // Each failed open would leave four columns open if they were not closed
+      assertTrue(descriptors.list().length - before < 20, "columns were left open");
+   }
+
+   public void testTransactionsMustBeAppendedInTimeOrder() throws IOException {
+      LedgerStore store = LedgerStore.open(directory);
+      try {
+         store.append(ImmutableList.of(transaction("2", 2000, 2.0, 10, "Burst: cpu")));
+         try {
+            store.append(ImmutableList.of(transaction("1", 1000, 1.0, 10, "New reason")));
+            fail("older transactions should not be appended");
+         } catch (IllegalArgumentException expected) {
+         }
+         assertEquals(store.size(), 1);
+         assertEquals(store.getReasonCategories(), ImmutableList.of("Burst"));
+      } finally {
+         store.close();
+      }
+   }
+
+   static Transaction transaction(String id, long time, double amount, long billingCycle, String reason) {
+      return new Transaction.Builder()
+            .id(id)
+            .time(new Date(time))
+            .amount(amount)
+            .billingCycle(billingCycle)
+            .reason(reason)
+            .build();
+   }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.ledger;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.cloudsigma2.ledger.LedgerStoreTest.transaction;
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "LedgerSyncTest", singleThreaded = true)
+public class LedgerSyncTest {
+
+   private File directory;
+
+   @BeforeMethod
+   public void setUp() {
+      directory = Files.createTempDir();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      for (File file : directory.listFiles()) {
+         file.delete();
+      }
+      directory.delete();
+   }
+
+   public void testNewTransactions() {
+      List<Transaction> delta = LedgerSync.newTransactions(ImmutableList.of(
+            transaction("4", 3000, 1.0, 1, "Burst"),
+            transaction("3", 2000, 1.0, 1, "Burst"),
+            transaction("2", 2000, 1.0, 1, "Burst"),
+            transaction("1", 1000, 1.0, 1, "Burst")), 2000, ImmutableSet.of("2"));
+
+      assertEquals(delta.size(), 2);
+      assertEquals(delta.get(0).getId(), "3");
+      assertEquals(delta.get(1).getId(), "4");
+   }
+
+   public void testNewTransactionsAreReturnedOnce() {
+      List<Transaction> delta = LedgerSync.newTransactions(ImmutableList.of(
+            transaction("3", 3000, 1.0, 1, "Burst"),
+            transaction("2", 2000, 1.0, 1, "Burst"),
+            transaction("2", 2000, 1.0, 1, "Burst"),
+            transaction("3", 3000, 1.0, 1, "Burst")), 1000, ImmutableSet.<String> of());
+
+      assertEquals(delta.size(), 2);
+      assertEquals(delta.get(0).getId(), "2");
+      assertEquals(delta.get(1).getId(), "3");
+   }
+
+   public void testFullWalkInWindowsThenDelta() throws Exception {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      // The newest and the oldest transactions bound the walk
+      expect(api.listTransactions(new PaginationOptions.Builder().limit(1).offset(0).build()))
+            .andReturn(page(4, transaction("4", 4200, 4.0, 2, "Burst: cpu")));
+      expect(api.listTransactions(new PaginationOptions.Builder().limit(1).offset(3).build()))
+            .andReturn(page(4, transaction("1", 1500, 1.0, 1, "Burst: cpu")));
+      expect(api.listTransactionsBetween(eq("1970-01-01T00:00:01Z"), eq("1970-01-01T00:00:03Z"),
+            eq(firstPage()))).andReturn(page(2, transaction("2", 2500, 2.0, 1, "Burst: cpu"),
+                  transaction("1", 1500, 1.0, 1, "Burst: cpu")));
+      // The last window is not bounded, so it includes the transactions that happen during the walk
+      expect(api.listTransactionsSince(eq("1970-01-01T00:00:03Z"), eq(firstPage())))
+            .andReturn(page(2, transaction("4", 4200, 4.0, 2, "Burst: cpu"),
+                  transaction("3", 3500, 3.0, 2, "Subscription: dssd")));
+      // The delta request starts at the second of the watermark, and returns the last transaction again
+      expect(api.listTransactionsSince(eq("1970-01-01T00:00:04Z"), eq(firstPage())))
+            .andReturn(page(2, transaction("5", 6000, 5.0, 2, "Burst: cpu"),
+                  transaction("4", 4200, 4.0, 2, "Burst: cpu")));
+      replay(api);
+
+      LedgerSync sync = new LedgerSync(api, new SimpleDateFormatDateService(), 2000);
+      LedgerStore store = LedgerStore.open(directory);
+      try {
+         assertEquals(sync.sync(store), 4);
+         assertEquals(sync.sync(store), 1);
+         assertEquals(store.size(), 5);
+         assertEquals(store.getWatermark(), 6000);
+         assertEquals(store.sum(0, Long.MAX_VALUE), 15.0, 0.000001);
+      } finally {
+         store.close();
+      }
+      verify(api);
+   }
+
+   public void testEmptyLedger() throws Exception {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listTransactions(new PaginationOptions.Builder().limit(1).offset(0).build()))
+            .andReturn(page(0));
+      replay(api);
+
+      LedgerStore store = LedgerStore.open(directory);
+      try {
+         assertEquals(new LedgerSync(api, new SimpleDateFormatDateService()).sync(store), 0);
+         assertEquals(store.size(), 0);
+      } finally {
+         store.close();
+      }
+      verify(api);
+   }
+
+   public void testTransactionsMovedToTheNextPageAreAppendedOnce() throws Exception {
+      LedgerStore store = LedgerStore.open(directory);
+      try {
+         store.append(ImmutableList.of(transaction("1", 1000, 1.0, 1, "Burst: cpu")));
+
+         CloudSigma2Api api = createMock(CloudSigma2Api.class);
+         expect(api.listTransactionsSince(eq("1970-01-01T00:00:01Z"), eq(firstPage())))
+               .andReturn(page(501, transaction("3", 3000, 3.0, 1, "Burst: cpu"),
+                     transaction("2", 2000, 2.0, 1, "Burst: cpu")));
+         // A new transaction was listed first while paging, so the previous page ends on the next one
+         expect(api.listTransactionsSince(eq("1970-01-01T00:00:01Z"),
+               eq(new PaginationOptions.Builder().limit(500).offset(500).build())))
+               .andReturn(page(502, transaction("2", 2000, 2.0, 1, "Burst: cpu"),
+                     transaction("1", 1000, 1.0, 1, "Burst: cpu")));
+         replay(api);
+
+         assertEquals(new LedgerSync(api, new SimpleDateFormatDateService()).sync(store), 2);
+         assertEquals(store.size(), 3);
+         assertEquals(store.sum(0, Long.MAX_VALUE), 6.0, 0.000001);
+         verify(api);
+      } finally {
+         store.close();
+      }
+   }
+
+   private static PaginationOptions firstPage() {
+      return new PaginationOptions.Builder().limit(500).offset(0).build();
+   }
+
+   private static PaginatedCollection<Transaction> page(int totalCount, Transaction... transactions) {
+      return new PaginatedCollection<Transaction>(ImmutableList.copyOf(transactions),
+            new PaginationOptions(500, 0, totalCount));
+   }
+}
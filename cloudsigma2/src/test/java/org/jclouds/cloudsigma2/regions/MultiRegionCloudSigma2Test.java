@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.regions;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.easymock.IAnswer;
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "MultiRegionCloudSigma2Test", singleThreaded = true)
+public class MultiRegionCloudSigma2Test {
+
+   private ListeningExecutorService executor;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   public void testResultsAreTaggedWithTheirRegion() {
+      Map<String, CloudSigma2Api> apis = ImmutableMap.of(
+            "cloudsigma2-lvs", api(0, server("lvs-1"), server("lvs-2")),
+            "cloudsigma2-zrh", api(0, server("zrh-1")));
+
+      MultiRegionResult<ServerInfo> result = new MultiRegionCloudSigma2(apis, executor, 5, TimeUnit.SECONDS)
+            .listServersInfo();
+
+      assertTrue(result.isComplete());
+      assertEquals(result.getResults().size(), 3);
+      assertEquals(result.getResults().get(0).getRegion(), "cloudsigma2-lvs");
+      assertEquals(result.getResults().get(0).get().getUuid(), "lvs-1");
+      assertEquals(result.getResults().get(2).getRegion(), "cloudsigma2-zrh");
+      assertEquals(result.getResults().get(2).get().getUuid(), "zrh-1");
+   }
+
+   public void testRegionsAreListedConcurrently() {
+      Map<String, CloudSigma2Api> apis = ImmutableMap.of(
+            "cloudsigma2-lvs", api(500, server("lvs-1")),
+            "cloudsigma2-wdc", api(500, server("wdc-1")),
+            "cloudsigma2-zrh", api(500, server("zrh-1")));
+
+      Stopwatch watch = Stopwatch.createStarted();
+      MultiRegionResult<ServerInfo> result = new MultiRegionCloudSigma2(apis, executor, 5, TimeUnit.SECONDS)
+            .listServersInfo();
+
+      assertTrue(result.isComplete());
+      assertEquals(result.getResults().size(), 3);
+      assertTrue(watch.elapsed(TimeUnit.MILLISECONDS) < 1500, "regions were listed sequentially: " + watch);
+   }
+
+   public void testFailuresAndTimeoutsAreIsolated() {
+      CloudSigma2Api failing = createMock(CloudSigma2Api.class);
+      expect(failing.listServersInfo()).andThrow(new IllegalStateException("region down"));
+      replay(failing);
+
+      final CountDownLatch release = new CountDownLatch(1);
+      CloudSigma2Api hanging = createMock(CloudSigma2Api.class);
+      expect(hanging.listServersInfo()).andAnswer(new IAnswer<PagedIterable<ServerInfo>>() {
+         @Override
+         public PagedIterable<ServerInfo> answer() throws Throwable {
+            release.await();
+            return onlyPage();
+         }
+      });
+      replay(hanging);
+
+      Map<String, CloudSigma2Api> apis = ImmutableMap.of(
+            "cloudsigma2-lvs", failing,
+            "cloudsigma2-wdc", hanging,
+            "cloudsigma2-zrh", api(0, server("zrh-1")));
+
+      try {
+         MultiRegionResult<ServerInfo> result = new MultiRegionCloudSigma2(apis, executor, 200, TimeUnit.MILLISECONDS)
+               .listServersInfo();
+
+         assertFalse(result.isComplete());
+         assertEquals(result.getResults().size(), 1);
+         assertEquals(result.getResults().get(0).getRegion(), "cloudsigma2-zrh");
+         assertEquals(result.getFailures().size(), 2);
+         assertTrue(result.getFailures().get("cloudsigma2-lvs") instanceof IllegalStateException);
+         assertTrue(result.getFailures().get("cloudsigma2-wdc") instanceof TimeoutException);
+      } finally {
+         release.countDown();
+      }
+   }
+
+   private static CloudSigma2Api api(final long latencyMillis, final ServerInfo... servers) {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andAnswer(new IAnswer<PagedIterable<ServerInfo>>() {
+         @Override
+         public PagedIterable<ServerInfo> answer() throws Throwable {
+            Thread.sleep(latencyMillis);
+            return onlyPage(servers);
+         }
+      });
+      replay(api);
+      return api;
+   }
+
+   private static PagedIterable<ServerInfo> onlyPage(ServerInfo... servers) {
+      return PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.copyOf(servers)));
+   }
+
+   private static ServerInfo server(String uuid) {
+      return new ServerInfo.Builder().uuid(uuid).build();
+   }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.telemetry;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.IOStats;
+import org.jclouds.cloudsigma2.domain.NICStats;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerRuntime;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterables;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "ServerTelemetrySamplerTest")
+public class ServerTelemetrySamplerTest {
+
+   private static final double DELTA = 0.0001;
+
+   public void testParseCounter() {
+      assertEquals(ServerTelemetrySampler.parseCounter("12345678901"), 12345678901L);
+      assertEquals(ServerTelemetrySampler.parseCounter(" 42 "), 42);
+      assertEquals(ServerTelemetrySampler.parseCounter(null), -1);
+      assertEquals(ServerTelemetrySampler.parseCounter("n/a"), -1);
+   }
+
+   public void testRatesFromConsecutiveSamples() {
+      ServerTelemetrySampler sampler = sampler(createMock(CloudSigma2Api.class), 3);
+
+      sampler.record(ImmutableList.of(server("server-1", nic("mac-1", "1000", "2000", "10", "20"))), 10000);
+      assertTrue(sampler.getRates().isEmpty());
+
+      sampler.record(ImmutableList.of(server("server-1", nic("mac-1", "3000", "6000", "30", "60"))), 12000);
+      List<NicRate> rates = sampler.getRates("server-1");
+      assertEquals(rates.size(), 1);
+      NicRate rate = rates.get(0);
+      assertEquals(rate.getMac(), "mac-1");
+      assertEquals(rate.getTimestamp(), 12000);
+      assertEquals(rate.getIntervalMillis(), 2000);
+      assertEquals(rate.getBytesReceivedPerSecond(), 1000, DELTA);
+      assertEquals(rate.getBytesSentPerSecond(), 2000, DELTA);
+      assertEquals(rate.getPacketsReceivedPerSecond(), 10, DELTA);
+      assertEquals(rate.getPacketsSentPerSecond(), 20, DELTA);
+      assertEquals(sampler.getTotalBytesReceivedPerSecond(), 1000, DELTA);
+   }
+
+   public void testCounterResetAndUnknownCounters() {
+      ServerTelemetrySampler sampler = sampler(createMock(CloudSigma2Api.class), 3);
+
+      sampler.record(ImmutableList.of(server("server-1", nic("mac-1", "5000", "5000", "50", null))), 0);
+      sampler.record(ImmutableList.of(server("server-1", nic("mac-1", "1000", "7000", "60", "10"))), 1000);
+
+      NicRate rate = sampler.getRates().get(0);
+      assertEquals(rate.getBytesReceivedPerSecond(), 1000, DELTA);
+      assertEquals(rate.getBytesSentPerSecond(), 2000, DELTA);
+      assertEquals(rate.getPacketsReceivedPerSecond(), 10, DELTA);
+      assertTrue(Double.isNaN(rate.getPacketsSentPerSecond()));
+      assertEquals(sampler.getTotalPacketsSentPerSecond(), 0, DELTA);
+   }
+
+   public void testHistoryIsBoundedByTheRingSize() {
+      ServerTelemetrySampler sampler = sampler(createMock(CloudSigma2Api.class), 3);
+
+      for (int i = 0; i < 10; i++) {
+         String counter = String.valueOf(i * 100);
+         sampler.record(ImmutableList.of(server("server-1", nic("mac-1", counter, counter, counter, counter))),
+               i * 1000);
+      }
+
+      List<NicRate> history = sampler.getHistory("server-1", "mac-1");
+      assertEquals(history.size(), 2);
+      assertEquals(history.get(0).getTimestamp(), 8000);
+      assertEquals(history.get(1).getTimestamp(), 9000);
+      assertEquals(history.get(1).getBytesReceivedPerSecond(), 100, DELTA);
+   }
+
+   public void testServersNoLongerListedAreForgotten() {
+      ServerTelemetrySampler sampler = sampler(createMock(CloudSigma2Api.class), 3);
+
+      sampler.record(ImmutableList.of(server("server-1", nic("mac-1", "0", "0", "0", "0")),
+            server("server-2", nic("mac-2", "0", "0", "0", "0"), nic("mac-3", "0", "0", "0", "0"))), 0);
+      assertEquals(sampler.getMonitoredServers(), 2);
+      assertEquals(sampler.getMonitoredNics(), 3);
+
+      sampler.record(ImmutableList.of(server("server-2", nic("mac-2", "0", "0", "0", "0"))), 1000);
+      assertEquals(sampler.getMonitoredServers(), 1);
+      assertEquals(sampler.getMonitoredNics(), 1);
+      assertTrue(sampler.getRates("server-1").isEmpty());
+      assertEquals(sampler.getSampleCount(), 2);
+   }
+
+   public void testSampleListsServersOnce() throws Exception {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.of(
+            server("server-1", nic("mac-1", "0", "0", "0", "0"))))));
+      replay(api);
+
+      ServerTelemetrySampler sampler = sampler(api, 3);
+      sampler.sample();
+
+      verify(api);
+      assertEquals(sampler.getMonitoredServers(), 1);
+      assertTrue(sampler.getLastSampleTime() > 0);
+      assertTrue(sampler.getHistory("server-1", "mac-1").isEmpty());
+   }
+
+   public void testRegisterMBean() throws Exception {
+      ServerTelemetrySampler sampler = sampler(createMock(CloudSigma2Api.class), 3);
+      MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = sampler.registerMBean(mbeanServer, "test");
+      try {
+         assertEquals(mbeanServer.getAttribute(name, "MonitoredServers"), 0);
+         assertEquals(mbeanServer.getAttribute(name, "Running"), false);
+      } finally {
+         mbeanServer.unregisterMBean(name);
+      }
+   }
+
+   private static ServerTelemetrySampler sampler(CloudSigma2Api api, int samples) {
+      return new ServerTelemetrySampler(api, createMock(ScheduledExecutorService.class), samples);
+   }
+
+   private static ServerInfo server(String uuid, NICStats... nics) {
+      return new ServerInfo.Builder()
+            .uuid(uuid)
+            .runtime(new ServerRuntime(null, ImmutableList.copyOf(nics)))
+            .build();
+   }
+
+   private static NICStats nic(String mac, String bytesReceived, String bytesSent, String packetsReceived,
+         String packetsSent) {
+      return new NICStats(null, new IOStats(bytesReceived, bytesSent, packetsReceived, packetsSent), null, null, mac);
+   }
+}
@@ -16,6 +16,11 @@
  */
 package org.jclouds.digitalocean;
 
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.MAX_DIRECT_NODE_GETS;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.SSH_KEY_HYDRATION_THREADS;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.SSH_KEY_POOL_SIZE;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.SSH_KEY_REFRESH_INTERVAL;
+
 import java.net.URI;
 import java.util.Properties;
 
@@ -50,6 +55,10 @@ public class DigitalOceanApiMetadata extends BaseHttpApiMetadata<DigitalOceanApi
 
    public static Properties defaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
+      properties.setProperty(SSH_KEY_HYDRATION_THREADS, "10");
+      properties.setProperty(SSH_KEY_REFRESH_INTERVAL, "10000");
+      properties.setProperty(SSH_KEY_POOL_SIZE, "0");
+      properties.setProperty(MAX_DIRECT_NODE_GETS, "10");
       return properties;
    }
 
@@ -21,6 +21,7 @@ import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_IMAGE_
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.SSH_KEY_POOL_SIZE;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -52,7 +53,10 @@ import org.jclouds.digitalocean.domain.Event;
 import org.jclouds.digitalocean.domain.Image;
 import org.jclouds.digitalocean.domain.Region;
 import org.jclouds.digitalocean.domain.Size;
+import org.jclouds.digitalocean.ssh.PooledSshKeyPairGenerator;
 import org.jclouds.domain.Location;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.ssh.SshKeyPairGenerator;
 import org.jclouds.util.Predicates2;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -103,6 +107,15 @@ public class DigitalOceanComputeServiceContextModule extends
       return Optional.of(i.getInstance(ImageExtension.class));
    }
 
+   @Provides
+   @Singleton
+   protected PooledSshKeyPairGenerator provideSshKeyPairPool(SshKeyPairGenerator keyGenerator,
+         @Named(SSH_KEY_POOL_SIZE) int poolSize, Closer closer) {
+      PooledSshKeyPairGenerator pool = new PooledSshKeyPairGenerator(keyGenerator, poolSize);
+      closer.addToClose(pool);
+      return pool;
+   }
+
    @Provides
    @Singleton
    @Named(TIMEOUT_NODE_RUNNING)
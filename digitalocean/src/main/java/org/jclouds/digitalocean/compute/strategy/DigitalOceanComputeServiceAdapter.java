@@ -17,12 +17,14 @@
 package org.jclouds.digitalocean.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.contains;
+import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.filter;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
 import static org.jclouds.digitalocean.compute.util.LocationNamingUtils.extractRegionId;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.MAX_DIRECT_NODE_GETS;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -31,8 +33,10 @@ import javax.inject.Named;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.digitalocean.DigitalOceanApi;
 import org.jclouds.digitalocean.compute.options.DigitalOceanTemplateOptions;
+import org.jclouds.digitalocean.compute.util.EventTracker;
 import org.jclouds.digitalocean.domain.Droplet;
 import org.jclouds.digitalocean.domain.DropletCreation;
 import org.jclouds.digitalocean.domain.Image;
@@ -43,6 +47,8 @@ import org.jclouds.domain.LoginCredentials;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
 
 /**
@@ -55,19 +61,17 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
    protected Logger logger = Logger.NULL;
 
    private final DigitalOceanApi api;
-   private final Predicate<Integer> nodeRunningPredicate;
-   private final Predicate<Integer> nodeStoppedPredicate;
-   private final Predicate<Integer> nodeTerminatedPredicate;
+   private final EventTracker eventTracker;
+   private final Timeouts timeouts;
+   private final int maxDirectNodeGets;
 
    @Inject
-   DigitalOceanComputeServiceAdapter(DigitalOceanApi api,
-         @Named(TIMEOUT_NODE_RUNNING) Predicate<Integer> nodeRunningPredicate,
-         @Named(TIMEOUT_NODE_SUSPENDED) Predicate<Integer> nodeStoppedPredicate,
-         @Named(TIMEOUT_NODE_TERMINATED) Predicate<Integer> nodeTerminatedPredicate) {
+   DigitalOceanComputeServiceAdapter(DigitalOceanApi api, EventTracker eventTracker, Timeouts timeouts,
+         @Named(MAX_DIRECT_NODE_GETS) int maxDirectNodeGets) {
       this.api = checkNotNull(api, "api cannot be null");
-      this.nodeRunningPredicate = checkNotNull(nodeRunningPredicate, "nodeRunningPredicate cannot be null");
-      this.nodeStoppedPredicate = checkNotNull(nodeStoppedPredicate, "nodeStoppedPredicate cannot be null");
-      this.nodeTerminatedPredicate = checkNotNull(nodeTerminatedPredicate, "nodeTerminatedPredicate cannot be null");
+      this.eventTracker = checkNotNull(eventTracker, "eventTracker cannot be null");
+      this.timeouts = checkNotNull(timeouts, "timeouts cannot be null");
+      this.maxDirectNodeGets = maxDirectNodeGets;
    }
 
    @Override
@@ -95,8 +99,11 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
             Integer.parseInt(template.getHardware().getProviderId()), regionId, options.build());
 
       // We have to actively wait until the droplet has been provisioned until
-      // we can build the entire Droplet object we want to return
-      nodeRunningPredicate.apply(dropletCreation.getEventId());
+      // we can build the entire Droplet object we want to return, unless the
+      // caller does not want to block until the node is running
+      if (templateOptions.shouldBlockUntilRunning()) {
+         awaitEvent(dropletCreation.getEventId(), timeouts.nodeRunning);
+      }
       Droplet droplet = api.getDropletApi().get(dropletCreation.getId());
 
       LoginCredentials defaultCredentials = LoginCredentials.builder().user("root")
@@ -126,13 +133,28 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
    }
 
    @Override
-   public Iterable<Droplet> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<Droplet>() {
+   public Iterable<Droplet> listNodesByIds(Iterable<String> ids) {
+      final Set<String> idSet = ImmutableSet.copyOf(ids);
+
+      // When only a few droplets are requested, getting them one by one is cheaper than listing all droplets
+      if (idSet.size() <= maxDirectNodeGets) {
+         ImmutableList.Builder<Droplet> droplets = ImmutableList.builder();
+         for (String id : idSet) {
+            Integer dropletId = Ints.tryParse(id);
+            Droplet droplet = dropletId == null ? null : api.getDropletApi().get(dropletId);
+            if (droplet != null) {
+               droplets.add(droplet);
+            }
+         }
+         return droplets.build();
+      }
+
+      return ImmutableList.copyOf(filter(listNodes(), new Predicate<Droplet>() {
          @Override
          public boolean apply(Droplet droplet) {
-            return contains(ids, String.valueOf(droplet.getId()));
+            return idSet.contains(String.valueOf(droplet.getId()));
          }
-      });
+      }));
    }
 
    @Override
@@ -153,7 +175,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().destroy(Integer.parseInt(id), true);
-      nodeTerminatedPredicate.apply(event);
+      awaitEvent(event, timeouts.nodeTerminated);
    }
 
    @Override
@@ -161,7 +183,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().reboot(Integer.parseInt(id));
-      nodeRunningPredicate.apply(event);
+      awaitEvent(event, timeouts.nodeRunning);
    }
 
    @Override
@@ -169,7 +191,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().powerOn(Integer.parseInt(id));
-      nodeRunningPredicate.apply(event);
+      awaitEvent(event, timeouts.nodeRunning);
    }
 
    @Override
@@ -177,7 +199,26 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().powerOff(Integer.parseInt(id));
-      nodeStoppedPredicate.apply(event);
+      awaitEvent(event, timeouts.nodeSuspended);
+   }
+
+   /**
+    * Waits until the given event is done. If the event is not done in the given time, a warning is logged and the
+    * method returns normally, to let the compute service check the actual state of the node.
+    */
+   private void awaitEvent(int eventId, long timeoutMillis) {
+      try {
+         eventTracker.track(eventId, timeoutMillis).get();
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw propagate(ex);
+      } catch (ExecutionException ex) {
+         if (ex.getCause() instanceof TimeoutException) {
+            logger.warn(">> event %s not done after %sms", eventId, timeoutMillis);
+         } else {
+            throw propagate(ex.getCause());
+         }
+      }
    }
 
 }
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.compute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.Event;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Tracks the progress of DigitalOcean events.
+ * <p>
+ * All outstanding events are polled from a single task in the scheduler, instead of having one thread blocked in a
+ * retry loop for each event. Events are polled on a fixed cadence (with some jitter to avoid synchronized bursts of
+ * requests) and the returned futures are completed as soon as the events are done.
+ */
+@Singleton
+public class EventTracker {
+
+   /** Maximum jitter added to each polling period, as a fraction of the period. */
+   private static final double JITTER = 0.1;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final DigitalOceanApi api;
+   private final ScheduledExecutorService scheduler;
+   private final long initialPeriod;
+   private final long period;
+
+   private final ConcurrentMap<Integer, TrackedEvent> pending = Maps.newConcurrentMap();
+   private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+   @Inject
+   EventTracker(DigitalOceanApi api, @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         PollPeriod pollPeriod) {
+      this(api, scheduler, pollPeriod.pollInitialPeriod, pollPeriod.pollMaxPeriod);
+   }
+
+   @VisibleForTesting
+   EventTracker(DigitalOceanApi api, ScheduledExecutorService scheduler, long initialPeriod, long period) {
+      this.api = checkNotNull(api, "api cannot be null");
+      this.scheduler = checkNotNull(scheduler, "scheduler cannot be null");
+      checkArgument(initialPeriod >= 0, "initialPeriod must be positive");
+      checkArgument(period > 0, "period must be greater than zero");
+      this.initialPeriod = initialPeriod;
+      this.period = period;
+   }
+
+   /**
+    * Starts tracking the given event.
+    * 
+    * @param eventId The id of the event to track.
+    * @param timeoutMillis The maximum time to wait for the event to be done.
+    * @return A future that will be completed with the event once it is done. The future will fail with an
+    *         {@link IllegalStateException} if the event fails, or with a {@link TimeoutException} if it is not done
+    *         in the given time.
+    */
+   public ListenableFuture<Event> track(int eventId, long timeoutMillis) {
+      TrackedEvent tracked = new TrackedEvent(eventId, System.currentTimeMillis() + timeoutMillis);
+      TrackedEvent existing = pending.putIfAbsent(eventId, tracked);
+      if (existing != null) {
+         return existing.future;
+      }
+
+      logger.trace(">> tracking event %s", eventId);
+      scheduleIfIdle(initialPeriod);
+      return tracked.future;
+   }
+
+   /**
+    * Returns the number of events that are still being tracked.
+    */
+   public int pendingEvents() {
+      return pending.size();
+   }
+
+   private void scheduleIfIdle(long delay) {
+      if (scheduled.compareAndSet(false, true)) {
+         scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+               poll();
+            }
+         }, delay, MILLISECONDS);
+      }
+   }
+
+   @VisibleForTesting
+   void poll() {
+      try {
+         Iterator<Map.Entry<Integer, TrackedEvent>> it = pending.entrySet().iterator();
+         while (it.hasNext()) {
+            TrackedEvent tracked = it.next().getValue();
+            if (tracked.future.isDone() || tracked.poll()) {
+               it.remove();
+            }
+         }
+      } finally {
+         scheduled.set(false);
+         // Events may have been added after the iteration finished, so check again before stopping
+         if (!pending.isEmpty()) {
+            scheduleIfIdle(period + (long) (ThreadLocalRandom.current().nextDouble() * JITTER * period));
+         }
+      }
+   }
+
+   private class TrackedEvent {
+      private final int eventId;
+      private final long deadline;
+      private final SettableFuture<Event> future = SettableFuture.create();
+
+      private TrackedEvent(int eventId, long deadline) {
+         this.eventId = eventId;
+         this.deadline = deadline;
+      }
+
+      /**
+       * Refreshes the status of the event and completes the future if it is finished.
+       * 
+       * @return Whether the event is finished and should no longer be tracked.
+       */
+      private boolean poll() {
+         try {
+            Event event = api.getEventApi().get(eventId);
+            if (event == null) {
+               return future.setException(new IllegalStateException("Event " + eventId + " does not exist"));
+            }
+            switch (event.getStatus()) {
+               case DONE:
+                  logger.trace("<< event %s done", eventId);
+                  return future.set(event);
+               case PENDING:
+                  if (System.currentTimeMillis() > deadline) {
+                     return future.setException(new TimeoutException("Timeout waiting for event " + eventId));
+                  }
+                  return false;
+               case ERROR:
+               default:
+                  return future.setException(new IllegalStateException("Resource is in invalid status: "
+                        + event.getStatus().name()));
+            }
+         } catch (RuntimeException ex) {
+            logger.warn(ex, ">> error polling event %s", eventId);
+            return future.setException(ex);
+         }
+      }
+   }
+}
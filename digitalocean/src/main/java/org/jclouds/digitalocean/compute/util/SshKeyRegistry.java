@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.compute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.SSH_KEY_HYDRATION_THREADS;
+import static org.jclouds.digitalocean.config.DigitalOceanProperties.SSH_KEY_REFRESH_INTERVAL;
+
+import java.security.PublicKey;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.SshKey;
+import org.jclouds.digitalocean.features.KeyPairApi;
+import org.jclouds.digitalocean.predicates.SameFingerprint;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Keeps an index of the SSH keys in the account by fingerprint.
+ * <p>
+ * The {@link KeyPairApi} only returns the id and name of each key when listing all keys, so the details of each key
+ * have to be fetched one by one. This registry does that only once for each key, with a bounded number of concurrent
+ * requests, and computes the fingerprint of each key only once. Keys created or deleted through the registry are
+ * added to or removed from the index, so key resolution only needs a single request in the common case.
+ * <p>
+ * Keys found in the index are fetched again by id to make sure they have not been deleted outside jclouds; deleted
+ * keys are removed from the index and handled as a miss. If a fingerprint is not found in the index, the key list is
+ * fetched again (but only the new keys are hydrated) to make sure keys created outside jclouds are not missed. The
+ * index is not locked while the keys are fetched, only one refresh runs at a time, and misses do not list the keys
+ * again until the configured refresh interval has elapsed.
+ */
+@Singleton
+public class SshKeyRegistry {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final KeyPairApi keyPairApi;
+   private final ListeningExecutorService userExecutor;
+   private final int hydrationThreads;
+   private final long refreshIntervalNanos;
+   private final Ticker ticker;
+   private final Object refreshLock = new Object();
+
+   // Guarded by this
+   private final Map<String, SshKey> keysByFingerprint = Maps.newHashMap();
+   private final Map<Integer, String> fingerprintsById = Maps.newHashMap();
+   private boolean refreshed;
+   private long lastRefreshNanos;
+
+   @Inject
+   SshKeyRegistry(DigitalOceanApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(SSH_KEY_HYDRATION_THREADS) int hydrationThreads,
+         @Named(SSH_KEY_REFRESH_INTERVAL) long refreshIntervalMillis) {
+      this(api, userExecutor, hydrationThreads, refreshIntervalMillis, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   SshKeyRegistry(DigitalOceanApi api, ListeningExecutorService userExecutor, int hydrationThreads,
+         long refreshIntervalMillis, Ticker ticker) {
+      checkNotNull(api, "api cannot be null");
+      checkArgument(hydrationThreads > 0, "hydrationThreads must be greater than zero");
+      checkArgument(refreshIntervalMillis >= 0, "refreshIntervalMillis must be greater than or equal to zero");
+      this.keyPairApi = api.getKeyPairApi();
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor cannot be null");
+      this.hydrationThreads = hydrationThreads;
+      this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+      this.ticker = checkNotNull(ticker, "ticker cannot be null");
+   }
+
+   /**
+    * Finds the SSH key with the same fingerprint than the given public key.
+    */
+   public Optional<SshKey> findByPublicKey(PublicKey publicKey) {
+      return findByFingerprint(SameFingerprint.computeFingerprint(checkNotNull(publicKey, "publicKey cannot be null")));
+   }
+
+   /**
+    * Finds the SSH key with the given fingerprint.
+    */
+   public Optional<SshKey> findByFingerprint(String fingerprint) {
+      checkNotNull(fingerprint, "fingerprint cannot be null");
+      SshKey indexed;
+      synchronized (this) {
+         indexed = keysByFingerprint.get(fingerprint);
+      }
+      if (indexed != null) {
+         // The key may have been deleted outside jclouds
+         if (keyPairApi.get(indexed.getId()) != null) {
+            return Optional.of(indexed);
+         }
+         logger.debug(">> ssh key %s no longer exists, removing it from the index", indexed.getId());
+         synchronized (this) {
+            if (fingerprintsById.remove(indexed.getId()) != null) {
+               unindex(indexed.getId(), fingerprint);
+            }
+         }
+      }
+      synchronized (refreshLock) {
+         // The index may have been refreshed while waiting for the lock
+         synchronized (this) {
+            if (keysByFingerprint.containsKey(fingerprint) || refreshedRecently()) {
+               return Optional.fromNullable(keysByFingerprint.get(fingerprint));
+            }
+         }
+         refresh();
+      }
+      synchronized (this) {
+         return Optional.fromNullable(keysByFingerprint.get(fingerprint));
+      }
+   }
+
+   /**
+    * Creates a new SSH key and adds it to the index.
+    */
+   public SshKey create(String name, String publicKey) {
+      SshKey key = keyPairApi.create(name, publicKey);
+      synchronized (this) {
+         index(key);
+      }
+      return key;
+   }
+
+   /**
+    * Deletes the given SSH key and removes it from the index.
+    */
+   public void delete(int id) {
+      keyPairApi.delete(id);
+      synchronized (this) {
+         String fingerprint = fingerprintsById.remove(id);
+         if (fingerprint != null) {
+            unindex(id, fingerprint);
+         }
+      }
+   }
+
+   // Guarded by this
+   private boolean refreshedRecently() {
+      return refreshed && ticker.read() - lastRefreshNanos < refreshIntervalNanos;
+   }
+
+   /**
+    * Synchronizes the index with the keys in the account. Only the keys that are not already in the index are
+    * fetched, and the ones that no longer exist are removed. Must be called holding the refresh lock but not the
+    * index lock, so lookups of already indexed keys are not blocked by the requests.
+    */
+   private void refresh() {
+      List<SshKey> keys = keyPairApi.list();
+      Set<Integer> existing = Sets.newHashSetWithExpectedSize(keys.size());
+      List<Integer> unknown = Lists.newArrayList();
+      synchronized (this) {
+         for (SshKey key : keys) {
+            existing.add(key.getId());
+            if (!fingerprintsById.containsKey(key.getId())) {
+               unknown.add(key.getId());
+            }
+         }
+
+         Iterator<Map.Entry<Integer, String>> it = fingerprintsById.entrySet().iterator();
+         while (it.hasNext()) {
+            Map.Entry<Integer, String> entry = it.next();
+            if (!existing.contains(entry.getKey())) {
+               unindex(entry.getKey(), entry.getValue());
+               it.remove();
+            }
+         }
+      }
+
+      logger.debug(">> hydrating %s of %s ssh keys", unknown.size(), keys.size());
+      List<SshKey> hydrated = hydrate(unknown);
+      synchronized (this) {
+         for (SshKey key : hydrated) {
+            if (key != null) {
+               index(key);
+            }
+         }
+         refreshed = true;
+         lastRefreshNanos = ticker.read();
+      }
+   }
+
+   private List<SshKey> hydrate(List<Integer> ids) {
+      if (ids.isEmpty()) {
+         return ImmutableList.of();
+      }
+      // Split the keys in as many batches as concurrent requests are allowed
+      int batchSize = (ids.size() + hydrationThreads - 1) / hydrationThreads;
+      List<ListenableFuture<List<SshKey>>> futures = Lists.newArrayList();
+      for (final List<Integer> batch : Lists.partition(ids, batchSize)) {
+         futures.add(userExecutor.submit(new Callable<List<SshKey>>() {
+            @Override
+            public List<SshKey> call() throws Exception {
+               List<SshKey> keys = Lists.newArrayListWithCapacity(batch.size());
+               for (Integer id : batch) {
+                  keys.add(keyPairApi.get(id));
+               }
+               return keys;
+            }
+         }));
+      }
+      List<SshKey> keys = Lists.newArrayListWithCapacity(ids.size());
+      for (List<SshKey> batch : getUnchecked(allAsList(futures))) {
+         keys.addAll(batch);
+      }
+      return keys;
+   }
+
+   private void index(SshKey key) {
+      if (key.getPublicKey() == null) {
+         return;
+      }
+      String fingerprint = SameFingerprint.computeFingerprint(key.getPublicKey());
+      keysByFingerprint.put(fingerprint, key);
+      fingerprintsById.put(key.getId(), fingerprint);
+   }
+
+   private void unindex(int id, String fingerprint) {
+      SshKey key = keysByFingerprint.get(fingerprint);
+      if (key != null && key.getId() == id) {
+         keysByFingerprint.remove(fingerprint);
+      }
+   }
+}
@@ -19,7 +19,6 @@ package org.jclouds.digitalocean.config;
 import org.jclouds.digitalocean.DigitalOceanApi;
 import org.jclouds.digitalocean.handlers.DigitalOceanErrorHandler;
 import org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService;
-import org.jclouds.digitalocean.strategy.ListSshKeys;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpErrorHandler;
 import org.jclouds.http.annotation.ClientError;
@@ -32,7 +31,6 @@ import org.jclouds.rest.config.HttpApiModule;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
-import com.google.inject.assistedinject.FactoryModuleBuilder;
 
 /**
  * Configures the DigitalOcean connection.
@@ -40,12 +38,6 @@ import com.google.inject.assistedinject.FactoryModuleBuilder;
 @ConfiguresHttpApi
 public class DigitalOceanHttpApiModule extends HttpApiModule<DigitalOceanApi> {
 
-   @Override
-   protected void configure() {
-      super.configure();
-      install(new FactoryModuleBuilder().build(ListSshKeys.Factory.class));
-   }
-
    @Override
    protected void bindErrorHandlers() {
       bind(HttpErrorHandler.class).annotatedWith(Redirection.class).to(DigitalOceanErrorHandler.class);
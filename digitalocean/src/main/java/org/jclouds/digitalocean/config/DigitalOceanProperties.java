@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.config;
+
+/**
+ * Configuration properties for the DigitalOcean provider.
+ */
+public class DigitalOceanProperties {
+
+   /**
+    * Maximum number of concurrent requests used to get the details of the SSH keys when populating the SSH key
+    * registry.
+    */
+   public static final String SSH_KEY_HYDRATION_THREADS = "jclouds.digitalocean.ssh-key-hydration-threads";
+
+   /**
+    * Minimum time, in milliseconds, between two consecutive listings of the SSH keys when a key is not found in the SSH
+    * key registry.
+    */
+   public static final String SSH_KEY_REFRESH_INTERVAL = "jclouds.digitalocean.ssh-key-refresh-interval";
+
+   /**
+    * Number of pre-generated SSH key pairs to keep ready to be used when key pairs are automatically created. The pool
+    * starts filling when the first key pair is created. Defaults to zero, which generates the key pairs on demand.
+    */
+   public static final String SSH_KEY_POOL_SIZE = "jclouds.digitalocean.ssh-key-pool-size";
+
+   /**
+    * Maximum number of ids for which nodes are fetched one by one when listing nodes by id. If more ids are
+    * requested, all nodes are listed and filtered instead.
+    */
+   public static final String MAX_DIRECT_NODE_GETS = "jclouds.digitalocean.max-direct-node-gets";
+
+}
@@ -16,13 +16,17 @@
  */
 package org.jclouds.digitalocean.http;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.Closeables.close;
 import static org.jclouds.io.Payloads.newInputStreamPayload;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URI;
@@ -49,6 +53,8 @@ import org.jclouds.io.Payload;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.io.ByteStreams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Custom implementation of the HTTP driver to read the response body in order to get the real response status.
@@ -56,7 +62,8 @@ import com.google.common.io.ByteStreams;
  * The DigitalOcean API always return 200 codes even if a request failed due to some internal error, but populates an
  * <code>ERROR</code> string in the response payload.
  * <p>
- * This class will read the body of the response and populate a 500 status code if an error is found.
+ * This class will read the body of the response and populate a 500 status code if an error is found. Only the
+ * top-level <code>status</code> field is read, and the body is fully parsed here only when it is an error response.
  */
 @Singleton
 public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrlHttpCommandExecutorService {
@@ -64,6 +71,9 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
    public static final String ACCESS_DENIED = "Access Denied";
    public static final String NOT_FOUND = "Not Found";
 
+   /** Maximum number of bytes to read ahead when looking for the response status. */
+   static final int STATUS_LOOKAHEAD = 64 * 1024;
+
    private final ParseJson<BaseResponse> errorParser;
 
    @Inject
@@ -83,40 +93,37 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
       HttpResponse.Builder<?> response = original.toBuilder();
 
       if (hasPayload(original)) {
-         // As we need to read the response body to determine if there are errors, but we may need to process the body
-         // again later in the response parsers if everything is OK, we buffer the body into an InputStream we can reset
-         InputStream in = null;
-         InputStream originalInputStream = original.getPayload().openStream();
-
-         if (originalInputStream instanceof ByteArrayInputStream) {
-            in = originalInputStream;
-         } else {
-            try {
-               in = new ByteArrayInputStream(ByteStreams.toByteArray(originalInputStream));
-            } finally {
-               close(originalInputStream, true);
-            }
+         // We need to read the response body to determine if there are errors, but we will need to process the body
+         // again later in the response parsers if everything is OK. The status field is usually the first one in the
+         // response, so we only look ahead far enough to read it, and then rewind the stream. The entire body is only
+         // buffered for error responses or if the lookahead window is not enough to find the status
+         InputStream in = original.getPayload().openStream();
+         if (!in.markSupported()) {
+            in = new BufferedInputStream(in, STATUS_LOOKAHEAD);
          }
 
-         // Process the payload and look for errors
-         BaseResponse responseContent = errorParser.apply(in);
-         if (responseContent != null && responseContent.getStatus() == Status.ERROR) {
-            // Yes, this is ugly, but the DigitalOcean API sometimes sets the status code to 200 for these errors and
-            // the only way to know what happened is parsing the error message
-            String message = responseContent.getMessage();
-            if (ACCESS_DENIED.equals(message)) {
-               response.statusCode(401);
-            } else if (NOT_FOUND.equals(message)) {
-               response.statusCode(404);
-            } else {
-               response.statusCode(500);
+         in.mark(STATUS_LOOKAHEAD);
+         String status = null;
+         boolean statusFound = true;
+         try {
+            status = readTopLevelStatus(new InputStreamReader(ByteStreams.limit(in, STATUS_LOOKAHEAD), UTF_8));
+         } catch (IOException ex) {
+            // The status could not be determined in the lookahead window
+            statusFound = false;
+         }
+         in.reset();
+
+         if (!statusFound || Status.ERROR.name().equalsIgnoreCase(status)) {
+            // Error responses are small, so they can be safely materialized and parsed
+            in = buffer(in);
+            BaseResponse responseContent = errorParser.apply(in);
+            if (responseContent != null && responseContent.getStatus() == Status.ERROR) {
+               populateErrorStatus(response, responseContent);
             }
-            response.message(responseContent.getDetails());
+            in.reset();
          }
 
-         // Reset the input stream and set the payload, so it can be read again
-         // by the response and error parsers
-         in.reset();
+         // Set the payload, so it can be read again by the response and error parsers
          Payload payload = newInputStreamPayload(in);
          contentMetadataCodec.fromHeaders(payload.getContentMetadata(), original.getHeaders());
          response.payload(payload);
@@ -125,6 +132,53 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
       return response.build();
    }
 
+   /**
+    * Reads the value of the top-level <code>status</code> field, skipping the rest of the fields without
+    * materializing them.
+    *
+    * @return The value of the status field or <code>null</code> if the response does not have it.
+    * @throws IOException If the end of the input was reached before the status field could be found.
+    */
+   static String readTopLevelStatus(Reader reader) throws IOException {
+      JsonReader json = new JsonReader(reader);
+      if (json.peek() != JsonToken.BEGIN_OBJECT) {
+         return null;
+      }
+      json.beginObject();
+      while (json.hasNext()) {
+         if ("status".equals(json.nextName()) && json.peek() == JsonToken.STRING) {
+            return json.nextString();
+         }
+         json.skipValue();
+      }
+      return null;
+   }
+
+   private static void populateErrorStatus(HttpResponse.Builder<?> response, BaseResponse responseContent) {
+      // Yes, this is ugly, but the DigitalOcean API sometimes sets the status code to 200 for these errors and
+      // the only way to know what happened is parsing the error message
+      String message = responseContent.getMessage();
+      if (ACCESS_DENIED.equals(message)) {
+         response.statusCode(401);
+      } else if (NOT_FOUND.equals(message)) {
+         response.statusCode(404);
+      } else {
+         response.statusCode(500);
+      }
+      response.message(responseContent.getDetails());
+   }
+
+   private static InputStream buffer(InputStream in) throws IOException {
+      if (in instanceof ByteArrayInputStream) {
+         return in;
+      }
+      try {
+         return new ByteArrayInputStream(ByteStreams.toByteArray(in));
+      } finally {
+         close(in, true);
+      }
+   }
+
    private static boolean hasPayload(final HttpResponse response) {
       return response.getPayload() != null && response.getPayload().getRawContent() != null;
    }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.compute.util;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import org.easymock.EasyMock;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.Event;
+import org.jclouds.digitalocean.domain.Event.Status;
+import org.jclouds.digitalocean.features.EventApi;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Unit tests for the {@link EventTracker} class.
+ */
+@Test(groups = "unit", testName = "EventTrackerTest")
+public class EventTrackerTest {
+
+   public void testEventsAreCompletedWhenDone() throws Exception {
+      EventApi eventApi = EasyMock.createMock(EventApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(eventApi.get(1)).andReturn(event(1, Status.DONE));
+      expect(eventApi.get(2)).andReturn(event(2, Status.PENDING));
+      expect(eventApi.get(2)).andReturn(event(2, Status.DONE));
+      expect(api.getEventApi()).andReturn(eventApi).times(3);
+      replay(eventApi, api);
+
+      EventTracker tracker = new EventTracker(api, scheduler(), 0, 1000);
+      ListenableFuture<Event> first = tracker.track(1, 60000);
+      ListenableFuture<Event> second = tracker.track(2, 60000);
+      assertEquals(tracker.pendingEvents(), 2);
+
+      tracker.poll();
+      assertTrue(first.isDone());
+      assertFalse(second.isDone());
+      assertEquals(first.get(), event(1, Status.DONE));
+      assertEquals(tracker.pendingEvents(), 1);
+
+      tracker.poll();
+      assertEquals(second.get(), event(2, Status.DONE));
+      assertEquals(tracker.pendingEvents(), 0);
+
+      verify(eventApi, api);
+   }
+
+   public void testSameEventIsTrackedOnce() {
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+      replay(api);
+
+      EventTracker tracker = new EventTracker(api, scheduler(), 0, 1000);
+      assertSame(tracker.track(1, 60000), tracker.track(1, 60000));
+      assertEquals(tracker.pendingEvents(), 1);
+   }
+
+   public void testEventFailed() throws InterruptedException {
+      EventApi eventApi = EasyMock.createMock(EventApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(eventApi.get(1)).andReturn(event(1, Status.ERROR));
+      expect(api.getEventApi()).andReturn(eventApi);
+      replay(eventApi, api);
+
+      EventTracker tracker = new EventTracker(api, scheduler(), 0, 1000);
+      ListenableFuture<Event> future = tracker.track(1, 60000);
+      tracker.poll();
+
+      try {
+         future.get();
+         fail("Future should have failed");
+      } catch (ExecutionException ex) {
+         assertTrue(ex.getCause() instanceof IllegalStateException);
+         assertEquals(ex.getCause().getMessage(), "Resource is in invalid status: ERROR");
+      }
+      assertEquals(tracker.pendingEvents(), 0);
+   }
+
+   public void testEventTimeout() throws InterruptedException {
+      EventApi eventApi = EasyMock.createMock(EventApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(eventApi.get(1)).andReturn(event(1, Status.PENDING));
+      expect(api.getEventApi()).andReturn(eventApi);
+      replay(eventApi, api);
+
+      EventTracker tracker = new EventTracker(api, scheduler(), 0, 1000);
+      ListenableFuture<Event> future = tracker.track(1, -1);
+      tracker.poll();
+
+      try {
+         future.get();
+         fail("Future should have timed out");
+      } catch (ExecutionException ex) {
+         assertTrue(ex.getCause() instanceof TimeoutException);
+      }
+      assertEquals(tracker.pendingEvents(), 0);
+   }
+
+   private static ScheduledExecutorService scheduler() {
+      // Polling is triggered manually in the tests
+      ScheduledExecutorService scheduler = EasyMock.createNiceMock(ScheduledExecutorService.class);
+      replay(scheduler);
+      return scheduler;
+   }
+
+   private static Event event(int id, Status status) {
+      return new Event(id, status, 0, "0", 0);
+   }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.compute.util;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.IOException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMock;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.SshKey;
+import org.jclouds.digitalocean.features.KeyPairApi;
+import org.jclouds.digitalocean.ssh.DSAKeys;
+import org.jclouds.ssh.SshKeys;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for the {@link SshKeyRegistry} class.
+ */
+@Test(groups = "unit", testName = "SshKeyRegistryTest")
+public class SshKeyRegistryTest {
+
+   private PublicKey rsa;
+   private PublicKey dsa;
+   private FakeTicker ticker;
+
+   @BeforeMethod
+   public void setupKeys() throws Exception {
+      String rsaKey = Strings2.toStringAndClose(getClass().getResourceAsStream("/ssh-rsa.txt"));
+      rsa = KeyFactory.getInstance("RSA").generatePublic(SshKeys.publicKeySpecFromOpenSSH(rsaKey));
+      String dsaKey = Strings2.toStringAndClose(getClass().getResourceAsStream("/ssh-dsa.txt"));
+      dsa = KeyFactory.getInstance("DSA").generatePublic(DSAKeys.publicKeySpecFromOpenSSH(dsaKey));
+      ticker = new FakeTicker();
+   }
+
+   public void testKeysAreHydratedOnlyOnce() throws IOException {
+      KeyPairApi keyPairApi = EasyMock.createMock(KeyPairApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(api.getKeyPairApi()).andReturn(keyPairApi);
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null), new SshKey(2, "dsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", rsa)).times(2);
+      expect(keyPairApi.get(2)).andReturn(new SshKey(2, "dsa", dsa)).times(2);
+      replay(keyPairApi, api);
+
+      SshKeyRegistry registry = new SshKeyRegistry(api, newDirectExecutorService(), 2, 1000, ticker);
+      assertEquals(registry.findByPublicKey(rsa).get().getId(), 1);
+      assertEquals(registry.findByPublicKey(dsa).get().getId(), 2);
+      assertEquals(registry.findByPublicKey(rsa).get().getId(), 1);
+
+      verify(keyPairApi, api);
+   }
+
+   public void testMissingKeysRefreshOnlyNewKeys() throws IOException {
+      KeyPairApi keyPairApi = EasyMock.createMock(KeyPairApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(api.getKeyPairApi()).andReturn(keyPairApi);
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", rsa));
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      replay(keyPairApi, api);
+
+      SshKeyRegistry registry = new SshKeyRegistry(api, newDirectExecutorService(), 2, 1000, ticker);
+      assertEquals(registry.findByPublicKey(rsa).get().getId(), 1);
+      ticker.advance(1, TimeUnit.SECONDS);
+      assertFalse(registry.findByPublicKey(dsa).isPresent());
+
+      verify(keyPairApi, api);
+   }
+
+   public void testMissesWithinTheRefreshIntervalDoNotListTheKeysAgain() throws IOException {
+      KeyPairApi keyPairApi = EasyMock.createMock(KeyPairApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(api.getKeyPairApi()).andReturn(keyPairApi);
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", rsa));.times(2)
+      replay(keyPairApi, api);
+
+      SshKeyRegistry registry = new SshKeyRegistry(api, newDirectExecutorService(), 2, 1000, ticker);
+      assertFalse(registry.findByPublicKey(dsa).isPresent());
+      ticker.advance(500, TimeUnit.MILLISECONDS);
+      assertFalse(registry.findByPublicKey(dsa).isPresent());
+      assertEquals(registry.findByPublicKey(rsa).get().getId(), 1);
+
+      verify(keyPairApi, api);
+   }
+
+   public void testCreateAndDeleteUpdateTheIndex() throws IOException {
+      KeyPairApi keyPairApi = EasyMock.createMock(KeyPairApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(api.getKeyPairApi()).andReturn(keyPairApi);
+      expect(keyPairApi.create("rsa", "ssh-rsa AAAA")).andReturn(new SshKey(1, "rsa", rsa));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", rsa));
+      keyPairApi.delete(1);
+      expect(keyPairApi.list()).andReturn(ImmutableList.<SshKey> of());
+      replay(keyPairApi, api);
+
+      SshKeyRegistry registry = new SshKeyRegistry(api, newDirectExecutorService(), 2, 1000, ticker);
+      registry.create("rsa", "ssh-rsa AAAA");
+      assertEquals(registry.findByPublicKey(rsa).get().getId(), 1);
+      registry.delete(1);
+      assertFalse(registry.findByPublicKey(rsa).isPresent());
+
+      verify(keyPairApi, api);
+   }
+
+   public void testKeysDeletedOutsideTheRegistryAreRemovedFromTheIndex() throws IOException {
+      KeyPairApi keyPairApi = EasyMock.createMock(KeyPairApi.class);
+      DigitalOceanApi api = EasyMock.createMock(DigitalOceanApi.class);
+
+      expect(api.getKeyPairApi()).andReturn(keyPairApi);
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", rsa));
+      expect(keyPairApi.get(1)).andReturn(null);
+      expect(keyPairApi.list()).andReturn(ImmutableList.<SshKey> of());
+      replay(keyPairApi, api);
+
+      SshKeyRegistry registry = new SshKeyRegistry(api, newDirectExecutorService(), 2, 1000, ticker);
+      assertEquals(registry.findByPublicKey(rsa).get().getId(), 1);
+      ticker.advance(1, TimeUnit.SECONDS);
+      assertFalse(registry.findByPublicKey(rsa).isPresent());
+
+      verify(keyPairApi, api);
+   }
+
+   private static class FakeTicker extends Ticker {
+      private long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long time, TimeUnit unit) {
+         nanos += unit.toNanos(time);
+      }
+   }
+}
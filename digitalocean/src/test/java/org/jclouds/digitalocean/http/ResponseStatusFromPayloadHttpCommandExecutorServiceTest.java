@@ -19,10 +19,14 @@ package org.jclouds.digitalocean.http;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.ACCESS_DENIED;
 import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.NOT_FOUND;
+import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.readTopLevelStatus;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Properties;
 
 import org.jclouds.digitalocean.DigitalOceanApi;
@@ -109,4 +113,37 @@ public class ResponseStatusFromPayloadHttpCommandExecutorServiceTest extends Bas
          server.shutdown();
       }
    }
+
+   public void testErrorStatusIsNotTheFirstField() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setBody("{\"error_message\":\"Not Found\",\"message\":\"Not Found\","
+            + "\"status\":\"ERROR\"}"));
+
+      DigitalOceanApi api = api(server.getUrl("/"));
+      ImageApi imageApi = api.getImageApi();
+
+      try {
+         imageApi.list();
+         fail("Request should have failed");
+      } catch (Exception ex) {
+         assertTrue(ex instanceof ResourceNotFoundException, "Exception should be a ResourceNotFoundException");
+         assertEquals(ex.getMessage(), NOT_FOUND);
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testReadTopLevelStatus() throws IOException {
+      assertEquals(readTopLevelStatus(new StringReader("{\"status\":\"OK\",\"images\":[]}")), "OK");
+      assertEquals(readTopLevelStatus(new StringReader("{\"images\":[{\"status\":\"OK\"}],\"status\":\"ERROR\"}")),
+            "ERROR");
+      assertNull(readTopLevelStatus(new StringReader("{\"images\":[{\"status\":\"OK\"}]}")));
+      assertNull(readTopLevelStatus(new StringReader("[]")));
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testReadTopLevelStatusFailsIfTruncated() throws IOException {
+      readTopLevelStatus(new StringReader("{\"images\":[{\"id\":1601,"));
+   }
 }
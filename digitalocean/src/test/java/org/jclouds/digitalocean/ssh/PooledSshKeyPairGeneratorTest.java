@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.ssh;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ssh.SshKeyPairGenerator;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Unit tests for the {@link PooledSshKeyPairGenerator} class.
+ */
+@Test(groups = "unit", testName = "PooledSshKeyPairGeneratorTest")
+public class PooledSshKeyPairGeneratorTest {
+
+   public void testPoolIsFilledLazilyInTheBackground() throws InterruptedException {
+      CountingGenerator delegate = new CountingGenerator();
+      PooledSshKeyPairGenerator generator = new PooledSshKeyPairGenerator(delegate, 2);
+      try {
+         assertEquals(generator.available(), 0);
+         assertEquals(delegate.generated.get(), 0);
+
+         // The first key pair is generated on demand and starts filling the pool
+         assertEquals(generator.get().get("public"), "public-1");
+         awaitAvailable(generator, 2);
+         assertEquals(delegate.generated.get(), 3);
+
+         // Key pairs must never be returned twice
+         assertEquals(generator.get().get("public"), "public-2");
+         awaitAvailable(generator, 2);
+         assertEquals(generator.get().get("public"), "public-3");
+         assertTrue(delegate.generated.get() >= 4);
+      } finally {
+         generator.close();
+      }
+   }
+
+   public void testEmptyPoolGeneratesOnDemand() {
+      CountingGenerator delegate = new CountingGenerator();
+      PooledSshKeyPairGenerator generator = new PooledSshKeyPairGenerator(delegate, 0);
+      try {
+         assertEquals(generator.available(), 0);
+         assertEquals(generator.get().get("public"), "public-1");
+         assertEquals(generator.get().get("public"), "public-2");
+         assertEquals(generator.available(), 0);
+      } finally {
+         generator.close();
+      }
+   }
+
+   private static void awaitAvailable(PooledSshKeyPairGenerator generator, int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (generator.available() < count && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+      }
+      assertTrue(generator.available() >= count, "The pool was not filled");
+   }
+
+   private static class CountingGenerator implements SshKeyPairGenerator {
+      private final AtomicInteger generated = new AtomicInteger();
+
+      @Override
+      public Map<String, String> get() {
+         int id = generated.incrementAndGet();
+         return ImmutableMap.of("public", "public-" + id, "private", "private-" + id);
+      }
+   }
+}
@@ -25,6 +25,7 @@ import org.jclouds.Constants;
 import org.jclouds.compute.ComputeServiceContext;
 import org.jclouds.fujitsu.fgcp.compute.config.FGCPComputeServiceContextModule;
 import org.jclouds.fujitsu.fgcp.config.FGCPHttpApiModule;
+import org.jclouds.fujitsu.fgcp.config.FGCPProperties;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 
 import com.google.common.collect.ImmutableSet;
@@ -58,6 +59,15 @@ public class FGCPApiMetadata extends BaseHttpApiMetadata<FGCPApi> {
       // Tuning retry parameters accordingly:
       properties.setProperty(Constants.PROPERTY_RETRY_DELAY_START, "10000L"); // 10 sec.
       properties.setProperty(Constants.PROPERTY_MAX_RETRIES, "100"); // means 1000s (17min) timeout
+      // listing all nodes requires several requests per server, so fetch
+      // servers one by one unless many of them are requested
+      properties.setProperty(FGCPProperties.MAX_DIRECT_NODE_GETS, "20");
+      properties.setProperty(FGCPProperties.MAX_CONCURRENT_SYSTEM_GETS, "5");
+      properties.setProperty(FGCPProperties.MAX_CONCURRENT_SERVER_GETS, "10");
+      properties.setProperty(FGCPProperties.LIST_NODES_SUMMARY, "false");
+      // the access key id only encodes a timestamp, so one signature can be
+      // shared by the requests of a short period
+      properties.setProperty(FGCPProperties.SIGNATURE_REUSE_MILLIS, "60000");
       return properties;
    }
 
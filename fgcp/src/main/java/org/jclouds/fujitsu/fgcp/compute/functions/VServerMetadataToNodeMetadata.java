@@ -203,8 +203,11 @@ public class VServerMetadataToNodeMetadata implements
          builder.imageId(from.getServer().getDiskimageId());
          builder.hardware(parseHardware(from.getServer().getType()));
 
-         LoginCredentials.Builder credentialsBuilder = LoginCredentials
-               .builder().password(from.getInitialPassword());
+         LoginCredentials.Builder credentialsBuilder = LoginCredentials.builder();
+         // servers listed in summary mode fetch their password on demand only
+         if (from.isInitialPasswordLoaded()) {
+            credentialsBuilder.password(from.getInitialPassword());
+         }
 
          Image image = parseImage(from.getServer());
          // image will not be found if server was created a while back and
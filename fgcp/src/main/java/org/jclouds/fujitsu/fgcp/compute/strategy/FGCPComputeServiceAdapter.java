@@ -16,12 +16,18 @@
  */
 package org.jclouds.fujitsu.fgcp.compute.strategy;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.LIST_NODES_SUMMARY;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.MAX_CONCURRENT_SERVER_GETS;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.MAX_CONCURRENT_SYSTEM_GETS;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.MAX_DIRECT_NODE_GETS;
+import static org.jclouds.fujitsu.fgcp.util.ConcurrentTransforms.transform;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Resource;
@@ -29,6 +35,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.OsFamily;
 import org.jclouds.compute.domain.Template;
@@ -53,8 +60,13 @@ import org.jclouds.fujitsu.fgcp.domain.VSystemWithDetails;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.ResourceNotFoundException;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Defines the connection between the {@link org.jclouds.fujitsu.fgcp.FGCPApi}
@@ -74,18 +86,38 @@ public class FGCPComputeServiceAdapter implements
    protected Predicate<String> serverCreated = null;
    protected ResourceIdToFirewallId toFirewallId = null;
    protected ResourceIdToSystemId toSystemId = null;
+   protected final int maxDirectNodeGets;
+   protected final ListeningExecutorService userExecutor;
+   protected final int maxConcurrentSystemGets;
+   protected final int maxConcurrentServerGets;
+   protected final boolean listNodesSummary;
+   protected final SystemOperationScheduler scheduler;
 
    @Inject
    public FGCPComputeServiceAdapter(FGCPApi api, ServerStopped serverStopped,
          ServerStarted serverStarted, Timeouts timeouts,
          ResourceIdToFirewallId toFirewallId,
-         ResourceIdToSystemId toSystemId) {
+         ResourceIdToSystemId toSystemId,
+         @Named(MAX_DIRECT_NODE_GETS) int maxDirectNodeGets,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_CONCURRENT_SYSTEM_GETS) int maxConcurrentSystemGets,
+         @Named(MAX_CONCURRENT_SERVER_GETS) int maxConcurrentServerGets,
+         @Named(LIST_NODES_SUMMARY) boolean listNodesSummary,
+         SystemOperationScheduler scheduler) {
       this.api = checkNotNull(api, "api");
       this.serverStopped = retry(checkNotNull(serverStopped), timeouts.nodeSuspended);
       this.serverStarted = retry(checkNotNull(serverStarted), timeouts.nodeRunning);
       this.serverCreated = retry(checkNotNull(serverStopped), timeouts.nodeRunning);
       this.toFirewallId = checkNotNull(toFirewallId, "ResourceIdToFirewallId");
       this.toSystemId = checkNotNull(toSystemId, "ResourceIdToSystemId");
+      this.maxDirectNodeGets = maxDirectNodeGets;
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxConcurrentSystemGets > 0, "maxConcurrentSystemGets must be positive");
+      checkArgument(maxConcurrentServerGets > 0, "maxConcurrentServerGets must be positive");
+      this.maxConcurrentSystemGets = maxConcurrentSystemGets;
+      this.maxConcurrentServerGets = maxConcurrentServerGets;
+      this.listNodesSummary = listNodesSummary;
+      this.scheduler = checkNotNull(scheduler, "scheduler");
    }
 
    /**
@@ -93,10 +125,16 @@ public class FGCPComputeServiceAdapter implements
     */
    @Override
    public NodeAndInitialCredentials<VServerMetadata> createNodeWithGroupEncodedIntoName(
-         String group, String name, Template template) {
-      String id = api.getVirtualSystemApi().createServer(name,
-            template.getHardware().getName(), template.getImage().getId(),
-            template.getLocation().getId());
+         final String group, final String name, final Template template) {
+      String id = scheduler.execute(template.getLocation().getId(), new Supplier<String>() {
+
+         @Override
+         public String get() {
+            return api.getVirtualSystemApi().createServer(name,
+                  template.getHardware().getName(), template.getImage().getId(),
+                  template.getLocation().getId());
+         }
+      });
 
       // wait until fully created (i.e. transitions to stopped status)
       checkState(serverCreated.apply(id), "node %s not reaching STOPPED state after creation", id);
@@ -182,50 +220,118 @@ public class FGCPComputeServiceAdapter implements
       return "firewall".equals(serverType) || "slb".equals(serverType);
    }
 
+   /**
+    * Builds the metadata of a server from the details included in its
+    * system's details and its status, fetching the initial password only
+    * when it is first requested.
+    */
+   private VServerMetadata getNodeSummary(VServerWithVNICs server) {
+      final String id = server.getId();
+      try {
+         VServerStatus status = api.getVirtualServerApi().getStatus(id);
+         logger.trace("Node %s [%s] - %s", id, status, server);
+         return VServerMetadata.builder().serverWithDetails(server).status(status)
+               .initialPassword(new Supplier<String>() {
+
+                  @Override
+                  public String get() {
+                     return api.getVirtualServerApi().getInitialPassword(id);
+                  }
+               }).build();
+      } catch (ResourceNotFoundException e) {
+         return null;
+      }
+   }
+
    /**
     * {@inheritDoc}
+    * <p>
+    * System details are fetched concurrently, then the servers of all systems
+    * are hydrated concurrently, each level with its own bound on the number
+    * of requests in flight.
     */
    @Override
    public Iterable<VServerMetadata> listNodes() {
-      ImmutableSet.Builder<VServerMetadata> servers = ImmutableSet.<VServerMetadata> builder();
-
-      Set<VSystem> systems = api.getVirtualDCApi().listVirtualSystems();
-      for (VSystem system : systems) {
-
-         VSystemWithDetails systemDetails = api.getVirtualSystemApi().getDetails(system.getId());
-
-         for (VServerWithVNICs server : systemDetails.getServers()) {
+      List<VSystem> systems = ImmutableList.copyOf(api.getVirtualDCApi().listVirtualSystems());
+
+      List<VSystemWithDetails> systemDetails = transform(systems,
+            new Function<VSystem, VSystemWithDetails>() {
+
+               @Override
+               public VSystemWithDetails apply(VSystem system) {
+                  try {
+                     return api.getVirtualSystemApi().getDetails(system.getId());
+                  } catch (ResourceNotFoundException e) {
+                     // system destroyed since it was listed
+                     return null;
+                  }
+               }
+            }, maxConcurrentSystemGets, userExecutor);
 
+      List<VServerWithVNICs> servers = Lists.newArrayList();
+      for (VSystemWithDetails system : systemDetails) {
+         for (VServerWithVNICs server : system.getServers()) {
             // skip FWs and SLBs
             if (!isFWorSLB(server)) {
-               servers.add(getNode(server.getId()));
+               servers.add(server);
             }
          }
       }
 
-      return servers.build();
+      return ImmutableSet.copyOf(transform(servers,
+            new Function<VServerWithVNICs, VServerMetadata>() {
+
+               @Override
+               public VServerMetadata apply(VServerWithVNICs server) {
+                  return listNodesSummary ? getNodeSummary(server) : getNode(server.getId());
+               }
+            }, maxConcurrentServerGets, userExecutor));
    }
 
+   /**
+    * {@inheritDoc}
+    */
    @Override
-   public Iterable<VServerMetadata> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<VServerMetadata>() {
+   public Iterable<VServerMetadata> listNodesByIds(Iterable<String> ids) {
+      final Set<String> idSet = ImmutableSet.copyOf(ids);
+
+      // listing all nodes takes several requests per server in every system,
+      // so fetch the servers one by one when only a few are requested
+      if (idSet.size() <= maxDirectNodeGets) {
+         return transform(ImmutableList.copyOf(idSet), new Function<String, VServerMetadata>() {
+
+            @Override
+            public VServerMetadata apply(String id) {
+               return getNode(id);
+            }
+         }, maxConcurrentServerGets, userExecutor);
+      }
+
+      return ImmutableList.copyOf(filter(listNodes(), new Predicate<VServerMetadata>() {
 
          @Override
          public boolean apply(VServerMetadata server) {
-            return contains(ids, server.getId());
+            return idSet.contains(server.getId());
          }
-      });
+      }));
    }
 
    /**
     * {@inheritDoc}
     */
    @Override
-   public void destroyNode(String id) {
+   public void destroyNode(final String id) {
       // ensure it is stopped first
       suspendNode(id);
       checkState(serverStopped.apply(id), "could not stop %s before destroying it", id);
-      api.getVirtualServerApi().destroy(id);
+      scheduler.execute(id, new Supplier<Void>() {
+
+         @Override
+         public Void get() {
+            api.getVirtualServerApi().destroy(id);
+            return null;
+         }
+      });
    }
 
    /**
@@ -242,9 +348,16 @@ public class FGCPComputeServiceAdapter implements
     * {@inheritDoc}
     */
    @Override
-   public void resumeNode(String id) {
+   public void resumeNode(final String id) {
       try {
-         api.getVirtualServerApi().start(id);
+         scheduler.execute(id, new Supplier<Void>() {
+
+            @Override
+            public Void get() {
+               api.getVirtualServerApi().start(id);
+               return null;
+            }
+         });
       } catch (IllegalStateException ise) {
          if (!(ise.getMessage().contains("ALREADY_STARTED") || ise.getMessage().contains("STARTING"))) {
             throw ise;
@@ -258,7 +371,7 @@ public class FGCPComputeServiceAdapter implements
    @Override
    public void suspendNode(String id) {
       try {
-         api.getVirtualServerApi().stop(id);
+         stop(id);
       } catch (IllegalStateException ise) {
          if (ise.getMessage().contains("ALREADY_STOPPED") || ise.getMessage().contains("STOPPING")) {
             logger.trace("suspendNode({0}) - {1}", id, ise.getMessage());
@@ -269,7 +382,7 @@ public class FGCPComputeServiceAdapter implements
             checkState(serverStarted.apply(id), "starting %s didn't reach RUNNING state", id);
             logger.trace("suspendNode({0}) - now RUNNING, trying to stop again", id);
             try {
-               api.getVirtualServerApi().stop(id);
+               stop(id);
             } catch (IllegalStateException e) {
                if (e.getMessage().contains("ALREADY_STOPPED") || e.getMessage().contains("STOPPING")) {
                   logger.trace("suspendNode({0}) - {1}", id, e.getMessage());
@@ -286,4 +399,15 @@ public class FGCPComputeServiceAdapter implements
          throw e;
       }
    }
+
+   private void stop(final String id) {
+      scheduler.execute(id, new Supplier<Void>() {
+
+         @Override
+         public Void get() {
+            api.getVirtualServerApi().stop(id);
+            return null;
+         }
+      });
+   }
 }
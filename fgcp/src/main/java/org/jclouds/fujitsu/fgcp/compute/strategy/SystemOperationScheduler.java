@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.util.Predicates2.retry;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.fujitsu.fgcp.compute.functions.ResourceIdToSystemId;
+import org.jclouds.fujitsu.fgcp.compute.predicates.SystemStatusNormal;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+
+/**
+ * Runs operations that change a virtual system one at a time per system.
+ * <p>
+ * FGCP rejects an operation on a system that is still being reconfigured by a
+ * previous one, which otherwise ends up in long retry back-offs when many
+ * operations are issued on the same system in parallel. Operations on a
+ * system are queued in arrival order, and each one starts as soon as the
+ * system is back to its NORMAL status after the previous one. Operations on
+ * different systems run in parallel.
+ */
+@Singleton
+public class SystemOperationScheduler {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final Predicate<String> systemNormal;
+   private final ResourceIdToSystemId toSystemId;
+   private final ConcurrentMap<String, SystemQueue> queues = Maps.newConcurrentMap();
+
+   private final AtomicLong operations = new AtomicLong();
+   private final AtomicLong totalWaitNanos = new AtomicLong();
+   private final AtomicLong maxWaitNanos = new AtomicLong();
+
+   /**
+    * Serializes the operations on one system and remembers whether the system
+    * may still be reconfiguring from the last one.
+    */
+   private static class SystemQueue {
+      private final ReentrantLock lock = new ReentrantLock(true);
+      // guarded by lock
+      private boolean operationRun;
+   }
+
+   @Inject
+   public SystemOperationScheduler(SystemStatusNormal systemStatusNormal, ResourceIdToSystemId toSystemId,
+         Timeouts timeouts) {
+      this(retry(checkNotNull(systemStatusNormal, "systemStatusNormal"), timeouts.nodeRunning, 1000, 5000,
+            TimeUnit.MILLISECONDS), toSystemId);
+   }
+
+   SystemOperationScheduler(Predicate<String> systemNormal, ResourceIdToSystemId toSystemId) {
+      this.systemNormal = checkNotNull(systemNormal, "systemNormal");
+      this.toSystemId = checkNotNull(toSystemId, "toSystemId");
+   }
+
+   /**
+    * Runs the operation once all operations queued before it on the system of
+    * the given resource have completed and the system is back to NORMAL.
+    *
+    * @param resourceId
+    *           id of the system or of a server, disk or other resource in it
+    * @return the result of the operation
+    */
+   public <T> T execute(String resourceId, Supplier<T> operation) {
+      checkNotNull(operation, "operation");
+      String systemId = toSystemId.apply(checkNotNull(resourceId, "resourceId"));
+      SystemQueue queue = queue(systemId);
+
+      long queuedAt = System.nanoTime();
+      try {
+         queue.lock.lockInterruptibly();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+      try {
+         // the previous operation may still be reconfiguring the system
+         if (queue.operationRun) {
+            checkState(systemNormal.apply(systemId), "system %s not reaching NORMAL state", systemId);
+         }
+         recordWait(System.nanoTime() - queuedAt);
+         logger.trace("running operation on %s on system %s", resourceId, systemId);
+         try {
+            return operation.get();
+         } finally {
+            queue.operationRun = true;
+         }
+      } finally {
+         queue.lock.unlock();
+      }
+   }
+
+   private SystemQueue queue(String systemId) {
+      SystemQueue queue = queues.get(systemId);
+      if (queue == null) {
+         SystemQueue created = new SystemQueue();
+         queue = queues.putIfAbsent(systemId, created);
+         if (queue == null) {
+            queue = created;
+         }
+      }
+      return queue;
+   }
+
+   private void recordWait(long waitNanos) {
+      operations.incrementAndGet();
+      totalWaitNanos.addAndGet(waitNanos);
+      long max = maxWaitNanos.get();
+      while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+         max = maxWaitNanos.get();
+      }
+   }
+
+   /**
+    * Returns the number of operations waiting for their turn on the system.
+    */
+   public int getQueueDepth(String systemId) {
+      SystemQueue queue = queues.get(systemId);
+      return queue == null ? 0 : queue.lock.getQueueLength();
+   }
+
+   /**
+    * Returns the number of operations waiting for their turn on any system.
+    */
+   public int getQueueDepth() {
+      int depth = 0;
+      for (SystemQueue queue : queues.values()) {
+         depth += queue.lock.getQueueLength();
+      }
+      return depth;
+   }
+
+   /**
+    * Returns the number of operations started.
+    */
+   public long getOperationCount() {
+      return operations.get();
+   }
+
+   /**
+    * Returns the time operations spent waiting for their turn and for their
+    * system to become NORMAL, in milliseconds.
+    */
+   public long getTotalWaitMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+   }
+
+   public long getMaxWaitMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+   }
+
+   public long getAverageWaitMillis() {
+      long count = operations.get();
+      return count == 0 ? 0 : getTotalWaitMillis() / count;
+   }
+}
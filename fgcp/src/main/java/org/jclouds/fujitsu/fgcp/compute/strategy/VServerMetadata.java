@@ -27,6 +27,7 @@ import org.jclouds.fujitsu.fgcp.domain.VServer;
 import org.jclouds.fujitsu.fgcp.domain.VServerStatus;
 import org.jclouds.fujitsu.fgcp.domain.VServerWithVNICs;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -39,7 +40,8 @@ public class VServerMetadata {
    protected String id;
    protected String name;
    protected Template template;
-   protected String initialPassword;
+   protected volatile String initialPassword;
+   protected Supplier<String> initialPasswordLoader;
    protected VServerStatus status = VServerStatus.UNRECOGNIZED;
    protected Set<PublicIP> ips;
    protected DiskImage image;
@@ -55,6 +57,16 @@ public class VServerMetadata {
       name = server.getName();
    }
 
+   /**
+    * Creates the metadata of a server whose initial password is only fetched
+    * the first time it is requested.
+    */
+   public VServerMetadata(VServer server, Supplier<String> initialPasswordLoader,
+         VServerStatus status, DiskImage image, Set<PublicIP> publicIps) {
+      this(server, (String) null, status, image, publicIps);
+      this.initialPasswordLoader = checkNotNull(initialPasswordLoader, "initialPasswordLoader");
+   }
+
    public VServerMetadata(String id, String name, Template template,
          VServerStatus status) {
       this.id = checkNotNull(id, "id");
@@ -84,9 +96,25 @@ public class VServerMetadata {
    }
 
    public String getInitialPassword() {
+      if (initialPassword == null && initialPasswordLoader != null) {
+         synchronized (this) {
+            if (initialPassword == null) {
+               String password = initialPasswordLoader.get();
+               initialPassword = password == null ? "" : password;
+            }
+         }
+      }
       return initialPassword;
    }
 
+   /**
+    * Returns whether the initial password is known without making any
+    * request.
+    */
+   public boolean isInitialPasswordLoaded() {
+      return initialPassword != null || initialPasswordLoader == null;
+   }
+
    public VServerStatus getStatus() {
       return status;
    }
@@ -106,6 +134,7 @@ public class VServerMetadata {
       private String name;
       private Template template;
       private String initialPassword;
+      private Supplier<String> initialPasswordLoader;
       private VServerStatus status = VServerStatus.UNRECOGNIZED;
       private Set<PublicIP> publicIps = ImmutableSet.of();
       private DiskImage image;
@@ -140,6 +169,15 @@ public class VServerMetadata {
          return this;
       }
 
+      /**
+       * Fetches the initial password with the given loader the first time it
+       * is requested, instead of setting it upfront.
+       */
+      public Builder initialPassword(Supplier<String> initialPasswordLoader) {
+         this.initialPasswordLoader = initialPasswordLoader;
+         return this;
+      }
+
       public Builder status(VServerStatus status) {
          this.status = status;
          return this;
@@ -156,6 +194,13 @@ public class VServerMetadata {
       }
 
       public VServerMetadata build() {
+         if (initialPassword == null && initialPasswordLoader != null) {
+            VServer lazyServer = server != null ? server : serverWithDetails;
+            if (lazyServer != null) {
+               return new VServerMetadata(lazyServer, initialPasswordLoader,
+                     status, image, publicIps);
+            }
+         }
          if (initialPassword == null) initialPassword = "";
          if (server != null) {
             return new VServerMetadata(server, initialPassword, status,
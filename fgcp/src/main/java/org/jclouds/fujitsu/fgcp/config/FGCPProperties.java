@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.config;
+
+/**
+ * Configuration properties used in FGCP connections.
+ */
+public final class FGCPProperties {
+
+   /**
+    * Maximum number of ids for which servers are fetched one by one when
+    * listing nodes by id. If more ids are requested, all servers are listed
+    * and filtered instead.
+    */
+   public static final String MAX_DIRECT_NODE_GETS = "jclouds.fgcp.max-direct-node-gets";
+
+   /**
+    * Maximum number of virtual systems whose details are fetched concurrently
+    * when listing nodes.
+    */
+   public static final String MAX_CONCURRENT_SYSTEM_GETS = "jclouds.fgcp.max-concurrent-system-gets";
+
+   /**
+    * Maximum number of servers whose details are fetched concurrently when
+    * listing nodes.
+    */
+   public static final String MAX_CONCURRENT_SERVER_GETS = "jclouds.fgcp.max-concurrent-server-gets";
+
+   /**
+    * Whether listing nodes builds them from the system details and the server
+    * status only. The initial password of such nodes is fetched the first
+    * time it is requested, so their credentials come from the credential
+    * store instead.
+    */
+   public static final String LIST_NODES_SUMMARY = "jclouds.fgcp.list-nodes-summary";
+
+   /**
+    * Number of milliseconds during which a signed access key id is reused for
+    * subsequent requests instead of signing a new one. Zero signs every
+    * request.
+    */
+   public static final String SIGNATURE_REUSE_MILLIS = "jclouds.fgcp.signature-reuse-millis";
+
+   private FGCPProperties() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
@@ -20,6 +20,7 @@ import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.io.BaseEncoding.base64;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.SIGNATURE_REUSE_MILLIS;
 import static org.jclouds.http.utils.Queries.queryParser;
 
 import java.security.InvalidKeyException;
@@ -29,7 +30,10 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.util.Calendar;
 import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -59,6 +63,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Multimap;
+import com.google.common.io.BaseEncoding;
 import com.google.common.net.HttpHeaders;
 
 /**
@@ -73,24 +78,40 @@ public class RequestAuthenticator implements HttpRequestFilter, RequestSigner {
    private Logger signatureLog = Logger.NULL;
 
    private final Supplier<FGCPCredentials> creds;
-   private final LoadingCache<FGCPCredentials, Signature> signerCache;
+   private final LoadingCache<FGCPCredentials, SignerPool> signerCache;
    private final Provider<Calendar> calendarProvider;
    private final HttpUtils utils;
    private final String apiVersion;
+   private final long signatureReuseMillis;
+   private final AtomicReference<SignedAccessKeyId> lastSigned = new AtomicReference<SignedAccessKeyId>();
 
    static final String SIGNATURE_VERSION = "1.0";
    static final String SIGNATURE_METHOD = "SHA1withRSA";
+   private static final BaseEncoding BASE64_WITH_NEWLINES = base64().withSeparator("\n", 61);
 
    @Inject
    public RequestAuthenticator(Supplier<FGCPCredentials> creds,
-         SignatureForCredentials loader, @TimeStamp Provider<Calendar> calendarProvider, HttpUtils utils,
-         SignatureWire signatureWire, @ApiVersion String apiVersion) {
+         final SignatureForCredentials loader, @TimeStamp Provider<Calendar> calendarProvider, HttpUtils utils,
+         SignatureWire signatureWire, @ApiVersion String apiVersion,
+         @Named(SIGNATURE_REUSE_MILLIS) long signatureReuseMillis) {
       this.calendarProvider = checkNotNull(calendarProvider);
       this.creds = checkNotNull(creds, "creds");
-      // throw out the signature related to old keys
-      this.signerCache = CacheBuilder.newBuilder().maximumSize(2).build(checkNotNull(loader, "loader"));
+      checkNotNull(loader, "loader");
+      // throw out the signers related to old keys
+      this.signerCache = CacheBuilder.newBuilder().maximumSize(2)
+            .build(new CacheLoader<FGCPCredentials, SignerPool>() {
+
+               @Override
+               public SignerPool load(FGCPCredentials creds) {
+                  SignerPool pool = new SignerPool(creds, loader);
+                  // fail early on an invalid key
+                  pool.release(pool.borrow());
+                  return pool;
+               }
+            });
       this.utils = checkNotNull(utils, "utils");
       this.apiVersion = checkNotNull(apiVersion, "apiVersion");
+      this.signatureReuseMillis = signatureReuseMillis;
    }
 
    /**
@@ -116,13 +137,64 @@ public class RequestAuthenticator implements HttpRequestFilter, RequestSigner {
       }
    }
 
+   /**
+    * Initialized signers for one set of credentials. A {@link Signature} is
+    * not thread-safe, so each signer is used by one thread at a time and
+    * returned to the pool afterwards; the pool grows to the number of threads
+    * signing concurrently.
+    */
+   @VisibleForTesting
+   static class SignerPool {
+      private final FGCPCredentials creds;
+      private final SignatureForCredentials loader;
+      private final Queue<Signature> idle = new ConcurrentLinkedQueue<Signature>();
+
+      SignerPool(FGCPCredentials creds, SignatureForCredentials loader) {
+         this.creds = checkNotNull(creds, "creds");
+         this.loader = checkNotNull(loader, "loader");
+      }
+
+      Signature borrow() {
+         Signature signer = idle.poll();
+         return signer != null ? signer : loader.load(creds);
+      }
+
+      void release(Signature signer) {
+         idle.offer(signer);
+      }
+
+      @VisibleForTesting
+      int idleSize() {
+         return idle.size();
+      }
+   }
+
+   /**
+    * An access key id together with its signature and the credentials and
+    * time it was created with.
+    */
+   @VisibleForTesting
+   static final class SignedAccessKeyId {
+      final FGCPCredentials creds;
+      final long createdAt;
+      final String accessKeyId;
+      final String signature;
+
+      SignedAccessKeyId(FGCPCredentials creds, long createdAt, String accessKeyId, String signature) {
+         this.creds = creds;
+         this.createdAt = createdAt;
+         this.accessKeyId = accessKeyId;
+         this.signature = signature;
+      }
+   }
+
    public HttpRequest filter(HttpRequest request) throws HttpException {
       checkNotNull(request, "request must be present");
       utils.logRequest(signatureLog, request, ">>");
 
-      // create accesskeyid
-      String accessKeyId = createStringToSign(request);
-      String signature = sign(accessKeyId);
+      SignedAccessKeyId signed = signedAccessKeyId();
+      String accessKeyId = signed.accessKeyId;
+      String signature = signed.signature;
 
       // only "en" and "ja" are allowed
       String lang = Locale.JAPANESE.getLanguage().equals(Locale.getDefault().getLanguage()) ? Locale.JAPANESE
@@ -172,11 +244,18 @@ public class RequestAuthenticator implements HttpRequestFilter, RequestSigner {
    }
 
    public String sign(String stringToSign) {
+      return sign(checkNotNull(creds.get(), "credential supplier returned null"), stringToSign);
+   }
+
+   private String sign(FGCPCredentials credentials, String stringToSign) {
       String signed;
       try {
-         Signature signer = signerCache.get(checkNotNull(creds.get(), "credential supplier returned null"));
+         SignerPool pool = signerCache.get(credentials);
+         Signature signer = pool.borrow();
          signer.update(stringToSign.getBytes(UTF_8));
-         signed = base64().withSeparator("\n", 61).encode(signer.sign());
+         signed = BASE64_WITH_NEWLINES.encode(signer.sign());
+         // a signer that failed is dropped instead, as its state is unknown
+         pool.release(signer);
       } catch (SignatureException e) {
          throw new HttpException("error signing request", e);
       } catch (ExecutionException e) {
@@ -185,14 +264,41 @@ public class RequestAuthenticator implements HttpRequestFilter, RequestSigner {
       return signed;
    }
 
+   /**
+    * Returns the access key id and its signature to send. The access key id
+    * only encodes the time zone and the time it was created, so the last one
+    * is reused as long as it is younger than the configured reuse period and
+    * the credentials have not changed.
+    */
    @VisibleForTesting
-   String generateAccessKeyId() {
+   SignedAccessKeyId signedAccessKeyId() {
+      FGCPCredentials current = checkNotNull(creds.get(), "credential supplier returned null");
       Calendar cal = calendarProvider.get();
+      long now = cal.getTimeInMillis();
+
+      SignedAccessKeyId last = lastSigned.get();
+      if (last != null && last.creds.equals(current) && now >= last.createdAt
+            && now - last.createdAt < signatureReuseMillis) {
+         return last;
+      }
+
+      String accessKeyId = generateAccessKeyId(cal);
+      SignedAccessKeyId signed = new SignedAccessKeyId(current, now, accessKeyId, sign(current, accessKeyId));
+      lastSigned.set(signed);
+      return signed;
+   }
+
+   @VisibleForTesting
+   String generateAccessKeyId() {
+      return generateAccessKeyId(calendarProvider.get());
+   }
+
+   private String generateAccessKeyId(Calendar cal) {
       String timezone = cal.getTimeZone().getDisplayName(Locale.ENGLISH);
       String expires = String.valueOf(cal.getTime().getTime());
 
       String signatureData = String.format("%s&%s&%s&%s", timezone, expires, SIGNATURE_VERSION, SIGNATURE_METHOD);
-      String accessKeyId = base64().withSeparator("\n", 61).encode(signatureData.getBytes(UTF_8));
+      String accessKeyId = BASE64_WITH_NEWLINES.encode(signatureData.getBytes(UTF_8));
 
       return accessKeyId;
    }
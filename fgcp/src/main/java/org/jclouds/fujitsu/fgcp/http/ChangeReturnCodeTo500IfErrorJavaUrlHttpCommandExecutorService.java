@@ -18,6 +18,7 @@ package org.jclouds.fujitsu.fgcp.http;
 
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
@@ -27,6 +28,10 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpUtils;
@@ -37,6 +42,7 @@ import org.jclouds.http.internal.HttpWire;
 import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
 import org.jclouds.io.ContentMetadataCodec;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 
@@ -48,6 +54,12 @@ import com.google.common.base.Supplier;
 public class ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorService extends
       JavaUrlHttpCommandExecutorService {
 
+   private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+   static {
+      INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+   }
+
    @Inject
    public ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorService(HttpUtils utils,
          ContentMetadataCodec contentMetadataCodec, DelegatingRetryHandler retryHandler,
@@ -64,11 +76,41 @@ public class ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorService exten
       HttpResponse response = super.invoke(connection);
 
       byte[] data = closeClientButKeepContentStream(response);
-      if (data != null
-            && !new String(data).contains("<responseStatus>SUCCESS</responseStatus>")) {
+      if (data != null && !isSuccess(data)) {
          response = response.toBuilder().statusCode(500).build();
       }
 
       return response;
    }
+
+   /**
+    * Reads the buffered payload only up to its responseStatus element, which
+    * is near the start of FGCP responses, instead of decoding the whole
+    * document.
+    * The buffered bytes stay in the response for the parser.
+    */
+   @VisibleForTesting
+   static boolean isSuccess(byte[] data) {
+      XMLStreamReader reader = null;
+      try {
+         reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(data));
+         while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT
+                  && "responseStatus".equals(reader.getLocalName())) {
+               return "SUCCESS".equals(reader.getElementText().trim());
+            }
+         }
+         return false;
+      } catch (XMLStreamException e) {
+         // not an FGCP response document
+         return false;
+      } finally {
+         if (reader != null) {
+            try {
+               reader.close();
+            } catch (XMLStreamException ignored) {
+            }
+         }
+      }
+   }
 }
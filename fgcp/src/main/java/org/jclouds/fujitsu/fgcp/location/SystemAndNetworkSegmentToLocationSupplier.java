@@ -17,12 +17,18 @@
 package org.jclouds.fujitsu.fgcp.location;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.MAX_CONCURRENT_SYSTEM_GETS;
+import static org.jclouds.fujitsu.fgcp.util.ConcurrentTransforms.transform;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
 import org.jclouds.domain.LocationScope;
@@ -32,10 +38,15 @@ import org.jclouds.fujitsu.fgcp.domain.VSystem;
 import org.jclouds.fujitsu.fgcp.domain.VSystemWithDetails;
 import org.jclouds.location.suppliers.LocationsSupplier;
 import org.jclouds.location.suppliers.all.RegionToProviderOrJustProvider;
+import org.jclouds.rest.ResourceNotFoundException;
 
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Builds location hierarchy by querying the back-end for the networks of all
@@ -51,41 +62,99 @@ import com.google.common.collect.Iterables;
  * ---> location network DMZ/SECURE1/SECURE2
  * </pre>
  * 
- * Todo: caching - provider/region won't change. if vsys still exists, network
- * won't change
+ * The provider and region never change, and the networks of a virtual system
+ * only change with the system itself. So the locations of each system are
+ * kept, and only the details of systems that were not listed before are
+ * fetched, concurrently. When the set of systems has not changed, the previous
+ * location tree is returned as is.
  */
 @Singleton
 public class SystemAndNetworkSegmentToLocationSupplier implements LocationsSupplier {
 
    private final RegionToProviderOrJustProvider regionProvider;
    private FGCPApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxConcurrentSystemGets;
+
+   private Location region;
+   private Map<String, Set<Location>> locationsBySystem = ImmutableMap.of();
+   private Set<Location> locations;
 
    @Inject
-   SystemAndNetworkSegmentToLocationSupplier(RegionToProviderOrJustProvider regionProvider, FGCPApi api) {
+   SystemAndNetworkSegmentToLocationSupplier(RegionToProviderOrJustProvider regionProvider, FGCPApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_CONCURRENT_SYSTEM_GETS) int maxConcurrentSystemGets) {
       this.regionProvider = checkNotNull(regionProvider, "regionToProviderOrJustProvider");
       this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.maxConcurrentSystemGets = maxConcurrentSystemGets;
    }
 
    @Override
-   public Set<Location> get() {
-      Builder<Location> locations = ImmutableSet.builder();
-
-      for (VSystem system : api.getVirtualDCApi().listVirtualSystems()) {
+   public synchronized Set<Location> get() {
+      List<VSystem> systems = ImmutableList.copyOf(api.getVirtualDCApi().listVirtualSystems());
 
-         VSystemWithDetails systemWithDetails = api.getVirtualSystemApi().getDetails(system.getId());
+      ImmutableSet.Builder<String> systemIds = ImmutableSet.builder();
+      ImmutableList.Builder<VSystem> added = ImmutableList.builder();
+      for (VSystem system : systems) {
+         systemIds.add(system.getId());
+         if (!locationsBySystem.containsKey(system.getId())) {
+            added.add(system);
+         }
+      }
+      if (locations != null && locationsBySystem.keySet().equals(systemIds.build())) {
+         return locations;
+      }
 
-         Location systemLocation = new LocationBuilder().scope(LocationScope.SYSTEM)
-               .parent(Iterables.getOnlyElement(regionProvider.get())).description(system.getName()).id(system.getId())
-               .build();
+      if (region == null) {
+         region = Iterables.getOnlyElement(regionProvider.get());
+      }
+      Map<String, Set<Location>> fetched = Maps.newHashMap();
+      for (Map.Entry<String, Set<Location>> entry : transform(added.build(),
+            new Function<VSystem, Map.Entry<String, Set<Location>>>() {
 
-         for (VNet net : systemWithDetails.getNetworks()) {
+               @Override
+               public Map.Entry<String, Set<Location>> apply(VSystem system) {
+                  return systemLocations(system);
+               }
+            }, maxConcurrentSystemGets, userExecutor)) {
+         fetched.put(entry.getKey(), entry.getValue());
+      }
 
-            locations.add(new LocationBuilder().scope(LocationScope.NETWORK).parent(systemLocation)
-                  .description(net.getNetworkId().replaceFirst(".+-N-", "")).id(net.getNetworkId())
-                  .build());
+      // keep the listing order; systems destroyed since being listed are left out
+      ImmutableMap.Builder<String, Set<Location>> current = ImmutableMap.builder();
+      ImmutableSet.Builder<Location> all = ImmutableSet.builder();
+      for (VSystem system : systems) {
+         Set<Location> networks = locationsBySystem.containsKey(system.getId()) ? locationsBySystem.get(system
+               .getId()) : fetched.get(system.getId());
+         if (networks != null) {
+            current.put(system.getId(), networks);
+            all.addAll(networks);
          }
       }
+      locationsBySystem = current.build();
+      locations = all.build();
+      return locations;
+   }
+
+   private Map.Entry<String, Set<Location>> systemLocations(VSystem system) {
+      VSystemWithDetails systemWithDetails;
+      try {
+         systemWithDetails = api.getVirtualSystemApi().getDetails(system.getId());
+      } catch (ResourceNotFoundException e) {
+         return null;
+      }
 
-      return locations.build();
+      Location systemLocation = new LocationBuilder().scope(LocationScope.SYSTEM).parent(region)
+            .description(system.getName()).id(system.getId()).build();
+
+      ImmutableSet.Builder<Location> networks = ImmutableSet.builder();
+      for (VNet net : systemWithDetails.getNetworks()) {
+
+         networks.add(new LocationBuilder().scope(LocationScope.NETWORK).parent(systemLocation)
+               .description(net.getNetworkId().replaceFirst(".+-N-", "")).id(net.getNetworkId())
+               .build());
+      }
+      return Maps.immutableEntry(system.getId(), (Set<Location>) networks.build());
    }
 }
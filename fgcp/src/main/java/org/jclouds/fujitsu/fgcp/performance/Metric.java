@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.performance;
+
+import org.jclouds.fujitsu.fgcp.domain.PerformanceInfo;
+
+/**
+ * The statistics recorded for a server, each stored as a column of a
+ * {@link PerformanceStore}. Except for the CPU utilization, the values are
+ * counts over the interval of each record.
+ */
+public enum Metric {
+   CPU_UTILIZATION(true) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return Double.doubleToRawLongBits(info.getCpuUtilization());
+      }
+   },
+   DISK_READ_REQUESTS(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getDiskReadRequestCount();
+      }
+   },
+   DISK_WRITE_REQUESTS(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getDiskWriteRequestCount();
+      }
+   },
+   DISK_READ_SECTORS(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getDiskReadSector();
+      }
+   },
+   DISK_WRITE_SECTORS(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getDiskWriteSector();
+      }
+   },
+   NIC_INPUT_BYTES(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getNicInputByte();
+      }
+   },
+   NIC_OUTPUT_BYTES(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getNicOutputByte();
+      }
+   },
+   NIC_INPUT_PACKETS(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getNicInputPacket();
+      }
+   },
+   NIC_OUTPUT_PACKETS(false) {
+      @Override
+      long valueBits(PerformanceInfo info) {
+         return info.getNicOutputPacket();
+      }
+   };
+
+   private final boolean floatingPoint;
+
+   private Metric(boolean floatingPoint) {
+      this.floatingPoint = floatingPoint;
+   }
+
+   /**
+    * Returns the value of this metric in the record, encoded as stored.
+    */
+   abstract long valueBits(PerformanceInfo info);
+
+   /**
+    * Decodes a stored value of this metric.
+    */
+   double decode(long bits) {
+      return floatingPoint ? Double.longBitsToDouble(bits) : bits;
+   }
+}
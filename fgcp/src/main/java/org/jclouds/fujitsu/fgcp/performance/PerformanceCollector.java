@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.performance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.fujitsu.fgcp.config.FGCPProperties.MAX_CONCURRENT_SERVER_GETS;
+import static org.jclouds.fujitsu.fgcp.util.ConcurrentTransforms.transform;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.fujitsu.fgcp.FGCPApi;
+import org.jclouds.fujitsu.fgcp.domain.PerformanceInfo;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.ResourceNotFoundException;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Pulls the performance information of servers into a
+ * {@link PerformanceStore}.
+ * <p>
+ * The API returns the records of a fixed period for the requested interval,
+ * so consecutive pulls overlap; only the records newer than the latest one
+ * stored for a server are added.
+ */
+@Singleton
+public class PerformanceCollector {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final FGCPApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxConcurrentServerGets;
+
+   @Inject
+   PerformanceCollector(FGCPApi api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MAX_CONCURRENT_SERVER_GETS) int maxConcurrentServerGets) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxConcurrentServerGets > 0, "maxConcurrentServerGets must be positive");
+      this.maxConcurrentServerGets = maxConcurrentServerGets;
+   }
+
+   /**
+    * Pulls the performance information of the server.
+    *
+    * @return the number of new records stored
+    */
+   public int collect(PerformanceStore store, String serverId) {
+      checkNotNull(store, "store");
+      Set<PerformanceInfo> infos;
+      try {
+         infos = api.getVirtualServerApi().getPerformanceInformation(serverId, store.getInterval());
+      } catch (ResourceNotFoundException e) {
+         logger.debug("server %s not found, skipping its performance information", serverId);
+         return 0;
+      }
+      try {
+         int added = store.append(serverId, infos);
+         logger.trace("stored %d of %d performance records of %s", added, infos.size(), serverId);
+         return added;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   /**
+    * Pulls the performance information of the servers, with at most
+    * {@code jclouds.fgcp.max-concurrent-server-gets} requests in flight.
+    *
+    * @return the number of new records stored
+    */
+   public int collect(final PerformanceStore store, Iterable<String> serverIds) {
+      checkNotNull(store, "store");
+      int added = 0;
+      for (Integer count : transform(ImmutableList.copyOf(serverIds), new Function<String, Integer>() {
+
+         @Override
+         public Integer apply(String serverId) {
+            return collect(store, serverId);
+         }
+      }, maxConcurrentServerGets, userExecutor)) {
+         added += count;
+      }
+      return added;
+   }
+}
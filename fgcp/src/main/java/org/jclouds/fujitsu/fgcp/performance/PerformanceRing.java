@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.performance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.jclouds.fujitsu.fgcp.domain.PerformanceInfo;
+
+/**
+ * Fixed-capacity ring of the performance records of one server, kept as one
+ * column of longs per metric in a single buffer. The buffer is either on the
+ * heap or a memory-mapped file, so the records survive restarts.
+ * <p>
+ * Layout: a header of four longs (magic, capacity, size, next
+ * slot) followed by the record times and then one column per {@link Metric}.
+ */
+final class PerformanceRing implements Closeable {
+
+   private static final long MAGIC = 0x4647435050455246L; // "FGCPPERF"
+   private static final int HEADER = 4;
+   private static final int COLUMNS = 1 + Metric.values().length;
+
+   private final LongBuffer buffer;
+   private final int capacity;
+   private final MappedByteBuffer mapped;
+   private final RandomAccessFile file;
+   private int size;
+   private int next;
+
+   private PerformanceRing(LongBuffer buffer, int capacity, MappedByteBuffer mapped, RandomAccessFile file) {
+      this.buffer = buffer;
+      this.capacity = capacity;
+      this.mapped = mapped;
+      this.file = file;
+   }
+
+   static PerformanceRing inMemory(int capacity) {
+      checkArgument(capacity > 0, "capacity must be positive");
+      PerformanceRing ring = new PerformanceRing(LongBuffer.allocate(HEADER + COLUMNS * capacity), capacity, null,
+            null);
+      ring.writeHeader();
+      return ring;
+   }
+
+   /**
+    * Maps the ring stored in the file, creating it if the file is empty.
+    */
+   static PerformanceRing open(File path, int capacity) throws IOException {
+      checkArgument(capacity > 0, "capacity must be positive");
+      long bytes = 8L * (HEADER + (long) COLUMNS * capacity);
+      RandomAccessFile file = new RandomAccessFile(path, "rw");
+      try {
+         boolean existing = file.length() > 0;
+         if (existing && file.length() != bytes) {
+            throw new IOException(path + " holds a ring of another capacity than " + capacity);
+         }
+         MappedByteBuffer mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+         PerformanceRing ring = new PerformanceRing(mapped.asLongBuffer(), capacity, mapped, file);
+         if (existing) {
+            if (ring.buffer.get(0) != MAGIC || ring.buffer.get(1) != capacity) {
+               throw new IOException(path + " is not a performance ring");
+            }
+            ring.size = (int) ring.buffer.get(2);
+            ring.next = (int) ring.buffer.get(3);
+         } else {
+            ring.writeHeader();
+         }
+         return ring;
+      } catch (IOException e) {
+         file.close();
+         throw e;
+      }
+   }
+
+   private void writeHeader() {
+      buffer.put(0, MAGIC);
+      buffer.put(1, capacity);
+      buffer.put(2, size);
+      buffer.put(3, next);
+   }
+
+   private int index(int column, int slot) {
+      return HEADER + column * capacity + slot;
+   }
+
+   /**
+    * Returns the physical slot of the i-th oldest record.
+    */
+   private int slot(int i) {
+      return (next - size + i + capacity) % capacity;
+   }
+
+   private long time(int i) {
+      return buffer.get(index(0, slot(i)));
+   }
+
+   private double value(Metric metric, int i) {
+      return metric.decode(buffer.get(index(1 + metric.ordinal(), slot(i))));
+   }
+
+   /**
+    * Appends the record, overwriting the oldest one when full.
+    *
+    * @return false if the record is not newer than the latest one
+    */
+   synchronized boolean append(PerformanceInfo info) {
+      if (size > 0 && info.getRecordTime() <= time(size - 1)) {
+         return false;
+      }
+      buffer.put(index(0, next), info.getRecordTime());
+      for (Metric metric : Metric.values()) {
+         buffer.put(index(1 + metric.ordinal(), next), metric.valueBits(info));
+      }
+      next = (next + 1) % capacity;
+      size = Math.min(size + 1, capacity);
+      // the header is written last so a partially written record is ignored
+      buffer.put(2, size);
+      buffer.put(3, next);
+      return true;
+   }
+
+   synchronized int size() {
+      return size;
+   }
+
+   /**
+    * Returns the time of the latest record, or {@link Long#MIN_VALUE} if
+    * there is none.
+    */
+   synchronized long latestTime() {
+      return size == 0 ? Long.MIN_VALUE : time(size - 1);
+   }
+
+   /**
+    * Returns the index of the oldest record at or after the time.
+    */
+   private int firstAtOrAfter(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (time(mid) < time) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Computes count, sum and max of the metric over the records with
+    * {@code from <= recordTime < to}.
+    *
+    * @return {count, sum, max}
+    */
+   synchronized double[] aggregate(Metric metric, long from, long to) {
+      double count = 0;
+      double sum = 0;
+      double max = Double.NaN;
+      for (int i = firstAtOrAfter(from); i < size && time(i) < to; i++) {
+         double value = value(metric, i);
+         count++;
+         sum += value;
+         max = Double.isNaN(max) ? value : Math.max(max, value);
+      }
+      return new double[] { count, sum, max };
+   }
+
+   /**
+    * Averages the metric over consecutive windows starting at {@code from}.
+    *
+    * @return one average per window, NaN for windows without records
+    */
+   synchronized double[] averages(Metric metric, long from, long to, long window) {
+      checkArgument(window > 0, "window must be positive");
+      int windows = (int) ((to - from + window - 1) / window);
+      double[] sums = new double[Math.max(windows, 0)];
+      int[] counts = new int[sums.length];
+      for (int i = firstAtOrAfter(from); i < size && time(i) < to; i++) {
+         int w = (int) ((time(i) - from) / window);
+         sums[w] += value(metric, i);
+         counts[w]++;
+      }
+      for (int w = 0; w < sums.length; w++) {
+         sums[w] = counts[w] == 0 ? Double.NaN : sums[w] / counts[w];
+      }
+      return sums;
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      if (mapped != null) {
+         mapped.force();
+         file.close();
+      }
+   }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.performance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jclouds.fujitsu.fgcp.domain.PerformanceInfo;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+
+/**
+ * Keeps the latest performance records of many servers for one interval, as
+ * primitive columns, and answers rollups over them without materializing
+ * {@link PerformanceInfo} objects.
+ * <p>
+ * Each server gets a ring of a fixed capacity, either on the heap or, when
+ * opened on a directory, in a memory-mapped file per server so that the
+ * history survives restarts.
+ */
+public class PerformanceStore implements Closeable {
+
+   private static final Comparator<PerformanceInfo> BY_RECORD_TIME = new Comparator<PerformanceInfo>() {
+      @Override
+      public int compare(PerformanceInfo left, PerformanceInfo right) {
+         return Longs.compare(left.getRecordTime(), right.getRecordTime());
+      }
+   };
+
+   private final String interval;
+   private final int capacity;
+   private final File directory;
+   private final ConcurrentMap<String, PerformanceRing> rings = Maps.newConcurrentMap();
+
+   private PerformanceStore(String interval, int capacity, File directory) {
+      this.interval = checkNotNull(interval, "interval");
+      checkArgument(capacity > 0, "capacity must be positive");
+      this.capacity = capacity;
+      this.directory = directory;
+   }
+
+   /**
+    * Creates a store that keeps up to {@code capacity} records per server on
+    * the heap.
+    *
+    * @param interval
+    *           the interval of the records, as passed to
+    *           {@link org.jclouds.fujitsu.fgcp.services.VirtualServerApi#getPerformanceInformation(String, String)}
+    */
+   public static PerformanceStore inMemory(String interval, int capacity) {
+      return new PerformanceStore(interval, capacity, null);
+   }
+
+   /**
+    * Creates a store that keeps up to {@code capacity} records per server in
+    * memory-mapped files in the directory, reusing the files already there.
+    */
+   public static PerformanceStore open(File directory, String interval, int capacity) throws IOException {
+      checkNotNull(directory, "directory");
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+         throw new IOException("could not create " + directory);
+      }
+      return new PerformanceStore(interval, capacity, directory);
+   }
+
+   public String getInterval() {
+      return interval;
+   }
+
+   private PerformanceRing ring(String serverId) throws IOException {
+      PerformanceRing ring = rings.get(serverId);
+      if (ring == null) {
+         synchronized (rings) {
+            ring = rings.get(serverId);
+            if (ring == null) {
+               ring = directory == null ? PerformanceRing.inMemory(capacity) : PerformanceRing.open(new File(
+                     directory, serverId + "-" + interval + ".perf"), capacity);
+               rings.put(serverId, ring);
+            }
+         }
+      }
+      return ring;
+   }
+
+   private PerformanceRing existingRing(String serverId) {
+      if (directory == null) {
+         return rings.get(checkNotNull(serverId, "serverId"));
+      }
+      try {
+         // the server may have records on disk from a previous run
+         return new File(directory, serverId + "-" + interval + ".perf").isFile() ? ring(serverId) : null;
+      } catch (IOException e) {
+         throw new IllegalStateException("could not open the records of " + serverId, e);
+      }
+   }
+
+   /**
+    * Stores the records of the server that are newer than the ones already
+    * stored, in order of their record time.
+    *
+    * @return the number of records added
+    */
+   public int append(String serverId, Iterable<PerformanceInfo> infos) throws IOException {
+      checkNotNull(serverId, "serverId");
+      PerformanceInfo[] sorted = Iterables.toArray(checkNotNull(infos, "infos"), PerformanceInfo.class);
+      Arrays.sort(sorted, BY_RECORD_TIME);
+      PerformanceRing ring = ring(serverId);
+      int added = 0;
+      for (PerformanceInfo info : sorted) {
+         if (ring.append(info)) {
+            added++;
+         }
+      }
+      return added;
+   }
+
+   /**
+    * Returns the time of the latest record of the server, or
+    * {@link Long#MIN_VALUE} if none is stored.
+    */
+   public long getLatestRecordTime(String serverId) {
+      PerformanceRing ring = existingRing(serverId);
+      return ring == null ? Long.MIN_VALUE : ring.latestTime();
+   }
+
+   public int getRecordCount(String serverId) {
+      PerformanceRing ring = existingRing(serverId);
+      return ring == null ? 0 : ring.size();
+   }
+
+   /**
+    * Averages the metric over the records with {@code from <= recordTime < to}.
+    *
+    * @return the average, or NaN if there are no such records
+    */
+   public double average(String serverId, Metric metric, long from, long to) {
+      double[] aggregate = aggregate(serverId, metric, from, to);
+      return aggregate[0] == 0 ? Double.NaN : aggregate[1] / aggregate[0];
+   }
+
+   /**
+    * Returns the highest value of the metric over the records with
+    * {@code from <= recordTime < to}, or NaN if there are no such records.
+    */
+   public double max(String serverId, Metric metric, long from, long to) {
+      return aggregate(serverId, metric, from, to)[2];
+   }
+
+   /**
+    * Returns the per second rate of a counted metric over the time range,
+    * that is the sum of its counts divided by the length of the range.
+    */
+   public double rate(String serverId, Metric metric, long from, long to) {
+      checkArgument(metric != Metric.CPU_UTILIZATION, "the cpu utilization is not a count");
+      checkArgument(to > from, "to must be after from");
+      return aggregate(serverId, metric, from, to)[1] * 1000 / (to - from);
+   }
+
+   /**
+    * Averages the metric over consecutive windows of {@code window}
+    * milliseconds from {@code from} to {@code to}.
+    *
+    * @return one average per window, NaN for windows without records
+    */
+   public double[] averages(String serverId, Metric metric, long from, long to, long window) {
+      checkNotNull(metric, "metric");
+      PerformanceRing ring = existingRing(serverId);
+      if (ring == null) {
+         checkArgument(window > 0, "window must be positive");
+         double[] empty = new double[(int) Math.max(0, (to - from + window - 1) / window)];
+         Arrays.fill(empty, Double.NaN);
+         return empty;
+      }
+      return ring.averages(metric, from, to, window);
+   }
+
+   private double[] aggregate(String serverId, Metric metric, long from, long to) {
+      checkNotNull(metric, "metric");
+      PerformanceRing ring = existingRing(serverId);
+      return ring == null ? new double[] { 0, 0, Double.NaN } : ring.aggregate(metric, from, to);
+   }
+
+   @Override
+   public void close() throws IOException {
+      IOException failure = null;
+      for (PerformanceRing ring : rings.values()) {
+         try {
+            ring.close();
+         } catch (IOException e) {
+            failure = e;
+         }
+      }
+      rings.clear();
+      if (failure != null) {
+         throw failure;
+      }
+   }
+}
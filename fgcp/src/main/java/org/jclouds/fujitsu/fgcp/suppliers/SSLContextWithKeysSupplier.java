@@ -38,27 +38,59 @@ import org.jclouds.fujitsu.fgcp.FGCPCredentials;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.config.SSLModule.TrustAllCerts;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 
 /**
  * Takes PK and chain from credentials to build a SSLContext for HTTPS with
  * client authentication.
+ * <p>
+ * The context is only built again when the PEM of the credentials changes,
+ * which is detected through its fingerprint. Sharing the context between
+ * connections keeps the TLS sessions in its cache, so new connections resume
+ * them instead of running a full handshake with the client certificate.
+ * Handshakes are reported to the {@link HandshakeCounter}.
  */
 @Singleton
 public class SSLContextWithKeysSupplier implements Supplier<SSLContext> {
    private final Supplier<FGCPCredentials> creds;
    private final TrustManager[] trustManager;
+   private final HandshakeCounter handshakes;
+
+   // the context built for the credentials with the fingerprint, guarded by this
+   private HashCode fingerprint;
+   private SSLContext context;
 
    @Inject
    SSLContextWithKeysSupplier(Supplier<FGCPCredentials> creds, HttpUtils utils,
-         TrustAllCerts trustAllCerts) {
+         TrustAllCerts trustAllCerts, HandshakeCounter handshakes) {
+      this(creds, utils.trustAllCerts() ? new TrustManager[] { trustAllCerts } : null, handshakes);
+   }
+
+   @VisibleForTesting
+   SSLContextWithKeysSupplier(Supplier<FGCPCredentials> creds, TrustManager[] trustManager,
+         HandshakeCounter handshakes) {
       this.creds = creds;
-      this.trustManager = utils.trustAllCerts() ? new TrustManager[] { trustAllCerts } : null;
+      this.trustManager = trustManager;
+      this.handshakes = checkNotNull(handshakes, "handshakes");
    }
 
    @Override
-   public SSLContext get() {
+   public synchronized SSLContext get() {
       FGCPCredentials currentCreds = checkNotNull(creds.get(), "fgcpcredential supplier returned null");
+      HashCode currentFingerprint = Hashing.sha256().hashString(
+            checkNotNull(currentCreds.credential, "fgcpcredential's credential is null"), Charsets.UTF_8);
+      if (context == null || !currentFingerprint.equals(fingerprint)) {
+         context = handshakes.countHandshakes(build(currentCreds));
+         fingerprint = currentFingerprint;
+      }
+      return context;
+   }
+
+   private SSLContext build(FGCPCredentials currentCreds) {
       PrivateKey privateKey = checkNotNull(currentCreds.privateKey, "fgcpcredential's privateKey is null");
       Collection<X509Certificate> certs = checkNotNull(currentCreds.certificates, "fgcpcredential's certificates returned null");
 
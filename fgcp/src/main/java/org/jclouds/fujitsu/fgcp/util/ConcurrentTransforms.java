@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Applies a function that makes requests to many inputs with a bounded number
+ * of requests in flight.
+ */
+public final class ConcurrentTransforms {
+
+   /**
+    * Applies the function to all inputs using at most {@code maxConcurrent}
+    * tasks of the executor, each of which takes the next input from a shared
+    * index until none are left. The calling thread only waits for the tasks,
+    * so nested calls never block a pool thread on another task.
+    *
+    * @return the non-null results, in the order of the inputs
+    */
+   public static <I, O> List<O> transform(final List<I> inputs, final Function<? super I, ? extends O> function,
+         int maxConcurrent, ListeningExecutorService executor) {
+      checkNotNull(inputs, "inputs");
+      checkNotNull(function, "function");
+      checkArgument(maxConcurrent > 0, "maxConcurrent must be positive");
+      checkNotNull(executor, "executor");
+
+      final AtomicReferenceArray<O> results = new AtomicReferenceArray<O>(inputs.size());
+      final AtomicInteger next = new AtomicInteger();
+      List<ListenableFuture<?>> workers = Lists.newArrayList();
+      for (int i = 0; i < Math.min(maxConcurrent, inputs.size()); i++) {
+         workers.add(executor.submit(new Runnable() {
+
+            @Override
+            public void run() {
+               for (int index = next.getAndIncrement(); index < inputs.size(); index = next.getAndIncrement()) {
+                  results.set(index, function.apply(inputs.get(index)));
+               }
+            }
+         }));
+      }
+
+      try {
+         Futures.allAsList(workers).get();
+      } catch (ExecutionException e) {
+         cancel(workers);
+         throw Throwables.propagate(e.getCause());
+      } catch (InterruptedException e) {
+         cancel(workers);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+
+      ImmutableList.Builder<O> transformed = ImmutableList.builder();
+      for (int i = 0; i < results.length(); i++) {
+         O result = results.get(i);
+         if (result != null) {
+            transformed.add(result);
+         }
+      }
+      return transformed.build();
+   }
+
+   private static void cancel(List<ListenableFuture<?>> workers) {
+      for (ListenableFuture<?> worker : workers) {
+         worker.cancel(true);
+      }
+   }
+
+   private ConcurrentTransforms() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
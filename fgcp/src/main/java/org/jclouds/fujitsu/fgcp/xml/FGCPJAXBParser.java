@@ -28,6 +28,8 @@ import org.jclouds.fujitsu.fgcp.domain.VServerWithDetails;
 import org.jclouds.fujitsu.fgcp.xml.internal.ListServerTypeResponse;
 import org.jclouds.xml.XMLParser;
 
+import com.google.common.base.Throwables;
+
 /**
  * Parses XML documents using JAXB.
  * 
@@ -37,6 +39,21 @@ import org.jclouds.xml.XMLParser;
 public class FGCPJAXBParser implements XMLParser {
    JAXBContext context;
 
+   /**
+    * Unmarshallers are not thread-safe but relatively expensive to create, so
+    * each thread reuses its own.
+    */
+   private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>() {
+      @Override
+      protected Unmarshaller initialValue() {
+         try {
+            return context.createUnmarshaller();
+         } catch (JAXBException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+   };
+
    public FGCPJAXBParser() throws JAXBException {
       context = JAXBContext.newInstance(VServerWithDetails.class.getPackage()
             .getName()
@@ -65,7 +82,7 @@ public class FGCPJAXBParser implements XMLParser {
       try {
          StringReader reader = new StringReader(xml);
 
-         Unmarshaller unmarshaller = context.createUnmarshaller();
+         Unmarshaller unmarshaller = unmarshallers.get();
 
          response = (T) unmarshaller.unmarshal(reader);
       } catch (Exception ex) {
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.compute.functions;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.fujitsu.fgcp.compute.strategy.VServerMetadata;
+import org.jclouds.fujitsu.fgcp.domain.VServerStatus;
+import org.jclouds.fujitsu.fgcp.domain.VServerWithDetails;
+import org.jclouds.fujitsu.fgcp.xml.FGCPJAXBParser;
+import org.jclouds.fujitsu.fgcp.xml.internal.GetVServerConfigurationResponse;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Resources;
+
+@Test(groups = "unit", testName = "VServerMetadataToNodeMetadataTest")
+public class VServerMetadataToNodeMetadataTest {
+
+   private VServerWithDetails server;
+   private VServerMetadataToNodeMetadata function;
+   private AtomicInteger passwordRequests;
+
+   @BeforeMethod
+   public void setup() throws Exception {
+      String xml = Resources.toString(getClass().getResource("/responses/GetVServerConfiguration-response.xml"),
+            Charsets.UTF_8);
+      server = (VServerWithDetails) new FGCPJAXBParser().fromXML(xml, GetVServerConfigurationResponse.class)
+            .getElement();
+
+      Image image = new ImageBuilder().id(server.getDiskimageId()).providerId(server.getDiskimageId())
+            .name("CentOS 5.4 32bit (English)").status(Image.Status.AVAILABLE)
+            .operatingSystem(OperatingSystem.builder().description("CentOS 5.4 32bit (English)")
+                  .family(OsFamily.CENTOS).build())
+            .defaultCredentials(LoginCredentials.builder().user("root").build()).build();
+
+      GroupNamingConvention namingConvention = createMock(GroupNamingConvention.class);
+      GroupNamingConvention.Factory namingConventionFactory = createMock(GroupNamingConvention.Factory.class);
+      expect(namingConventionFactory.createWithoutPrefix()).andReturn(namingConvention);
+      expect(namingConvention.groupInUniqueNameOrNull(isA(String.class))).andReturn(null).anyTimes();
+      replay(namingConvention, namingConventionFactory);
+
+      function = new VServerMetadataToNodeMetadata(Suppliers.<Set<? extends Location>> ofInstance(
+            ImmutableSet.<Location> of()), Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(image)),
+            Suppliers.<Set<? extends Hardware>> ofInstance(ImmutableSet.<Hardware> of()), namingConventionFactory);
+      passwordRequests = new AtomicInteger();
+   }
+
+   public void testPasswordIsNotFetchedWhenNotLoaded() {
+      VServerMetadata metadata = VServerMetadata.builder().serverWithDetails(server).status(VServerStatus.RUNNING)
+            .initialPassword(passwordLoader()).build();
+
+      NodeMetadata node = function.apply(metadata);
+
+      assertEquals(node.getCredentials().getUser(), "root");
+      assertFalse(node.getCredentials().getOptionalPassword().isPresent());
+      assertEquals(passwordRequests.get(), 0);
+   }
+
+   public void testPasswordIsSetOnceLoaded() {
+      VServerMetadata metadata = VServerMetadata.builder().serverWithDetails(server).status(VServerStatus.RUNNING)
+            .initialPassword(passwordLoader()).build();
+      metadata.getInitialPassword();
+
+      NodeMetadata node = function.apply(metadata);
+
+      assertEquals(node.getCredentials().getOptionalPassword().get(), "password");
+      assertEquals(passwordRequests.get(), 1);
+   }
+
+   private Supplier<String> passwordLoader() {
+      return new Supplier<String>() {
+         @Override
+         public String get() {
+            passwordRequests.incrementAndGet();
+            return "password";
+         }
+      };
+   }
+}
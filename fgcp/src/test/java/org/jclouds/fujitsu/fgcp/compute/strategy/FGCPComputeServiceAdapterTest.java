@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.classextension.EasyMock.createMock;
+import static org.easymock.classextension.EasyMock.replay;
+import static org.easymock.classextension.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.IAnswer;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.fujitsu.fgcp.FGCPApi;
+import org.jclouds.fujitsu.fgcp.compute.functions.ResourceIdToFirewallId;
+import org.jclouds.fujitsu.fgcp.compute.functions.ResourceIdToSystemId;
+import org.jclouds.fujitsu.fgcp.compute.predicates.ServerStarted;
+import org.jclouds.fujitsu.fgcp.compute.predicates.ServerStopped;
+import org.jclouds.fujitsu.fgcp.domain.VServerStatus;
+import org.jclouds.fujitsu.fgcp.domain.VServerWithDetails;
+import org.jclouds.fujitsu.fgcp.domain.VSystem;
+import org.jclouds.fujitsu.fgcp.domain.VSystemWithDetails;
+import org.jclouds.fujitsu.fgcp.services.VirtualDCApi;
+import org.jclouds.fujitsu.fgcp.services.VirtualServerApi;
+import org.jclouds.fujitsu.fgcp.services.VirtualSystemApi;
+import org.jclouds.fujitsu.fgcp.xml.FGCPJAXBParser;
+import org.jclouds.fujitsu.fgcp.xml.internal.GetVSYSConfigurationResponse;
+import org.jclouds.fujitsu.fgcp.xml.internal.GetVServerConfigurationResponse;
+import org.jclouds.fujitsu.fgcp.xml.internal.ListVSYSResponse;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Resources;
+
+@Test(groups = "unit", testName = "FGCPComputeServiceAdapterTest")
+public class FGCPComputeServiceAdapterTest {
+
+   // servers of the system in GetVSYSConfiguration-response.xml
+   private static final String FIREWALL = "ABCDEFGH-I123J456K-S-0001";
+   private static final String SERVER = "ABCDEFGH-I123J456K-S-0003";
+   private static final String OTHER_SERVER = "ABCDEFGH-I123J456K-S-0004";
+
+   private VSystem system;
+   private VSystem otherSystem;
+   private VSystemWithDetails systemDetails;
+
+   private FGCPApi api;
+   private VirtualDCApi dcApi;
+   private VirtualSystemApi systemApi;
+   private VirtualServerApi serverApi;
+
+   @BeforeMethod
+   public void setup() throws Exception {
+      List<VSystem> systems = ImmutableList.copyOf(parse(read("/responses/ListVSYS-response.xml"),
+            ListVSYSResponse.class));
+      system = systems.get(0);
+      otherSystem = systems.get(1);
+      systemDetails = (VSystemWithDetails) parse(read("/responses/GetVSYSConfiguration-response.xml"),
+            GetVSYSConfigurationResponse.class).getElement();
+
+      api = createMock(FGCPApi.class);
+      dcApi = createMock(VirtualDCApi.class);
+      systemApi = createMock(VirtualSystemApi.class);
+      serverApi = createMock(VirtualServerApi.class);
+      expect(api.getVirtualDCApi()).andReturn(dcApi).anyTimes();
+      expect(api.getVirtualSystemApi()).andReturn(systemApi).anyTimes();
+      expect(api.getVirtualServerApi()).andReturn(serverApi).anyTimes();
+   }
+
+   public void testListNodesDropsSystemsAndServersDeletedWhileListing() throws Exception {
+      expect(dcApi.listVirtualSystems()).andReturn(ImmutableSet.of(system, otherSystem));
+      expect(systemApi.getDetails(system.getId())).andReturn(systemDetails);
+      expect(systemApi.getDetails(otherSystem.getId())).andThrow(new ResourceNotFoundException("not found"));
+      // the firewall is skipped without any request
+      expect(serverApi.getDetails(SERVER)).andReturn(serverDetails(SERVER, "economy"));
+      expect(serverApi.getStatus(SERVER)).andReturn(VServerStatus.RUNNING);
+      expect(serverApi.getInitialPassword(SERVER)).andReturn("password");
+      expect(serverApi.getDetails(OTHER_SERVER)).andThrow(new ResourceNotFoundException("not found"));
+      replay(api, dcApi, systemApi, serverApi);
+
+      VServerMetadata node = Iterables.getOnlyElement(adapter(10, false).listNodes());
+      assertEquals(node.getId(), SERVER);
+      assertEquals(node.getStatus(), VServerStatus.RUNNING);
+      assertEquals(node.getInitialPassword(), "password");
+
+      verify(api, dcApi, systemApi, serverApi);
+   }
+
+   public void testListNodesSummaryFetchesTheInitialPasswordOnlyWhenRequested() throws Exception {
+      final AtomicInteger passwordRequests = new AtomicInteger();
+      expect(dcApi.listVirtualSystems()).andReturn(ImmutableSet.of(system));
+      expect(systemApi.getDetails(system.getId())).andReturn(systemDetails);
+      // the firewall is skipped without any request
+      expect(serverApi.getStatus(SERVER)).andReturn(VServerStatus.RUNNING);
+      expect(serverApi.getStatus(OTHER_SERVER)).andThrow(new ResourceNotFoundException("not found"));
+      expect(serverApi.getInitialPassword(SERVER)).andAnswer(new IAnswer<String>() {
+         @Override
+         public String answer() {
+            passwordRequests.incrementAndGet();
+            return "password";
+         }
+      }).anyTimes();
+      replay(api, dcApi, systemApi, serverApi);
+
+      VServerMetadata node = Iterables.getOnlyElement(adapter(10, true).listNodes());
+      assertEquals(node.getId(), SERVER);
+      assertEquals(node.getStatus(), VServerStatus.RUNNING);
+      assertFalse(node.isInitialPasswordLoaded());
+      assertEquals(passwordRequests.get(), 0);
+
+      assertEquals(node.getInitialPassword(), "password");
+      assertEquals(node.getInitialPassword(), "password");
+      assertTrue(node.isInitialPasswordLoaded());
+      assertEquals(passwordRequests.get(), 1);
+
+      verify(api, dcApi, systemApi, serverApi);
+   }
+
+   public void testListNodesByIdsGetsFewNodesDirectly() throws Exception {
+      expect(serverApi.getDetails(SERVER)).andReturn(serverDetails(SERVER, "economy"));
+      expect(serverApi.getStatus(SERVER)).andReturn(VServerStatus.STOPPED);
+      expect(serverApi.getInitialPassword(SERVER)).andReturn("password");
+      expect(serverApi.getDetails(OTHER_SERVER)).andThrow(new ResourceNotFoundException("not found"));
+      expect(serverApi.getDetails(FIREWALL)).andReturn(serverDetails(FIREWALL, "firewall"));
+      replay(api, dcApi, systemApi, serverApi);
+
+      VServerMetadata node = Iterables.getOnlyElement(adapter(3, false).listNodesByIds(
+            ImmutableList.of(SERVER, OTHER_SERVER, FIREWALL)));
+      assertEquals(node.getId(), SERVER);
+      assertEquals(node.getStatus(), VServerStatus.STOPPED);
+
+      verify(api, dcApi, systemApi, serverApi);
+   }
+
+   public void testListNodesByIdsFiltersAllNodesForManyIds() throws Exception {
+      expect(dcApi.listVirtualSystems()).andReturn(ImmutableSet.of(system));
+      expect(systemApi.getDetails(system.getId())).andReturn(systemDetails);
+      expect(serverApi.getStatus(SERVER)).andReturn(VServerStatus.RUNNING);
+      expect(serverApi.getStatus(OTHER_SERVER)).andReturn(VServerStatus.RUNNING);
+      replay(api, dcApi, systemApi, serverApi);
+
+      VServerMetadata node = Iterables.getOnlyElement(adapter(1, true).listNodesByIds(
+            ImmutableList.of(SERVER, FIREWALL)));
+      assertEquals(node.getId(), SERVER);
+
+      verify(api, dcApi, systemApi, serverApi);
+   }
+
+   private FGCPComputeServiceAdapter adapter(int maxDirectNodeGets, boolean listNodesSummary) {
+      return new FGCPComputeServiceAdapter(api, new ServerStopped(api), new ServerStarted(api), new Timeouts(),
+            createMock(ResourceIdToFirewallId.class), new ResourceIdToSystemId(), maxDirectNodeGets,
+            newDirectExecutorService(), 2, 2, listNodesSummary,
+            new SystemOperationScheduler(Predicates.<String> alwaysTrue(), new ResourceIdToSystemId()));
+   }
+
+   private static VServerWithDetails serverDetails(String id, String type) throws Exception {
+      String xml = read("/responses/GetVServerConfiguration-response.xml")
+            .replace("CONTRACT-VSYS00001-S-0005", id)
+            .replace("<vserverType>economy</vserverType>", "<vserverType>" + type + "</vserverType>");
+      return (VServerWithDetails) parse(xml, GetVServerConfigurationResponse.class).getElement();
+   }
+
+   private static String read(String resource) throws Exception {
+      return Resources.toString(FGCPComputeServiceAdapterTest.class.getResource(resource), Charsets.UTF_8);
+   }
+
+   private static <T> T parse(String xml, Class<T> type) throws Exception {
+      return new FGCPJAXBParser().fromXML(xml, type);
+   }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.compute.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.fujitsu.fgcp.compute.functions.ResourceIdToSystemId;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "SystemOperationSchedulerTest")
+public class SystemOperationSchedulerTest {
+
+   private static final String SYSTEM = "ABCDEFGH-I123J456K";
+   private static final String OTHER_SYSTEM = "ABCDEFGH-L654J321I";
+
+   public void testOperationsOnOneSystemRunOneAtATime() throws Exception {
+      final AtomicInteger statusChecks = new AtomicInteger();
+      final SystemOperationScheduler scheduler = new SystemOperationScheduler(new Predicate<String>() {
+         @Override
+         public boolean apply(String systemId) {
+            assertEquals(systemId, SYSTEM);
+            statusChecks.incrementAndGet();
+            return true;
+         }
+      }, new ResourceIdToSystemId());
+
+      final AtomicBoolean running = new AtomicBoolean();
+      final AtomicBoolean overlapped = new AtomicBoolean();
+      ExecutorService executor = Executors.newFixedThreadPool(5);
+      try {
+         List<Future<String>> results = Lists.newArrayList();
+         for (int i = 0; i < 5; i++) {
+            final String serverId = SYSTEM + "-S-000" + i;
+            results.add(executor.submit(new Callable<String>() {
+               @Override
+               public String call() {
+                  return scheduler.execute(serverId, new Supplier<String>() {
+                     @Override
+                     public String get() {
+                        if (!running.compareAndSet(false, true)) {
+                           overlapped.set(true);
+                        }
+                        try {
+                           Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                           Thread.currentThread().interrupt();
+                        }
+                        running.set(false);
+                        return serverId;
+                     }
+                  });
+               }
+            }));
+         }
+         for (int i = 0; i < 5; i++) {
+            assertEquals(results.get(i).get(), SYSTEM + "-S-000" + i);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertFalse(overlapped.get());
+      // every operation but the first waits for the system to be NORMAL
+      assertEquals(statusChecks.get(), 4);
+      assertEquals(scheduler.getOperationCount(), 5);
+      assertEquals(scheduler.getQueueDepth(), 0);
+   }
+
+   public void testOperationsOnDifferentSystemsRunInParallel() throws Exception {
+      final SystemOperationScheduler scheduler = new SystemOperationScheduler(new Predicate<String>() {
+         @Override
+         public boolean apply(String systemId) {
+            return true;
+         }
+      }, new ResourceIdToSystemId());
+
+      final CountDownLatch bothRunning = new CountDownLatch(2);
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         List<Future<Boolean>> results = Lists.newArrayList();
+         for (final String systemId : new String[] { SYSTEM, OTHER_SYSTEM }) {
+            results.add(executor.submit(new Callable<Boolean>() {
+               @Override
+               public Boolean call() {
+                  return scheduler.execute(systemId + "-N-DMZ", new Supplier<Boolean>() {
+                     @Override
+                     public Boolean get() {
+                        bothRunning.countDown();
+                        try {
+                           return bothRunning.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                           Thread.currentThread().interrupt();
+                           return false;
+                        }
+                     }
+                  });
+               }
+            }));
+         }
+         for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testSystemNotReturningToNormal() {
+      SystemOperationScheduler scheduler = new SystemOperationScheduler(new Predicate<String>() {
+         @Override
+         public boolean apply(String systemId) {
+            return false;
+         }
+      }, new ResourceIdToSystemId());
+
+      Supplier<Void> operation = new Supplier<Void>() {
+         @Override
+         public Void get() {
+            return null;
+         }
+      };
+      scheduler.execute(SYSTEM, operation);
+      scheduler.execute(SYSTEM, operation);
+   }
+}
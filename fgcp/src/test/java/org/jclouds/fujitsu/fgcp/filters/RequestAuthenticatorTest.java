@@ -16,21 +16,43 @@
  */
 package org.jclouds.fujitsu.fgcp.filters;
 
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.io.BaseEncoding.base64;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
 import java.util.Calendar;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Provider;
 
 import org.jclouds.fujitsu.fgcp.FGCPCredentials;
 import org.jclouds.fujitsu.fgcp.filters.RequestAuthenticator.SignatureForCredentials;
+import org.jclouds.fujitsu.fgcp.filters.RequestAuthenticator.SignedAccessKeyId;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.internal.SignatureWire;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 public class RequestAuthenticatorTest {
 
@@ -48,7 +70,7 @@ public class RequestAuthenticatorTest {
       }
    };
    RequestAuthenticator a = new RequestAuthenticator(creds, new SignatureForCredentials(), calendarProvider,
-   new HttpUtils(0, 0, 0, 0), new SignatureWire(), "");
+   new HttpUtils(0, 0, 0, 0), new SignatureWire(), "", 60000);
 
    @Test
    public void testGenerateAccessKeyIdWithNewline() throws Exception {
@@ -158,4 +180,98 @@ public class RequestAuthenticatorTest {
             newRequest.getRequestLine(),
             "GET https://api.globalcloud.fujitsu.com.au/ovissapi/endpoint?Version=2012-02-18&Locale=en&AccessKeyId=accessKeyId%0AWith/And%2BAnd%3D&Signature=signature%0AWith/And%2BAnd%3D HTTP/1.1");
    }
+
+   @Test
+   public void testSignedAccessKeyIdReusedWithinReusePeriod() throws Exception {
+      KeyPair keyPair = generateKeyPair();
+      final AtomicReference<FGCPCredentials> current = new AtomicReference<FGCPCredentials>(
+            credentials("user", keyPair));
+      final AtomicLong now = new AtomicLong(1358747939000L);
+      RequestAuthenticator authenticator = new RequestAuthenticator(new Supplier<FGCPCredentials>() {
+         @Override
+         public FGCPCredentials get() {
+            return current.get();
+         }
+      }, new SignatureForCredentials(), new Provider<Calendar>() {
+         public Calendar get() {
+            Calendar c = Calendar.getInstance(TimeZone.getTimeZone("Australia/Sydney"));
+            c.setTimeInMillis(now.get());
+            return c;
+         }
+      }, new HttpUtils(0, 0, 0, 0), new SignatureWire(), "", 60000);
+
+      SignedAccessKeyId first = authenticator.signedAccessKeyId();
+      assertEquals(first.accessKeyId, a.generateAccessKeyId());
+      assertTrue(verify(keyPair, first.accessKeyId, first.signature));
+
+      now.addAndGet(59999);
+      assertSame(authenticator.signedAccessKeyId(), first);
+
+      now.addAndGet(1);
+      SignedAccessKeyId expired = authenticator.signedAccessKeyId();
+      assertFalse(expired.accessKeyId.equals(first.accessKeyId));
+      assertTrue(verify(keyPair, expired.accessKeyId, expired.signature));
+
+      current.set(credentials("other", keyPair));
+      SignedAccessKeyId otherCredentials = authenticator.signedAccessKeyId();
+      assertNotSame(otherCredentials, expired);
+      assertEquals(otherCredentials.creds, current.get());
+   }
+
+   @Test
+   public void testConcurrentSigningProducesValidSignatures() throws Exception {
+      final KeyPair keyPair = generateKeyPair();
+      final FGCPCredentials fgcpCreds = credentials("user", keyPair);
+      final RequestAuthenticator authenticator = new RequestAuthenticator(new Supplier<FGCPCredentials>() {
+         @Override
+         public FGCPCredentials get() {
+            return fgcpCreds;
+         }
+      }, new SignatureForCredentials(), calendarProvider, new HttpUtils(0, 0, 0, 0), new SignatureWire(), "", 0);
+
+      final int threads = 4;
+      final CountDownLatch start = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+         List<Future<Boolean>> results = Lists.newArrayList();
+         for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Boolean>() {
+               @Override
+               public Boolean call() throws Exception {
+                  start.await();
+                  boolean valid = true;
+                  for (int i = 0; i < 10; i++) {
+                     String stringToSign = "thread" + thread + "-request" + i;
+                     valid &= verify(keyPair, stringToSign, authenticator.sign(stringToSign));
+                  }
+                  return valid;
+               }
+            }));
+         }
+         start.countDown();
+         for (Future<Boolean> result : results) {
+            assertTrue(result.get(30, TimeUnit.SECONDS), "invalid signature produced concurrently");
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static boolean verify(KeyPair keyPair, String signed, String signature) throws Exception {
+      Signature verifier = Signature.getInstance(RequestAuthenticator.SIGNATURE_METHOD);
+      verifier.initVerify(keyPair.getPublic());
+      verifier.update(signed.getBytes(UTF_8));
+      return verifier.verify(base64().withSeparator("\n", 61).decode(signature));
+   }
+
+   private static KeyPair generateKeyPair() throws Exception {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(1024);
+      return generator.generateKeyPair();
+   }
+
+   private static FGCPCredentials credentials(String identity, KeyPair keyPair) {
+      return new FGCPCredentials(identity, "credential", keyPair.getPrivate(), ImmutableList.<X509Certificate> of());
+   }
 }
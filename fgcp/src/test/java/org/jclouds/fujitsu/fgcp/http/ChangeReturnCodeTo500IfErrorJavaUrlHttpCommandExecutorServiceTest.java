@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.http;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.jclouds.fujitsu.fgcp.http.ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorService.isSuccess;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.testng.annotations.Test;
+
+import com.google.common.io.Resources;
+
+@Test(groups = "unit", testName = "ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorServiceTest")
+public class ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorServiceTest {
+
+   public void testSuccessResponse() throws IOException {
+      assertTrue(isSuccess(resource("/responses/AttachVDisk-response.xml")));
+   }
+
+   public void testLargeSuccessResponse() throws IOException {
+      assertTrue(isSuccess(resource("/responses/ListDiskImage-response.xml")));
+   }
+
+   public void testErrorResponse() throws IOException {
+      assertFalse(isSuccess(resource("/responses/Auth_UserNotInSelectData-response.xml")));
+   }
+
+   public void testResponseWithoutStatus() {
+      assertFalse(isSuccess("<ListVSYSResponse><vsyss/></ListVSYSResponse>".getBytes(UTF_8)));
+   }
+
+   public void testNonXmlResponse() {
+      assertFalse(isSuccess("<html><body>Service Unavailable".getBytes(UTF_8)));
+      assertFalse(isSuccess("Service Unavailable".getBytes(UTF_8)));
+   }
+
+   private static byte[] resource(String name) throws IOException {
+      return Resources.toByteArray(
+            ChangeReturnCodeTo500IfErrorJavaUrlHttpCommandExecutorServiceTest.class.getResource(name));
+   }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.location;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.classextension.EasyMock.createMock;
+import static org.easymock.classextension.EasyMock.replay;
+import static org.easymock.classextension.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Set;
+
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.fujitsu.fgcp.FGCPApi;
+import org.jclouds.fujitsu.fgcp.domain.VSystem;
+import org.jclouds.fujitsu.fgcp.domain.VSystemWithDetails;
+import org.jclouds.fujitsu.fgcp.services.VirtualDCApi;
+import org.jclouds.fujitsu.fgcp.services.VirtualSystemApi;
+import org.jclouds.fujitsu.fgcp.xml.FGCPJAXBParser;
+import org.jclouds.fujitsu.fgcp.xml.internal.GetVSYSConfigurationResponse;
+import org.jclouds.fujitsu.fgcp.xml.internal.ListVSYSResponse;
+import org.jclouds.location.suppliers.all.RegionToProviderOrJustProvider;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Resources;
+
+@Test(groups = "unit", testName = "SystemAndNetworkSegmentToLocationSupplierTest")
+public class SystemAndNetworkSegmentToLocationSupplierTest {
+
+   private static final Location REGION = new LocationBuilder().scope(LocationScope.REGION).id("au/nsw")
+         .description("au/nsw").build();
+
+   public void testOnlyNewSystemsAreFetched() throws Exception {
+      Set<VSystem> systems = parse("/responses/ListVSYS-response.xml", ListVSYSResponse.class);
+      VSystem first = Iterables.get(systems, 0);
+      VSystem second = Iterables.get(systems, 1);
+      VSystemWithDetails details = (VSystemWithDetails) parse("/responses/GetVSYSConfiguration-response.xml",
+            GetVSYSConfigurationResponse.class).getElement();
+
+      FGCPApi api = createMock(FGCPApi.class);
+      VirtualDCApi dcApi = createMock(VirtualDCApi.class);
+      VirtualSystemApi systemApi = createMock(VirtualSystemApi.class);
+      RegionToProviderOrJustProvider regionProvider = createMock(RegionToProviderOrJustProvider.class);
+
+      expect(api.getVirtualDCApi()).andReturn(dcApi).anyTimes();
+      expect(api.getVirtualSystemApi()).andReturn(systemApi).anyTimes();
+      expectRegions(regionProvider);
+      // initial listing, unchanged listing, one system added, one removed
+      expect(dcApi.listVirtualSystems()).andReturn(ImmutableSet.of(first)).times(2);
+      expect(dcApi.listVirtualSystems()).andReturn(ImmutableSet.of(first, second));
+      expect(dcApi.listVirtualSystems()).andReturn(ImmutableSet.of(second));
+      expect(systemApi.getDetails(first.getId())).andReturn(details).once();
+      expect(systemApi.getDetails(second.getId())).andReturn(details).once();
+      replay(api, dcApi, systemApi, regionProvider);
+
+      SystemAndNetworkSegmentToLocationSupplier supplier = new SystemAndNetworkSegmentToLocationSupplier(
+            regionProvider, api, newDirectExecutorService(), 2);
+
+      Set<Location> initial = supplier.get();
+      assertEquals(initial.size(), details.getNetworks().size());
+      Location network = Iterables.get(initial, 0);
+      assertEquals(network.getScope(), LocationScope.NETWORK);
+      assertEquals(network.getParent().getId(), first.getId());
+      assertEquals(network.getParent().getParent(), REGION);
+
+      assertSame(supplier.get(), initial);
+
+      Set<Location> withSecond = supplier.get();
+      assertEquals(withSecond.size(), 2 * details.getNetworks().size());
+
+      Set<Location> withoutFirst = supplier.get();
+      assertEquals(withoutFirst.size(), details.getNetworks().size());
+      assertEquals(Iterables.get(withoutFirst, 0).getParent().getId(), second.getId());
+
+      verify(api, dcApi, systemApi, regionProvider);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private static void expectRegions(RegionToProviderOrJustProvider regionProvider) {
+      expect((Set) regionProvider.get()).andReturn(ImmutableSet.of(REGION)).once();
+   }
+
+   private static <T> T parse(String resource, Class<T> type) throws Exception {
+      String xml = Resources.toString(SystemAndNetworkSegmentToLocationSupplierTest.class.getResource(resource),
+            Charsets.UTF_8);
+      return new FGCPJAXBParser().fromXML(xml, type);
+   }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.performance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Set;
+
+import org.jclouds.fujitsu.fgcp.domain.PerformanceInfo;
+import org.jclouds.fujitsu.fgcp.xml.FGCPJAXBParser;
+import org.jclouds.fujitsu.fgcp.xml.internal.GetPerformanceInformationResponse;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "PerformanceStoreTest")
+public class PerformanceStoreTest {
+
+   private static final String SERVER = "CONTRACT-VSYS00001-S-0001";
+   private static final long MINUTES_10 = 600000;
+
+   public void testOnlyNewerRecordsAreAppended() throws Exception {
+      PerformanceStore store = PerformanceStore.inMemory("10minute", 10);
+
+      assertEquals(store.append(SERVER, records(3, 0)), 3);
+      // overlapping pull: only the last two records are new
+      assertEquals(store.append(SERVER, records(3, 2)), 2);
+      assertEquals(store.getRecordCount(SERVER), 5);
+      assertEquals(store.getLatestRecordTime(SERVER), 4 * MINUTES_10);
+      assertEquals(store.getLatestRecordTime("unknown"), Long.MIN_VALUE);
+   }
+
+   public void testRollups() throws Exception {
+      PerformanceStore store = PerformanceStore.inMemory("10minute", 10);
+      store.append(SERVER, records(6, 0));
+
+      // cpu of record i is 10 * i, nic input bytes are 600 * i
+      assertEquals(store.average(SERVER, Metric.CPU_UTILIZATION, 0, 3 * MINUTES_10), 10.0);
+      assertEquals(store.max(SERVER, Metric.CPU_UTILIZATION, 0, 6 * MINUTES_10), 50.0);
+      assertEquals(store.rate(SERVER, Metric.NIC_INPUT_BYTES, 0, 2 * MINUTES_10), 600.0 / 1200);
+      assertTrue(Double.isNaN(store.average(SERVER, Metric.CPU_UTILIZATION, 10 * MINUTES_10, 11 * MINUTES_10)));
+
+      double[] averages = store.averages(SERVER, Metric.CPU_UTILIZATION, 0, 8 * MINUTES_10, 2 * MINUTES_10);
+      assertEquals(averages.length, 4);
+      assertEquals(averages[0], 5.0);
+      assertEquals(averages[1], 25.0);
+      assertEquals(averages[2], 45.0);
+      assertTrue(Double.isNaN(averages[3]));
+   }
+
+   public void testOldestRecordsAreOverwritten() throws Exception {
+      PerformanceStore store = PerformanceStore.inMemory("10minute", 4);
+      store.append(SERVER, records(6, 0));
+
+      assertEquals(store.getRecordCount(SERVER), 4);
+      assertEquals(store.average(SERVER, Metric.CPU_UTILIZATION, 0, 6 * MINUTES_10), 35.0);
+   }
+
+   public void testMappedStoreSurvivesReopening() throws Exception {
+      File directory = Files.createTempDir();
+      try {
+         PerformanceStore store = PerformanceStore.open(directory, "10minute", 4);
+         store.append(SERVER, records(5, 0));
+         store.close();
+
+         store = PerformanceStore.open(directory, "10minute", 4);
+         assertEquals(store.getRecordCount(SERVER), 4);
+         assertEquals(store.getLatestRecordTime(SERVER), 4 * MINUTES_10);
+         assertEquals(store.append(SERVER, records(2, 4)), 1);
+         assertEquals(store.max(SERVER, Metric.CPU_UTILIZATION, 0, 6 * MINUTES_10), 50.0);
+         store.close();
+      } finally {
+         for (File file : directory.listFiles()) {
+            file.delete();
+         }
+         directory.delete();
+      }
+   }
+
+   /**
+    * Parses records {@code first} to {@code first + count - 1}, in reverse
+    * order, with record i taken at i * 10 minutes.
+    */
+   static Set<PerformanceInfo> records(int count, int first) throws Exception {
+      StringBuilder xml = new StringBuilder(
+            "<GetPerformanceInformationResponse xmlns=\"http://apioviss.jp.fujitsu.com\">"
+                  + "<responseStatus>SUCCESS</responseStatus><performanceinfos>");
+      for (int i = first + count - 1; i >= first; i--) {
+         xml.append("<performanceinfo>")
+               .append("<recordTime>").append(i * MINUTES_10).append("</recordTime>")
+               .append("<cpuUtilization>").append(10.0 * i).append("</cpuUtilization>")
+               .append("<nicInputByte>").append(600 * i).append("</nicInputByte>")
+               .append("</performanceinfo>");
+      }
+      xml.append("</performanceinfos></GetPerformanceInformationResponse>");
+      return new FGCPJAXBParser().fromXML(xml.toString(), GetPerformanceInformationResponse.class);
+   }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.fujitsu.fgcp.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.fujitsu.fgcp.FGCPCredentials;
+import org.jclouds.fujitsu.fgcp.suppliers.FGCPCredentialsSupplier.FGCPCredentialsForCredentials;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.io.Resources;
+
+/**
+ * Unit tests for the {@link SSLContextWithKeysSupplier} class.
+ */
+@Test(groups = "unit", testName = "SSLContextWithKeysSupplierTest")
+public class SSLContextWithKeysSupplierTest {
+
+   public void testContextIsBuiltOncePerCredentials() throws Exception {
+      String pem = Resources.toString(getClass().getResource("/certs/jclouds-test-fgcp.pem"), Charsets.UTF_8);
+      FGCPCredentialsForCredentials loader = new FGCPCredentialsForCredentials();
+      final AtomicReference<FGCPCredentials> creds = new AtomicReference<FGCPCredentials>(
+            loader.load(new Credentials("user", pem)));
+      Supplier<FGCPCredentials> credsSupplier = new Supplier<FGCPCredentials>() {
+         @Override
+         public FGCPCredentials get() {
+            return creds.get();
+         }
+      };
+      HandshakeCounter handshakes = new HandshakeCounter();
+      SSLContextWithKeysSupplier contexts = new SSLContextWithKeysSupplier(credsSupplier, null, handshakes);
+
+      SSLContext context = contexts.get();
+      assertSame(contexts.get(), context);
+      // connections are kept alive per socket factory
+      assertSame(context.getSocketFactory(), context.getSocketFactory());
+
+      // reloading the same pem does not rebuild the context
+      creds.set(loader.load(new Credentials("user", pem)));
+      assertSame(contexts.get(), context);
+
+      creds.set(loader.load(new Credentials("user", pem + "\n")));
+      assertNotSame(contexts.get(), context);
+
+      assertEquals(handshakes.getFullHandshakes(), 0);
+      assertEquals(handshakes.getResumedHandshakes(), 0);
+   }
+}
@@ -53,6 +53,11 @@ public class JoyentCloudApiMetadata extends BaseHttpApiMetadata {
       properties.setProperty("jclouds.ssh.max-retries", "7");
       properties.setProperty("jclouds.ssh.retry-auth", "true");
       properties.setProperty(JoyentCloudProperties.AUTOGENERATE_KEYS, "true");
+      properties.setProperty(JoyentCloudProperties.SSH_KEY_POOL_SIZE, "0");
+      properties.setProperty(JoyentCloudProperties.MAX_DIRECT_NODE_GETS, "10");
+      properties.setProperty(JoyentCloudProperties.MACHINE_PAGE_SIZE, "1000");
+      properties.setProperty(JoyentCloudProperties.MAX_CONCURRENT_KEY_DELETES, "5");
+      properties.setProperty(JoyentCloudProperties.CHECK_UNTAGGED_MACHINES, "false");
       return properties;
    }
 
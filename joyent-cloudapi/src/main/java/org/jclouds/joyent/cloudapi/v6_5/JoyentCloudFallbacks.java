@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5;
+
+import static org.jclouds.Fallbacks.valOnNotFoundOr404;
+
+import org.jclouds.Fallback;
+import org.jclouds.joyent.cloudapi.v6_5.domain.MachineList;
+
+/**
+ * fallbacks common to joyent cloudapi
+ */
+public final class JoyentCloudFallbacks {
+   private JoyentCloudFallbacks() {
+   }
+
+   /**
+    * Return an empty page of machines on not found errors.
+    */
+   public static final class EmptyMachineListOnNotFoundOr404 implements Fallback<MachineList> {
+      @Override
+      public MachineList createOrPropagate(Throwable from) throws Exception {
+         return valOnNotFoundOr404(MachineList.empty(), from);
+      }
+   }
+}
@@ -16,14 +16,19 @@
  */
 package org.jclouds.joyent.cloudapi.v6_5.compute;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
+import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.MAX_CONCURRENT_KEY_DELETES;
 
-import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
@@ -59,21 +64,27 @@ import org.jclouds.domain.Credentials;
 import org.jclouds.domain.Location;
 import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudApi;
 import org.jclouds.joyent.cloudapi.v6_5.compute.internal.KeyAndPrivateKey;
+import org.jclouds.joyent.cloudapi.v6_5.compute.internal.KeyGroupMatcher;
 import org.jclouds.joyent.cloudapi.v6_5.compute.options.JoyentCloudTemplateOptions;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Key;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatacenterAndName;
 import org.jclouds.joyent.cloudapi.v6_5.features.KeyApi;
-import org.jclouds.joyent.cloudapi.v6_5.predicates.KeyPredicates;
 import org.jclouds.scriptbuilder.functions.InitAdminAccess;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
 @Singleton
@@ -82,6 +93,8 @@ public class JoyentCloudComputeService extends BaseComputeService {
    protected final LoadingCache<DatacenterAndName, KeyAndPrivateKey> keyCache;
    protected final Function<Set<? extends NodeMetadata>, Multimap<String, String>> orphanedGroupsByDatacenterId;
    protected final GroupNamingConvention.Factory namingConvention;
+   private final ListeningExecutorService userExecutor;
+   private final int maxConcurrentKeyDeletes;
 
    @Inject
    protected JoyentCloudComputeService(ComputeServiceContext context, Map<String, Credentials> credentialStore,
@@ -102,7 +115,8 @@ public class JoyentCloudComputeService extends BaseComputeService {
          LoadingCache<DatacenterAndName, KeyAndPrivateKey> keyCache,
          Function<Set<? extends NodeMetadata>, Multimap<String, String>> orphanedGroupsByDatacenterId,
          GroupNamingConvention.Factory namingConvention, Optional<ImageExtension> imageExtension,
-         Optional<SecurityGroupExtension> securityGroupExtension) {
+         Optional<SecurityGroupExtension> securityGroupExtension,
+         @Named(MAX_CONCURRENT_KEY_DELETES) int maxConcurrentKeyDeletes) {
       super(context, credentialStore, images, sizes, locations, listNodesStrategy, getImageStrategy,
             getNodeMetadataStrategy, runNodesAndAddToSetStrategy, rebootNodeStrategy, destroyNodeStrategy,
             startNodeStrategy, stopNodeStrategy, templateBuilderProvider, templateOptionsProvider, nodeRunning,
@@ -112,31 +126,86 @@ public class JoyentCloudComputeService extends BaseComputeService {
       this.keyCache = checkNotNull(keyCache, "keyCache");
       this.orphanedGroupsByDatacenterId = checkNotNull(orphanedGroupsByDatacenterId, "orphanedGroupsByDatacenterId");
       this.namingConvention = checkNotNull(namingConvention, "namingConvention");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(maxConcurrentKeyDeletes > 0, "maxConcurrentKeyDeletes must be positive");
+      this.maxConcurrentKeyDeletes = maxConcurrentKeyDeletes;
    }
 
    @Override
    protected void cleanUpIncidentalResourcesOfDeadNodes(Set<? extends NodeMetadata> deadNodes) {
-      Multimap<String, String> zoneToZoneAndGroupNames = orphanedGroupsByDatacenterId.apply(deadNodes);
-      for (Map.Entry<String, Collection<String>> entry : zoneToZoneAndGroupNames.asMap().entrySet()) {
-         cleanupOrphanedKeysInZone(ImmutableSet.copyOf(entry.getValue()), entry.getKey());
+      Multimap<String, String> datacenterIdToGroups = orphanedGroupsByDatacenterId.apply(deadNodes);
+      if (!datacenterIdToGroups.isEmpty()) {
+         cleanupOrphanedKeys(datacenterIdToGroups);
       }
    }
 
-   private void cleanupOrphanedKeysInZone(Set<String> groups, String datacenterId) {
+   private void cleanupOrphanedKeys(Multimap<String, String> datacenterIdToGroups) {
+      Multimap<String, String> groupToDatacenterIds = Multimaps.invertFrom(datacenterIdToGroups,
+            HashMultimap.<String, String> create());
+      KeyGroupMatcher matcher = new KeyGroupMatcher(namingConvention.create(), groupToDatacenterIds.keySet());
+
+      // keys are not scoped to a datacenter, so they are listed once and matched against all the groups at once
       KeyApi keyApi = novaApi.getKeyApi();
-      for (String group : groups) {
-         for (Key key : Iterables.filter(keyApi.list(),
-               KeyPredicates.nameMatches(namingConvention.create().containsGroup(group)))) {
-            DatacenterAndName datacenterAndName = DatacenterAndName.fromDatacenterAndName(datacenterId, key.getName());
-            logger.debug(">> deleting key(%s)", datacenterAndName);
-            keyApi.delete(key.getName());
-            // TODO: test this clear happens
-            keyCache.invalidate(datacenterAndName);
-            logger.debug("<< deleted key(%s)", datacenterAndName);
+      Map<String, String> orphanedKeyToGroup = Maps.newLinkedHashMap();
+      for (Key key : keyApi.list()) {
+         String group = matcher.groupOrNull(key.getName());
+         if (group != null) {
+            orphanedKeyToGroup.put(key.getName(), group);
          }
+      }
+
+      Set<DatacenterAndName> orphanedCacheEntries = Sets.newHashSet();
+      for (Map.Entry<String, String> datacenterIdAndGroup : datacenterIdToGroups.entries()) {
+         orphanedCacheEntries.add(DatacenterAndName.fromDatacenterAndName(datacenterIdAndGroup.getKey(),
+               namingConvention.create().sharedNameForGroup(datacenterIdAndGroup.getValue())));
+      }
+      Queue<String> deletedKeys = new ConcurrentLinkedQueue<String>();
+      try {
+         deleteKeys(keyApi, orphanedKeyToGroup.keySet(), deletedKeys);
+      } finally {
+         for (String keyName : deletedKeys) {
+            for (String datacenterId : groupToDatacenterIds.get(orphanedKeyToGroup.get(keyName))) {
+               orphanedCacheEntries.add(DatacenterAndName.fromDatacenterAndName(datacenterId, keyName));
+            }
+         }
+         keyCache.invalidateAll(orphanedCacheEntries);
+      }
+   }
 
-         keyCache.invalidate(DatacenterAndName.fromDatacenterAndName(datacenterId, namingConvention.create()
-               .sharedNameForGroup(group)));
+   /**
+    * Deletes the keys with at most {@link #maxConcurrentKeyDeletes} requests at a time, adding the names of the keys
+    * deleted to the queue. Returns once all the keys have been tried.
+    */
+   private void deleteKeys(final KeyApi keyApi, Iterable<String> keyNames, final Queue<String> deletedKeys) {
+      final Queue<String> pendingKeys = new ConcurrentLinkedQueue<String>(ImmutableList.copyOf(keyNames));
+      List<ListenableFuture<?>> workers = Lists.newArrayList();
+      for (int i = Math.min(maxConcurrentKeyDeletes, pendingKeys.size()); i > 0; i--) {
+         workers.add(userExecutor.submit(new Runnable() {
+
+            @Override
+            public void run() {
+               for (String keyName = pendingKeys.poll(); keyName != null; keyName = pendingKeys.poll()) {
+                  logger.debug(">> deleting key(%s)", keyName);
+                  keyApi.delete(keyName);
+                  deletedKeys.add(keyName);
+                  logger.debug("<< deleted key(%s)", keyName);
+               }
+            }
+         }));
+      }
+      Throwable failure = null;
+      for (ListenableFuture<?> worker : workers) {
+         try {
+            worker.get();
+         } catch (ExecutionException e) {
+            failure = failure == null ? e.getCause() : failure;
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         }
+      }
+      if (failure != null) {
+         throw Throwables.propagate(failure);
       }
    }
 
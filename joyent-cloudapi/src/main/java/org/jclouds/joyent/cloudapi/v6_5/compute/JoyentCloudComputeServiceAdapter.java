@@ -18,26 +18,32 @@ package org.jclouds.joyent.cloudapi.v6_5.compute;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
 import static org.jclouds.compute.reference.ComputeServiceConstants.COMPUTE_LOGGER;
+import static org.jclouds.compute.reference.ComputeServiceConstants.NODE_GROUP_KEY;
 import static org.jclouds.compute.util.ComputeServiceUtils.metadataAndTagsAsCommaDelimitedValue;
+import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.MAX_DIRECT_NODE_GETS;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.jclouds.Constants;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LoginCredentials;
 import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudApi;
+import org.jclouds.joyent.cloudapi.v6_5.compute.internal.ConcurrentMachineLister;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Dataset;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Machine.State;
@@ -46,15 +52,26 @@ import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatasetInDatacen
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.PackageInDatacenter;
 import org.jclouds.joyent.cloudapi.v6_5.options.CreateMachineOptions;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachinesOptions;
 import org.jclouds.location.Zone;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.Atomics;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * The adapter used by the JoyentCloudComputeServiceContextModule to interface the
@@ -70,13 +87,21 @@ public class JoyentCloudComputeServiceAdapter implements
    private final JoyentCloudApi cloudApiApi;
    private final Supplier<Set<String>> datacenterIds;
    private final Timeouts timeouts;
+   private final int maxDirectNodeGets;
+   private final ConcurrentMachineLister machineLister;
+   private final ListeningExecutorService userExecutor;
 
    @Inject
    public JoyentCloudComputeServiceAdapter(JoyentCloudApi cloudApiApi, @Zone Supplier<Set<String>> datacenterIds,
-         Timeouts timeouts) {
+         Timeouts timeouts, @Named(MAX_DIRECT_NODE_GETS) int maxDirectNodeGets,
+         ConcurrentMachineLister machineLister,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       this.cloudApiApi = checkNotNull(cloudApiApi, "cloudApiApi");
       this.datacenterIds = checkNotNull(datacenterIds, "datacenterIds");
       this.timeouts = checkNotNull(timeouts, "timeouts");
+      this.maxDirectNodeGets = maxDirectNodeGets;
+      this.machineLister = checkNotNull(machineLister, "machineLister");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
    }
 
    @Override
@@ -89,6 +114,8 @@ public class JoyentCloudComputeServiceAdapter implements
       options.name(name);
       options.packageName(template.getHardware().getProviderId());
       options.metadata(metadataAndTagsAsCommaDelimitedValue(template.getOptions()));
+      // metadata can't be used to filter machines, so the group is a tag as well
+      options.tags(ImmutableMap.of(NODE_GROUP_KEY, group));
 
       String datacenterId = template.getLocation().getId();
       String datasetURN = template.getImage().getProviderId();
@@ -139,27 +166,67 @@ public class JoyentCloudComputeServiceAdapter implements
 
    @Override
    public Iterable<MachineInDatacenter> listNodes() {
-      Builder<MachineInDatacenter> builder = ImmutableSet.builder();
-      for (final String datacenterId : datacenterIds.get()) {
-         builder.addAll(transform(cloudApiApi.getMachineApiForDatacenter(datacenterId).list(),
-               new Function<Machine, MachineInDatacenter>() {
-                  public MachineInDatacenter apply(Machine arg0) {
-                     return new MachineInDatacenter(arg0, datacenterId);
-                  }
-               }));
-      }
-      return builder.build();
+      // all pages of all datacenters are listed concurrently
+      return ImmutableSet.copyOf(machineLister.list(datacenterIds.get(), new ListMachinesOptions()));
+   }
+
+   /**
+    * Lists the machines tagged with the group in the given datacenters; the
+    * datacenters are queried concurrently and filtered server-side. Machines
+    * created before the group tag was added are not listed.
+    */
+   public Iterable<MachineInDatacenter> listNodesInGroup(Iterable<String> datacenterIds, String group) {
+      checkNotNull(group, "group");
+      return ImmutableSet.copyOf(machineLister.list(datacenterIds, ListMachinesOptions.Builder.tag(NODE_GROUP_KEY,
+            group)));
    }
 
    @Override
-   public Iterable<MachineInDatacenter> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<MachineInDatacenter>() {
+   public Iterable<MachineInDatacenter> listNodesByIds(Iterable<String> ids) {
+      final Set<String> idSet = ImmutableSet.copyOf(ids);
+
+      // only the datacenters the machines are in are queried
+      Set<String> datacenters = datacenterIds.get();
+      SetMultimap<String, String> idsByDatacenter = LinkedHashMultimap.create();
+      for (String id : idSet) {
+         DatacenterAndId datacenterAndId;
+         try {
+            datacenterAndId = DatacenterAndId.fromSlashEncoded(id);
+         } catch (IllegalArgumentException e) {
+            continue;
+         }
+         if (datacenters.contains(datacenterAndId.getDatacenter())) {
+            idsByDatacenter.put(datacenterAndId.getDatacenter(), datacenterAndId.getId());
+         }
+      }
+
+      // When only a few machines are requested, getting them one by one is cheaper than listing all machines in their
+      // datacenters
+      if (idsByDatacenter.size() <= maxDirectNodeGets) {
+         List<ListenableFuture<MachineInDatacenter>> machines = Lists.newArrayList();
+         for (final String datacenterId : idsByDatacenter.keySet()) {
+            for (final String id : idsByDatacenter.get(datacenterId)) {
+               machines.add(userExecutor.submit(new Callable<MachineInDatacenter>() {
 
-         @Override
-         public boolean apply(MachineInDatacenter machine) {
-            return contains(ids, machine.slashEncode());
+                  @Override
+                  public MachineInDatacenter call() {
+                     Machine machine = cloudApiApi.getMachineApiForDatacenter(datacenterId).get(id);
+                     return machine == null ? null : new MachineInDatacenter(machine, datacenterId);
+                  }
+               }));
+            }
          }
-      });
+         return ImmutableList.copyOf(filter(getUnchecked(Futures.allAsList(machines)), Predicates.notNull()));
+      }
+
+      return ImmutableList.copyOf(filter(machineLister.list(idsByDatacenter.keySet(), new ListMachinesOptions()),
+            new Predicate<MachineInDatacenter>() {
+
+               @Override
+               public boolean apply(MachineInDatacenter machine) {
+                  return idSet.contains(machine.slashEncode());
+               }
+            }));
    }
 
    @Override
@@ -224,4 +291,15 @@ public class JoyentCloudComputeServiceAdapter implements
       DatacenterAndId datacenterAndId = DatacenterAndId.fromSlashEncoded(id);
       cloudApiApi.getMachineApiForDatacenter(datacenterAndId.getDatacenter()).stop(datacenterAndId.getId());
    }
+
+   private static <T> T getUnchecked(ListenableFuture<T> future) {
+      try {
+         return future.get();
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+   }
 }
@@ -17,10 +17,12 @@
 package org.jclouds.joyent.cloudapi.v6_5.compute.config;
 
 import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.AUTOGENERATE_KEYS;
+import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.SSH_KEY_POOL_SIZE;
 
 import java.util.Map;
 import java.util.Set;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.collect.Memoized;
@@ -43,6 +45,7 @@ import org.jclouds.joyent.cloudapi.v6_5.compute.functions.MachineInDatacenterToN
 import org.jclouds.joyent.cloudapi.v6_5.compute.functions.OrphanedGroupsByDatacenterId;
 import org.jclouds.joyent.cloudapi.v6_5.compute.functions.PackageInDatacenterToHardware;
 import org.jclouds.joyent.cloudapi.v6_5.compute.internal.KeyAndPrivateKey;
+import org.jclouds.joyent.cloudapi.v6_5.compute.internal.PooledSshKeyPairGenerator;
 import org.jclouds.joyent.cloudapi.v6_5.compute.loaders.CreateUniqueKey;
 import org.jclouds.joyent.cloudapi.v6_5.compute.options.JoyentCloudTemplateOptions;
 import org.jclouds.joyent.cloudapi.v6_5.compute.strategy.ApplyJoyentCloudTemplateOptionsCreateNodesWithGroupEncodedIntoNameThenAddToSet;
@@ -52,6 +55,8 @@ import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatacenterAndNam
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatasetInDatacenter;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.PackageInDatacenter;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.ssh.SshKeyPairGenerator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
@@ -125,6 +130,15 @@ public class JoyentCloudComputeServiceContextModule extends
          CacheLoader<DatacenterAndName, KeyAndPrivateKey> in) {
       return CacheBuilder.newBuilder().build(in);
    }
+
+   @Provides
+   @Singleton
+   protected PooledSshKeyPairGenerator provideSshKeyPairPool(SshKeyPairGenerator keyGenerator,
+         @Named(SSH_KEY_POOL_SIZE) int poolSize, Closer closer) {
+      PooledSshKeyPairGenerator pool = new PooledSshKeyPairGenerator(keyGenerator, poolSize);
+      closer.addToClose(pool);
+      return pool;
+   }
    
    @Provides
    @Singleton
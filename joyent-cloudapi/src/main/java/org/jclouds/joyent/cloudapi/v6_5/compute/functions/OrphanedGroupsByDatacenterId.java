@@ -24,7 +24,6 @@ import java.util.Set;
 
 import javax.inject.Inject;
 
-import org.jclouds.compute.ComputeService;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.joyent.cloudapi.v6_5.compute.predicates.AllNodesInGroupTerminated;
@@ -41,8 +40,8 @@ public class OrphanedGroupsByDatacenterId implements Function<Set<? extends Node
    private final Predicate<DatacenterAndName> allNodesInGroupTerminated;
 
    @Inject
-   protected OrphanedGroupsByDatacenterId(ComputeService computeService) {
-      this(new AllNodesInGroupTerminated(checkNotNull(computeService, "computeService")));
+   protected OrphanedGroupsByDatacenterId(AllNodesInGroupTerminated allNodesInGroupTerminated) {
+      this((Predicate<DatacenterAndName>) allNodesInGroupTerminated);
    }
 
    @VisibleForTesting
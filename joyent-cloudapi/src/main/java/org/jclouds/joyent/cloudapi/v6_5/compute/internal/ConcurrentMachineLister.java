@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.compute.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.MACHINE_PAGE_SIZE;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudApi;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.domain.MachineList;
+import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachinesOptions;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Lists all the machines matching a query, in several datacenters.
+ * <p>
+ * CloudAPI caps the number of machines returned by a request, so machines are listed in pages. The first page of a
+ * datacenter tells how many machines match in total (the {@code x-resource-count} header), and the remaining pages are
+ * then fetched concurrently. If the count is missing, pages are fetched one after the other until a page is not full.
+ * All datacenters are listed in parallel, and the calling thread is the only one waiting for the results.
+ */
+@Singleton
+public class ConcurrentMachineLister {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final JoyentCloudApi cloudApiApi;
+   private final ListeningExecutorService userExecutor;
+   private final int pageSize;
+
+   @Inject
+   ConcurrentMachineLister(JoyentCloudApi cloudApiApi,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(MACHINE_PAGE_SIZE) int pageSize) {
+      checkArgument(pageSize > 0, "pageSize must be positive");
+      this.cloudApiApi = checkNotNull(cloudApiApi, "cloudApiApi cannot be null");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor cannot be null");
+      this.pageSize = pageSize;
+   }
+
+   /**
+    * Lists the machines matching the filters in all the given datacenters.
+    */
+   public List<MachineInDatacenter> list(Iterable<String> datacenterIds, ListMachinesOptions filters) {
+      List<ListenableFuture<List<MachineInDatacenter>>> datacenters = Lists.newArrayList();
+      for (String datacenterId : datacenterIds) {
+         datacenters.add(listAsync(datacenterId, filters));
+      }
+      return ImmutableList.copyOf(Iterables.concat(getUnchecked(Futures.allAsList(datacenters))));
+   }
+
+   /**
+    * Lists the machines matching the filters in the datacenter.
+    */
+   public ListenableFuture<List<MachineInDatacenter>> listAsync(final String datacenterId,
+         final ListMachinesOptions filters) {
+      checkNotNull(datacenterId, "datacenterId cannot be null");
+      checkNotNull(filters, "filters cannot be null");
+      return Futures.transform(fetch(datacenterId, filters.page(0, pageSize)),
+            new AsyncFunction<MachineList, List<MachineInDatacenter>>() {
+
+               @Override
+               public ListenableFuture<List<MachineInDatacenter>> apply(MachineList firstPage) {
+                  return remainingPages(datacenterId, filters, firstPage);
+               }
+            });
+   }
+
+   private ListenableFuture<List<MachineInDatacenter>> remainingPages(final String datacenterId,
+         ListMachinesOptions filters, final MachineList firstPage) {
+      List<ListenableFuture<MachineList>> pages = Lists.newArrayList();
+      pages.add(Futures.immediateFuture(firstPage));
+      // a page that is not full is the last one, whatever the count says
+      if (firstPage.size() >= pageSize) {
+         if (firstPage.getResourceCount().isPresent()) {
+            for (int offset = pageSize; offset < firstPage.getResourceCount().get(); offset += pageSize) {
+               pages.add(fetch(datacenterId, filters.page(offset, pageSize)));
+            }
+         } else {
+            pages.add(fetchSequentially(datacenterId, filters, pageSize));
+         }
+      }
+      return Futures.transform(Futures.allAsList(pages), new Function<List<MachineList>, List<MachineInDatacenter>>() {
+
+         @Override
+         public List<MachineInDatacenter> apply(List<MachineList> pages) {
+            // offsets shift when machines are created or deleted while paging
+            Map<String, MachineInDatacenter> machines = Maps.newLinkedHashMap();
+            for (MachineList page : pages) {
+               for (Machine machine : page) {
+                  machines.put(machine.getId(), new MachineInDatacenter(machine, datacenterId));
+               }
+            }
+            if (firstPage.getResourceCount().isPresent() && machines.size() < firstPage.getResourceCount().get()) {
+               logger.debug("<< listed %d machines in datacenter(%s) out of %d reported", machines.size(),
+                     datacenterId, firstPage.getResourceCount().get());
+            }
+            return ImmutableList.copyOf(machines.values());
+         }
+      });
+   }
+
+   /**
+    * Fetches the pages from the offset until one is not full, merged into one page.
+    */
+   private ListenableFuture<MachineList> fetchSequentially(final String datacenterId,
+         final ListMachinesOptions filters, final int offset) {
+      return Futures.transform(fetch(datacenterId, filters.page(offset, pageSize)),
+            new AsyncFunction<MachineList, MachineList>() {
+
+               @Override
+               public ListenableFuture<MachineList> apply(final MachineList page) {
+                  if (page.size() < pageSize) {
+                     return Futures.immediateFuture(page);
+                  }
+                  return Futures.transform(fetchSequentially(datacenterId, filters, offset + pageSize),
+                        new Function<MachineList, MachineList>() {
+
+                           @Override
+                           public MachineList apply(MachineList next) {
+                              return new MachineList(Sets.union(page, next),
+                                    next.getResourceCount());
+                           }
+                        });
+               }
+            });
+   }
+
+   private ListenableFuture<MachineList> fetch(final String datacenterId, final ListMachinesOptions options) {
+      return userExecutor.submit(new Callable<MachineList>() {
+
+         @Override
+         public MachineList call() {
+            logger.trace(">> listing machines in datacenter(%s) options(%s)", datacenterId, options);
+            return cloudApiApi.getMachineApiForDatacenter(datacenterId).list(options);
+         }
+      });
+   }
+
+   private static <T> T getUnchecked(ListenableFuture<T> future) {
+      try {
+         return future.get();
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.jclouds.compute.functions.GroupNamingConvention;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Finds which of a set of groups a key was generated for. The matchers of the
+ * groups are created once, and a key name is only checked against the groups
+ * whose shared name is a prefix of it, so matching does not depend on the
+ * number of groups.
+ */
+public class KeyGroupMatcher {
+
+   private final Map<String, String> groupsBySharedName;
+   private final Map<String, Predicate<String>> matchersByGroup;
+   private final int maxSharedNameLength;
+
+   public KeyGroupMatcher(GroupNamingConvention namingConvention, Iterable<String> groups) {
+      checkNotNull(namingConvention, "namingConvention cannot be null");
+      Map<String, String> groupsBySharedName = Maps.newHashMap();
+      ImmutableMap.Builder<String, Predicate<String>> matchersByGroup = ImmutableMap.builder();
+      int maxSharedNameLength = 0;
+      for (String group : ImmutableSet.copyOf(checkNotNull(groups, "groups cannot be null"))) {
+         String sharedName = namingConvention.sharedNameForGroup(group);
+         groupsBySharedName.put(sharedName, group);
+         matchersByGroup.put(group, namingConvention.containsGroup(group));
+         maxSharedNameLength = Math.max(maxSharedNameLength, sharedName.length());
+      }
+      this.groupsBySharedName = ImmutableMap.copyOf(groupsBySharedName);
+      this.matchersByGroup = matchersByGroup.build();
+      this.maxSharedNameLength = maxSharedNameLength;
+   }
+
+   /**
+    * Returns the most specific group the key name belongs to, or null if it
+    * belongs to none of them.
+    */
+   public String groupOrNull(String keyName) {
+      checkNotNull(keyName, "keyName cannot be null");
+      for (int length = Math.min(keyName.length(), maxSharedNameLength); length > 0; length--) {
+         String group = groupsBySharedName.get(keyName.substring(0, length));
+         if (group != null && matchersByGroup.get(group).apply(keyName)) {
+            return group;
+         }
+      }
+      return null;
+   }
+}
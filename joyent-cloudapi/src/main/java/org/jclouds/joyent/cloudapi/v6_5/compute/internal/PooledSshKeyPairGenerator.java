@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.compute.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.ssh.SshKeyPairGenerator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Key pair generator that keeps a pool of pre-generated key pairs.
+ * <p>
+ * Generating a key pair is CPU intensive and takes hundreds of milliseconds, so this generator can keep a number of
+ * key pairs ready to be used. The pool is filled lazily: nothing is generated until the first key pair is requested,
+ * and from then on the pool is refilled in a low priority background thread. If the pool is empty, key pairs are
+ * generated synchronously. Each key pair is returned only once.
+ * <p>
+ * A pool size of zero disables the pool.
+ */
+public class PooledSshKeyPairGenerator implements SshKeyPairGenerator, Closeable {
+
+   private final SshKeyPairGenerator delegate;
+   private final int poolSize;
+   private final BlockingQueue<Map<String, String>> pool;
+   private final ExecutorService refillExecutor;
+   private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+   public PooledSshKeyPairGenerator(SshKeyPairGenerator delegate, int poolSize) {
+      checkArgument(poolSize >= 0, "poolSize must be zero or positive");
+      this.delegate = checkNotNull(delegate, "delegate cannot be null");
+      this.poolSize = poolSize;
+      this.pool = new LinkedBlockingQueue<Map<String, String>>();
+      this.refillExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("joyent-cloudapi-ssh-key-pool-%d").setDaemon(true).setPriority(Thread.MIN_PRIORITY).build());
+   }
+
+   @Override
+   public Map<String, String> get() {
+      Map<String, String> keyPair = pool.poll();
+      refill();
+      return keyPair != null ? keyPair : delegate.get();
+   }
+
+   @VisibleForTesting
+   int available() {
+      return pool.size();
+   }
+
+   @Override
+   public void close() {
+      refillExecutor.shutdownNow();
+   }
+
+   private void refill() {
+      if (pool.size() < poolSize && refilling.compareAndSet(false, true)) {
+         try {
+            refillExecutor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     while (pool.size() < poolSize && !Thread.currentThread().isInterrupted()) {
+                        pool.offer(delegate.get());
+                     }
+                  } catch (RuntimeException ex) {
+                     // Stop refilling. The next request will generate its key pair synchronously and propagate the
+                     // error if it persists.
+                  } finally {
+                     refilling.set(false);
+                  }
+               }
+            });
+         } catch (RejectedExecutionException ex) {
+            // The generator has been closed
+            refilling.set(false);
+         }
+      }
+   }
+}
@@ -17,31 +17,64 @@
 package org.jclouds.joyent.cloudapi.v6_5.compute.predicates;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Predicates.and;
 import static com.google.common.collect.Iterables.all;
+import static com.google.common.collect.Iterables.any;
+import static com.google.common.collect.Iterables.filter;
 import static org.jclouds.compute.predicates.NodePredicates.TERMINATED;
 import static org.jclouds.compute.predicates.NodePredicates.inGroup;
 import static org.jclouds.compute.predicates.NodePredicates.locationId;
+import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.CHECK_UNTAGGED_MACHINES;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.jclouds.compute.ComputeService;
+import org.jclouds.joyent.cloudapi.v6_5.compute.JoyentCloudComputeServiceAdapter;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatacenterAndName;
+import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
 
+/**
+ * Whether all the machines of the group in the datacenter are deleted.
+ * <p>
+ * The machines tagged with the group are listed first, so a live group is
+ * found without listing the whole datacenter. Machines created before the
+ * group tag was added only carry the group in their metadata or name; they are
+ * only checked, by listing every machine of the datacenter, when
+ * {@link org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties#CHECK_UNTAGGED_MACHINES} is set.
+ */
 public class AllNodesInGroupTerminated implements Predicate<DatacenterAndName> {
+   private final JoyentCloudComputeServiceAdapter adapter;
    private final ComputeService computeService;
+   private final boolean checkUntaggedMachines;
 
-   
-   //TODO: TESTME
    @Inject
-   public AllNodesInGroupTerminated(ComputeService computeService) {
+   public AllNodesInGroupTerminated(JoyentCloudComputeServiceAdapter adapter, ComputeService computeService,
+         @Named(CHECK_UNTAGGED_MACHINES) boolean checkUntaggedMachines) {
+      this.adapter = checkNotNull(adapter, "adapter");
       this.computeService = checkNotNull(computeService, "computeService");
+      this.checkUntaggedMachines = checkUntaggedMachines;
    }
 
    @Override
    public boolean apply(DatacenterAndName input) {
-      return all(computeService.listNodesDetailsMatching(locationId(input.getDatacenter())), and(inGroup(input.getName()), TERMINATED));
+      if (any(adapter.listNodesInGroup(ImmutableSet.of(input.getDatacenter()), input.getName()),
+            new Predicate<MachineInDatacenter>() {
+
+               @Override
+               public boolean apply(MachineInDatacenter machine) {
+                  return machine.get().getState() != Machine.State.DELETED;
+               }
+            })) {
+         return false;
+      }
+      if (!checkUntaggedMachines) {
+         return true;
+      }
+      return all(filter(computeService.listNodesDetailsMatching(locationId(input.getDatacenter())),
+            inGroup(input.getName())), TERMINATED);
    }
 }
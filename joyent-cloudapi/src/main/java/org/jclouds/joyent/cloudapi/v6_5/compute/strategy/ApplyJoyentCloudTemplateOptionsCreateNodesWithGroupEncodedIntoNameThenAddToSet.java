@@ -19,6 +19,7 @@ package org.jclouds.joyent.cloudapi.v6_5.compute.strategy;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.AUTOGENERATE_KEYS;
+import static org.jclouds.joyent.cloudapi.v6_5.config.JoyentCloudProperties.CHECK_UNTAGGED_MACHINES;
 
 import java.util.Map;
 import java.util.Set;
@@ -37,12 +38,16 @@ import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
 import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+import org.jclouds.joyent.cloudapi.v6_5.compute.JoyentCloudComputeServiceAdapter;
 import org.jclouds.joyent.cloudapi.v6_5.compute.internal.KeyAndPrivateKey;
 import org.jclouds.joyent.cloudapi.v6_5.compute.options.JoyentCloudTemplateOptions;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatacenterAndName;
+import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
 
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -52,6 +57,8 @@ public class ApplyJoyentCloudTemplateOptionsCreateNodesWithGroupEncodedIntoNameT
 
    private final LoadingCache<DatacenterAndName, KeyAndPrivateKey> keyCache;
    private final boolean defaultToAutogenerateKeys;
+   private final JoyentCloudComputeServiceAdapter adapter;
+   private final boolean checkUntaggedMachines;
 
    @Inject
    protected ApplyJoyentCloudTemplateOptionsCreateNodesWithGroupEncodedIntoNameThenAddToSet(
@@ -61,11 +68,42 @@ public class ApplyJoyentCloudTemplateOptionsCreateNodesWithGroupEncodedIntoNameT
             CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
             LoadingCache<DatacenterAndName, KeyAndPrivateKey> keyCache, 
-            @Named(AUTOGENERATE_KEYS) boolean defaultToAutogenerateKeys) {
+            @Named(AUTOGENERATE_KEYS) boolean defaultToAutogenerateKeys,
+            JoyentCloudComputeServiceAdapter adapter,
+            @Named(CHECK_UNTAGGED_MACHINES) boolean checkUntaggedMachines) {
       super(addNodeWithTagStrategy, listNodesStrategy, namingConvention, userExecutor,
                customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
       this.keyCache = checkNotNull(keyCache, "keyCache");
       this.defaultToAutogenerateKeys = defaultToAutogenerateKeys;
+      this.adapter = checkNotNull(adapter, "adapter");
+      this.checkUntaggedMachines = checkUntaggedMachines;
+   }
+
+   /**
+    * Names of a group start with the group, so only the machines tagged with the
+    * group in the target datacenter are checked for conflicts instead of all the
+    * machines of the account, unless untagged machines have to be checked too.
+    */
+   @Override
+   protected Set<String> getNextNames(String group, Template template, int count) {
+      if (checkUntaggedMachines) {
+         return super.getNextNames(group, template, count);
+      }
+      Set<String> currentNames = Sets.newHashSet();
+      for (MachineInDatacenter machine : adapter.listNodesInGroup(ImmutableSet.of(template.getLocation().getId()),
+            group)) {
+         currentNames.add(machine.get().getName());
+      }
+      Set<String> names = Sets.newLinkedHashSet();
+      int maxTries = 100;
+      int currentTries = 0;
+      while (names.size() < count && currentTries++ < maxTries) {
+         String name = namingConvention.createWithoutPrefix().uniqueNameForGroup(group);
+         if (!currentNames.contains(name)) {
+            names.add(name);
+         }
+      }
+      return names;
    }
 
    @Override
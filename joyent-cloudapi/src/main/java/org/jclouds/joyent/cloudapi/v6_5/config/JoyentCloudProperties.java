@@ -27,4 +27,34 @@ public class JoyentCloudProperties {
     */
    public static final String AUTOGENERATE_KEYS = "jclouds.joyent-cloudapi.autogenerate-keys";
 
+   /**
+    * Number of pre-generated SSH key pairs to keep ready to be used when keys are automatically generated for groups.
+    * The pool starts filling when the first key is generated. Defaults to zero, which generates the key pairs on
+    * demand.
+    */
+   public static final String SSH_KEY_POOL_SIZE = "jclouds.joyent-cloudapi.ssh-key-pool-size";
+
+   /**
+    * Maximum number of ids for which machines are fetched one by one when listing nodes by id. If more ids are
+    * requested, all machines are listed and filtered instead.
+    */
+   public static final String MAX_DIRECT_NODE_GETS = "jclouds.joyent-cloudapi.max-direct-node-gets";
+
+   /**
+    * Number of machines requested per page when listing machines. CloudAPI returns at most 1000 machines per request.
+    */
+   public static final String MACHINE_PAGE_SIZE = "jclouds.joyent-cloudapi.machine-page-size";
+
+   /**
+    * Maximum number of keys deleted at the same time when cleaning up the keys of groups whose nodes are all destroyed.
+    */
+   public static final String MAX_CONCURRENT_KEY_DELETES = "jclouds.joyent-cloudapi.max-concurrent-key-deletes";
+
+   /**
+    * Whether machines created before the group tag was added are also looked up by listing every machine of the
+    * datacenter when naming nodes and when checking if all the nodes of a group are destroyed. Defaults to false,
+    * which only queries the machines tagged with the group.
+    */
+   public static final String CHECK_UNTAGGED_MACHINES = "jclouds.joyent-cloudapi.check-untagged-machines";
+
 }
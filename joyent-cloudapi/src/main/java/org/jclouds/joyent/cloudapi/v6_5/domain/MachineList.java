@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Set;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ForwardingSet;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A page of machines, together with the total number of machines matching the
+ * query as reported in the {@code x-resource-count} header.
+ */
+public class MachineList extends ForwardingSet<Machine> {
+
+   public static final String RESOURCE_COUNT = "x-resource-count";
+
+   private final Set<Machine> machines;
+   private final Optional<Integer> resourceCount;
+
+   public MachineList(Set<Machine> machines, Optional<Integer> resourceCount) {
+      this.machines = ImmutableSet.copyOf(checkNotNull(machines, "machines"));
+      this.resourceCount = checkNotNull(resourceCount, "resourceCount");
+   }
+
+   public static MachineList empty() {
+      return new MachineList(ImmutableSet.<Machine> of(), Optional.of(0));
+   }
+
+   /**
+    * Returns the total number of machines matching the query, across all
+    * pages, if the server reported it.
+    */
+   public Optional<Integer> getResourceCount() {
+      return resourceCount;
+   }
+
+   @Override
+   protected Set<Machine> delegate() {
+      return machines;
+   }
+}
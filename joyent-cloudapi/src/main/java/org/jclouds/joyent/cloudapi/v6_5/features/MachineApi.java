@@ -35,13 +35,18 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 
 import org.jclouds.http.filters.BasicAuthentication;
+import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudFallbacks.EmptyMachineListOnNotFoundOr404;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.domain.MachineList;
+import org.jclouds.joyent.cloudapi.v6_5.functions.ParseMachineList;
 import org.jclouds.joyent.cloudapi.v6_5.options.CreateMachineOptions;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachinesOptions;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.Headers;
 import org.jclouds.rest.annotations.Payload;
 import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
 
 @Headers(keys = "X-Api-Version", values = "{jclouds.api-version}")
 @RequestFilters(BasicAuthentication.class)
@@ -59,6 +64,19 @@ public interface MachineApi {
    @Fallback(EmptySetOnNotFoundOr404.class)
    Set<Machine> list();
 
+   /**
+    * Lists the machines matching the options, one page at a time. CloudAPI
+    * caps the number of machines returned by a request, so use
+    * {@link MachineList#getResourceCount()} to find how many pages there are.
+    * 
+    * @return a page of the account's machines matching the filters.
+    */
+   @Named("ListMachines")
+   @GET
+   @ResponseParser(ParseMachineList.class)
+   @Fallback(EmptyMachineListOnNotFoundOr404.class)
+   MachineList list(ListMachinesOptions options);
+
    @Named("GetMachine")
    @GET
    @Path("/{id}")
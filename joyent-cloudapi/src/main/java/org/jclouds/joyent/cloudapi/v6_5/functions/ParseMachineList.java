@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.domain.MachineList;
+import org.jclouds.json.Json;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Parses a page of machines along with the {@code x-resource-count} header.
+ */
+@Singleton
+public class ParseMachineList implements Function<HttpResponse, MachineList> {
+
+   private final ParseJson<Set<Machine>> parser;
+
+   @Inject
+   ParseMachineList(Json json) {
+      this.parser = new ParseJson<Set<Machine>>(checkNotNull(json, "json"), new TypeLiteral<Set<Machine>>() {
+      });
+   }
+
+   @Override
+   public MachineList apply(HttpResponse response) {
+      Set<Machine> machines = parser.apply(response);
+      String count = response.getFirstHeaderOrNull(MachineList.RESOURCE_COUNT);
+      Integer resourceCount = count == null ? null : Ints.tryParse(count.trim());
+      return new MachineList(machines == null ? ImmutableSet.<Machine> of() : machines,
+            Optional.fromNullable(resourceCount));
+   }
+}
@@ -36,6 +36,7 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
    private String name;
    private String pkg;
    private Map<String, String> metadata = ImmutableMap.of();
+   private Map<String, String> tags = ImmutableMap.of();
 
    @Override
    public boolean equals(Object object) {
@@ -44,7 +45,8 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
       }
       if (object instanceof CreateMachineOptions) {
          final CreateMachineOptions other = CreateMachineOptions.class.cast(object);
-         return equal(name, other.name) && equal(pkg, other.pkg) && equal(metadata, other.metadata);
+         return equal(name, other.name) && equal(pkg, other.pkg) && equal(metadata, other.metadata)
+               && equal(tags, other.tags);
       } else {
          return false;
       }
@@ -52,7 +54,7 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
 
    @Override
    public int hashCode() {
-      return Objects.hashCode(name, pkg, metadata);
+      return Objects.hashCode(name, pkg, metadata, tags);
    }
 
    @Override
@@ -61,6 +63,8 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
       toString.add("name", name).add("package", name);
       if (metadata.size() > 0)
          toString.add("metadata", metadata);
+      if (tags.size() > 0)
+         toString.add("tags", tags);
       return toString.toString();
    }
 
@@ -78,6 +82,14 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
             return "metadata." + input;
          }
 
+      })));
+      params.putAll(Multimaps.forMap(Maps2.transformKeys(tags, new Function<String, String>() {
+
+         @Override
+         public String apply(String input) {
+            return "tag." + input;
+         }
+
       })));
       return params;
    }
@@ -108,6 +120,16 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
       return this;
    }
 
+   /**
+    * An arbitrary set of tag key/value pairs; unlike metadata, tags can be
+    * used to filter the machines listed.
+    */
+   public CreateMachineOptions tags(Map<String, String> tags) {
+      checkNotNull(tags, "tags");
+      this.tags = ImmutableMap.copyOf(tags);
+      return this;
+   }
+
    public static class Builder {
 
       /**
@@ -134,6 +156,14 @@ public class CreateMachineOptions extends BaseHttpRequestOptions {
          return options.metadata(metadata);
       }
 
+      /**
+       * @see CreateMachineOptions#tags(Map<String, String>)
+       */
+      public static CreateMachineOptions tags(Map<String, String> tags) {
+         CreateMachineOptions options = new CreateMachineOptions();
+         return options.tags(tags);
+      }
+
    }
 
 }
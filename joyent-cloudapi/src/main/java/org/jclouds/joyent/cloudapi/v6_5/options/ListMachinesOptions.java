@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.options;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.MoreObjects.ToStringHelper;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+/**
+ * Filters and paging of the machines listed by
+ * {@link org.jclouds.joyent.cloudapi.v6_5.features.MachineApi#list(ListMachinesOptions)}.
+ */
+public class ListMachinesOptions extends BaseHttpRequestOptions {
+   private Integer offset;
+   private Integer limit;
+   private Machine.State state;
+   private Machine.Type type;
+   private String name;
+   private Map<String, String> tags = ImmutableMap.of();
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof ListMachinesOptions) {
+         final ListMachinesOptions other = ListMachinesOptions.class.cast(object);
+         return equal(offset, other.offset) && equal(limit, other.limit) && equal(state, other.state)
+               && equal(type, other.type) && equal(name, other.name) && equal(tags, other.tags);
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(offset, limit, state, type, name, tags);
+   }
+
+   @Override
+   public String toString() {
+      ToStringHelper toString = MoreObjects.toStringHelper("").omitNullValues();
+      toString.add("offset", offset).add("limit", limit).add("state", state).add("type", type).add("name", name);
+      if (tags.size() > 0)
+         toString.add("tags", tags);
+      return toString.toString();
+   }
+
+   @Override
+   public Multimap<String, String> buildQueryParameters() {
+      Multimap<String, String> params = super.buildQueryParameters();
+      if (offset != null)
+         params.put("offset", offset.toString());
+      if (limit != null)
+         params.put("limit", limit.toString());
+      if (state != null)
+         params.put("state", state.value().toLowerCase(Locale.ROOT));
+      if (type != null)
+         params.put("type", type.value().toLowerCase(Locale.ROOT));
+      if (name != null)
+         params.put("name", name);
+      for (Map.Entry<String, String> tag : tags.entrySet()) {
+         params.put("tag." + tag.getKey(), tag.getValue());
+      }
+      return params;
+   }
+
+   /**
+    * Number of machines to skip.
+    */
+   public ListMachinesOptions offset(int offset) {
+      checkArgument(offset >= 0, "offset must not be negative");
+      this.offset = offset;
+      return this;
+   }
+
+   /**
+    * Maximum number of machines to return; CloudAPI returns at most 1000.
+    */
+   public ListMachinesOptions limit(int limit) {
+      checkArgument(limit > 0, "limit must be positive");
+      this.limit = limit;
+      return this;
+   }
+
+   /**
+    * Only machines in the given state.
+    */
+   public ListMachinesOptions state(Machine.State state) {
+      this.state = checkNotNull(state, "state");
+      return this;
+   }
+
+   /**
+    * Only machines of the given type.
+    */
+   public ListMachinesOptions type(Machine.Type type) {
+      this.type = checkNotNull(type, "type");
+      return this;
+   }
+
+   /**
+    * Only the machine with the given name.
+    */
+   public ListMachinesOptions name(String name) {
+      this.name = checkNotNull(name, "name");
+      return this;
+   }
+
+   /**
+    * Only machines with the given tag value.
+    */
+   public ListMachinesOptions tag(String key, String value) {
+      Map<String, String> tags = Maps.newLinkedHashMap(this.tags);
+      tags.put(checkNotNull(key, "key"), checkNotNull(value, "value"));
+      this.tags = ImmutableMap.copyOf(tags);
+      return this;
+   }
+
+   public Integer getOffset() {
+      return offset;
+   }
+
+   public Integer getLimit() {
+      return limit;
+   }
+
+   /**
+    * Returns a copy of these options, with the same filters, for the given
+    * page.
+    */
+   public ListMachinesOptions page(int offset, int limit) {
+      ListMachinesOptions page = new ListMachinesOptions().offset(offset).limit(limit);
+      page.state = state;
+      page.type = type;
+      page.name = name;
+      page.tags = tags;
+      return page;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see ListMachinesOptions#offset
+       */
+      public static ListMachinesOptions offset(int offset) {
+         return new ListMachinesOptions().offset(offset);
+      }
+
+      /**
+       * @see ListMachinesOptions#limit
+       */
+      public static ListMachinesOptions limit(int limit) {
+         return new ListMachinesOptions().limit(limit);
+      }
+
+      /**
+       * @see ListMachinesOptions#state
+       */
+      public static ListMachinesOptions state(Machine.State state) {
+         return new ListMachinesOptions().state(state);
+      }
+
+      /**
+       * @see ListMachinesOptions#type
+       */
+      public static ListMachinesOptions type(Machine.Type type) {
+         return new ListMachinesOptions().type(type);
+      }
+
+      /**
+       * @see ListMachinesOptions#name
+       */
+      public static ListMachinesOptions name(String name) {
+         return new ListMachinesOptions().name(name);
+      }
+
+      /**
+       * @see ListMachinesOptions#tag
+       */
+      public static ListMachinesOptions tag(String key, String value) {
+         return new ListMachinesOptions().tag(key, value);
+      }
+   }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.compute.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+
+import org.jclouds.domain.JsonBall;
+import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudApi;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.domain.MachineList;
+import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
+import org.jclouds.joyent.cloudapi.v6_5.features.MachineApi;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachinesOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link ConcurrentMachineLister} class.
+ */
+@Test(groups = "unit", testName = "ConcurrentMachineListerTest")
+public class ConcurrentMachineListerTest {
+
+   public void testRemainingPagesAreFetchedFromResourceCount() {
+      JoyentCloudApi api = createMock(JoyentCloudApi.class);
+      MachineApi east = createMock(MachineApi.class);
+      MachineApi west = createMock(MachineApi.class);
+      ListMachinesOptions filters = ListMachinesOptions.Builder.state(Machine.State.RUNNING);
+
+      expect(api.getMachineApiForDatacenter("us-east-1")).andReturn(east).anyTimes();
+      expect(api.getMachineApiForDatacenter("us-west-1")).andReturn(west).anyTimes();
+      expect(east.list(filters.page(0, 2))).andReturn(page(5, "a", "b"));
+      expect(east.list(filters.page(2, 2))).andReturn(page(5, "c", "d"));
+      expect(east.list(filters.page(4, 2))).andReturn(page(5, "e"));
+      expect(west.list(filters.page(0, 2))).andReturn(page(1, "f"));
+      replay(api, east, west);
+
+      ConcurrentMachineLister lister = new ConcurrentMachineLister(api, newDirectExecutorService(), 2);
+      List<MachineInDatacenter> machines = lister.list(ImmutableList.of("us-east-1", "us-west-1"), filters);
+
+      assertEquals(ids(machines), ImmutableList.of("us-east-1/a", "us-east-1/b", "us-east-1/c", "us-east-1/d",
+            "us-east-1/e", "us-west-1/f"));
+      verify(api, east, west);
+   }
+
+   public void testPagesAreFetchedUntilNotFullWithoutResourceCount() {
+      JoyentCloudApi api = createMock(JoyentCloudApi.class);
+      MachineApi east = createMock(MachineApi.class);
+      ListMachinesOptions filters = new ListMachinesOptions();
+
+      expect(api.getMachineApiForDatacenter("us-east-1")).andReturn(east).anyTimes();
+      expect(east.list(filters.page(0, 2))).andReturn(page(null, "a", "b"));
+      expect(east.list(filters.page(2, 2))).andReturn(page(null, "c", "d"));
+      expect(east.list(filters.page(4, 2))).andReturn(page(null));
+      replay(api, east);
+
+      ConcurrentMachineLister lister = new ConcurrentMachineLister(api, newDirectExecutorService(), 2);
+
+      assertEquals(ids(lister.list(ImmutableList.of("us-east-1"), filters)),
+            ImmutableList.of("us-east-1/a", "us-east-1/b", "us-east-1/c", "us-east-1/d"));
+      verify(api, east);
+   }
+
+   public void testMachinesShiftedBetweenPagesAreListedOnce() {
+      JoyentCloudApi api = createMock(JoyentCloudApi.class);
+      MachineApi east = createMock(MachineApi.class);
+      ListMachinesOptions filters = new ListMachinesOptions();
+
+      expect(api.getMachineApiForDatacenter("us-east-1")).andReturn(east).anyTimes();
+      expect(east.list(filters.page(0, 2))).andReturn(page(3, "a", "b"));
+      // a machine was created before "b" was listed, so "b" is listed again
+      expect(east.list(filters.page(2, 2))).andReturn(page(4, "b", "c"));
+      replay(api, east);
+
+      ConcurrentMachineLister lister = new ConcurrentMachineLister(api, newDirectExecutorService(), 2);
+
+      assertEquals(ids(lister.list(ImmutableList.of("us-east-1"), filters)),
+            ImmutableList.of("us-east-1/a", "us-east-1/b", "us-east-1/c"));
+      verify(api, east);
+   }
+
+   private static MachineList page(Integer resourceCount, String... ids) {
+      ImmutableSet.Builder<Machine> machines = ImmutableSet.builder();
+      for (String id : ids) {
+         machines.add(new Machine(id, "name-" + id, Machine.Type.SMARTMACHINE, Machine.State.RUNNING,
+               "sdc:sdc:smartos:1.0.0", 1024, 30720, ImmutableSet.<String> of(), new Date(), new Date(),
+               ImmutableMap.<String, JsonBall> of()));
+      }
+      return new MachineList(machines.build(), Optional.fromNullable(resourceCount));
+   }
+
+   private static List<String> ids(Iterable<MachineInDatacenter> machines) {
+      ImmutableList.Builder<String> ids = ImmutableList.builder();
+      for (MachineInDatacenter machine : machines) {
+         ids.add(machine.slashEncode());
+      }
+      return ids.build();
+   }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.compute.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+
+/**
+ * Unit tests for the {@link KeyGroupMatcher} class.
+ */
+@Test(groups = "unit", testName = "KeyGroupMatcherTest")
+public class KeyGroupMatcherTest {
+   GroupNamingConvention namingConvention = Guice.createInjector().getInstance(GroupNamingConvention.Factory.class)
+         .create();
+
+   public void testKeysAreMatchedToTheirGroup() {
+      KeyGroupMatcher matcher = new KeyGroupMatcher(namingConvention, ImmutableSet.of("web", "db", "web-cache"));
+
+      assertEquals(matcher.groupOrNull(namingConvention.sharedNameForGroup("web") + "-1a2"), "web");
+      assertEquals(matcher.groupOrNull(namingConvention.sharedNameForGroup("db")), "db");
+      assertEquals(matcher.groupOrNull(namingConvention.sharedNameForGroup("web-cache") + "-1a2"), "web-cache");
+   }
+
+   public void testKeysOfOtherGroupsAreNotMatched() {
+      KeyGroupMatcher matcher = new KeyGroupMatcher(namingConvention, ImmutableSet.of("web"));
+
+      assertNull(matcher.groupOrNull(namingConvention.sharedNameForGroup("db") + "-1a2"));
+      assertNull(matcher.groupOrNull(namingConvention.sharedNameForGroup("webserver") + "-1a2"));
+      assertNull(matcher.groupOrNull("my-key"));
+      assertNull(matcher.groupOrNull(""));
+   }
+
+   public void testNoGroupsMatchNothing() {
+      KeyGroupMatcher matcher = new KeyGroupMatcher(namingConvention, ImmutableSet.<String> of());
+
+      assertNull(matcher.groupOrNull(namingConvention.sharedNameForGroup("web") + "-1a2"));
+   }
+}
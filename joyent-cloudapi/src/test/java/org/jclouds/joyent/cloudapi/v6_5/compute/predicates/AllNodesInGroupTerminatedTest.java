@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.compute.predicates;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.easymock.EasyMock;
+import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.joyent.cloudapi.v6_5.compute.JoyentCloudComputeServiceAdapter;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatacenterAndName;
+import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
+import org.jclouds.joyent.cloudapi.v6_5.parse.ParseMachineTest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "AllNodesInGroupTerminatedTest")
+public class AllNodesInGroupTerminatedTest {
+
+   private static final DatacenterAndName GROUP = DatacenterAndName.fromDatacenterAndName("us-east-1", "test");
+
+   private final Location datacenter = new LocationBuilder().id("us-east-1").description("us-east-1")
+         .scope(LocationScope.ZONE).build();
+
+   public void testRunningTaggedMachineIsFoundWithoutListingTheDatacenter() {
+      JoyentCloudComputeServiceAdapter adapter = createMock(JoyentCloudComputeServiceAdapter.class);
+      ComputeService computeService = createMock(ComputeService.class);
+      expect(adapter.listNodesInGroup(ImmutableSet.of("us-east-1"), "test")).andReturn(
+            ImmutableSet.of(machine(Machine.State.DELETED), machine(Machine.State.RUNNING)));
+      replay(adapter, computeService);
+
+      assertFalse(new AllNodesInGroupTerminated(adapter, computeService, true).apply(GROUP));
+      verify(adapter, computeService);
+   }
+
+   public void testDatacenterIsNotListedUnlessUntaggedMachinesAreChecked() {
+      JoyentCloudComputeServiceAdapter adapter = createMock(JoyentCloudComputeServiceAdapter.class);
+      ComputeService computeService = createMock(ComputeService.class);
+      expect(adapter.listNodesInGroup(ImmutableSet.of("us-east-1"), "test")).andReturn(
+            ImmutableSet.of(machine(Machine.State.DELETED)));
+      replay(adapter, computeService);
+
+      assertTrue(new AllNodesInGroupTerminated(adapter, computeService, false).apply(GROUP));
+      verify(adapter, computeService);
+   }
+
+   public void testRunningUntaggedNodeIsFoundInTheDatacenter() {
+      JoyentCloudComputeServiceAdapter adapter = createMock(JoyentCloudComputeServiceAdapter.class);
+      ComputeService computeService = createMock(ComputeService.class);
+      expect(adapter.listNodesInGroup(ImmutableSet.of("us-east-1"), "test")).andReturn(
+            ImmutableSet.<MachineInDatacenter> of());
+      expectNodes(computeService, node("1", "test", Status.TERMINATED), node("2", "test", Status.RUNNING));
+      replay(adapter, computeService);
+
+      assertFalse(new AllNodesInGroupTerminated(adapter, computeService, true).apply(GROUP));
+      verify(adapter, computeService);
+   }
+
+   public void testGroupIsTerminatedWhenNoNodeOfTheGroupIsLeft() {
+      JoyentCloudComputeServiceAdapter adapter = createMock(JoyentCloudComputeServiceAdapter.class);
+      ComputeService computeService = createMock(ComputeService.class);
+      expect(adapter.listNodesInGroup(ImmutableSet.of("us-east-1"), "test")).andReturn(
+            ImmutableSet.of(machine(Machine.State.DELETED)));
+      expectNodes(computeService, node("1", "test", Status.TERMINATED), node("2", "other", Status.RUNNING));
+      replay(adapter, computeService);
+
+      assertTrue(new AllNodesInGroupTerminated(adapter, computeService, true).apply(GROUP));
+      verify(adapter, computeService);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private static void expectNodes(ComputeService computeService, NodeMetadata... nodes) {
+      expect(computeService.listNodesDetailsMatching(EasyMock.<Predicate<NodeMetadata>> anyObject())).andReturn(
+            (Set) ImmutableSet.copyOf(nodes));
+   }
+
+   private static MachineInDatacenter machine(Machine.State state) {
+      return new MachineInDatacenter(new ParseMachineTest().expected().toBuilder().state(state).build(), "us-east-1");
+   }
+
+   private NodeMetadata node(String id, String group, Status status) {
+      return new NodeMetadataBuilder().id("us-east-1/" + id).providerId(id).name(group + "-" + id).group(group)
+            .location(datacenter).status(status).build();
+   }
+}
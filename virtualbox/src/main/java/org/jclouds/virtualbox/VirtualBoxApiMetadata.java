@@ -20,6 +20,8 @@ import static org.jclouds.compute.config.ComputeServiceProperties.TEMPLATE;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_DEFAULT_DIR;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_GUEST_MEMORY;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_IMAGES_DESCRIPTOR;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_MAX_CONCURRENT_NODE_CREATIONS;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_MAX_DIRECT_NODE_GETS;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_PRECONFIGURATION_URL;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_WORKINGDIR;
 
@@ -68,6 +70,8 @@ public class VirtualBoxApiMetadata extends BaseApiMetadata {
 
       properties.put(VIRTUALBOX_IMAGES_DESCRIPTOR, yamlDescriptor);
       properties.put(VIRTUALBOX_PRECONFIGURATION_URL, "http://10.0.2.2:23232");
+      properties.put(VIRTUALBOX_MAX_DIRECT_NODE_GETS, "20");
+      properties.put(VIRTUALBOX_MAX_CONCURRENT_NODE_CREATIONS, "4");
       properties.setProperty(TEMPLATE, "osFamily=UBUNTU,osVersionMatches=12.04.1,os64Bit=true,osArchMatches=amd64");
       return properties;
    }
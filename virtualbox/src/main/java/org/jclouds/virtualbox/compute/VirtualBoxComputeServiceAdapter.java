@@ -18,9 +18,9 @@ package org.jclouds.virtualbox.compute;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_IMAGE_PREFIX;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_MAX_DIRECT_NODE_GETS;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_NODE_NAME_SEPARATOR;
 import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_NODE_PREFIX;
 
@@ -57,6 +57,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
@@ -79,19 +80,22 @@ public class VirtualBoxComputeServiceAdapter implements ComputeServiceAdapter<IM
    private final Function<NodeSpec, NodeAndInitialCredentials<IMachine>> cloneCreator;
    private final Function<IMachine, Image> imachineToImage;
    private final MachineController machineController;
+   private final int maxDirectNodeGets;
 
    @Inject
    public VirtualBoxComputeServiceAdapter(Supplier<VirtualBoxManager> manager,
             Supplier<Map<Image, YamlImage>> imagesMapper, LoadingCache<Image, Master> mastersLoader,
             Function<NodeSpec, NodeAndInitialCredentials<IMachine>> cloneCreator,
             Function<IMachine, Image> imachineToImage,
-            MachineController machineController) {
+            MachineController machineController,
+            @Named(VIRTUALBOX_MAX_DIRECT_NODE_GETS) int maxDirectNodeGets) {
       this.manager = checkNotNull(manager, "virtualbox manager can't be null");
       this.imagesToYamlImages = imagesMapper.get();
       this.mastersLoader = mastersLoader;
       this.cloneCreator = cloneCreator;
       this.imachineToImage = imachineToImage;
       this.machineController = machineController;
+      this.maxDirectNodeGets = maxDirectNodeGets;
    }
 
    @Override
@@ -122,14 +126,31 @@ public class VirtualBoxComputeServiceAdapter implements ComputeServiceAdapter<IM
    }
 
    @Override
-   public Iterable<IMachine> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<IMachine>() {
+   public Iterable<IMachine> listNodesByIds(Iterable<String> ids) {
+      final Set<String> idSet = ImmutableSet.copyOf(ids);
+
+      // Every property of a machine is a remote call to the web service, so looking up a few machines by id is
+      // cheaper than reading the name and id of all the registered machines
+      if (idSet.size() <= maxDirectNodeGets) {
+         ImmutableList.Builder<IMachine> machines = ImmutableList.builder();
+         for (String id : idSet) {
+            // VirtualBox also finds machines by name, so only keep the machines whose id was requested
+            IMachine machine = getNode(id);
+            if (machine != null && id.equals(machine.getId())
+                  && machine.getName().startsWith(VIRTUALBOX_NODE_PREFIX)) {
+               machines.add(machine);
+            }
+         }
+         return machines.build();
+      }
+
+      return ImmutableList.copyOf(filter(listNodes(), new Predicate<IMachine>() {
 
          @Override
          public boolean apply(IMachine machine) {
-            return contains(ids, machine.getId());
+            return idSet.contains(machine.getId());
          }
-      });
+      }));
    }
 
    @Override
@@ -190,7 +211,8 @@ public class VirtualBoxComputeServiceAdapter implements ComputeServiceAdapter<IM
       try {
          return manager.get().getVBox().findMachine(vmName);
       } catch (VBoxException e) {
-         if (e.getMessage().contains("Could not find a registered machine named")) {
+         // Thrown both for unknown names and for unknown ids
+         if (e.getMessage() != null && e.getMessage().contains("Could not find a registered machine")) {
             return null;
          }
          throw Throwables.propagate(e);
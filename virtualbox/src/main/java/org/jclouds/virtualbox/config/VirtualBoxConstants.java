@@ -51,6 +51,18 @@ public final class VirtualBoxConstants {
 
    public static final String VIRTUALBOX_WEBSERVER_CREDENTIAL = "jclouds.virtualbox.webserver.credential";
 
+   /**
+    * Maximum number of ids for which machines are looked up one by one when listing nodes by id. If more ids are
+    * requested, all machines are listed and filtered instead.
+    */
+   public static final String VIRTUALBOX_MAX_DIRECT_NODE_GETS = "jclouds.virtualbox.max-direct-node-gets";
+
+   /**
+    * Maximum number of nodes that are cloned, launched and configured at the same time.
+    */
+   public static final String VIRTUALBOX_MAX_CONCURRENT_NODE_CREATIONS =
+            "jclouds.virtualbox.max-concurrent-node-creations";
+
    public static final String VIRTUALBOX_DEFAULT_DIR = System.getProperty("user.home") + File.separator
             + ".jclouds-vbox";
    
@@ -24,6 +24,7 @@ package org.jclouds.virtualbox.functions;
  import com.google.common.collect.ImmutableSet;
  import com.google.common.collect.Iterables;
  import com.google.common.io.Files;
+ import com.google.common.util.concurrent.Striped;
  import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
  import org.jclouds.compute.domain.NodeMetadata;
  import org.jclouds.compute.domain.NodeMetadataBuilder;
@@ -46,9 +47,7 @@ package org.jclouds.virtualbox.functions;
  import org.jclouds.virtualbox.util.NetworkUtils;
  import org.virtualbox_4_2.CleanupMode;
  import org.virtualbox_4_2.IMachine;
- import org.virtualbox_4_2.IProgress;
  import org.virtualbox_4_2.ISession;
- import org.virtualbox_4_2.LockType;
  import org.virtualbox_4_2.NetworkAttachmentType;
  import org.virtualbox_4_2.VirtualBoxManager;
  import com.google.common.collect.ImmutableList;
@@ -60,20 +59,28 @@ package org.jclouds.virtualbox.functions;
 
  import java.io.File;
  import java.io.IOException;
+ import java.util.concurrent.Semaphore;
+ import java.util.concurrent.locks.Lock;
 
+ import static com.google.common.base.Preconditions.checkArgument;
  import static com.google.common.base.Preconditions.checkNotNull;
  import static com.google.common.base.Preconditions.checkState;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.GUEST_OS_PASSWORD;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.GUEST_OS_USER;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_GUEST_MEMORY;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_IMAGE_PREFIX;
+ import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_MAX_CONCURRENT_NODE_CREATIONS;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_NODE_NAME_SEPARATOR;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_NODE_PREFIX;
  import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_WORKINGDIR;
 
 /**
- * Creates nodes, by cloning a master vm and based on the provided {@link NodeSpec}. Must be
- * synchronized mainly because of snapshot creation (must be synchronized on a per-master-basis).
+ * Creates nodes, by cloning a master vm and based on the provided {@link NodeSpec}. Only the
+ * snapshot of the master is taken (or verified) under a per-master lock; the snapshot is then kept
+ * so that all the linked clones share it. Cloning, launching and configuring the nodes run
+ * concurrently, up to
+ * {@link org.jclouds.virtualbox.config.VirtualBoxConstants#VIRTUALBOX_MAX_CONCURRENT_NODE_CREATIONS}
+ * nodes at a time.
  */
 @Singleton
 public class NodeCreator implements Function<NodeSpec, NodeAndInitialCredentials<IMachine>> {
@@ -89,13 +96,17 @@ public class NodeCreator implements Function<NodeSpec, NodeAndInitialCredentials
    private final NetworkUtils networkUtils;
    private final int ram;
    private final String workingDir;
+   private final Semaphore nodeCreations;
+   private final Striped<Lock> masterLocks = Striped.lazyWeakLock(16);
    
    @Inject
    public NodeCreator(Supplier<VirtualBoxManager> manager, Function<CloneSpec, IMachine> cloner,
             MachineUtils machineUtils, MachineController machineController,
             NetworkUtils networkUtils,
             @Named(VIRTUALBOX_GUEST_MEMORY) String ram,
-            @Named(VIRTUALBOX_WORKINGDIR) String workingDir) {
+            @Named(VIRTUALBOX_WORKINGDIR) String workingDir,
+            @Named(VIRTUALBOX_MAX_CONCURRENT_NODE_CREATIONS) int maxConcurrentNodeCreations) {
+      checkArgument(maxConcurrentNodeCreations > 0, "maxConcurrentNodeCreations must be positive");
       this.manager = checkNotNull(manager, "manager");
       this.cloner = checkNotNull(cloner, "cloner");
       this.networkUtils = checkNotNull(networkUtils, "networkUtils");
@@ -103,17 +114,27 @@ public class NodeCreator implements Function<NodeSpec, NodeAndInitialCredentials
       this.machineController = checkNotNull(machineController, "machineController");
       this.ram = checkNotNull(Integer.valueOf(ram), "ram");
       this.workingDir = checkNotNull(workingDir, "workingDir");
+      this.nodeCreations = new Semaphore(maxConcurrentNodeCreations, true);
    }
 
    @Override
-   public synchronized NodeAndInitialCredentials<IMachine> apply(NodeSpec nodeSpec) {
+   public NodeAndInitialCredentials<IMachine> apply(NodeSpec nodeSpec) {
       checkNotNull(nodeSpec, "NodeSpec");
+      nodeCreations.acquireUninterruptibly();
+      try {
+         return createNode(nodeSpec);
+      } finally {
+         nodeCreations.release();
+      }
+   }
+
+   private NodeAndInitialCredentials<IMachine> createNode(NodeSpec nodeSpec) {
       Master master = checkNotNull(nodeSpec.getMaster(), "Master");
       IMachine masterMachine = master.getMachine();
       String guestOsUser = masterMachine.getExtraData(GUEST_OS_USER);
       String guestOsPassword = masterMachine.getExtraData(GUEST_OS_PASSWORD);
 
-      cleanUpMaster(master);
+      ensureMasterSnapshot(master);
       CloneSpec cloneSpec = configureCloneSpec(nodeSpec, guestOsUser, guestOsPassword);
       IMachine clone = cloner.apply(cloneSpec);
       String cloneName =  cloneSpec.getVmSpec().getVmName();
@@ -179,8 +200,19 @@ public class NodeCreator implements Function<NodeSpec, NodeAndInitialCredentials
               .vm(cloneVmSpec).build();
    }
 
-   private void cleanUpMaster(Master master) {
-      deleteExistingSnapshot(master);
+   /**
+    * Takes the snapshot the linked clones are based on, unless the master already has one. The
+    * snapshot is kept for the next clones, so only the first node of a master pays for it.
+    */
+   private void ensureMasterSnapshot(Master master) {
+      IMachine masterMachine = master.getMachine();
+      Lock masterLock = masterLocks.get(masterMachine.getName());
+      masterLock.lock();
+      try {
+         new TakeSnapshotIfNotAlreadyAttached(manager, "snapshotName", "snapshotDesc", logger).apply(masterMachine);
+      } finally {
+         masterLock.unlock();
+      }
    }
 
    private void reconfigureHostOnlyInterfaceIfNeeded(final String username, final String password,
@@ -263,22 +295,6 @@ public class NodeCreator implements Function<NodeSpec, NodeAndInitialCredentials
                + nodeSpec.getTag() + VIRTUALBOX_NODE_NAME_SEPARATOR + nodeSpec.getName();
    }
 
-   private void deleteExistingSnapshot(Master master) {
-      if (master.getMachine().getCurrentSnapshot() != null) {
-         ISession session;
-         try {
-            session = manager.get().getSessionObject();
-            master.getMachine().lockMachine(session, LockType.Write);
-            IProgress progress = session.getConsole().deleteSnapshot(master.getMachine().getCurrentSnapshot().getId());
-            progress.waitForCompletion(-1);
-            session.unlockMachine();
-         } catch (Exception e) {
-            throw new RuntimeException("error opening vbox machine session: " + e.getMessage(), e);
-         }
-         logger.debug("<< deleted an existing snapshot of vm(%s)", master.getMachine().getName());
-      }
-   }
-
    private NodeMetadata buildPartialNodeMetadata(IMachine clone, String guestOsUser, String guestOsPassword) {
       NodeMetadataBuilder nodeMetadataBuilder = new NodeMetadataBuilder();
       nodeMetadataBuilder.id(clone.getName());
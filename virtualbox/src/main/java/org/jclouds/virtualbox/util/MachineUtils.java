@@ -17,10 +17,8 @@
 package org.jclouds.virtualbox.util;
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 import org.jclouds.compute.callables.RunScriptOnNode;
 import org.jclouds.compute.callables.RunScriptOnNode.Factory;
@@ -45,7 +43,6 @@ import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static org.jclouds.util.Predicates2.retry;
 
 /**
  * Utilities for executing functions on a VirtualBox machine.
@@ -53,6 +50,11 @@ import static org.jclouds.util.Predicates2.retry;
 
 @Singleton
 public class MachineUtils {
+   private static final long LOCK_TIMEOUT_MILLIS = 15000;
+   private static final long UNLOCK_TIMEOUT_MILLIS = 15000;
+   private static final long MIN_BACKOFF_MILLIS = 50;
+   private static final long MAX_BACKOFF_MILLIS = 1000;
+
    public static final String IP_V4_ADDRESS_PATTERN = "^([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\."
             + "([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." + "([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\."
             + "([01]?\\d\\d?|2[0-4]\\d|25[0-5])$";
@@ -173,8 +175,9 @@ public class MachineUtils {
     * <p/>
     * Unlocks the machine before returning.
     * 
-    * Tries to obtain a lock 15 times before giving up waiting 1 sec between tries. When no machine
-    * is found null is returned.
+    * Tries to obtain a lock for up to 15 seconds before giving up. Instead of sleeping for fixed
+    * periods, it waits for VirtualBox to report a session state change of the machine, polling with
+    * an increasing backoff if no change is reported. When no machine is found null is returned.
     * 
     * @param type
     *           the kind of lock to use when initially locking the machine.
@@ -185,30 +188,33 @@ public class MachineUtils {
     * @return the result from applying the function to the session.
     */
    protected <T> T lockSessionOnMachineAndApply(String machineId, LockType type, Function<ISession, T> function) {
-      int retries = 15;
-      ISession session = checkNotNull(lockSession(machineId, type, retries), "session");
+      IMachine immutableMachine = manager.get().getVBox().findMachine(machineId);
+      SessionStateListener sessionStates = SessionStateListener.register(manager.get().getVBox(),
+               immutableMachine.getId(), logger);
       try {
-         return function.apply(session);
-      } catch (VBoxException e) {
-         throw new RuntimeException(String.format("error applying %s to %s with %s lock: %s", function, machineId,
-                  type, e.getMessage()), e);
-      } finally {
-         // this is a workaround for shared lock type, where session state is not updated immediately
-         if (type == LockType.Shared) {
-            Uninterruptibles.sleepUninterruptibly(1, TimeUnit.SECONDS);
-         }
-         if (session.getState().equals(SessionState.Locked)) {
-            session.unlockMachine();
-         } 
-         if (!session.getState().equals(SessionState.Unlocked)) {
-            checkSessionIsUnlocked(session, 5, 3L, TimeUnit.SECONDS);
+         ISession session = checkNotNull(lockSession(immutableMachine, machineId, type, sessionStates), "session");
+         try {
+            return function.apply(session);
+         } catch (VBoxException e) {
+            throw new RuntimeException(String.format("error applying %s to %s with %s lock: %s", function, machineId,
+                     type, e.getMessage()), e);
+         } finally {
+            if (session.getState().equals(SessionState.Locked)) {
+               session.unlockMachine();
+            }
+            checkState(awaitSessionState(session, SessionState.Unlocked, sessionStates, UNLOCK_TIMEOUT_MILLIS),
+                     "timed out waiting for session on %s to be unlocked", machineId);
          }
+      } finally {
+         sessionStates.close();
       }
    }
 
-   private ISession lockSession(String machineId, LockType type, int retries) {
+   private ISession lockSession(IMachine immutableMachine, String machineId, LockType type,
+            SessionStateListener sessionStates) {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LOCK_TIMEOUT_MILLIS);
+      long backoffMillis = MIN_BACKOFF_MILLIS;
       int count = 0;
-      IMachine immutableMachine = manager.get().getVBox().findMachine(machineId);
       ISession session;
       while (true) {
          try {
@@ -221,16 +227,43 @@ public class MachineUtils {
                return null;
             }
             count++;
-            logger.debug("Could not lock machine (try %d of %d). Error: %s", count, retries, e.getMessage());
-            if (count == retries) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            logger.debug("Could not lock machine (try %d, %dms left). Error: %s", count, remainingMillis,
+                     e.getMessage());
+            if (remainingMillis <= 0) {
                throw new RuntimeException(String.format("error locking %s with %s lock: %s", machineId, type,
                         e.getMessage()), e);
             }
-            Uninterruptibles.sleepUninterruptibly(1, TimeUnit.SECONDS);
+            // the machine is usually locked by another session: retry as soon as its state changes
+            sessionStates.awaitChange(Math.min(backoffMillis, remainingMillis), TimeUnit.MILLISECONDS);
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+         }
+      }
+      // shared locks do not always report the locked state immediately
+      checkState(awaitSessionState(session, SessionState.Locked, sessionStates, LOCK_TIMEOUT_MILLIS),
+               "timed out waiting for session on %s to be locked", machineId);
+      return session;
+   }
+
+   /**
+    * Waits for the session to reach the given state, checking it again whenever VirtualBox reports
+    * a session state change of the machine, and at least with an increasing backoff.
+    * 
+    * @return true if the session reached the state before the timeout
+    */
+   private static boolean awaitSessionState(ISession session, SessionState state, SessionStateListener sessionStates,
+            long timeoutMillis) {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      long backoffMillis = MIN_BACKOFF_MILLIS;
+      while (!session.getState().equals(state)) {
+         long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+         if (remainingMillis <= 0) {
+            return false;
          }
+         sessionStates.awaitChange(Math.min(backoffMillis, remainingMillis), TimeUnit.MILLISECONDS);
+         backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
       }
-      checkState(session.getState().equals(SessionState.Locked));
-      return checkNotNull(session, "session");
+      return true;
    }
 
    /**
@@ -258,23 +291,4 @@ public class MachineUtils {
                || e.getMessage().contains("Could not find a registered machine with UUID {");
    }
 
-   private void checkSessionIsUnlocked(ISession session, int attempts, long period, TimeUnit timeUnit) {
-      checkState(
-            retry(new SessionStatePredicate(session), attempts * period, period, timeUnit).apply(SessionState.Unlocked),
-            "timed out or number of retries(%s) reached waiting for session to be unlocked", attempts);
-   }
-
-   private static class SessionStatePredicate implements Predicate<SessionState> {
-      private final ISession session;
-      
-      SessionStatePredicate(ISession session) {
-         this.session = session;
-      }
-      
-      @Override
-      public boolean apply(SessionState input) {
-         return session.getState().equals(input);
-      }
-   }
-
 }
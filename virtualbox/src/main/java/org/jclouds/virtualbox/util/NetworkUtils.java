@@ -139,7 +139,11 @@ public class NetworkUtils {
       return NetworkSpec.builder().addNIC(hostOnlyIfaceCard).addNIC(natIfaceCard).build();
    }
 
-   public String getHostOnlyIfOrCreate() {
+   /**
+    * Returns the name of a host-only interface with dhcp enabled, creating one if there is none.
+    * Synchronized so that nodes created concurrently do not each create their own interface.
+    */
+   public synchronized String getHostOnlyIfOrCreate() {
       IHostNetworkInterface availableHostInterfaceIf = returnExistingHostNetworkInterfaceWithDHCPenabledOrNull(manager
             .get().getVBox().getHost().getNetworkInterfaces());
       if (availableHostInterfaceIf == null) {
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.virtualbox.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.logging.Logger;
+import org.virtualbox_4_2.IEvent;
+import org.virtualbox_4_2.IEventListener;
+import org.virtualbox_4_2.IEventSource;
+import org.virtualbox_4_2.ISessionStateChangedEvent;
+import org.virtualbox_4_2.IVirtualBox;
+import org.virtualbox_4_2.VBoxEventType;
+import org.virtualbox_4_2.VBoxException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Listens to the session state changes of one machine, so that callers waiting for a machine to be locked or
+ * unlocked wake up as soon as VirtualBox reports a transition, instead of sleeping for a fixed period.
+ * <p/>
+ * The web service only supports passive listeners, so events are pulled with {@link IEventSource#getEvent}. When the
+ * listener cannot be registered, {@link #awaitChange} simply sleeps for the given timeout and callers keep working by
+ * polling.
+ */
+class SessionStateListener {
+
+   private final String machineId;
+   private final IEventSource eventSource;
+   private final IEventListener listener;
+   private final Logger logger;
+
+   private SessionStateListener(String machineId, IEventSource eventSource, IEventListener listener, Logger logger) {
+      this.machineId = machineId;
+      this.eventSource = eventSource;
+      this.listener = listener;
+      this.logger = logger;
+   }
+
+   /**
+    * Starts listening to the session state changes of the machine with the given id. The listener must be
+    * {@link #close() closed} once done.
+    */
+   static SessionStateListener register(IVirtualBox vbox, String machineId, Logger logger) {
+      checkNotNull(machineId, "machineId");
+      try {
+         IEventSource eventSource = vbox.getEventSource();
+         if (eventSource != null) {
+            IEventListener listener = eventSource.createListener();
+            eventSource.registerListener(listener, ImmutableList.of(VBoxEventType.OnSessionStateChanged), false);
+            return new SessionStateListener(machineId, eventSource, listener, logger);
+         }
+      } catch (VBoxException e) {
+         logger.debug("Could not listen to session state changes of machine %s: %s", machineId, e.getMessage());
+      }
+      return new SessionStateListener(machineId, null, null, logger);
+   }
+
+   /**
+    * Waits until the session state of the machine changes, or the timeout elapses.
+    * 
+    * @return true if a state change was reported, false on timeout
+    */
+   boolean awaitChange(long timeout, TimeUnit unit) {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      if (listener != null) {
+         try {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+               int timeoutMillis = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+               IEvent event = eventSource.getEvent(listener, timeoutMillis);
+               if (event == null) {
+                  return false;
+               }
+               try {
+                  ISessionStateChangedEvent change = ISessionStateChangedEvent.queryInterface(event);
+                  if (change != null && machineId.equals(change.getMachineId())) {
+                     logger.trace("Session state of machine %s changed to %s", machineId, change.getState());
+                     return true;
+                  }
+               } finally {
+                  eventSource.eventProcessed(listener, event);
+               }
+            }
+            return false;
+         } catch (VBoxException e) {
+            logger.debug("Could not read session state changes of machine %s: %s", machineId, e.getMessage());
+         }
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining > 0) {
+         Uninterruptibles.sleepUninterruptibly(remaining, TimeUnit.NANOSECONDS);
+      }
+      return false;
+   }
+
+   void close() {
+      if (listener != null) {
+         try {
+            eventSource.unregisterListener(listener);
+         } catch (VBoxException e) {
+            logger.debug("Could not unregister the session state listener of machine %s: %s", machineId,
+                  e.getMessage());
+         }
+      }
+   }
+}
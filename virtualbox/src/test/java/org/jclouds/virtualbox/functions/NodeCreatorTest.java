@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.virtualbox.functions;
+
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.GUEST_OS_PASSWORD;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.GUEST_OS_USER;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_IMAGE_PREFIX;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_NODE_NAME_SEPARATOR;
+import static org.jclouds.virtualbox.config.VirtualBoxConstants.VIRTUALBOX_NODE_PREFIX;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.IAnswer;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.virtualbox.domain.CloneSpec;
+import org.jclouds.virtualbox.domain.Master;
+import org.jclouds.virtualbox.domain.NetworkSpec;
+import org.jclouds.virtualbox.domain.NodeSpec;
+import org.jclouds.virtualbox.util.MachineController;
+import org.jclouds.virtualbox.util.MachineUtils;
+import org.jclouds.virtualbox.util.NetworkUtils;
+import org.testng.annotations.Test;
+import org.virtualbox_4_2.IConsole;
+import org.virtualbox_4_2.IMachine;
+import org.virtualbox_4_2.IProgress;
+import org.virtualbox_4_2.ISession;
+import org.virtualbox_4_2.ISnapshot;
+import org.virtualbox_4_2.MachineState;
+import org.virtualbox_4_2.VirtualBoxManager;
+
+import com.google.common.base.Function;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+@Test(groups = "unit", testName = "NodeCreatorTest")
+public class NodeCreatorTest {
+
+   private static final String MASTER_NAME = VIRTUALBOX_IMAGE_PREFIX + "master";
+
+   public void testConcurrentNodesTakeTheMasterSnapshotOnce() throws Exception {
+      final int maxConcurrentNodeCreations = 2;
+      final int nodes = 4;
+      final AtomicInteger snapshotsTaken = new AtomicInteger();
+      final ISnapshot snapshot = createNiceMock(ISnapshot.class);
+
+      IMachine master = masterMachine();
+      expect(master.getCurrentSnapshot()).andAnswer(new IAnswer<ISnapshot>() {
+         @Override
+         public ISnapshot answer() {
+            return snapshotsTaken.get() > 0 ? snapshot : null;
+         }
+      }).anyTimes();
+      expect(master.getState()).andReturn(MachineState.PoweredOff).anyTimes();
+
+      IConsole console = createNiceMock(IConsole.class);
+      expect(console.takeSnapshot(anyString(), anyString())).andAnswer(new IAnswer<IProgress>() {
+         @Override
+         public IProgress answer() throws Exception {
+            // leave time for the other nodes to look for the snapshot
+            TimeUnit.MILLISECONDS.sleep(100);
+            snapshotsTaken.incrementAndGet();
+            return createNiceMock(IProgress.class);
+         }
+      }).anyTimes();
+      ISession session = createNiceMock(ISession.class);
+      expect(session.getConsole()).andReturn(console).anyTimes();
+      VirtualBoxManager manager = createNiceMock(VirtualBoxManager.class);
+      expect(manager.openMachineSession(master)).andReturn(session).anyTimes();
+
+      replay(snapshot, master, console, session, manager);
+
+      // the clones meet in pairs, so the test only passes if the nodes are created concurrently
+      RecordingCloner cloner = new RecordingCloner(new CyclicBarrier(maxConcurrentNodeCreations));
+      final NodeCreator nodeCreator = new NodeCreator(Suppliers.ofInstance(manager), cloner, machineUtils(),
+            machineController(), networkUtils(), "512", "/tmp", maxConcurrentNodeCreations);
+      final Master masterSpec = Master.builder().machine(master).build();
+
+      final CountDownLatch start = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(nodes);
+      try {
+         List<Future<NodeAndInitialCredentials<IMachine>>> created = Lists.newArrayList();
+         for (int i = 0; i < nodes; i++) {
+            final String name = "node" + i;
+            created.add(executor.submit(new Callable<NodeAndInitialCredentials<IMachine>>() {
+               @Override
+               public NodeAndInitialCredentials<IMachine> call() throws Exception {
+                  start.await();
+                  return nodeCreator.apply(NodeSpec.builder().master(masterSpec).tag("group").name(name).build());
+               }
+            }));
+         }
+         start.countDown();
+         ImmutableSet.Builder<String> nodeIds = ImmutableSet.builder();
+         for (Future<NodeAndInitialCredentials<IMachine>> node : created) {
+            NodeAndInitialCredentials<IMachine> result = node.get(30, TimeUnit.SECONDS);
+            assertEquals(result.getCredentials().getUser(), "toor");
+            nodeIds.add(result.getNodeId());
+         }
+         assertEquals(nodeIds.build(), ImmutableSet.of(cloneName("node0"), cloneName("node1"), cloneName("node2"),
+               cloneName("node3")));
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertEquals(snapshotsTaken.get(), 1);
+      assertEquals(cloner.maxConcurrentClones.get(), maxConcurrentNodeCreations);
+   }
+
+   public void testExistingMasterSnapshotIsReused() {
+      IMachine master = masterMachine();
+      expect(master.getCurrentSnapshot()).andReturn(createNiceMock(ISnapshot.class)).anyTimes();
+      // no machine session is opened on the master
+      VirtualBoxManager manager = createMock(VirtualBoxManager.class);
+      replay(master, manager);
+
+      RecordingCloner cloner = new RecordingCloner(null);
+      NodeCreator nodeCreator = new NodeCreator(Suppliers.ofInstance(manager), cloner, machineUtils(),
+            machineController(), networkUtils(), "512", "/tmp", 4);
+      Master masterSpec = Master.builder().machine(master).build();
+
+      nodeCreator.apply(NodeSpec.builder().master(masterSpec).tag("group").name("node0").build());
+      nodeCreator.apply(NodeSpec.builder().master(masterSpec).tag("group").name("node1").build());
+
+      verify(manager);
+      assertEquals(cloner.clones, ImmutableSet.of(cloneName("node0"), cloneName("node1")));
+   }
+
+   private static String cloneName(String node) {
+      return VIRTUALBOX_NODE_PREFIX + "master" + VIRTUALBOX_NODE_NAME_SEPARATOR + "group"
+            + VIRTUALBOX_NODE_NAME_SEPARATOR + node;
+   }
+
+   private static IMachine masterMachine() {
+      IMachine master = createNiceMock(IMachine.class);
+      expect(master.getName()).andReturn(MASTER_NAME).anyTimes();
+      expect(master.getOSTypeId()).andReturn("Other").anyTimes();
+      expect(master.getExtraData(GUEST_OS_USER)).andReturn("toor").anyTimes();
+      expect(master.getExtraData(GUEST_OS_PASSWORD)).andReturn("password").anyTimes();
+      return master;
+   }
+
+   private static MachineUtils machineUtils() {
+      MachineUtils machineUtils = createNiceMock(MachineUtils.class);
+      replay(machineUtils);
+      return machineUtils;
+   }
+
+   private static MachineController machineController() {
+      MachineController machineController = createNiceMock(MachineController.class);
+      replay(machineController);
+      return machineController;
+   }
+
+   private static NetworkUtils networkUtils() {
+      NetworkUtils networkUtils = createNiceMock(NetworkUtils.class);
+      expect(networkUtils.createNetworkSpecWhenVboxIsLocalhost()).andReturn(NetworkSpec.builder().build())
+            .anyTimes();
+      expect(networkUtils.getValidHostOnlyIpFromVm(anyString())).andReturn("192.168.56.10").anyTimes();
+      replay(networkUtils);
+      return networkUtils;
+   }
+
+   private static final class RecordingCloner implements Function<CloneSpec, IMachine> {
+      private final CyclicBarrier barrier;
+      private final AtomicInteger concurrentClones = new AtomicInteger();
+      private final AtomicInteger maxConcurrentClones = new AtomicInteger();
+      private final Set<String> clones = Sets.newConcurrentHashSet();
+
+      private RecordingCloner(CyclicBarrier barrier) {
+         this.barrier = barrier;
+      }
+
+      @Override
+      public IMachine apply(CloneSpec cloneSpec) {
+         assertTrue(cloneSpec.isLinked());
+         String name = cloneSpec.getVmSpec().getVmName();
+         int concurrent = concurrentClones.incrementAndGet();
+         try {
+            synchronized (maxConcurrentClones) {
+               maxConcurrentClones.set(Math.max(maxConcurrentClones.get(), concurrent));
+            }
+            if (barrier != null) {
+               barrier.await(10, TimeUnit.SECONDS);
+            }
+         } catch (Exception e) {
+            throw new AssertionError("the nodes were not created concurrently: " + e);
+         } finally {
+            concurrentClones.decrementAndGet();
+         }
+         clones.add(name);
+         IMachine clone = createNiceMock(IMachine.class);
+         expect(clone.getName()).andReturn(name).anyTimes();
+         expect(clone.getOSTypeId()).andReturn("Other").anyTimes();
+         expect(clone.getState()).andReturn(MachineState.Running).anyTimes();
+         replay(clone);
+         return clone;
+      }
+   }
+}
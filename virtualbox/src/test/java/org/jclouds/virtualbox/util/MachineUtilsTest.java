@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.virtualbox.util;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+import org.virtualbox_4_2.IMachine;
+import org.virtualbox_4_2.ISession;
+import org.virtualbox_4_2.IVirtualBox;
+import org.virtualbox_4_2.LockType;
+import org.virtualbox_4_2.SessionState;
+import org.virtualbox_4_2.VBoxException;
+import org.virtualbox_4_2.VirtualBoxManager;
+
+import com.google.common.base.Function;
+import com.google.common.base.Suppliers;
+
+@Test(groups = "unit", testName = "MachineUtilsTest")
+public class MachineUtilsTest {
+
+   public void testLockIsRetriedAndSessionStateTransitionsAreAwaited() {
+      VirtualBoxManager manager = createNiceMock(VirtualBoxManager.class);
+      IVirtualBox vBox = createNiceMock(IVirtualBox.class);
+      IMachine machine = createMock(IMachine.class);
+      ISession session = createMock(ISession.class);
+
+      expect(manager.getVBox()).andReturn(vBox).anyTimes();
+      expect(manager.getSessionObject()).andReturn(session).anyTimes();
+      expect(vBox.findMachine("vm")).andReturn(machine);
+      // no event source: state changes are polled
+      expect(vBox.getEventSource()).andReturn(null);
+      expect(machine.getId()).andReturn("id");
+
+      machine.lockMachine(session, LockType.Shared);
+      expectLastCall().andThrow(new VBoxException(createNiceMock(Throwable.class), "machine is already locked"));
+      machine.lockMachine(session, LockType.Shared);
+      // the shared lock is reported late, then released right away
+      expect(session.getState()).andReturn(SessionState.Unlocked).andReturn(SessionState.Locked).times(2)
+            .andReturn(SessionState.Unlocked);
+      session.unlockMachine();
+      replay(manager, vBox, machine, session);
+
+      String result = new MachineUtils(Suppliers.ofInstance(manager), null).sharedLockMachineAndApplyToSession("vm",
+            new Function<ISession, String>() {
+               @Override
+               public String apply(ISession input) {
+                  return "applied";
+               }
+            });
+
+      assertEquals(result, "applied");
+      verify(machine, session);
+   }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.virtualbox.util;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.IAnswer;
+import org.jclouds.compute.callables.RunScriptOnNode;
+import org.jclouds.compute.domain.ExecResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.options.RunScriptOptions;
+import org.jclouds.scriptbuilder.domain.OsFamily;
+import org.jclouds.scriptbuilder.domain.Statement;
+import org.testng.annotations.Test;
+import org.virtualbox_4_2.HostNetworkInterfaceType;
+import org.virtualbox_4_2.IDHCPServer;
+import org.virtualbox_4_2.IHost;
+import org.virtualbox_4_2.IHostNetworkInterface;
+import org.virtualbox_4_2.IVirtualBox;
+import org.virtualbox_4_2.VirtualBoxManager;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "NetworkUtilsTest")
+public class NetworkUtilsTest {
+
+   private static final String HOST_ONLY_IF = "vboxnet0";
+   private static final String HOST_ONLY_NETWORK = "HostInterfaceNetworking-vboxnet0";
+
+   public void testConcurrentCallsCreateASingleHostOnlyInterface() throws Exception {
+      final AtomicInteger createdInterfaces = new AtomicInteger();
+      final AtomicInteger createdDhcpServers = new AtomicInteger();
+
+      final IHostNetworkInterface hostOnlyIf = createNiceMock(IHostNetworkInterface.class);
+      expect(hostOnlyIf.getName()).andReturn(HOST_ONLY_IF).anyTimes();
+      expect(hostOnlyIf.getNetworkName()).andReturn(HOST_ONLY_NETWORK).anyTimes();
+      expect(hostOnlyIf.getInterfaceType()).andReturn(HostNetworkInterfaceType.HostOnly).anyTimes();
+      expect(hostOnlyIf.getIPAddress()).andReturn("192.168.56.1").anyTimes();
+
+      final IDHCPServer dhcpServer = createNiceMock(IDHCPServer.class);
+      expect(dhcpServer.getEnabled()).andReturn(true).anyTimes();
+      expect(dhcpServer.getNetworkName()).andReturn(HOST_ONLY_NETWORK).anyTimes();
+
+      IHost host = createNiceMock(IHost.class);
+      expect(host.getNetworkInterfaces()).andAnswer(new IAnswer<List<IHostNetworkInterface>>() {
+         @Override
+         public List<IHostNetworkInterface> answer() {
+            return createdInterfaces.get() > 0 ? ImmutableList.of(hostOnlyIf)
+                  : ImmutableList.<IHostNetworkInterface> of();
+         }
+      }).anyTimes();
+
+      IVirtualBox vBox = createNiceMock(IVirtualBox.class);
+      expect(vBox.getHost()).andReturn(host).anyTimes();
+      expect(vBox.getDHCPServers()).andAnswer(new IAnswer<List<IDHCPServer>>() {
+         @Override
+         public List<IDHCPServer> answer() {
+            return createdDhcpServers.get() > 0 ? ImmutableList.of(dhcpServer) : ImmutableList.<IDHCPServer> of();
+         }
+      }).anyTimes();
+
+      VirtualBoxManager manager = createNiceMock(VirtualBoxManager.class);
+      expect(manager.getVBox()).andReturn(vBox).anyTimes();
+
+      RunScriptOnNode.Factory scriptRunnerFactory = createNiceMock(RunScriptOnNode.Factory.class);
+      expect(scriptRunnerFactory.create(anyObject(NodeMetadata.class), anyObject(Statement.class),
+            anyObject(RunScriptOptions.class))).andAnswer(new IAnswer<RunScriptOnNode>() {
+         @Override
+         public RunScriptOnNode answer() throws Exception {
+            Statement statement = (Statement) getCurrentArguments()[1];
+            if (statement.render(OsFamily.UNIX).contains("hostonlyif create")) {
+               return scriptRunner(new IAnswer<ExecResponse>() {
+                  @Override
+                  public ExecResponse answer() throws Exception {
+                     // leave time for the other callers to look for the interface
+                     TimeUnit.MILLISECONDS.sleep(100);
+                     createdInterfaces.incrementAndGet();
+                     return new ExecResponse("Interface '" + HOST_ONLY_IF + "' was successfully created", "", 0);
+                  }
+               });
+            }
+            return scriptRunner(new IAnswer<ExecResponse>() {
+               @Override
+               public ExecResponse answer() {
+                  createdDhcpServers.incrementAndGet();
+                  return new ExecResponse("", "", 0);
+               }
+            });
+         }
+      }).anyTimes();
+
+      replay(hostOnlyIf, dhcpServer, host, vBox, manager, scriptRunnerFactory);
+
+      NodeMetadata hostNode = new NodeMetadataBuilder().id("host").status(NodeMetadata.Status.RUNNING).build();
+      final NetworkUtils networkUtils = new NetworkUtils(Suppliers.ofInstance(manager), null,
+            Suppliers.ofInstance(hostNode), Suppliers.ofInstance(URI.create("http://localhost:18083/")), null,
+            Suppliers.ofInstance(hostNode), scriptRunnerFactory);
+
+      int threads = 4;
+      final CountDownLatch start = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+         List<Future<String>> names = Lists.newArrayList();
+         for (int i = 0; i < threads; i++) {
+            names.add(executor.submit(new Callable<String>() {
+               @Override
+               public String call() throws Exception {
+                  start.await();
+                  return networkUtils.getHostOnlyIfOrCreate();
+               }
+            }));
+         }
+         start.countDown();
+         for (Future<String> name : names) {
+            assertEquals(name.get(10, TimeUnit.SECONDS), HOST_ONLY_IF);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertEquals(createdInterfaces.get(), 1);
+      assertEquals(createdDhcpServers.get(), 1);
+   }
+
+   private static RunScriptOnNode scriptRunner(IAnswer<ExecResponse> response) throws Exception {
+      RunScriptOnNode scriptRunner = createNiceMock(RunScriptOnNode.class);
+      expect(scriptRunner.init()).andReturn(scriptRunner);
+      expect(scriptRunner.call()).andAnswer(response);
+      replay(scriptRunner);
+      return scriptRunner;
+   }
+}